@@ -0,0 +1,439 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * RMap for ResultSet rows, which keeps the values in an array and shares the key dictionary with all rows of the same ResultSet.
+ * Keys that are not in the dictionary are kept in an additional map. The row is serialized as a plain RMap.
+ * <p>
+ * The values are not kept in the table of HashMap, so all public methods of HashMap must be overridden. Java 8 and later 
+ * add methods with java.util.function parameters, which can't be overridden here, check {@link #isSupported()} before 
+ * creating rows.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class CompactRMap extends RMap<String, Object> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Marks a removed key of the dictionary.
+	 */
+	private static final Object ABSENT = new Object();
+
+	private final Keys keys;
+
+	private final Object[] values;
+
+	private int absents;
+
+	private Map<String, Object> extra;
+
+	/**
+	 * Whether all public methods of HashMap in the runtime are overridden.
+	 */
+	private static final boolean SUPPORTED = checkSupported();
+
+	// -------------constructor
+	public CompactRMap(Keys keys) {
+		super(1);
+		this.keys = keys;
+		this.values = new Object[keys.size()];
+	}
+
+	private CompactRMap(Keys keys, Object[] values, int absents, Map<String, Object> extra) {
+		super(1);
+		this.keys = keys;
+		this.values = values;
+		this.absents = absents;
+		this.extra = extra;
+	}
+
+	/**
+	 * Returns true if the rows can be used in the current runtime, false if HashMap has public methods that are not overridden, 
+	 * such as forEach and computeIfAbsent of Java 8, which would read the empty table of HashMap.
+	 */
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	private static boolean checkSupported() {
+		Method[] methods = HashMap.class.getDeclaredMethods();
+		for (int i = 0; i < methods.length; i++) {
+			int modifiers = methods[i].getModifiers();
+			if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers))
+				continue;
+			try {
+				if (CompactRMap.class.getMethod(methods[i].getName(), methods[i].getParameterTypes()).getDeclaringClass() != CompactRMap.class)
+					return false;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// -------------column access
+	/**
+	 * Sets the value of the specified column, starting from 0.
+	 */
+	public void setColumn(int column, Object value) {
+		int slot = keys.slotOf(column);
+		if (values[slot] == ABSENT)
+			absents--;
+		values[slot] = value;
+	}
+
+	public Keys getKeys() {
+		return keys;
+	}
+
+	// -------------map
+	public int size() {
+		return values.length - absents + (extra == null ? 0 : extra.size());
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(Object key) {
+		int slot = keys.indexOf(key);
+		if (slot >= 0)
+			return values[slot] != ABSENT;
+		return extra != null && extra.containsKey(key);
+	}
+
+	public boolean containsValue(Object value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != ABSENT && (value == null ? values[i] == null : value.equals(values[i])))
+				return true;
+		}
+		return extra != null && extra.containsValue(value);
+	}
+
+	public Object get(Object key) {
+		int slot = keys.indexOf(key);
+		if (slot >= 0)
+			return values[slot] == ABSENT ? null : values[slot];
+		return extra == null ? null : extra.get(key);
+	}
+
+	/**
+	 * Returns the value of the key, or the default value if the key is absent, which overrides the method of Java 8.
+	 */
+	public Object getOrDefault(Object key, Object defaultValue) {
+		return containsKey(key) ? get(key) : defaultValue;
+	}
+
+	public Object put(String key, Object value) {
+		int slot = keys.indexOf(key);
+		if (slot >= 0) {
+			Object old = values[slot];
+			values[slot] = value;
+			if (old == ABSENT) {
+				absents--;
+				return null;
+			}
+			return old;
+		}
+
+		if (extra == null)
+			extra = new HashMap<String, Object>();
+		return extra.put(key, value);
+	}
+
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		for (Iterator<? extends Map.Entry<? extends String, ? extends Object>> iter = m.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<? extends String, ? extends Object> entry = iter.next();
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public Object remove(Object key) {
+		int slot = keys.indexOf(key);
+		if (slot >= 0) {
+			Object old = values[slot];
+			if (old == ABSENT)
+				return null;
+			values[slot] = ABSENT;
+			absents++;
+			return old;
+		}
+		return extra == null ? null : extra.remove(key);
+	}
+
+	/**
+	 * Removes the key if it's mapped to the value, which overrides the method of Java 8.
+	 */
+	public boolean remove(Object key, Object value) {
+		if (!containsKey(key))
+			return false;
+		Object current = get(key);
+		if (current == null ? value != null : !current.equals(value))
+			return false;
+		remove(key);
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(values, ABSENT);
+		absents = values.length;
+		extra = null;
+	}
+
+	public Object clone() {
+		return new CompactRMap(keys, values.clone(), absents, extra == null ? null : new HashMap<String, Object>(extra));
+	}
+
+	// -------------views
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			public int size() {
+				return CompactRMap.this.size();
+			}
+		};
+	}
+
+	public Set<String> keySet() {
+		return new AbstractSet<String>() {
+			public Iterator<String> iterator() {
+				final Iterator<Map.Entry<String, Object>> iter = new EntryIterator();
+				return new Iterator<String>() {
+					public boolean hasNext() {
+						return iter.hasNext();
+					}
+
+					public String next() {
+						return iter.next().getKey();
+					}
+
+					public void remove() {
+						iter.remove();
+					}
+				};
+			}
+
+			public int size() {
+				return CompactRMap.this.size();
+			}
+
+			public boolean contains(Object o) {
+				return containsKey(o);
+			}
+		};
+	}
+
+	public Collection<Object> values() {
+		return new AbstractCollection<Object>() {
+			public Iterator<Object> iterator() {
+				final Iterator<Map.Entry<String, Object>> iter = new EntryIterator();
+				return new Iterator<Object>() {
+					public boolean hasNext() {
+						return iter.hasNext();
+					}
+
+					public Object next() {
+						return iter.next().getValue();
+					}
+
+					public void remove() {
+						iter.remove();
+					}
+				};
+			}
+
+			public int size() {
+				return CompactRMap.this.size();
+			}
+		};
+	}
+
+	// -------------serialization
+	/**
+	 * Serializes the row as a plain RMap.
+	 */
+	protected Object writeReplace() {
+		return new RMap<String, Object>(this);
+	}
+
+	// -------------iterator
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private int next = 0;
+
+		private int last = -1;
+
+		private Iterator<Map.Entry<String, Object>> extraIterator;
+
+		EntryIterator() {
+			skipAbsents();
+		}
+
+		private void skipAbsents() {
+			while (next < values.length && values[next] == ABSENT)
+				next++;
+		}
+
+		public boolean hasNext() {
+			if (next < values.length)
+				return true;
+			if (extraIterator == null && extra != null)
+				extraIterator = extra.entrySet().iterator();
+			return extraIterator != null && extraIterator.hasNext();
+		}
+
+		public Map.Entry<String, Object> next() {
+			if (next < values.length) {
+				last = next++;
+				skipAbsents();
+				return new Entry(last);
+			}
+			if (!hasNext())
+				throw new NoSuchElementException();
+			last = -1;
+			return extraIterator.next();
+		}
+
+		public void remove() {
+			if (last >= 0) {
+				if (values[last] == ABSENT)
+					throw new IllegalStateException();
+				values[last] = ABSENT;
+				absents++;
+			} else if (extraIterator != null)
+				extraIterator.remove();
+			else
+				throw new IllegalStateException();
+		}
+	}
+
+	private class Entry implements Map.Entry<String, Object> {
+
+		private final int slot;
+
+		Entry(int slot) {
+			this.slot = slot;
+		}
+
+		public String getKey() {
+			return keys.getName(slot);
+		}
+
+		public Object getValue() {
+			return values[slot] == ABSENT ? null : values[slot];
+		}
+
+		public Object setValue(Object value) {
+			Object old = getValue();
+			if (values[slot] == ABSENT)
+				absents--;
+			values[slot] = value;
+			return old;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			Object value = getValue();
+			return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	// -------------key dictionary
+	/**
+	 * Key dictionary shared by the rows of a ResultSet. Duplicated column names share the same slot, the last column wins.
+	 */
+	public static class Keys implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String[] names;
+
+		private final int[] slots;
+
+		private final Map<String, Integer> index;
+
+		public Keys(String[] columnNames) {
+			this.slots = new int[columnNames.length];
+			this.index = new HashMap<String, Integer>(columnNames.length * 2);
+
+			int size = 0;
+			String[] unique = new String[columnNames.length];
+			for (int i = 0; i < columnNames.length; i++) {
+				Integer slot = index.get(columnNames[i]);
+				if (slot == null) {
+					slot = Integer.valueOf(size);
+					unique[size++] = columnNames[i];
+					index.put(columnNames[i], slot);
+				}
+				slots[i] = slot.intValue();
+			}
+			this.names = size == unique.length ? unique : Arrays.copyOf(unique, size);
+		}
+
+		public int size() {
+			return names.length;
+		}
+
+		public String getName(int slot) {
+			return names[slot];
+		}
+
+		/**
+		 * Returns the slot of the key, or -1 if the key is not in the dictionary.
+		 */
+		public int indexOf(Object key) {
+			Integer slot = index.get(key);
+			return slot == null ? -1 : slot.intValue();
+		}
+
+		/**
+		 * Returns the slot of the column, starting from 0.
+		 */
+		public int slotOf(int column) {
+			return slots[column];
+		}
+	}
+}
@@ -22,16 +22,31 @@ import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.rex.db.ColumnarResult;
+import org.rex.db.DBAsync;
+import org.rex.db.DBBatch;
 import org.rex.db.DBCall;
+import org.rex.db.DBLoader;
 import org.rex.db.DBQuery;
+import org.rex.db.DBSharding;
 import org.rex.db.DBTransaction;
 import org.rex.db.DBUpdate;
+import org.rex.db.JoinMapping;
+import org.rex.db.KeysetIterator;
+import org.rex.db.KeysetPage;
+import org.rex.db.Page;
 import org.rex.db.Ps;
+import org.rex.db.QueryOptions;
+import org.rex.db.RowHandler;
+import org.rex.db.SpillableList;
 import org.rex.db.configuration.Configuration;
 import org.rex.db.datasource.DataSourceManager;
 import org.rex.db.dialect.Dialect;
 import org.rex.db.dialect.DialectManager;
 import org.rex.db.exception.DBException;
+import org.rex.db.export.ResultSetExporter;
+import org.rex.db.shard.HashShardFunction;
+import org.rex.db.shard.ShardFunction;
 import org.rex.db.transaction.DefaultDefinition;
 
 /**
@@ -1100,6 +1115,560 @@ public class DB {
 	
 	
 
+	// ------------query with execution options
+	/**
+	 * Executes the given SQL with the execution options to the specified database and maps the JDBC ResultSet to a List of object that instanced 
+	 * from the specified class.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of object that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> List<T> getList(String dataSourceId, String sql, Object parameters, Class<T> resultClass, QueryOptions options) throws DBException {
+		return getDBQuery(dataSourceId).getList(sql, parameters, resultClass, options);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options to the specified database and maps the JDBC ResultSet to a List of Map.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of Map that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static List<RMap> getMapList(String dataSourceId, String sql, Object parameters, QueryOptions options) throws DBException {
+		return getDBQuery(dataSourceId).getMapList(sql, parameters, options);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options and maps the JDBC ResultSet to a List of object that instanced from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of object that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> List<T> getList(String sql, Object parameters, Class<T> resultClass, QueryOptions options) throws DBException {
+		return getDBQuery().getList(sql, parameters, resultClass, options);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options and maps the JDBC ResultSet to a List of Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of Map that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static List<RMap> getMapList(String sql, Object parameters, QueryOptions options) throws DBException {
+		return getDBQuery().getMapList(sql, parameters, options);
+	}
+
+	// ------------columnar query
+	/**
+	 * Executes the given SQL to the specified database and reads the JDBC ResultSet into columns, numeric columns are read into primitive arrays.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static ColumnarResult getColumns(String dataSourceId, String sql, Object parameters) throws DBException {
+		return getDBQuery(dataSourceId).getColumns(sql, parameters);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options to the specified database and reads the JDBC ResultSet into columns.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static ColumnarResult getColumns(String dataSourceId, String sql, Object parameters, QueryOptions options) throws DBException {
+		return getDBQuery(dataSourceId).getColumns(sql, parameters, options);
+	}
+
+	/**
+	 * Executes the given SQL and reads the JDBC ResultSet into columns, numeric columns are read into primitive arrays.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static ColumnarResult getColumns(String sql, Object parameters) throws DBException {
+		return getDBQuery().getColumns(sql, parameters);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options and reads the JDBC ResultSet into columns.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static ColumnarResult getColumns(String sql, Object parameters, QueryOptions options) throws DBException {
+		return getDBQuery().getColumns(sql, parameters, options);
+	}
+
+	// ------------page with the total rows
+	/**
+	 * Executes the given SQL to the specified database and maps a page of the JDBC ResultSet to a List of the specified class, 
+	 * with the total rows of the query.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> Page<T> getPage(String dataSourceId, String sql, Object parameters, Class<T> resultClass, int offset, int rows) throws DBException {
+		return getDBQuery(dataSourceId).getPage(sql, parameters, resultClass, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL and maps a page of the JDBC ResultSet to a List of the specified class, with the total rows of the query.
+	 * The total is counted by 'COUNT(*) OVER()' in the same query if the dialect supports window functions, otherwise by a count query.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> Page<T> getPage(String sql, Object parameters, Class<T> resultClass, int offset, int rows) throws DBException {
+		return getDBQuery().getPage(sql, parameters, resultClass, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL to the specified database and maps a page of the JDBC ResultSet to a List of Map, 
+	 * with the total rows of the query.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static Page<RMap> getMapPage(String dataSourceId, String sql, Object parameters, int offset, int rows) throws DBException {
+		return getDBQuery(dataSourceId).getMapPage(sql, parameters, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL and maps a page of the JDBC ResultSet to a List of Map, with the total rows of the query.
+	 * The total is counted by 'COUNT(*) OVER()' in the same query if the dialect supports window functions, otherwise by a count query.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static Page<RMap> getMapPage(String sql, Object parameters, int offset, int rows) throws DBException {
+		return getDBQuery().getMapPage(sql, parameters, offset, rows);
+	}
+
+	// ------------spillable results
+	/**
+	 * Executes the given SQL to the specified database and maps the JDBC ResultSet to a List of the specified class, 
+	 * rows beyond the memory threshold are written to a temporary file.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> SpillableList<T> getSpillableList(String dataSourceId, String sql, Object parameters, Class<T> resultClass, QueryOptions options, long memoryThreshold) throws DBException {
+		return getDBQuery(dataSourceId).getSpillableList(sql, parameters, resultClass, options, memoryThreshold);
+	}
+
+	/**
+	 * Executes the given SQL and maps the JDBC ResultSet to a List of the specified class, 
+	 * rows beyond the memory threshold are written to a temporary file.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> SpillableList<T> getSpillableList(String sql, Object parameters, Class<T> resultClass, QueryOptions options, long memoryThreshold) throws DBException {
+		return getDBQuery().getSpillableList(sql, parameters, resultClass, options, memoryThreshold);
+	}
+
+	/**
+	 * Executes the given SQL to the specified database and maps the JDBC ResultSet to a List of Map, 
+	 * rows beyond the memory threshold are written to a temporary file.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static SpillableList<RMap> getSpillableMapList(String dataSourceId, String sql, Object parameters, QueryOptions options, long memoryThreshold) throws DBException {
+		return getDBQuery(dataSourceId).getSpillableMapList(sql, parameters, options, memoryThreshold);
+	}
+
+	/**
+	 * Executes the given SQL and maps the JDBC ResultSet to a List of Map, rows beyond the memory threshold are written to a temporary file.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static SpillableList<RMap> getSpillableMapList(String sql, Object parameters, QueryOptions options, long memoryThreshold) throws DBException {
+		return getDBQuery().getSpillableMapList(sql, parameters, options, memoryThreshold);
+	}
+
+	// ------------keyset pagination
+	/**
+	 * Executes the given SQL to the specified database with keyset pagination and maps the page to a List of the specified class.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> KeysetPage<T> getKeysetPage(String dataSourceId, String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return getDBQuery(dataSourceId).getKeysetPage(sql, parameters, resultClass, keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Executes the given SQL with keyset pagination and maps the page to a List of the specified class, 
+	 * the rows after the last keys are sought in the order of the keys, instead of skipping an offset.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> KeysetPage<T> getKeysetPage(String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return getDBQuery().getKeysetPage(sql, parameters, resultClass, keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Executes the given SQL to the specified database with keyset pagination and maps the page to a List of Map.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static KeysetPage<RMap> getKeysetMapPage(String dataSourceId, String sql, Object parameters, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return getDBQuery(dataSourceId).getKeysetMapPage(sql, parameters, keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Executes the given SQL with keyset pagination and maps the page to a List of Map, 
+	 * the rows after the last keys are sought in the order of the keys, instead of skipping an offset.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static KeysetPage<RMap> getKeysetMapPage(String sql, Object parameters, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return getDBQuery().getKeysetMapPage(sql, parameters, keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL in the specified database, which are queried page by page with keyset pagination.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded.
+	 */
+	public static <T> KeysetIterator<T> iterateKeyset(String dataSourceId, String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, int pageSize) throws DBException {
+		return getDBQuery(dataSourceId).iterateKeyset(sql, parameters, resultClass, keys, descending, pageSize);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL, which are mapped to the specified class and queried page by page with keyset pagination.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded.
+	 */
+	public static <T> KeysetIterator<T> iterateKeyset(String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, int pageSize) throws DBException {
+		return getDBQuery().iterateKeyset(sql, parameters, resultClass, keys, descending, pageSize);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL in the specified database, which are mapped to Map and queried page by page.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded.
+	 */
+	public static KeysetIterator<RMap> iterateKeysetMaps(String dataSourceId, String sql, Object parameters, String[] keys, boolean descending, int pageSize) throws DBException {
+		return getDBQuery(dataSourceId).iterateKeysetMaps(sql, parameters, keys, descending, pageSize);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL, which are mapped to Map and queried page by page with keyset pagination.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded.
+	 */
+	public static KeysetIterator<RMap> iterateKeysetMaps(String sql, Object parameters, String[] keys, boolean descending, int pageSize) throws DBException {
+		return getDBQuery().iterateKeysetMaps(sql, parameters, keys, descending, pageSize);
+	}
+
+	// ------------query with row handler
+	/**
+	 * Executes the given SQL to the specified database and passes each row of the JDBC ResultSet, mapped to an object that instanced 
+	 * from the specified class, to the handler.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows, LOB streams of a row are valid until the handler returns.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> void query(String dataSourceId, String sql, Object parameters, Class<T> resultClass, QueryOptions options, RowHandler<? super T> rowHandler) throws DBException {
+		getDBQuery(dataSourceId).query(sql, parameters, resultClass, options, rowHandler);
+	}
+
+	/**
+	 * Executes the given SQL to the specified database and passes each row of the JDBC ResultSet, mapped to a Map, to the handler.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static void queryMap(String dataSourceId, String sql, Object parameters, QueryOptions options, RowHandler<? super RMap> rowHandler) throws DBException {
+		getDBQuery(dataSourceId).queryMap(sql, parameters, options, rowHandler);
+	}
+
+	/**
+	 * Executes the given SQL and passes each row of the JDBC ResultSet, mapped to an object that instanced from the specified class, to the handler.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows, LOB streams of a row are valid until the handler returns.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <T> void query(String sql, Object parameters, Class<T> resultClass, QueryOptions options, RowHandler<? super T> rowHandler) throws DBException {
+		getDBQuery().query(sql, parameters, resultClass, options, rowHandler);
+	}
+
+	/**
+	 * Executes the given SQL and passes each row of the JDBC ResultSet, mapped to a Map, to the handler.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static void queryMap(String sql, Object parameters, QueryOptions options, RowHandler<? super RMap> rowHandler) throws DBException {
+		getDBQuery().queryMap(sql, parameters, options, rowHandler);
+	}
+
+	// ------------joined query
+	/**
+	 * Executes the given joined SQL to the specified database and maps the JDBC ResultSet to a List of parents with nested children.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that joins the parents and the children, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @return a list of parents in the order of the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <P, C> List<P> getJoinedList(String dataSourceId, String sql, Object parameters, JoinMapping<P, C> mapping) throws DBException {
+		return getDBQuery(dataSourceId).getJoinedList(sql, parameters, mapping);
+	}
+
+	/**
+	 * Executes the given joined SQL and maps the JDBC ResultSet to a List of parents with nested children.
+	 * 
+	 * @param sql an SQL that joins the parents and the children, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @return a list of parents in the order of the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <P, C> List<P> getJoinedList(String sql, Object parameters, JoinMapping<P, C> mapping) throws DBException {
+		return getDBQuery().getJoinedList(sql, parameters, mapping);
+	}
+
+	/**
+	 * Executes the given joined SQL to the specified database and passes each parent to the handler after all of its children have been read.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that joins the parents and the children, and is ordered by the parent keys.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the parents.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <P, C> void queryJoined(String dataSourceId, String sql, Object parameters, JoinMapping<P, C> mapping, QueryOptions options, RowHandler<? super P> rowHandler) throws DBException {
+		getDBQuery(dataSourceId).queryJoined(sql, parameters, mapping, options, rowHandler);
+	}
+
+	/**
+	 * Executes the given joined SQL and passes each parent to the handler after all of its children have been read.
+	 * 
+	 * @param sql an SQL that joins the parents and the children, and is ordered by the parent keys.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the parents.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public static <P, C> void queryJoined(String sql, Object parameters, JoinMapping<P, C> mapping, QueryOptions options, RowHandler<? super P> rowHandler) throws DBException {
+		getDBQuery().queryJoined(sql, parameters, mapping, options, rowHandler);
+	}
+
+	// ------------export
+	/**
+	 * Executes the given SQL to the specified database and writes the rows of the JDBC ResultSet with the exporter as they are read.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param exporter exporter of the rows, such as a CsvExporter or a JsonLinesExporter.
+	 * @return the number of exported rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, couldn't write the rows, etc.
+	 */
+	public static int export(String dataSourceId, String sql, Object parameters, QueryOptions options, ResultSetExporter exporter) throws DBException {
+		return getDBQuery(dataSourceId).export(sql, parameters, options, exporter);
+	}
+
+	/**
+	 * Executes the given SQL and writes the rows of the JDBC ResultSet with the exporter as they are read, without mapping them to objects.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param exporter exporter of the rows, such as a CsvExporter or a JsonLinesExporter.
+	 * @return the number of exported rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, couldn't write the rows, etc.
+	 */
+	public static int export(String sql, Object parameters, QueryOptions options, ResultSetExporter exporter) throws DBException {
+		return getDBQuery().export(sql, parameters, options, exporter);
+	}
+
 	// --------------------------------------------- UPDATE
 	// ------------specified dataSource
 
@@ -1254,6 +1823,36 @@ public class DB {
 		return getDBUpdate(dataSourceId).batchUpdate(sql, parameterList);
 	}
 
+	// ------------upsert
+	/**
+	 * Inserts the row to the specified database, or updates the other columns of the row that has the same keys, by the MERGE, 
+	 * 'INSERT ... ON CONFLICT' or 'INSERT ... ON DUPLICATE KEY UPDATE' SQL of the dialect.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param table the table name.
+	 * @param row a Map or java bean, the columns are the keys of the Map or the properties of the java bean.
+	 * @param keys columns of the primary key or an unique key.
+	 * @return the affected row count, which is counted differently by the databases.
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, etc.
+	 */
+	public static int upsert(String dataSourceId, String table, Object row, String[] keys) throws DBException {
+		return getDBUpdate(dataSourceId).upsert(table, row, keys);
+	}
+
+	/**
+	 * Inserts or updates the rows of the specified database in one batch by the upsert SQL of the dialect.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param table the table name.
+	 * @param rows a list of Map or java bean, the columns are read from the first row.
+	 * @param keys columns of the primary key or an unique key.
+	 * @return an array of update counts containing one element for each row.
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, etc.
+	 */
+	public static int[] batchUpsert(String dataSourceId, String table, List<?> rows, String[] keys) throws DBException {
+		return getDBUpdate(dataSourceId).batchUpsert(table, rows, keys);
+	}
+
 	// ------------default dataSource
 	/**
 	 * Executes the given SQL, which may be an INSERT, UPDATE, DELETE or an SQL that returns nothing, such as an SQL DDL.
@@ -1395,6 +1994,34 @@ public class DB {
 		return getDBUpdate().batchUpdate(sql, parameterList);
 	}
 
+	// ------------upsert
+	/**
+	 * Inserts the row to the default database, or updates the other columns of the row that has the same keys, by the MERGE, 
+	 * 'INSERT ... ON CONFLICT' or 'INSERT ... ON DUPLICATE KEY UPDATE' SQL of the dialect.
+	 * 
+	 * @param table the table name.
+	 * @param row a Map or java bean, the columns are the keys of the Map or the properties of the java bean.
+	 * @param keys columns of the primary key or an unique key.
+	 * @return the affected row count, which is counted differently by the databases.
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, etc.
+	 */
+	public static int upsert(String table, Object row, String[] keys) throws DBException {
+		return getDBUpdate().upsert(table, row, keys);
+	}
+
+	/**
+	 * Inserts or updates the rows of the default database in one batch by the upsert SQL of the dialect.
+	 * 
+	 * @param table the table name.
+	 * @param rows a list of Map or java bean, the columns are read from the first row.
+	 * @param keys columns of the primary key or an unique key.
+	 * @return an array of update counts containing one element for each row.
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, etc.
+	 */
+	public static int[] batchUpsert(String table, List<?> rows, String[] keys) throws DBException {
+		return getDBUpdate().batchUpsert(table, rows, keys);
+	}
+
 	// --------------------------------------------- DBCall
 	// ------------specified datasource
 	/**
@@ -1531,6 +2158,130 @@ public class DB {
 		return getDBCall().call(sql, parameters);
 	}
 
+	// --------------------------------------------- QUERY BATCH
+	/**
+	 * Returns a new batch of queries for the specified dataSource, which are executed on one connection.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @return a batch to add queries to.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, etc.
+	 */
+	public static DBBatch batch(String dataSourceId) throws DBException {
+		return new DBBatch(getDataSource(dataSourceId));
+	}
+
+	/**
+	 * Returns a new batch of queries for the default dataSource, which are executed on one connection.
+	 * 
+	 * @return a batch to add queries to.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, etc.
+	 */
+	public static DBBatch batch() throws DBException {
+		return new DBBatch(getDefaultDataSource());
+	}
+
+	// --------------------------------------------- BATCH LOADING
+	/**
+	 * Returns a new loader that batches the single-row lookups of the SQL template on the specified dataSource into 'IN (...)' queries.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql the SQL template that compares the key column with its only parameter, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @param resultClass a class that each row should be mapped to.
+	 * @return a loader that collects keys and loads them in batches.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, the SQL template is invalid, etc.
+	 */
+	public static <T> DBLoader<T> loader(String dataSourceId, String sql, Class<T> resultClass) throws DBException {
+		return new DBLoader<T>(getDataSource(dataSourceId), sql, resultClass);
+	}
+
+	/**
+	 * Returns a new loader that batches the single-row lookups of the SQL template on the default dataSource into 'IN (...)' queries.
+	 * 
+	 * @param sql the SQL template that compares the key column with its only parameter, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @param resultClass a class that each row should be mapped to.
+	 * @return a loader that collects keys and loads them in batches.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, the SQL template is invalid, etc.
+	 */
+	public static <T> DBLoader<T> loader(String sql, Class<T> resultClass) throws DBException {
+		return new DBLoader<T>(getDefaultDataSource(), sql, resultClass);
+	}
+
+	/**
+	 * Returns a new loader that batches the single-row lookups of the SQL template on the specified dataSource into 'IN (...)' queries, 
+	 * and maps the rows to Map.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @param sql the SQL template that compares the key column with its only parameter, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @return a loader that collects keys and loads them in batches.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, the SQL template is invalid, etc.
+	 */
+	public static DBLoader<RMap> mapLoader(String dataSourceId, String sql) throws DBException {
+		return new DBLoader<RMap>(getDataSource(dataSourceId), sql, null);
+	}
+
+	/**
+	 * Returns a new loader that batches the single-row lookups of the SQL template on the default dataSource into 'IN (...)' queries, 
+	 * and maps the rows to Map.
+	 * 
+	 * @param sql the SQL template that compares the key column with its only parameter, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @return a loader that collects keys and loads them in batches.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, the SQL template is invalid, etc.
+	 */
+	public static DBLoader<RMap> mapLoader(String sql) throws DBException {
+		return new DBLoader<RMap>(getDefaultDataSource(), sql, null);
+	}
+
+	// --------------------------------------------- SHARDING
+	/**
+	 * Returns the operations on sharded data, each shard of which is one of the specified dataSources. 
+	 * Shard keys are routed by HashShardFunction.
+	 * 
+	 * @param dataSourceIds the dataSource ids of the shards that configured in the configuration XML, in the order of the shard indexes.
+	 * @return operations that route shard keys, and query all shards in parallel.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSources, etc.
+	 */
+	public static DBSharding sharding(String... dataSourceIds) throws DBException {
+		return sharding(new HashShardFunction(), dataSourceIds);
+	}
+
+	/**
+	 * Returns the operations on sharded data, each shard of which is one of the specified dataSources.
+	 * 
+	 * @param shardFunction the function that routes the shard keys.
+	 * @param dataSourceIds the dataSource ids of the shards that configured in the configuration XML, in the order of the shard indexes.
+	 * @return operations that route shard keys, and query all shards in parallel.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSources, etc.
+	 */
+	public static DBSharding sharding(ShardFunction shardFunction, String... dataSourceIds) throws DBException {
+		DataSource[] dataSources = new DataSource[dataSourceIds.length];
+		for (int i = 0; i < dataSourceIds.length; i++) {
+			dataSources[i] = getDataSource(dataSourceIds[i]);
+		}
+		return new DBSharding(dataSources, shardFunction);
+	}
+
+	// --------------------------------------------- ASYNC
+	/**
+	 * Returns asynchronous operations for the specified dataSource, which run on the async executor of the dataSource.
+	 * 
+	 * @param dataSourceId the dataSource id that configured in the configuration XML.
+	 * @return asynchronous operations that return Futures.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, etc.
+	 */
+	public static DBAsync async(String dataSourceId) throws DBException {
+		return DBAsync.getInstance(getDataSource(dataSourceId));
+	}
+
+	/**
+	 * Returns asynchronous operations for the default dataSource, which run on the async executor of the dataSource.
+	 * 
+	 * @return asynchronous operations that return Futures.
+	 * @throws DBException if the configuration wasn't loaded, couldn't find the dataSource, etc.
+	 */
+	public static DBAsync async() throws DBException {
+		return DBAsync.getInstance(getDefaultDataSource());
+	}
+
 	// --------------------------------------------- TRANSACTION
 	private static void beginTransaction(DataSource dataSource, DefaultDefinition definition) throws DBException {
 		DBTransaction.begin(dataSource, definition);
@@ -0,0 +1,487 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented query result. Numeric columns are kept in primitive arrays, strings are dictionary-encoded,
+ * and nulls are recorded in a bitmap for each column.
+ * <p>
+ * Column types are resolved from the SQL types: TINYINT, SMALLINT, INTEGER, BIT and BOOLEAN are read as int, BIGINT as long,
+ * REAL, FLOAT and DOUBLE as double, DECIMAL and NUMERIC as long if the scale is 0 and the precision is at most 18, otherwise as BigDecimal objects,
+ * CHAR and VARCHAR as dictionary-encoded strings. Other columns, such as dates and LOBs, are kept as objects.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ColumnarResult {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final String[] names;
+
+	private final Column[] columns;
+
+	private final Map<String, Integer> index;
+
+	private int rowCount;
+
+	// --------construction
+	public ColumnarResult(String[] names, Column[] columns) {
+		this.names = names;
+		this.columns = columns;
+		this.index = new HashMap<String, Integer>(names.length * 2);
+		for (int i = 0; i < names.length; i++) {
+			index.put(names[i], Integer.valueOf(i));
+		}
+	}
+
+	/**
+	 * Creates a column for the SQL type.
+	 */
+	public static Column createColumn(String name, int sqlType, int precision, int scale) {
+		switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				return new IntColumn(name, sqlType);
+			case Types.BIT:
+			case Types.BOOLEAN:
+				return new BooleanColumn(name, sqlType);
+			case Types.BIGINT:
+				return new LongColumn(name, sqlType);
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return new DoubleColumn(name, sqlType);
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				if (scale == 0 && precision > 0 && precision <= 18)
+					return new LongColumn(name, sqlType);
+				return new ObjectColumn(name, sqlType);
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+				return new StringColumn(name, sqlType);
+			default:
+				return new ObjectColumn(name, sqlType);
+		}
+	}
+
+	// --------reading
+	/**
+	 * Appends the current row of the ResultSet.
+	 */
+	public void readRow(ResultSet rs) throws SQLException {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].read(rs, i + 1);
+		}
+		rowCount++;
+	}
+
+	// --------getters
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public String[] getColumnNames() {
+		return names;
+	}
+
+	/**
+	 * Returns the column, starting from 0.
+	 */
+	public Column getColumn(int column) {
+		return columns[column];
+	}
+
+	/**
+	 * Returns the column with the specified name, or null if the result has no such column.
+	 */
+	public Column getColumn(String name) {
+		Integer i = index.get(name);
+		return i == null ? null : columns[i.intValue()];
+	}
+
+	public IntColumn getIntColumn(String name) {
+		return (IntColumn) getRequiredColumn(name);
+	}
+
+	public LongColumn getLongColumn(String name) {
+		return (LongColumn) getRequiredColumn(name);
+	}
+
+	public DoubleColumn getDoubleColumn(String name) {
+		return (DoubleColumn) getRequiredColumn(name);
+	}
+
+	public StringColumn getStringColumn(String name) {
+		return (StringColumn) getRequiredColumn(name);
+	}
+
+	private Column getRequiredColumn(String name) {
+		Column column = getColumn(name);
+		if (column == null)
+			throw new IllegalArgumentException("column " + name + " not found, available columns are " + Arrays.toString(names));
+		return column;
+	}
+
+	public String toString() {
+		return "columns=" + Arrays.toString(names) + ", rows=" + rowCount;
+	}
+
+	// --------columns
+	/**
+	 * A column with a null bitmap.
+	 */
+	public static abstract class Column {
+
+		private final String name;
+
+		private final int sqlType;
+
+		protected int size;
+
+		private long[] nulls = new long[1];
+
+		protected Column(String name, int sqlType) {
+			this.name = name;
+			this.sqlType = sqlType;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getSqlType() {
+			return sqlType;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Returns true if the value of the row is SQL NULL.
+		 */
+		public boolean isNull(int row) {
+			checkRow(row);
+			return (nulls[row >>> 6] & (1L << row)) != 0;
+		}
+
+		/**
+		 * Returns the value of the row as an object, or null if it's SQL NULL.
+		 */
+		public abstract Object getObject(int row);
+
+		/**
+		 * Reads the value of the current row, the column starts from 1.
+		 */
+		protected abstract void read(ResultSet rs, int column) throws SQLException;
+
+		protected void setNull(int row) {
+			int word = row >>> 6;
+			if (word >= nulls.length)
+				nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, word + 1));
+			nulls[word] |= 1L << row;
+		}
+
+		protected void checkRow(int row) {
+			if (row < 0 || row >= size)
+				throw new IndexOutOfBoundsException("row " + row + " of column " + name + ", size " + size);
+		}
+
+		protected static int grow(int capacity) {
+			return capacity < INITIAL_CAPACITY ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+		}
+	}
+
+	/**
+	 * Column of int values.
+	 */
+	public static class IntColumn extends Column {
+
+		private int[] values = new int[0];
+
+		public IntColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public int getInt(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		/**
+		 * Returns a copy of the values, nulls are 0.
+		 */
+		public int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+		public Object getObject(int row) {
+			return isNull(row) ? null : Integer.valueOf(values[row]);
+		}
+
+		protected void read(ResultSet rs, int column) throws SQLException {
+			append(readInt(rs, column), rs.wasNull());
+		}
+
+		protected int readInt(ResultSet rs, int column) throws SQLException {
+			return rs.getInt(column);
+		}
+
+		protected void append(int value, boolean isNull) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, grow(size));
+			values[size] = value;
+			if (isNull)
+				setNull(size);
+			size++;
+		}
+	}
+
+	/**
+	 * Column of BIT and BOOLEAN values, which are kept as int 1 or 0.
+	 */
+	public static class BooleanColumn extends IntColumn {
+
+		public BooleanColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public boolean getBoolean(int row) {
+			return getInt(row) != 0;
+		}
+
+		public Object getObject(int row) {
+			return isNull(row) ? null : Boolean.valueOf(getBoolean(row));
+		}
+
+		protected int readInt(ResultSet rs, int column) throws SQLException {
+			return rs.getBoolean(column) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Column of long values.
+	 */
+	public static class LongColumn extends Column {
+
+		private long[] values = new long[0];
+
+		public LongColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public long getLong(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		/**
+		 * Returns a copy of the values, nulls are 0.
+		 */
+		public long[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+		public Object getObject(int row) {
+			return isNull(row) ? null : Long.valueOf(values[row]);
+		}
+
+		protected void read(ResultSet rs, int column) throws SQLException {
+			long value = rs.getLong(column);
+			if (size == values.length)
+				values = Arrays.copyOf(values, grow(size));
+			values[size] = value;
+			if (rs.wasNull())
+				setNull(size);
+			size++;
+		}
+	}
+
+	/**
+	 * Column of double values.
+	 */
+	public static class DoubleColumn extends Column {
+
+		private double[] values = new double[0];
+
+		public DoubleColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public double getDouble(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		/**
+		 * Returns a copy of the values, nulls are 0.
+		 */
+		public double[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+		public Object getObject(int row) {
+			return isNull(row) ? null : Double.valueOf(values[row]);
+		}
+
+		protected void read(ResultSet rs, int column) throws SQLException {
+			double value = rs.getDouble(column);
+			if (size == values.length)
+				values = Arrays.copyOf(values, grow(size));
+			values[size] = value;
+			if (rs.wasNull())
+				setNull(size);
+			size++;
+		}
+	}
+
+	/**
+	 * Dictionary-encoded column of strings, each distinct value is kept once.
+	 */
+	public static class StringColumn extends Column {
+
+		private int[] codes = new int[0];
+
+		private final List<String> dictionary = new ArrayList<String>();
+
+		private final Map<String, Integer> dictionaryIndex = new HashMap<String, Integer>();
+
+		public StringColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public String getString(int row) {
+			checkRow(row);
+			int code = codes[row];
+			return code < 0 ? null : dictionary.get(code);
+		}
+
+		/**
+		 * Returns the dictionary code of the row, or -1 if it's SQL NULL.
+		 */
+		public int getCode(int row) {
+			checkRow(row);
+			return codes[row];
+		}
+
+		/**
+		 * Returns a copy of the dictionary codes, nulls are -1.
+		 */
+		public int[] getCodes() {
+			return Arrays.copyOf(codes, size);
+		}
+
+		/**
+		 * Returns the distinct values, indexed by code.
+		 */
+		public List<String> getDictionary() {
+			return dictionary;
+		}
+
+		public Object getObject(int row) {
+			return getString(row);
+		}
+
+		protected void read(ResultSet rs, int column) throws SQLException {
+			String value = rs.getString(column);
+			int code = -1;
+			if (value != null) {
+				Integer c = dictionaryIndex.get(value);
+				if (c == null) {
+					c = Integer.valueOf(dictionary.size());
+					dictionary.add(value);
+					dictionaryIndex.put(value, c);
+				}
+				code = c.intValue();
+			}
+
+			if (size == codes.length)
+				codes = Arrays.copyOf(codes, grow(size));
+			codes[size] = code;
+			if (value == null)
+				setNull(size);
+			size++;
+		}
+	}
+
+	/**
+	 * Column of other values, such as dates and LOBs.
+	 */
+	public static class ObjectColumn extends Column {
+
+		private Object[] values = new Object[0];
+
+		public ObjectColumn(String name, int sqlType) {
+			super(name, sqlType);
+		}
+
+		public Object getObject(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		protected void read(ResultSet rs, int column) throws SQLException {
+			Object value;
+			switch (getSqlType()) {
+				case Types.DATE:
+				case Types.TIME:
+				case Types.TIMESTAMP:
+					Timestamp timestamp = rs.getTimestamp(column);
+					value = timestamp == null ? null : new java.util.Date(timestamp.getTime());
+					break;
+				case Types.DECIMAL:
+				case Types.NUMERIC:
+					value = rs.getBigDecimal(column);
+					break;
+				case Types.CLOB:
+					java.sql.Clob clob = rs.getClob(column);
+					value = clob == null ? null : clob.getSubString(1, (int) clob.length());
+					break;
+				case Types.BLOB:
+					java.sql.Blob blob = rs.getBlob(column);
+					value = blob == null ? null : blob.getBytes(1, (int) blob.length());
+					break;
+				default:
+					value = rs.getObject(column);
+			}
+
+			if (size == values.length)
+				values = Arrays.copyOf(values, grow(size));
+			values[size] = value;
+			if (value == null)
+				setNull(size);
+			size++;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.rex.RMap;
+import org.rex.db.configuration.Configuration;
+import org.rex.db.core.executor.AsyncExecutor;
+import org.rex.db.exception.DBException;
+
+/**
+ * Asynchronous database operations, which run on the async executor of the DataSource and return Futures.
+ * <p>
+ * Each operation runs on a thread of the executor with its own connection, so that it does not join the transaction of the calling thread.
+ * The number of unfinished operations is limited by the executor, submitting waits for a free slot when the limit is reached.
+ * Cancelling a Future with {@link Future#cancel(boolean)} cancels the running statement with {@link java.sql.Statement#cancel()}.
+ * The DBException thrown by an operation is the cause of the ExecutionException thrown by {@link Future#get()}.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class DBAsync {
+
+	// ------instances
+	private volatile static Map<DataSource, DBAsync> asyncs = new HashMap<DataSource, DBAsync>();
+
+	public static DBAsync getInstance(DataSource dataSource) throws DBException {
+		if (!asyncs.containsKey(dataSource)) {
+			asyncs.put(dataSource, new DBAsync(dataSource));
+		}
+		return asyncs.get(dataSource);
+	}
+
+	private final DataSource dataSource;
+
+	// -------constructors
+	public DBAsync(DataSource dataSource) throws DBException {
+		if (dataSource == null)
+			throw new DBException("DB-C0008");
+		this.dataSource = dataSource;
+	}
+
+	// -------executor
+	/**
+	 * Returns the async executor of the DataSource.
+	 */
+	public AsyncExecutor getExecutor() throws DBException {
+		return Configuration.getCurrentConfiguration().getDataSourceManager().getAsyncExecutor(dataSource);
+	}
+
+	/**
+	 * Submits an execution to the async executor of the DataSource, the statements executed by it can be cancelled by the Future.
+	 * 
+	 * @param execution an execution that accesses the DataSource.
+	 * @return a Future of the result.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public <T> Future<T> submit(Callable<T> execution) throws DBException {
+		return getExecutor().submit(execution);
+	}
+
+	// -------query
+	/**
+	 * Executes the given SQL asynchronously and maps the JDBC ResultSet to an object that instanced from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass the ResultSet will be mapped to an object that instanced from this class.
+	 * @return a Future of the object that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public <T> Future<T> get(final String sql, final Object parameters, final Class<T> resultClass) throws DBException {
+		final DBQuery query = DBQuery.getInstance(dataSource);
+		return submit(new Callable<T>() {
+			public T call() throws DBException {
+				return query.get(sql, parameters, resultClass);
+			}
+		});
+	}
+
+	/**
+	 * Executes the given SQL asynchronously and maps the JDBC ResultSet to a Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a Future of the Map that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<RMap<String, ?>> getMap(final String sql, final Object parameters) throws DBException {
+		final DBQuery query = DBQuery.getInstance(dataSource);
+		return submit(new Callable<RMap<String, ?>>() {
+			public RMap<String, ?> call() throws DBException {
+				return query.getMap(sql, parameters);
+			}
+		});
+	}
+
+	/**
+	 * Executes the given SQL asynchronously and maps the JDBC ResultSet to a List of object that instanced from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @return a Future of the list of object that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public <T> Future<List<T>> getList(String sql, Object parameters, Class<T> resultClass) throws DBException {
+		return getList(sql, parameters, resultClass, null);
+	}
+
+	/**
+	 * Executes the given SQL asynchronously with the execution options and maps the JDBC ResultSet to a List of object that instanced 
+	 * from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @return a Future of the list of object that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public <T> Future<List<T>> getList(final String sql, final Object parameters, final Class<T> resultClass, final QueryOptions options) throws DBException {
+		final DBQuery query = DBQuery.getInstance(dataSource);
+		return submit(new Callable<List<T>>() {
+			public List<T> call() throws DBException {
+				return query.getList(sql, parameters, resultClass, options);
+			}
+		});
+	}
+
+	/**
+	 * Executes the given SQL asynchronously and maps the JDBC ResultSet to a List of Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a Future of the list of Map that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<List<RMap>> getMapList(String sql, Object parameters) throws DBException {
+		return getMapList(sql, parameters, null);
+	}
+
+	/**
+	 * Executes the given SQL asynchronously with the execution options and maps the JDBC ResultSet to a List of Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @return a Future of the list of Map that mapped from the ResultSet.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<List<RMap>> getMapList(final String sql, final Object parameters, final QueryOptions options) throws DBException {
+		final DBQuery query = DBQuery.getInstance(dataSource);
+		return submit(new Callable<List<RMap>>() {
+			public List<RMap> call() throws DBException {
+				return query.getMapList(sql, parameters, options);
+			}
+		});
+	}
+
+	// -------update
+	/**
+	 * Executes the given SQL asynchronously, which may be an INSERT, UPDATE, DELETE or an SQL that returns nothing, such as an SQL DDL.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a Future of either (1) the affected row count or (2) 0 for SQL statements that return nothing.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<Integer> update(final String sql, final Object parameters) throws DBException {
+		final DBUpdate update = DBUpdate.getInstance(dataSource);
+		return submit(new Callable<Integer>() {
+			public Integer call() throws DBException {
+				return update.update(sql, parameters);
+			}
+		});
+	}
+
+	/**
+	 * Executes the given SQL asynchronously with a batch of parameters.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameterList a parameter list.
+	 * @return a Future of the array of update counts containing one element for each command in the batch.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<int[]> batchUpdate(final String sql, final List<?> parameterList) throws DBException {
+		final DBUpdate update = DBUpdate.getInstance(dataSource);
+		return submit(new Callable<int[]>() {
+			public int[] call() throws DBException {
+				return update.batchUpdate(sql, parameterList);
+			}
+		});
+	}
+
+	// -------call
+	/**
+	 * Executes a stored procedure or a function asynchronously.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a Future of the Map that may contain OUT, INOUT parameters and return results.
+	 * @throws DBException if the configuration wasn't loaded, the caller was interrupted while waiting, or the execution was rejected.
+	 */
+	public Future<RMap<String, ?>> call(final String sql, final Object parameters) throws DBException {
+		final DBCall call = DBCall.getInstance(dataSource);
+		return submit(new Callable<RMap<String, ?>>() {
+			public RMap<String, ?> call() throws DBException {
+				return call.call(sql, parameters);
+			}
+		});
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.rex.RMap;
+import org.rex.db.core.DBOperation;
+import org.rex.db.core.reader.ClassResultReader;
+import org.rex.db.core.reader.MapResultReader;
+import org.rex.db.core.reader.ResultReader;
+import org.rex.db.exception.DBException;
+
+/**
+ * Batch of queries that are executed on one connection, such as the independent queries of a page.
+ * <p>
+ * The queries are combined into one statement and executed in one round trip if the dialect supports multiple queries, 
+ * such as SQL Server, PostgreSQL and MySQL with 'allowMultiQueries=true'. Otherwise their statements are executed back to back.
+ * Each ResultSet is read by the reader of its query, the results are returned in the order the queries were added.
+ * <p>
+ * A batch is not thread safe, and should not be executed more than once.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class DBBatch extends DBOperation {
+
+	private final List<String> sqls = new ArrayList<String>();
+
+	private final List<Object> parameters = new ArrayList<Object>();
+
+	private final List<ResultReader<?>> resultReaders = new ArrayList<ResultReader<?>>();
+
+	// -------constructors
+	public DBBatch(DataSource dataSource) throws DBException {
+		super(dataSource);
+	}
+
+	// -------queries
+	/**
+	 * Adds a query whose ResultSet will be mapped to a List of object that instanced from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @return reference to this object.
+	 */
+	public <T> DBBatch add(String sql, Object parameters, Class<T> resultClass) {
+		return add(sql, parameters, new ClassResultReader<T>(resultClass));
+	}
+
+	/**
+	 * Adds a query whose ResultSet will be mapped to a List of Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return reference to this object.
+	 */
+	public DBBatch add(String sql, Object parameters) {
+		return add(sql, parameters, new MapResultReader());
+	}
+
+	/**
+	 * Adds a query whose ResultSet will be read by the specified reader.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultReader the reader of the ResultSet.
+	 * @return reference to this object.
+	 */
+	public DBBatch add(String sql, Object parameters, ResultReader<?> resultReader) {
+		sqls.add(sql);
+		this.parameters.add(parameters);
+		resultReaders.add(resultReader);
+		return this;
+	}
+
+	/**
+	 * Returns the number of queries.
+	 */
+	public int size() {
+		return sqls.size();
+	}
+
+	// -------execute
+	/**
+	 * Executes the queries on one connection.
+	 * 
+	 * @return the results of the queries in the order they were added, each of which is a List of object or a List of Map.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<List<?>> execute() throws DBException {
+		if (sqls.isEmpty())
+			throw new DBException("DB-C0009");
+
+		getTemplate().queryBatch(sqls.toArray(new String[sqls.size()]), parameters.toArray(), 
+				resultReaders.toArray(new ResultReader<?>[resultReaders.size()]));
+
+		List<List<?>> results = new ArrayList<List<?>>(resultReaders.size());
+		for (int i = 0; i < resultReaders.size(); i++) {
+			results.add(resultReaders.get(i).getResults());
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the result of the query at the specified index after the batch has been executed.
+	 * 
+	 * @param index the index of the query, starting from 0.
+	 * @return a List of object, or a List of Map.
+	 */
+	public <T> List<T> getList(int index) {
+		return (List<T>) resultReaders.get(index).getResults();
+	}
+
+	/**
+	 * Returns the result of the map query at the specified index after the batch has been executed.
+	 * 
+	 * @param index the index of the query, starting from 0.
+	 * @return a List of Map.
+	 */
+	public List<RMap> getMapList(int index) {
+		return (List<RMap>) resultReaders.get(index).getResults();
+	}
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 import javax.sql.DataSource;
 
 import org.rex.RMap;
+import org.rex.db.configuration.Configuration;
 import org.rex.db.core.DBOperation;
 import org.rex.db.exception.DBException;
 
@@ -115,6 +116,18 @@ public class DBCall extends DBOperation {
 
 	// -------private methods
 	private RMap<String, ?> templateCall(String sql, Object parameters) throws DBException {
-		return getTemplate().call(sql, parameters);
+		try {
+			return getTemplate().call(sql, parameters);
+		} finally {
+			invalidateCache();
+		}
+	}
+
+	/**
+	 * Invalidates all cached query results, since the tables written by the procedure are unknown.
+	 */
+	private void invalidateCache() throws DBException {
+		boolean inTransaction = DBTransaction.getTransactionConnection(getTemplate().getDataSource()) != null;
+		Configuration.getCurrentConfiguration().getResultCacheManager().invalidateAll(inTransaction);
 	}
 }
@@ -0,0 +1,427 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.rex.RMap;
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+import org.rex.db.util.ReflectUtil;
+import org.rex.db.util.SqlUtil;
+
+/**
+ * Loader that batches single-row lookups of the same SQL template into 'IN (...)' queries, such as lookups in a loop.
+ * <p>
+ * The template compares the key column with one parameter, such as 'SELECT * FROM t WHERE id = #{id}'. {@link #load(Object)} 
+ * collects the key and returns a Future, the collected keys are loaded by one query that is rewritten as 'id IN (?, ?, ...)' when:
+ * <ul>
+ * <li>the Future of any collected key is read;</li>
+ * <li>{@link #dispatch()} is called, such as at the end of a request scope;</li>
+ * <li>the number of collected keys reaches the max batch size.</li>
+ * </ul>
+ * Each row is routed to the Futures of its key, which is read from the row by the key property, 'id' in the example. 
+ * Keys are loaded once, the later lookups of a loaded key return the same row until {@link #clear()} is called.
+ * <p>
+ * Loaders are thread-safe, but usually should be scoped to a request, so that the loaded rows are not stale.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class DBLoader<T> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DBLoader.class);
+
+	/**
+	 * Default max keys in each query, which is less than the IN list limit of the databases.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+	/**
+	 * The only placeholder of the template, compared with the key column.
+	 */
+	private static final Pattern KEY_CONDITION = Pattern.compile("([\\w$.\"`\\[\\]]+)\\s*=\\s*\\?");
+
+	private final DataSource dataSource;
+
+	private final Class<T> resultClass;
+
+	private final String sqlPrefix;
+
+	private final String sqlSuffix;
+
+	private final String keyProperty;
+
+	private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	private final Map<Object, Lookup> lookups = new HashMap<Object, Lookup>();
+
+	private List<Lookup> pending = new ArrayList<Lookup>();
+
+	// -------constructors
+	/**
+	 * @param dataSource the DataSource to query.
+	 * @param sql the SQL template, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @param resultClass a class that each row should be mapped to, or null to map the rows to RMap.
+	 */
+	public DBLoader(DataSource dataSource, String sql, Class<T> resultClass) throws DBException {
+		this(dataSource, sql, resultClass, null);
+	}
+
+	/**
+	 * @param dataSource the DataSource to query.
+	 * @param sql the SQL template, such as 'SELECT * FROM t WHERE id = #{id}'.
+	 * @param resultClass a class that each row should be mapped to, or null to map the rows to RMap.
+	 * @param keyProperty the property of the result class, or the column of the Map, that contains the key. It's the name of the 
+	 *            placeholder, or the column compared with '?' if it's null.
+	 */
+	public DBLoader(DataSource dataSource, String sql, Class<T> resultClass, String keyProperty) throws DBException {
+		if (dataSource == null)
+			throw new DBException("DB-C0008");
+		if (sql == null || sql.trim().length() == 0)
+			throw new DBException("DB-C0009");
+
+		String[] all = SqlUtil.parse(sql);
+		String parsedSql = all[0];
+		Matcher matcher = KEY_CONDITION.matcher(parsedSql);
+		if (all.length > 2 || !matcher.find() || parsedSql.indexOf('?', matcher.end()) != -1 || parsedSql.lastIndexOf('?', matcher.start()) != -1)
+			throw new DBException("DB-C0019", sql);
+
+		this.dataSource = dataSource;
+		this.resultClass = resultClass;
+		this.sqlPrefix = parsedSql.substring(0, matcher.start()) + matcher.group(1) + " ";
+		this.sqlSuffix = parsedSql.substring(matcher.end());
+
+		if (keyProperty != null)
+			this.keyProperty = keyProperty;
+		else if (all.length == 2)
+			this.keyProperty = all[1];
+		else
+			this.keyProperty = stripQualifier(matcher.group(1));
+	}
+
+	// -------settings
+	/**
+	 * Sets the max keys in each query, the collected keys are loaded when their number reaches it.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	// -------lookups
+	/**
+	 * Collects the key and returns the Future of its row. The Future returns null if there is no such row, 
+	 * and its ExecutionException is caused by the DBException thrown by the query.
+	 * 
+	 * @param key the key value.
+	 * @return a Future of the row, which loads the collected keys when it's read.
+	 * @throws DBException if the collected keys reached the max batch size, and could not be loaded.
+	 */
+	public Future<T> load(Object key) throws DBException {
+		Lookup lookup;
+		boolean full = false;
+		synchronized (this) {
+			Object normalized = normalize(key);
+			lookup = lookups.get(normalized);
+			if (lookup == null) {
+				lookup = new Lookup(key, normalized);
+				lookups.put(normalized, lookup);
+				pending.add(lookup);
+				full = pending.size() >= maxBatchSize;
+			}
+		}
+
+		if (full)
+			dispatch();
+		return lookup;
+	}
+
+	/**
+	 * Loads the rows of the keys by batched queries.
+	 * 
+	 * @param keys the key values.
+	 * @return the rows in the order of the keys, the row is null if there is no such row.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<T> getList(Collection<?> keys) throws DBException {
+		List<Future<T>> futures = new ArrayList<Future<T>>(keys.size());
+		for (Object key : keys) {
+			futures.add(load(key));
+		}
+		dispatch();
+
+		List<T> rows = new ArrayList<T>(futures.size());
+		for (int i = 0; i < futures.size(); i++) {
+			rows.add(((Lookup) futures.get(i)).getRow());
+		}
+		return rows;
+	}
+
+	/**
+	 * Loads the row of the key, and the other collected keys in the same batch.
+	 * 
+	 * @param key the key value.
+	 * @return the row, or null if there is no such row.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public T get(Object key) throws DBException {
+		return ((Lookup) load(key)).getRow();
+	}
+
+	/**
+	 * Loads all collected keys, in queries of at most max batch size keys. If a query fails, the lookups of its keys fail 
+	 * with its exception, the other queries are still executed, and then the first exception is thrown.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public void dispatch() throws DBException {
+		List<Lookup> batch;
+		synchronized (this) {
+			if (pending.isEmpty())
+				return;
+			batch = pending;
+			pending = new ArrayList<Lookup>();
+		}
+
+		Exception error = null;
+		for (int from = 0; from < batch.size(); from += maxBatchSize) {
+			List<Lookup> chunk = batch.subList(from, Math.min(batch.size(), from + maxBatchSize));
+			try {
+				execute(chunk);
+			} catch (DBException e) {
+				fail(chunk, e);
+				if (error == null)
+					error = e;
+			} catch (RuntimeException e) {
+				fail(chunk, e);
+				if (error == null)
+					error = e;
+			} catch (Error e) {
+				fail(batch.subList(from, batch.size()), new DBException("DB-C0021", e, e.getMessage()));
+				throw e;
+			}
+		}
+
+		if (error instanceof DBException)
+			throw (DBException) error;
+		if (error != null)
+			throw (RuntimeException) error;
+	}
+
+	/**
+	 * Removes the loaded rows, so that the keys are loaded again.
+	 */
+	public synchronized void clear() {
+		lookups.clear();
+		for (int i = 0; i < pending.size(); i++) {
+			lookups.put(pending.get(i).normalizedKey, pending.get(i));
+		}
+	}
+
+	// -------private methods
+	/**
+	 * Executes one 'IN (...)' query for the lookups, and completes them with the rows.
+	 */
+	private void execute(List<Lookup> chunk) throws DBException {
+		StringBuffer sql = new StringBuffer(sqlPrefix.length() + sqlSuffix.length() + chunk.size() * 3 + 6).append(sqlPrefix).append("IN (");
+		Ps ps = new Ps();
+		for (int i = 0; i < chunk.size(); i++) {
+			sql.append(i == 0 ? "?" : ", ?");
+			ps.add(chunk.get(i).key);
+		}
+		sql.append(')').append(sqlSuffix);
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("loading {0} keys by sql {1}.", chunk.size(), sql);
+
+		DBQuery query = DBQuery.getInstance(dataSource);
+		List<?> rows = resultClass == null ? query.getMapList(sql.toString(), ps) : query.getList(sql.toString(), ps, resultClass);
+
+		Map<Object, List<Object>> rowsByKey = new LinkedHashMap<Object, List<Object>>();
+		for (int i = 0; i < rows.size(); i++) {
+			Object row = rows.get(i);
+			Object key = normalize(ReflectUtil.getRowValue(row, keyProperty));
+			List<Object> keyRows = rowsByKey.get(key);
+			if (keyRows == null) {
+				keyRows = new ArrayList<Object>(1);
+				rowsByKey.put(key, keyRows);
+			}
+			keyRows.add(row);
+		}
+
+		for (int i = 0; i < chunk.size(); i++) {
+			Lookup lookup = chunk.get(i);
+			List<Object> keyRows = rowsByKey.get(lookup.normalizedKey);
+			if (keyRows == null)
+				lookup.complete(null, null);
+			else if (keyRows.size() == 1)
+				lookup.complete(keyRows.get(0), null);
+			else
+				lookup.complete(null, new DBException("DB-00006", keyRows.size()));
+		}
+	}
+
+	/**
+	 * Completes the lookups with the exception, and removes them so that their keys are loaded again.
+	 */
+	private void fail(List<Lookup> chunk, Exception e) {
+		synchronized (this) {
+			for (int i = 0; i < chunk.size(); i++) {
+				lookups.remove(chunk.get(i).normalizedKey);
+			}
+		}
+		for (int i = 0; i < chunk.size(); i++) {
+			chunk.get(i).complete(null, e);
+		}
+	}
+
+	/**
+	 * Returns the key that equals the other keys of the same number, such as Integer 1 and Long 1.
+	 */
+	private static Object normalize(Object key) {
+		if (!(key instanceof Number))
+			return key;
+		try {
+			BigDecimal decimal = new BigDecimal(key.toString());
+			return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+		} catch (NumberFormatException e) {
+			return key;
+		}
+	}
+
+	private static String stripQualifier(String column) {
+		String name = column.substring(column.lastIndexOf('.') + 1);
+		if (name.length() > 1 && "\"`[".indexOf(name.charAt(0)) != -1)
+			name = name.substring(1, name.length() - 1);
+		return name;
+	}
+
+	// -------inner classes
+	/**
+	 * Future of the row of a key, which loads the collected keys when it's read before they were loaded.
+	 */
+	private class Lookup implements Future<T> {
+
+		private final Object key;
+
+		private final Object normalizedKey;
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Object row;
+
+		private volatile Exception exception;
+
+		Lookup(Object key, Object normalizedKey) {
+			this.key = key;
+			this.normalizedKey = normalizedKey;
+		}
+
+		void complete(Object row, Exception exception) {
+			this.row = row;
+			this.exception = exception;
+			done.countDown();
+		}
+
+		/**
+		 * Returns the row, or throws the exception of the query.
+		 */
+		T getRow() throws DBException {
+			if (!isDone())
+				dispatch();
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DBException("DB-C0020", e, key, e.getMessage());
+			}
+
+			if (exception instanceof DBException)
+				throw (DBException) exception;
+			if (exception instanceof RuntimeException)
+				throw (RuntimeException) exception;
+			return (T) row;
+		}
+
+		public T get() throws InterruptedException, ExecutionException {
+			dispatchQuietly();
+			done.await();
+			return getResult();
+		}
+
+		public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			dispatchQuietly();
+			if (!done.await(timeout, unit))
+				throw new TimeoutException();
+			return getResult();
+		}
+
+		public boolean isDone() {
+			return done.getCount() == 0;
+		}
+
+		public boolean isCancelled() {
+			return false;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		/**
+		 * Loads the collected keys, the exception of the query is thrown by the Futures.
+		 */
+		private void dispatchQuietly() {
+			if (isDone())
+				return;
+			try {
+				dispatch();
+			} catch (DBException e) {
+			} catch (RuntimeException e) {
+			}
+		}
+
+		private T getResult() throws ExecutionException {
+			if (exception != null)
+				throw new ExecutionException(exception);
+			return (T) row;
+		}
+
+		public String toString() {
+			return "key=" + key + ", done=" + isDone();
+		}
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.rex.db;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,12 +24,26 @@ import java.util.Map;
 import javax.sql.DataSource;
 
 import org.rex.RMap;
+import org.rex.db.cache.CacheKey;
+import org.rex.db.cache.QueryCoalescer;
+import org.rex.db.cache.ResultCacheManager;
+import org.rex.db.configuration.Configuration;
 import org.rex.db.core.DBOperation;
 import org.rex.db.core.reader.ClassResultReader;
+import org.rex.db.core.reader.ColumnarResultReader;
+import org.rex.db.core.reader.JoinResultReader;
+import org.rex.db.core.reader.KeysetResultReader;
 import org.rex.db.core.reader.MapResultReader;
+import org.rex.db.core.reader.PageResultReader;
 import org.rex.db.core.reader.ResultReader;
+import org.rex.db.core.reader.SpillableResultReader;
+import org.rex.db.datasource.DataSourceManager;
+import org.rex.db.dialect.AbstractDialect;
+import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.KeysetHandler;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.exception.DBException;
+import org.rex.db.export.ResultSetExporter;
 
 /**
  * Database querying operation.
@@ -38,6 +54,11 @@ import org.rex.db.exception.DBException;
  */
 public class DBQuery extends DBOperation {
 
+	/**
+	 * Column of the total rows in page queries.
+	 */
+	private static final String PAGE_TOTAL_COLUMN = "rex_total_";
+
 	// ------instances
 	private volatile static Map<DataSource, DBQuery> querys = new HashMap<DataSource, DBQuery>();
 
@@ -491,8 +512,429 @@ public class DBQuery extends DBOperation {
 		return templateMapQuery(sql, parameters, offset, rows);
 	}
 
+	// ---------------query with execution options
+	/**
+	 * Executes the given SQL with the execution options and maps the JDBC ResultSet to a List of object that instanced from the specified class.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of object that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> List<T> getList(String sql, Object parameters, Class<T> resultClass, QueryOptions options) throws DBException {
+		ResultReader<T> resultReader = new ClassResultReader<T>(resultClass);
+		List<T> shared = templateSharedQuery(sql, parameters, resultClass, options, resultReader);
+		if (shared != null)
+			return shared;
+
+		getTemplate().query(sql, parameters, null, options, resultReader);
+		return resultReader.getResults();
+	}
+
+	/**
+	 * Executes the given SQL with the execution options and maps the JDBC ResultSet to a List of Map.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming.
+	 * @return a list of Map that mapped from the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<RMap> getMapList(String sql, Object parameters, QueryOptions options) throws DBException {
+		MapResultReader resultReader = new MapResultReader();
+		List<RMap> shared = templateSharedQuery(sql, parameters, null, options, resultReader);
+		if (shared != null)
+			return shared;
+
+		getTemplate().query(sql, parameters, null, options, resultReader);
+		return resultReader.getResults();
+	}
+
+	/**
+	 * Executes the given SQL and reads the JDBC ResultSet into columns, numeric columns are read into primitive arrays.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public ColumnarResult getColumns(String sql, Object parameters) throws DBException {
+		return getColumns(sql, parameters, null);
+	}
+
+	/**
+	 * Executes the given SQL with the execution options and reads the JDBC ResultSet into columns, numeric columns are read into primitive arrays.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @return a columnar result.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public ColumnarResult getColumns(String sql, Object parameters, QueryOptions options) throws DBException {
+		ColumnarResultReader resultReader = new ColumnarResultReader();
+		getTemplate().query(sql, parameters, null, options, resultReader);
+		return resultReader.getResult();
+	}
+
+	/**
+	 * Executes the given SQL and maps a page of the JDBC ResultSet to a List of the specified class, with the total rows of the query.
+	 * The total is counted by 'COUNT(*) OVER()' in the page query if the dialect supports window functions, otherwise by a count query.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> Page<T> getPage(String sql, Object parameters, Class<T> resultClass, int offset, int rows) throws DBException {
+		return templatePageQuery(sql, parameters, new ClassResultReader<T>(resultClass), false, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL and maps a page of the JDBC ResultSet to a List of Map, with the total rows of the query.
+	 * The total is counted by 'COUNT(*) OVER()' in the page query if the dialect supports window functions, otherwise by a count query.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param offset the offset of the first row, starting from 0.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the total rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public Page<RMap> getMapPage(String sql, Object parameters, int offset, int rows) throws DBException {
+		return templatePageQuery(sql, parameters, (ResultReader<RMap>) new MapResultReader(), true, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL and maps the JDBC ResultSet to a List of the specified class, rows beyond the memory threshold 
+	 * are written to a temporary file and mapped again when they are accessed.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> SpillableList<T> getSpillableList(String sql, Object parameters, Class<T> resultClass, QueryOptions options, long memoryThreshold) throws DBException {
+		if (resultClass == null)
+			throw new DBException("DB-C0003");
+		return templateSpillableQuery(sql, parameters, options, new SpillableResultReader<T>(resultClass, memoryThreshold, null));
+	}
+
+	/**
+	 * Executes the given SQL and maps the JDBC ResultSet to a List of Map, rows beyond the memory threshold 
+	 * are written to a temporary file and mapped again when they are accessed.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @return a read-only list, which should be closed to delete the temporary file.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public SpillableList<RMap> getSpillableMapList(String sql, Object parameters, QueryOptions options, long memoryThreshold) throws DBException {
+		return templateSpillableQuery(sql, parameters, options, new SpillableResultReader<RMap>(null, memoryThreshold, null));
+	}
+
+	/**
+	 * Executes the given SQL with keyset pagination and maps the page to a List of the specified class. The rows after the last keys 
+	 * are sought in the order of the keys, instead of skipping an offset.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> KeysetPage<T> getKeysetPage(String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return templateKeysetQuery(sql, parameters, new ClassResultReader<T>(resultClass), keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Executes the given SQL with keyset pagination and maps the page to a List of Map. The rows after the last keys 
+	 * are sought in the order of the keys, instead of skipping an offset.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 * @return the page, which contains the rows and the key values of the last row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public KeysetPage<RMap> getKeysetMapPage(String sql, Object parameters, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		return templateKeysetQuery(sql, parameters, (ResultReader<RMap>) new MapResultReader(), keys, descending, lastKeys, rows);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL, which are mapped to the specified class and queried page by page with keyset pagination.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 */
+	public <T> KeysetIterator<T> iterateKeyset(String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, int pageSize) {
+		return new KeysetIterator<T>(this, sql, parameters, resultClass, keys, descending, pageSize);
+	}
+
+	/**
+	 * Returns an iterator over all rows of the given SQL, which are mapped to Map and queried page by page with keyset pagination.
+	 * 
+	 * @param sql an SQL that isn't ordered, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param keys unique and non-null columns of the result, which are the order of the rows.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param pageSize rows of each page.
+	 * @return an iterator that queries the next page when the rows of the current page have been iterated.
+	 */
+	public KeysetIterator<RMap> iterateKeysetMaps(String sql, Object parameters, String[] keys, boolean descending, int pageSize) {
+		return new KeysetIterator<RMap>(this, sql, parameters, null, keys, descending, pageSize);
+	}
+
+	/**
+	 * Executes the given SQL and passes each row of the JDBC ResultSet, mapped to an object that instanced from the specified class, to the handler.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows, LOB streams of a row are valid until the handler returns.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> void query(String sql, Object parameters, Class<T> resultClass, QueryOptions options, RowHandler<? super T> rowHandler) throws DBException {
+		getTemplate().query(sql, parameters, null, options, new ClassResultReader<T>(resultClass, rowHandler));
+	}
+
+	/**
+	 * Executes the given SQL and passes each row of the JDBC ResultSet, mapped to a Map, to the handler.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public void queryMap(String sql, Object parameters, QueryOptions options, RowHandler<? super RMap> rowHandler) throws DBException {
+		getTemplate().query(sql, parameters, null, options, new MapResultReader(rowHandler));
+	}
+
+	/**
+	 * Executes the given joined SQL and maps the JDBC ResultSet to a List of parents, each distinct child is added to its parent.
+	 * 
+	 * @param sql an SQL that joins the parents and the children, and may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @return a list of parents in the order of the ResultSet.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <P, C> List<P> getJoinedList(String sql, Object parameters, JoinMapping<P, C> mapping) throws DBException {
+		JoinResultReader<P, C> resultReader = new JoinResultReader<P, C>(mapping);
+		getTemplate().query(sql, parameters, resultReader);
+		return resultReader.getResults();
+	}
+
+	/**
+	 * Executes the given joined SQL and passes each parent to the handler after all of its children have been read.
+	 * The SQL must be ordered by the parent keys, so that only one parent is kept in memory, the query fails if the rows 
+	 * of a parent appear again after the other parents.
+	 * 
+	 * @param sql an SQL that joins the parents and the children, and is ordered by the parent keys.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param mapping describes the keys of the parents and the children, and the collection property that holds the children.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param rowHandler handler of the parents.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <P, C> void queryJoined(String sql, Object parameters, JoinMapping<P, C> mapping, QueryOptions options, RowHandler<? super P> rowHandler) throws DBException {
+		JoinResultReader<P, C> resultReader = new JoinResultReader<P, C>(mapping, rowHandler);
+		getTemplate().query(sql, parameters, null, options, resultReader);
+		resultReader.finish();
+	}
+
+	/**
+	 * Executes the given SQL and writes the rows of the JDBC ResultSet with the exporter as they are read, without mapping them to objects.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param options execution options, such as fetch size, max rows and streaming, or null.
+	 * @param exporter exporter of the rows, such as a CsvExporter or a JsonLinesExporter.
+	 * @return the number of exported rows.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, couldn't write the rows, etc.
+	 */
+	public int export(String sql, Object parameters, QueryOptions options, ResultSetExporter exporter) throws DBException {
+		getTemplate().query(sql, parameters, null, options, exporter);
+		return exporter.finish();
+	}
+
 	// =========private methods
 
+	// --------------- query template for pages with the total rows
+	protected <T> Page<T> templatePageQuery(String sql, Object parameters, ResultReader<T> resultReader, boolean maps, int offset, int rows) throws DBException {
+		Dialect dialect = getDialect();
+		LimitHandler limitHandler = offset > 0 ? dialect.getLimitHandler(offset, rows) : dialect.getLimitHandler(rows);
+		String windowSql = dialect instanceof AbstractDialect ? ((AbstractDialect) dialect).getWindowCountSql(sql, PAGE_TOTAL_COLUMN) : null;
+
+		List<T> results;
+		long total = -1;
+		if (windowSql != null) {
+			PageResultReader<T> pageReader = new PageResultReader<T>(resultReader, PAGE_TOTAL_COLUMN);
+			getTemplate().query(windowSql, parameters, limitHandler, pageReader);
+			results = pageReader.getResults();
+			total = pageReader.getTotal();
+			if (maps && pageReader.getTotalKey() != null) {
+				for (T row : results)
+					((Map<?, ?>) row).remove(pageReader.getTotalKey());
+			}
+		} else {
+			getTemplate().query(sql, parameters, limitHandler, resultReader);
+			results = resultReader.getResults();
+		}
+
+		//the total is known without counting if the page isn't full
+		if (total == -1) {
+			if ((results.size() > 0 || offset == 0) && results.size() < rows)
+				total = offset + results.size();
+			else
+				total = templateCountQuery(getCountSql(dialect, sql), parameters);
+		}
+		return new Page<T>(results, total, offset, rows);
+	}
+
+	/**
+	 * Returns the count SQL of the dialect, or wraps the SQL if the dialect doesn't extend AbstractDialect.
+	 */
+	private static String getCountSql(Dialect dialect, String sql) {
+		if (dialect instanceof AbstractDialect)
+			return ((AbstractDialect) dialect).getCountSql(sql);
+		return "SELECT COUNT(*) FROM (" + sql + ") count_";
+	}
+
+	protected long templateCountQuery(String countSql, Object parameters) throws DBException {
+		List<RMap> list = templateMapQuery(countSql, parameters);
+		Object count = ((Map<?, ?>) list.get(0)).entrySet().iterator().next().getValue();
+		return count == null ? 0 : ((Number) count).longValue();
+	}
+
+	// --------------- query template for keyset pagination
+	protected <T> KeysetPage<T> templateKeysetQuery(String sql, Object parameters, ResultReader<T> resultReader, String[] keys, boolean descending, Object[] lastKeys, int rows) throws DBException {
+		LimitHandler limitHandler = getKeysetHandler(getDialect(), keys, descending, lastKeys, rows);
+		KeysetResultReader<T> keysetReader = new KeysetResultReader<T>(resultReader, keys);
+		getTemplate().query(sql, parameters, limitHandler, keysetReader);
+		return new KeysetPage<T>(keysetReader.getResults(), keysetReader.getLastKeys(), rows);
+	}
+
+	private static KeysetHandler getKeysetHandler(Dialect dialect, String[] keys, boolean descending, Object[] lastKeys, int rows) {
+		if (dialect instanceof AbstractDialect)
+			return ((AbstractDialect) dialect).getKeysetHandler(keys, descending, lastKeys, rows);
+		return new KeysetHandler(keys, descending, lastKeys, dialect.getLimitHandler(rows), false);
+	}
+
+	// --------------- query tempalte for spillable results
+	protected <T> SpillableList<T> templateSpillableQuery(String sql, Object parameters, QueryOptions options, SpillableResultReader<T> resultReader) throws DBException {
+		boolean completed = false;
+		try {
+			getTemplate().query(sql, parameters, null, options, resultReader);
+			completed = true;
+		} finally {
+			if (!completed)
+				resultReader.discard();
+		}
+		return resultReader.getSpillableList();
+	}
+
+	// --------------- query template for cached and coalesced results
+	/**
+	 * Executes the query if its result should be cached or shared with the identical queries in flight, 
+	 * or returns null if neither is enabled. Queries in a transaction are neither cached nor shared.
+	 */
+	protected <T> List<T> templateSharedQuery(String sql, Object parameters, Class<?> resultClass, QueryOptions options, ResultReader<T> resultReader) throws DBException {
+		DataSource dataSource = getTemplate().getDataSource();
+		ResultCacheManager cacheManager = getResultCacheManager();
+		boolean cached = cacheManager.isCached(sql, options);
+		boolean coalesced = (options != null && options.isCoalesced()) || getDataSourceManager().isCoalesced(dataSource);
+		if ((!cached && !coalesced) || DBTransaction.getTransactionConnection(dataSource) != null)
+			return null;
+
+		CacheKey cacheKey = cacheManager.createKey(dataSource, sql, parameters, resultClass, options);
+		if (cacheKey == null)
+			return null;
+
+		if (cached) {
+			List<T> results = cacheManager.get(cacheKey);
+			if (results != null)
+				return results;
+		}
+
+		long generation = cacheManager.getGeneration();
+		if (!coalesced) {
+			getTemplate().query(sql, parameters, null, options, resultReader);
+			return cacheManager.put(cacheKey, resultReader.getResults(), generation);
+		}
+		return templateCoalescedQuery(cacheKey, sql, parameters, options, resultReader, cached ? generation : -1);
+	}
+
+	/**
+	 * Executes the query, or waits for the identical query in flight, and copies the result. 
+	 * The executing thread publishes an unmodifiable snapshot of the rows, which is also cached if the generation isn't negative, 
+	 * and each caller receives its own modifiable list with copies of the rows, as {@link ResultCacheManager#copy(List, Class)} does.
+	 */
+	private <T> List<T> templateCoalescedQuery(final CacheKey cacheKey, final String sql, final Object parameters, final QueryOptions options, 
+			final ResultReader<T> resultReader, final long generation) throws DBException {
+		final ResultCacheManager cacheManager = getResultCacheManager();
+
+		QueryCoalescer coalescer = getDataSourceManager().getQueryCoalescer(getTemplate().getDataSource());
+		List<T> results = coalescer.execute(cacheKey, new QueryCoalescer.Execution<List<T>>() {
+			public List<T> execute() throws DBException {
+				getTemplate().query(sql, parameters, null, options, resultReader);
+				List<T> snapshot = Collections.unmodifiableList(new ArrayList<T>(resultReader.getResults()));
+				if (generation >= 0)
+					cacheManager.put(cacheKey, snapshot, generation);
+				return snapshot;
+			}
+		});
+
+		return cacheManager.copy(results, cacheKey.getResultClass());
+	}
+
+	private ResultCacheManager getResultCacheManager() throws DBException {
+		return Configuration.getCurrentConfiguration().getResultCacheManager();
+	}
+
+	private DataSourceManager getDataSourceManager() throws DBException {
+		return Configuration.getCurrentConfiguration().getDataSourceManager();
+	}
+
 	// --------------- query tempalte for java bean
 	protected <T> T templateClassQueryForOneRow(String sql, Object parameters, Class<T> resultClass) throws DBException {
 		List<T> list = templateClassQuery(sql, parameters, resultClass, null);
@@ -514,6 +956,10 @@ public class DBQuery extends DBOperation {
 
 	private <T> List<T> templateClassQuery(String sql, Object parameters, Class<T> resultClass, LimitHandler limitHandler) throws DBException {
 		ResultReader<T> resultReader = new ClassResultReader<T>(resultClass);
+		List<T> shared = limitHandler == null ? templateSharedQuery(sql, parameters, resultClass, null, resultReader) : null;
+		if (shared != null)
+			return shared;
+
 		if (parameters == null && limitHandler == null)
 			getTemplate().query(sql, resultReader);
 		else
@@ -543,6 +989,10 @@ public class DBQuery extends DBOperation {
 
 	private List<RMap> templateMapQuery(String sql, Object parameters, LimitHandler limitHandler) throws DBException {
 		MapResultReader resultReader = new MapResultReader();
+		List<RMap> shared = limitHandler == null ? templateSharedQuery(sql, parameters, null, null, resultReader) : null;
+		if (shared != null)
+			return shared;
+
 		if (parameters == null && limitHandler == null)
 			getTemplate().query(sql, resultReader);
 		else
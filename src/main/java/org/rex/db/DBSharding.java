@@ -0,0 +1,292 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.rex.RMap;
+import org.rex.db.exception.DBException;
+import org.rex.db.shard.ShardFunction;
+import org.rex.db.shard.ShardMerger;
+
+/**
+ * Database operations on sharded data, each shard of which is a DataSource.
+ * <p>
+ * Operations with a shard key are routed to the DataSource that owns the key by the shard function. Queries without a shard key 
+ * are executed on all shards in parallel, on the async executors of the DataSources, and their results are merged by a 
+ * {@link ShardMerger}. The parallel queries do not join the transaction of the calling thread.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class DBSharding {
+
+	private final DataSource[] dataSources;
+
+	private final ShardFunction shardFunction;
+
+	// -------constructors
+	/**
+	 * @param dataSources the DataSources of the shards, in the order of the shard indexes.
+	 * @param shardFunction the function that routes the shard keys.
+	 */
+	public DBSharding(DataSource[] dataSources, ShardFunction shardFunction) throws DBException {
+		if (dataSources == null || dataSources.length == 0)
+			throw new DBException("DB-C0008");
+		for (int i = 0; i < dataSources.length; i++) {
+			if (dataSources[i] == null)
+				throw new DBException("DB-C0008");
+		}
+		this.dataSources = dataSources.clone();
+		this.shardFunction = shardFunction;
+	}
+
+	// -------routing
+	/**
+	 * Returns the number of shards.
+	 */
+	public int getShards() {
+		return dataSources.length;
+	}
+
+	/**
+	 * Returns the index of the shard that owns the key.
+	 * 
+	 * @throws DBException if the shard function returned an invalid index.
+	 */
+	public int getShard(Object shardKey) throws DBException {
+		int shard = shardFunction.getShard(shardKey, dataSources.length);
+		if (shard < 0 || shard >= dataSources.length)
+			throw new DBException("DB-C0016", shard, shardKey, dataSources.length);
+		return shard;
+	}
+
+	/**
+	 * Returns the DataSource of the shard that owns the key.
+	 */
+	public DataSource getDataSource(Object shardKey) throws DBException {
+		return dataSources[getShard(shardKey)];
+	}
+
+	/**
+	 * Returns the query operations of the shard that owns the key.
+	 */
+	public DBQuery query(Object shardKey) throws DBException {
+		return DBQuery.getInstance(getDataSource(shardKey));
+	}
+
+	/**
+	 * Returns the update operations of the shard that owns the key.
+	 */
+	public DBUpdate update(Object shardKey) throws DBException {
+		return DBUpdate.getInstance(getDataSource(shardKey));
+	}
+
+	/**
+	 * Returns the call operations of the shard that owns the key.
+	 */
+	public DBCall call(Object shardKey) throws DBException {
+		return DBCall.getInstance(getDataSource(shardKey));
+	}
+
+	// -------fan-out queries
+	/**
+	 * Executes the given SQL on all shards and concatenates the results in the order of the shards.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @return a list of object that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> List<T> getList(String sql, Object parameters, Class<T> resultClass) throws DBException {
+		return getList(sql, parameters, resultClass, ShardMerger.concat());
+	}
+
+	/**
+	 * Executes the given SQL on all shards and merges the results.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param merger the merger of the results, such as ShardMerger.orderBy("id") for a query ordered by 'id'.
+	 * @return a list of object that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> List<T> getList(final String sql, final Object parameters, final Class<T> resultClass, ShardMerger merger) throws DBException {
+		return merger.merge(fanOut(new ShardQuery<T>() {
+			public List<T> execute(DataSource dataSource) throws DBException {
+				return DBQuery.getInstance(dataSource).getList(sql, parameters, resultClass);
+			}
+		}));
+	}
+
+	/**
+	 * Executes the given SQL on all shards and returns the rows in the specified range of the merged result. 
+	 * Each shard reads at most 'offset + rows' rows, the merger should order the rows the same way as the SQL.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param resultClass a class that each row of the ResultSet should be mapped to.
+	 * @param merger the merger of the results, such as ShardMerger.orderBy("id") for a query ordered by 'id'.
+	 * @param offset the offset of the first row in the merged result, starting from 0.
+	 * @param rows max rows to return.
+	 * @return a list of object that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public <T> List<T> getList(final String sql, final Object parameters, final Class<T> resultClass, ShardMerger merger, 
+			int offset, int rows) throws DBException {
+		final int limit = limit(offset, rows);
+		List<T> merged = merger.merge(fanOut(new ShardQuery<T>() {
+			public List<T> execute(DataSource dataSource) throws DBException {
+				return DBQuery.getInstance(dataSource).getList(sql, parameters, resultClass, 0, limit);
+			}
+		}));
+		return range(merged, offset, rows);
+	}
+
+	/**
+	 * Executes the given SQL on all shards and concatenates the results in the order of the shards.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @return a list of Map that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<RMap> getMapList(String sql, Object parameters) throws DBException {
+		return getMapList(sql, parameters, ShardMerger.concat());
+	}
+
+	/**
+	 * Executes the given SQL on all shards and merges the results.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param merger the merger of the results, such as ShardMerger.orderBy("id") for a query ordered by 'id'.
+	 * @return a list of Map that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<RMap> getMapList(final String sql, final Object parameters, ShardMerger merger) throws DBException {
+		return merger.merge(fanOut(new ShardQuery<RMap>() {
+			public List<RMap> execute(DataSource dataSource) throws DBException {
+				return DBQuery.getInstance(dataSource).getMapList(sql, parameters);
+			}
+		}));
+	}
+
+	/**
+	 * Executes the given SQL on all shards and returns the rows in the specified range of the merged result. 
+	 * Each shard reads at most 'offset + rows' rows, the merger should order the rows the same way as the SQL.
+	 * 
+	 * @param sql an SQL that may contain one or more '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean that contains prepared parameters, or null.
+	 * @param merger the merger of the results, such as ShardMerger.orderBy("id") for a query ordered by 'id'.
+	 * @param offset the offset of the first row in the merged result, starting from 0.
+	 * @param rows max rows to return.
+	 * @return a list of Map that mapped from the ResultSets.
+	 * @throws DBException if the configuration wasn't loaded, could not access the database, couldn't execute the SQL, etc.
+	 */
+	public List<RMap> getMapList(final String sql, final Object parameters, ShardMerger merger, int offset, int rows) throws DBException {
+		final int limit = limit(offset, rows);
+		List<RMap> merged = merger.merge(fanOut(new ShardQuery<RMap>() {
+			public List<RMap> execute(DataSource dataSource) throws DBException {
+				return DBQuery.getInstance(dataSource).getMapList(sql, parameters, 0, limit);
+			}
+		}));
+		return range(merged, offset, rows);
+	}
+
+	// -------private methods
+	/**
+	 * Query executed on each shard.
+	 */
+	private interface ShardQuery<T> {
+
+		List<T> execute(DataSource dataSource) throws DBException;
+	}
+
+	/**
+	 * Executes the query on all shards in parallel, and waits for their results. The other queries are cancelled if one of them failed.
+	 */
+	private <T> List<List<T>> fanOut(final ShardQuery<T> query) throws DBException {
+		if (dataSources.length == 1)
+			return Collections.singletonList(query.execute(dataSources[0]));
+
+		List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(dataSources.length);
+		boolean completed = false;
+		try {
+			for (int i = 0; i < dataSources.length; i++) {
+				final DataSource dataSource = dataSources[i];
+				futures.add(DBAsync.getInstance(dataSource).submit(new Callable<List<T>>() {
+					public List<T> call() throws DBException {
+						return query.execute(dataSource);
+					}
+				}));
+			}
+
+			List<List<T>> results = new ArrayList<List<T>>(dataSources.length);
+			for (int i = 0; i < futures.size(); i++) {
+				results.add(getResult(futures.get(i), i));
+			}
+			completed = true;
+			return results;
+		} finally {
+			if (!completed) {
+				for (int i = 0; i < futures.size(); i++) {
+					futures.get(i).cancel(true);
+				}
+			}
+		}
+	}
+
+	private <T> List<T> getResult(Future<List<T>> future, int shard) throws DBException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException("DB-C0015", e, dataSources.length, e.getMessage());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof DBException)
+				throw (DBException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new DBException("DB-C0018", cause, shard, String.valueOf(cause));
+		}
+	}
+
+	/**
+	 * Returns the max rows each shard reads for the range, which is saturated at Integer.MAX_VALUE.
+	 */
+	private static int limit(int offset, int rows) throws DBException {
+		if (offset < 0 || rows < 0)
+			throw new DBException("DB-C0023", offset, rows);
+		return (int) Math.min(Integer.MAX_VALUE, (long) offset + rows);
+	}
+
+	private static <T> List<T> range(List<T> rows, int offset, int count) {
+		if (offset >= rows.size())
+			return new ArrayList<T>();
+		return new ArrayList<T>(rows.subList(offset, (int) Math.min(rows.size(), (long) offset + count)));
+	}
+}
@@ -16,7 +16,9 @@
 package org.rex.db;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -25,9 +27,13 @@ import javax.sql.DataSource;
 import org.rex.db.configuration.Configuration;
 import org.rex.db.core.DBOperation;
 import org.rex.db.core.DBTemplate;
+import org.rex.db.dialect.AbstractDialect;
+import org.rex.db.dialect.Dialect;
 import org.rex.db.exception.DBException;
 import org.rex.db.exception.DBRuntimeException;
 import org.rex.db.transaction.DefaultDefinition;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ReflectUtil;
 
 /**
  * Database updating operation, such as INSERT, UPDATE, DELETE, etc.
@@ -222,6 +228,105 @@ public class DBUpdate extends DBOperation {
 		return clazz;
 	}
 
+	// -----------upsert
+	/**
+	 * Inserts the row, or updates the other columns of the row that has the same keys, by the upsert SQL of the dialect, 
+	 * such as MERGE, 'INSERT ... ON CONFLICT' or 'INSERT ... ON DUPLICATE KEY UPDATE'. The columns are the keys of the Map, 
+	 * or the properties of the java bean, which are renamed as the columns are mapped to them in reverse, such as userName to USER_NAME.
+	 * 
+	 * @param table the table name.
+	 * @param row a Map or java bean.
+	 * @param keys columns or properties of the primary key or an unique key, which are renamed as the columns.
+	 * @return the affected row count, which is counted differently by the databases.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, 
+	 *             couldn't execute the SQL, etc.
+	 */
+	public int upsert(String table, Object row, String[] keys) throws DBException {
+		String[] properties = getUpsertProperties(row);
+		String sql = getUpsertSql(getDialect(), table, toColumnNames(properties), toColumnNames(keys));
+		return templateUpdate(sql, getUpsertParameters(row, properties));
+	}
+
+	/**
+	 * Inserts or updates the rows in one batch by the upsert SQL of the dialect. The columns are read from the first row, 
+	 * other rows should have the same columns.
+	 * 
+	 * @param table the table name.
+	 * @param rows a list of Map or java bean.
+	 * @param keys columns or properties of the primary key or an unique key, which are renamed as the columns.
+	 * @return an array of update counts containing one element for each row.
+	 * 
+	 * @throws DBException if the configuration wasn't loaded, the dialect doesn't support upsert, could not access the database, 
+	 *             couldn't execute the SQL, etc.
+	 */
+	public int[] batchUpsert(String table, List<?> rows, String[] keys) throws DBException {
+		if (rows == null || rows.isEmpty())
+			return new int[0];
+
+		validateListElementsType(rows);
+		String[] properties = getUpsertProperties(rows.get(0));
+		String sql = getUpsertSql(getDialect(), table, toColumnNames(properties), toColumnNames(keys));
+		Ps[] parameters = new Ps[rows.size()];
+		for (int i = 0; i < parameters.length; i++)
+			parameters[i] = getUpsertParameters(rows.get(i), properties);
+		return templateBatchUpdate(sql, parameters);
+	}
+
+	/**
+	 * Returns the upsert SQL of the dialect, only the dialects extending AbstractDialect support upsert.
+	 */
+	private static String getUpsertSql(Dialect dialect, String table, String[] columns, String[] keys) throws DBException {
+		if (!(dialect instanceof AbstractDialect))
+			throw new DBException("DB-A0006", dialect.getName());
+		return ((AbstractDialect) dialect).getUpsertSql(table, columns, keys);
+	}
+
+	/**
+	 * Renames the properties as the columns, such as userName to USER_NAME.
+	 */
+	private static String[] toColumnNames(String[] properties) {
+		if (properties == null)
+			return null;
+
+		String[] columns = new String[properties.length];
+		for (int i = 0; i < properties.length; i++)
+			columns[i] = MappingPlan.toColumnName(properties[i]);
+		return columns;
+	}
+
+	/**
+	 * Returns the String keys of the Map, or the mapped properties of the java bean.
+	 */
+	private String[] getUpsertProperties(Object row) throws DBException {
+		if (row == null || row instanceof Ps || row.getClass().isArray() || row instanceof Iterable || row instanceof String)
+			throw new DBException("DB-00007", row);
+
+		List<String> properties = new ArrayList<String>();
+		if (row instanceof Map) {
+			for (Iterator<?> iterator = ((Map<?, ?>) row).keySet().iterator(); iterator.hasNext();) {
+				Object key = iterator.next();
+				if (key instanceof String)
+					properties.add((String) key);
+			}
+		} else if (ReflectUtil.isFieldAccess(row.getClass()))
+			properties.addAll(ReflectUtil.getFields(row.getClass()).keySet());
+		else
+			properties.addAll(ReflectUtil.getReadableMethods(row.getClass()).keySet());
+
+		return properties.toArray(new String[properties.size()]);
+	}
+
+	private Ps getUpsertParameters(Object row, String[] properties) throws DBException {
+		if (row == null)
+			throw new DBException("DB-00007", row);
+
+		Ps ps = new Ps();
+		for (int i = 0; i < properties.length; i++)
+			ps.add(ReflectUtil.getRowValue(row, properties[i]));
+		return ps;
+	}
+
 	// ----------------------private methods
 	/**
 	 * Executes the SQL statement using <tt>DBTemplate</tt>. the given parameter 'parameters' could be <tt>null</tt>, <tt>Ps</tt>,
@@ -248,10 +353,14 @@ public class DBUpdate extends DBOperation {
 	 * @throws DBException either rexdb configuration wasn't loaded, or database error occurs, or couldn't execute SQL, etc.
 	 */
 	private int templateUpdate(String sql, Object parameters) throws DBException {
-		if (parameters == null)
-			return getTemplate().update(sql);
-		else
-			return getTemplate().update(sql, parameters);
+		try {
+			if (parameters == null)
+				return getTemplate().update(sql);
+			else
+				return getTemplate().update(sql, parameters);
+		} finally {
+			invalidateCache(sql);
+		}
 	}
 
 	/**
@@ -262,7 +371,12 @@ public class DBUpdate extends DBOperation {
 	 * @throws DBException if rexdb configuration wasn't loaded, database access error occurs, couldn't execute SQL, etc. 
 	 */
 	private int[] templateBatchUpdate(String[] sql) throws DBException {
-		return getTemplate().batchUpdate(sql);
+		try {
+			return getTemplate().batchUpdate(sql);
+		} finally {
+			for (int i = 0; i < sql.length; i++)
+				invalidateCache(sql[i]);
+		}
 	}
 
 	/**
@@ -290,16 +404,33 @@ public class DBUpdate extends DBOperation {
 		if (autoTransaction && connection == null) {
 			try {
 				DBTransaction.begin(dataSource, new DefaultDefinition());
-				ri = getTemplate().batchUpdate(sql, parametersArray);
+				try {
+					ri = getTemplate().batchUpdate(sql, parametersArray);
+				} finally {
+					invalidateCache(sql);
+				}
 				DBTransaction.commit(dataSource);
 			} catch (DBException e) {
 				DBTransaction.rollback(dataSource);
 				throw e;
 			}
-		} else
-			ri = getTemplate().batchUpdate(sql, parametersArray);
+		} else {
+			try {
+				ri = getTemplate().batchUpdate(sql, parametersArray);
+			} finally {
+				invalidateCache(sql);
+			}
+		}
 
 		return ri;
 	}
 
+	/**
+	 * Invalidates the cached query results that read the tables written by the SQL.
+	 */
+	private void invalidateCache(String sql) throws DBException {
+		boolean inTransaction = DBTransaction.getTransactionConnection(getTemplate().getDataSource()) != null;
+		Configuration.getCurrentConfiguration().getResultCacheManager().invalidate(sql, inTransaction);
+	}
+
 }
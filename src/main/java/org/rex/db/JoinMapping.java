@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.Arrays;
+
+/**
+ * Describes how a joined ResultSet is mapped to parents with nested children.
+ * <p>
+ * Parents are identified by the parent key columns, and each distinct child, identified by the child key columns,
+ * is added to the collection property of its parent. Rows whose child keys are all null, such as unmatched rows
+ * of a LEFT JOIN, add no child. Children can be mapped from columns with a prefix, so that parent and child columns
+ * with the same name don't conflict.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class JoinMapping<P, C> {
+
+	private final Class<P> parentClass;
+
+	private final String[] parentKeys;
+
+	private final String property;
+
+	private final Class<C> childClass;
+
+	private final String[] childKeys;
+
+	/**
+	 * Prefix of the child columns, or null if the child is mapped from all columns.
+	 */
+	private final String childPrefix;
+
+	// --------construction
+	/**
+	 * @param parentClass class of the parents.
+	 * @param parentKeys labels of the columns that identify a parent.
+	 * @param property collection property of the parent that holds the children.
+	 * @param childClass class of the children.
+	 * @param childKeys labels of the columns that identify a child.
+	 */
+	public JoinMapping(Class<P> parentClass, String[] parentKeys, String property, Class<C> childClass, String[] childKeys) {
+		this(parentClass, parentKeys, property, childClass, childKeys, null);
+	}
+
+	/**
+	 * @param parentClass class of the parents.
+	 * @param parentKeys labels of the columns that identify a parent.
+	 * @param property collection property of the parent that holds the children.
+	 * @param childClass class of the children.
+	 * @param childKeys labels of the columns that identify a child, including the prefix.
+	 * @param childPrefix prefix of the child columns, which is removed before the columns are mapped, such as ITEM_.
+	 */
+	public JoinMapping(Class<P> parentClass, String[] parentKeys, String property, Class<C> childClass, String[] childKeys, String childPrefix) {
+		if (parentKeys == null || parentKeys.length == 0 || childKeys == null || childKeys.length == 0)
+			throw new IllegalArgumentException("both parent keys and child keys are required.");
+		this.parentClass = parentClass;
+		this.parentKeys = parentKeys;
+		this.property = property;
+		this.childClass = childClass;
+		this.childKeys = childKeys;
+		this.childPrefix = childPrefix;
+	}
+
+	// --------getters
+	public Class<P> getParentClass() {
+		return parentClass;
+	}
+
+	public String[] getParentKeys() {
+		return parentKeys;
+	}
+
+	public String getProperty() {
+		return property;
+	}
+
+	public Class<C> getChildClass() {
+		return childClass;
+	}
+
+	public String[] getChildKeys() {
+		return childKeys;
+	}
+
+	public String getChildPrefix() {
+		return childPrefix;
+	}
+
+	// --------toString
+	public String toString() {
+		return parentClass.getName() + Arrays.toString(parentKeys) + "." + property + " -> " + childClass.getName() + Arrays.toString(childKeys)
+				+ (childPrefix == null ? "" : ", prefix=" + childPrefix);
+	}
+}
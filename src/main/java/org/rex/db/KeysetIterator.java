@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.exception.DBRuntimeException;
+
+/**
+ * Iterates all rows of a query page by page with keyset pagination, each page seeks the rows after the last keys of the previous page,
+ * so the cost of a page doesn't grow with the number of pages that have been read. Only one page is kept in memory.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class KeysetIterator<T> implements Iterator<T> {
+
+	private final DBQuery query;
+
+	private final String sql;
+
+	private final Object parameters;
+
+	/**
+	 * Class of the rows, or null if rows are mapped to RMap.
+	 */
+	private final Class<T> resultClass;
+
+	private final String[] keys;
+
+	private final boolean descending;
+
+	private final int pageSize;
+
+	private KeysetPage<T> page;
+
+	private Iterator<T> rows;
+
+	private int pageCount;
+
+	public KeysetIterator(DBQuery query, String sql, Object parameters, Class<T> resultClass, String[] keys, boolean descending, int pageSize) {
+		if (pageSize <= 0)
+			throw new IllegalArgumentException("page size must be positive, but was " + pageSize);
+		this.query = query;
+		this.sql = sql;
+		this.parameters = parameters;
+		this.resultClass = resultClass;
+		this.keys = keys;
+		this.descending = descending;
+		this.pageSize = pageSize;
+	}
+
+	// -----------iterator
+	/**
+	 * Returns true if there are more rows, the next page is queried if the rows of the current page have been iterated.
+	 * 
+	 * @throws DBRuntimeException if couldn't query the next page.
+	 */
+	public boolean hasNext() {
+		while (rows == null || !rows.hasNext()) {
+			if (page != null && !page.hasNext())
+				return false;
+			try {
+				page = nextPage(page == null ? null : page.getLastKeys());
+			} catch (DBException e) {
+				throw new DBRuntimeException(e);
+			}
+			rows = page.getRows().iterator();
+			pageCount++;
+		}
+		return true;
+	}
+
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		return rows.next();
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns the number of pages that have been queried.
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	// -----------private methods
+	private KeysetPage<T> nextPage(Object[] lastKeys) throws DBException {
+		if (resultClass != null)
+			return query.getKeysetPage(sql, parameters, resultClass, keys, descending, lastKeys, pageSize);
+		return (KeysetPage<T>) (KeysetPage<?>) query.getKeysetMapPage(sql, parameters, keys, descending, lastKeys, pageSize);
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A page of keyset pagination, which contains the rows and the key values of the last row.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class KeysetPage<T> {
+
+	private final List<T> rows;
+
+	private final Object[] lastKeys;
+
+	private final int pageSize;
+
+	public KeysetPage(List<T> rows, Object[] lastKeys, int pageSize) {
+		this.rows = rows;
+		this.lastKeys = lastKeys;
+		this.pageSize = pageSize;
+	}
+
+	public List<T> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the key values of the last row, which are passed to the query of the next page, or null if the page is empty.
+	 */
+	public Object[] getLastKeys() {
+		return lastKeys;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Returns true if the page is full, so that there may be more rows.
+	 */
+	public boolean hasNext() {
+		return rows.size() >= pageSize && lastKeys != null;
+	}
+
+	public String toString() {
+		return "rows=" + rows.size() + ", pageSize=" + pageSize + ", lastKeys=" + Arrays.toString(lastKeys);
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.util.List;
+
+/**
+ * A page of query results with the total rows of the query.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class Page<T> {
+
+	private final List<T> rows;
+
+	private final long total;
+
+	private final int offset;
+
+	private final int pageSize;
+
+	public Page(List<T> rows, long total, int offset, int pageSize) {
+		this.rows = rows;
+		this.total = total;
+		this.offset = offset;
+		this.pageSize = pageSize;
+	}
+
+	public List<T> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the total rows of the query.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Returns the number of pages.
+	 */
+	public long getPageCount() {
+		return pageSize <= 0 ? 0 : (total + pageSize - 1) / pageSize;
+	}
+
+	public String toString() {
+		return "rows=" + rows.size() + ", total=" + total + ", offset=" + offset + ", pageSize=" + pageSize;
+	}
+}
@@ -15,7 +15,11 @@
  */
 package org.rex.db;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Time;
@@ -27,6 +31,7 @@ import java.util.List;
 
 import org.rex.db.configuration.Configuration;
 import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.util.LobUtil;
 import org.rex.db.util.SqlUtil;
 
 /**
@@ -428,6 +433,80 @@ public class Ps {
 		return setParameter(index, value, Types.CLOB);
 	}
 
+	/**
+	 * Sets InputStream parameter at the specified position, which is sent to the database as a binary stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps set(int index, InputStream value) {
+		return setParameter(index, value, Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Sets InputStream parameter with the known length at the specified position, which is sent to the database as a binary stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value.
+	 * @param length the number of bytes in the stream.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps setStream(int index, InputStream value, long length) {
+		return setParameter(index, value == null ? null : new LobUtil.SizedStream(value, length), Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Sets Reader parameter at the specified position, which is sent to the database as a character stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps set(int index, Reader value) {
+		return setParameter(index, value, Types.LONGVARCHAR);
+	}
+
+	/**
+	 * Sets Reader parameter with the known length at the specified position, which is sent to the database as a character stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value.
+	 * @param length the number of characters in the stream.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps setStream(int index, Reader value, long length) {
+		return setParameter(index, value == null ? null : new LobUtil.SizedStream(value, length), Types.LONGVARCHAR);
+	}
+
+	/**
+	 * Sets ByteBuffer parameter at the specified position, the remaining bytes are sent to the database as a binary stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value, such as a MappedByteBuffer.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps set(int index, ByteBuffer value) {
+		return setParameter(index, value, Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Sets file parameter at the specified position, the content of the file is sent to the database as a binary stream.
+	 * 
+	 * @param index the first parameter is 1, the second is 2, ...
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 * @throws DBRuntimeException if the index is out of range.
+	 */
+	public Ps set(int index, File value) {
+		return setParameter(index, value, Types.LONGVARBINARY);
+	}
+
 	/**
 	 * Sets Date parameter at the specified position.
 	 * 
@@ -627,6 +706,68 @@ public class Ps {
 		return addParameter(value, Types.CLOB);
 	}
 
+	/**
+	 * Appends InputStream parameter to the end of the declared parameters list, which is sent to the database as a binary stream.
+	 * 
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 */
+	public Ps add(InputStream value) {
+		return addParameter(value, Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Appends InputStream parameter with the known length to the end of the declared parameters list, which is sent to the database as a binary stream.
+	 * 
+	 * @param value the parameter value.
+	 * @param length the number of bytes in the stream.
+	 * @return reference to this object.
+	 */
+	public Ps addStream(InputStream value, long length) {
+		return addParameter(value == null ? null : new LobUtil.SizedStream(value, length), Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Appends Reader parameter to the end of the declared parameters list, which is sent to the database as a character stream.
+	 * 
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 */
+	public Ps add(Reader value) {
+		return addParameter(value, Types.LONGVARCHAR);
+	}
+
+	/**
+	 * Appends Reader parameter with the known length to the end of the declared parameters list, which is sent to the database as a character stream.
+	 * 
+	 * @param value the parameter value.
+	 * @param length the number of characters in the stream.
+	 * @return reference to this object.
+	 */
+	public Ps addStream(Reader value, long length) {
+		return addParameter(value == null ? null : new LobUtil.SizedStream(value, length), Types.LONGVARCHAR);
+	}
+
+	/**
+	 * Appends ByteBuffer parameter to the end of the declared parameters list, the remaining bytes are sent to the database as a binary stream.
+	 * 
+	 * @param value the parameter value, such as a MappedByteBuffer.
+	 * @return reference to this object.
+	 */
+	public Ps add(ByteBuffer value) {
+		return addParameter(value, Types.LONGVARBINARY);
+	}
+
+	/**
+	 * Appends file parameter to the end of the declared parameters list, the content of the file is sent to the database as a binary stream.
+	 * 
+	 * @param value the parameter value.
+	 * @return reference to this object.
+	 */
+	public Ps add(File value) {
+		return addParameter(value, Types.LONGVARBINARY);
+	}
+
 	/**
 	 * Appends Date parameter to the end of the declared parameters list.
 	 * 
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+/**
+ * Execution options for a query, such as fetch size, max rows and streaming.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class QueryOptions {
+
+	/**
+	 * Rows fetched from the database in each round trip, 0 uses the default fetch size of the dataSource.
+	 */
+	private int fetchSize = 0;
+
+	/**
+	 * Limits the number of rows returned by the query, 0 means unlimited.
+	 */
+	private int maxRows = 0;
+
+	/**
+	 * Reads a forward-only, read-only ResultSet row by row instead of buffering it in the driver.
+	 */
+	private boolean streaming = false;
+
+	/**
+	 * Threads of the shared decoding pool that map rows into objects while the ResultSet is being read, 0 or 1 maps rows in the calling thread.
+	 */
+	private int parallelism = 0;
+
+	/**
+	 * Caches the result of the query, which is invalidated when the tables it reads are updated.
+	 */
+	private boolean cached = false;
+
+	/**
+	 * Shares one execution among the identical queries that run at the same time.
+	 */
+	private boolean coalesced = false;
+
+	// --------construction
+	public QueryOptions() {
+	}
+
+	public QueryOptions(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	public QueryOptions(int fetchSize, int maxRows, boolean streaming) {
+		this.fetchSize = fetchSize;
+		this.maxRows = maxRows;
+		this.streaming = streaming;
+	}
+
+	// --------getters and setters
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	public int getMaxRows() {
+		return maxRows;
+	}
+
+	public void setMaxRows(int maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public boolean isCached() {
+		return cached;
+	}
+
+	public void setCached(boolean cached) {
+		this.cached = cached;
+	}
+
+	public boolean isCoalesced() {
+		return coalesced;
+	}
+
+	public void setCoalesced(boolean coalesced) {
+		this.coalesced = coalesced;
+	}
+
+	// --------toString
+	public String toString() {
+		return "fetchSize=" + fetchSize + ", maxRows=" + maxRows + ", streaming=" + streaming + ", parallelism=" + parallelism + ", cached=" + cached + ", coalesced=" + coalesced;
+	}
+}
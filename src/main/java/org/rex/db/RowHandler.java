@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * Handles the rows of a query one by one, instead of collecting them into a list.
+ * <p>
+ * LOB properties that are mapped to InputStream, ReadableByteChannel or Reader are only valid until the handler returns.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public interface RowHandler<T> {
+
+	/**
+	 * Handles a mapped row.
+	 *
+	 * @param row the row mapped from the ResultSet.
+	 * @param rowNum the row number, starting from 0.
+	 *
+	 * @throws DBException to stop reading the ResultSet.
+	 */
+	void handleRow(T row, int rowNum) throws DBException;
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db;
+
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ORUtil;
+import org.rex.db.util.SpillFile;
+
+/**
+ * Read-only list of query results, whose rows beyond the memory threshold are kept in a temporary file.
+ * <p>
+ * Rows in memory are returned as they are. Spilled rows are read back through a memory-mapped window and mapped again
+ * on every access, so changes of the returned objects are not kept. The list should be closed to delete the temporary file.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SpillableList<T> extends AbstractList<T> implements RandomAccess, Closeable {
+
+	private final ORUtil orUtil = new ORUtil();
+
+	private final List<T> memoryRows;
+
+	private final SpillFile spillFile;
+
+	/**
+	 * Plan of the spilled rows, whose result class is null if rows are mapped to RMap.
+	 */
+	private final MappingPlan plan;
+
+	public SpillableList(List<T> memoryRows, SpillFile spillFile, MappingPlan plan) {
+		this.memoryRows = memoryRows;
+		this.spillFile = spillFile;
+		this.plan = plan;
+	}
+
+	// -----------list
+	public T get(int index) {
+		if (index < memoryRows.size())
+			return memoryRows.get(index);
+		if (spillFile == null)
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+
+		try {
+			return decode(spillFile.read(index - memoryRows.size()));
+		} catch (DBException e) {
+			throw new DBRuntimeException(e);
+		}
+	}
+
+	public int size() {
+		return memoryRows.size() + (spillFile == null ? 0 : spillFile.getRowCount());
+	}
+
+	// -----------spilling
+	/**
+	 * Returns true if some rows are kept in the temporary file.
+	 */
+	public boolean isSpilled() {
+		return spillFile != null;
+	}
+
+	/**
+	 * Returns the number of rows that are kept in memory.
+	 */
+	public int getMemoryRowCount() {
+		return memoryRows.size();
+	}
+
+	/**
+	 * Returns the size of the temporary file, or 0 if no row is spilled.
+	 */
+	public long getSpilledBytes() {
+		return spillFile == null ? 0 : spillFile.getLength();
+	}
+
+	/**
+	 * Deletes the temporary file, spilled rows can't be read after the list is closed.
+	 */
+	public void close() {
+		if (spillFile != null)
+			spillFile.close();
+	}
+
+	// -----------private methods
+	private T decode(Object[] row) throws DBException {
+		if (plan.getResultClass() != null)
+			return (T) orUtil.row2Instance(row, plan);
+		return (T) orUtil.row2Map(row, plan);
+	}
+}
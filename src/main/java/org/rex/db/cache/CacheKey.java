@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+/**
+ * Key of a cached query result, which consists of the DataSource, the normalized SQL, the parameter values, 
+ * the result class and the max rows.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class CacheKey {
+
+	private final Object dataSource;
+
+	private final String sql;
+
+	private final Object parameters;
+
+	private final Class<?> resultClass;
+
+	private final int maxRows;
+
+	private final int hash;
+
+	/**
+	 * @param dataSource the DataSource, which is compared by identity.
+	 * @param sql the normalized SQL.
+	 * @param parameters the parameter values, which should be comparable by equals.
+	 * @param resultClass the class of the rows, or null for maps.
+	 * @param maxRows the max rows of the query, 0 means unlimited.
+	 */
+	public CacheKey(Object dataSource, String sql, Object parameters, Class<?> resultClass, int maxRows) {
+		this.dataSource = dataSource;
+		this.sql = sql;
+		this.parameters = parameters;
+		this.resultClass = resultClass;
+		this.maxRows = maxRows;
+
+		int h = System.identityHashCode(dataSource);
+		h = 31 * h + sql.hashCode();
+		h = 31 * h + (parameters == null ? 0 : parameters.hashCode());
+		h = 31 * h + (resultClass == null ? 0 : resultClass.hashCode());
+		this.hash = 31 * h + maxRows;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public Class<?> getResultClass() {
+		return resultClass;
+	}
+
+	public int hashCode() {
+		return hash;
+	}
+
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CacheKey))
+			return false;
+
+		CacheKey other = (CacheKey) obj;
+		return hash == other.hash && dataSource == other.dataSource && maxRows == other.maxRows && resultClass == other.resultClass
+				&& sql.equals(other.sql) && (parameters == null ? other.parameters == null : parameters.equals(other.parameters));
+	}
+
+	public String toString() {
+		return "sql=" + sql + ", parameters=" + parameters + ", resultClass=" + (resultClass == null ? "map" : resultClass.getName())
+				+ ", maxRows=" + maxRows;
+	}
+}
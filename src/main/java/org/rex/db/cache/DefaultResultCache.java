@@ -0,0 +1,163 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default result cache, which evicts the least recently used results when the size limit is reached, 
+ * and the results that have lived longer than the time to live.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class DefaultResultCache implements ResultCache {
+
+	private final int maxSize;
+
+	private final long ttlMillis;
+
+	private final LinkedHashMap<CacheKey, CachedResult> entries;
+
+	private final Map<String, Set<CacheKey>> keysByTable = new HashMap<String, Set<CacheKey>>();
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * @param maxSize the maximum number of cached results.
+	 * @param ttlMillis the time to live of the results in milliseconds, 0 means the results never expire.
+	 */
+	public DefaultResultCache(int maxSize, long ttlMillis) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException("max size must be greater than 0, but it is " + maxSize + ".");
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<CacheKey, CachedResult>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResult> eldest) {
+				if (size() <= DefaultResultCache.this.maxSize)
+					return false;
+				unindex(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	// -----------implements
+	public synchronized Object get(CacheKey key) {
+		CachedResult entry = entries.get(key);
+		if (entry != null && ttlMillis > 0 && System.currentTimeMillis() - entry.created > ttlMillis) {
+			remove(key);
+			entry = null;
+		}
+
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.result;
+	}
+
+	public synchronized void put(CacheKey key, Object result, String[] tables) {
+		remove(key);
+
+		CachedResult entry = new CachedResult(result, tables, System.currentTimeMillis());
+		for (int i = 0; i < tables.length; i++) {
+			Set<CacheKey> keys = keysByTable.get(tables[i]);
+			if (keys == null) {
+				keys = new HashSet<CacheKey>();
+				keysByTable.put(tables[i], keys);
+			}
+			keys.add(key);
+		}
+		entries.put(key, entry);
+	}
+
+	public synchronized void invalidate(String table) {
+		Set<CacheKey> keys = keysByTable.remove(table);
+		if (keys == null)
+			return;
+
+		for (Iterator<CacheKey> iterator = keys.iterator(); iterator.hasNext();) {
+			CacheKey key = iterator.next();
+			CachedResult entry = entries.remove(key);
+			if (entry != null)
+				unindex(key, entry);
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		keysByTable.clear();
+	}
+
+	// -----------statistics
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public String toString() {
+		return "maxSize=" + maxSize + ", ttlMillis=" + ttlMillis + ", size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses();
+	}
+
+	// -----------private methods
+	private void remove(CacheKey key) {
+		CachedResult entry = entries.remove(key);
+		if (entry != null)
+			unindex(key, entry);
+	}
+
+	private void unindex(CacheKey key, CachedResult entry) {
+		for (int i = 0; i < entry.tables.length; i++) {
+			Set<CacheKey> keys = keysByTable.get(entry.tables[i]);
+			if (keys == null)
+				continue;
+			keys.remove(key);
+			if (keys.isEmpty())
+				keysByTable.remove(entry.tables[i]);
+		}
+	}
+
+	private static class CachedResult {
+
+		final Object result;
+
+		final String[] tables;
+
+		final long created;
+
+		CachedResult(Object result, String[] tables, long created) {
+			this.result = result;
+			this.tables = tables;
+			this.created = created;
+		}
+	}
+}
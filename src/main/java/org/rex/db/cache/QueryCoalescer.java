@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * Coalesces identical concurrent queries, so that only one of them accesses the database.
+ * <p>
+ * The first caller of a key becomes the leader and executes the query, the other callers of the same key wait for the leader
+ * and receive its result or its exception. The key is not kept after the leader finished, so that later calls execute again.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class QueryCoalescer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryCoalescer.class);
+
+	private final ConcurrentMap<CacheKey, Flight> flights = new ConcurrentHashMap<CacheKey, Flight>();
+
+	private final AtomicLong executions = new AtomicLong();
+
+	private final AtomicLong coalescedCalls = new AtomicLong();
+
+	/**
+	 * Execution of a query.
+	 */
+	public interface Execution<T> {
+
+		T execute() throws DBException;
+	}
+
+	/**
+	 * Executes the query, or waits for the identical query in flight and returns its result.
+	 * The same result is returned to the leader and the waiting callers, so the execution should return an immutable snapshot,
+	 * and the callers should copy it before changing it.
+	 *
+	 * @return the result, which is shared with the other callers of the key.
+	 * @throws DBException if the execution failed, or the caller was interrupted while waiting.
+	 */
+	public <T> T execute(CacheKey key, Execution<T> execution) throws DBException {
+		Flight flight = new Flight();
+		Flight leader = flights.putIfAbsent(key, flight);
+		if (leader != null) {
+			coalescedCalls.incrementAndGet();
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("waiting for the identical query in flight, {0}.", key);
+			return (T) leader.await();
+		}
+
+		executions.incrementAndGet();
+		boolean completed = false;
+		try {
+			T result = execution.execute();
+			flight.complete(result, null);
+			completed = true;
+			return result;
+		} catch (DBException e) {
+			flight.complete(null, e);
+			completed = true;
+			throw e;
+		} catch (RuntimeException e) {
+			flight.complete(null, e);
+			completed = true;
+			throw e;
+		} finally {
+			if (!completed)
+				flight.complete(null, new IllegalStateException("the query in flight was aborted."));
+			flights.remove(key, flight);
+		}
+	}
+
+	// -----------metrics
+	/**
+	 * Returns the number of queries executed by leaders.
+	 */
+	public long getExecutions() {
+		return executions.get();
+	}
+
+	/**
+	 * Returns the number of calls that received the result of a query in flight instead of executing it.
+	 */
+	public long getCoalescedCalls() {
+		return coalescedCalls.get();
+	}
+
+	/**
+	 * Returns the number of queries in flight.
+	 */
+	public int getInFlight() {
+		return flights.size();
+	}
+
+	public String toString() {
+		return "executions=" + getExecutions() + ", coalescedCalls=" + getCoalescedCalls() + ", inFlight=" + getInFlight();
+	}
+
+	// -----------inner classes
+	/**
+	 * Query in flight.
+	 */
+	private static class Flight {
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Object result;
+
+		private volatile Exception exception;
+
+		void complete(Object result, Exception exception) {
+			this.result = result;
+			this.exception = exception;
+			done.countDown();
+		}
+
+		Object await() throws DBException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DBException("DB-C0013", e, e.getMessage());
+			}
+
+			if (exception instanceof DBException)
+				throw (DBException) exception;
+			if (exception instanceof RuntimeException)
+				throw (RuntimeException) exception;
+			return result;
+		}
+	}
+}
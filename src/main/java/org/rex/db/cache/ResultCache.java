@@ -0,0 +1,53 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+/**
+ * Cache of query results, which are invalidated by the tables that the queries read.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public interface ResultCache {
+
+	/**
+	 * Returns the cached result, or null if the key is not cached or has expired.
+	 */
+	Object get(CacheKey key);
+
+	/**
+	 * Caches the result of a query.
+	 *
+	 * @param key the key of the query.
+	 * @param result the immutable result.
+	 * @param tables the tables that the query reads, in lower case.
+	 */
+	void put(CacheKey key, Object result, String[] tables);
+
+	/**
+	 * Removes the results of all queries that read the table.
+	 *
+	 * @param table the table name in lower case.
+	 */
+	void invalidate(String table);
+
+	/**
+	 * Removes all results.
+	 */
+	void clear();
+}
@@ -0,0 +1,446 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.rex.RMap;
+import org.rex.db.Ps;
+import org.rex.db.QueryOptions;
+import org.rex.db.dynamic.javassist.BeanConvertorManager;
+import org.rex.db.dynamic.javassist.BeanCopier;
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Manages the query result cache. Queries are cached if they are opted in by {@link QueryOptions#setCached(boolean)}, 
+ * or if their SQL matches one of the patterns configured in the settings.
+ * <p>
+ * Results are invalidated when an update touches one of the tables that the cached SQL reads, and all results are invalidated 
+ * by stored procedure calls. Updates in a transaction invalidate the results again when the transaction completes, 
+ * and queries in a transaction are not cached.
+ * <p>
+ * The cached rows are never returned, callers receive copies of map rows and shallow copies of bean rows. 
+ * Immutable classes, which are created by their constructors, are not copied.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ResultCacheManager {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultCacheManager.class);
+
+	/**
+	 * Marks parameters that could not be a part of the key, such as streams.
+	 */
+	private static final Object NOT_CACHEABLE = new Object();
+
+	/**
+	 * Marks the pending tables of a transaction that called a stored procedure, which invalidates all results.
+	 */
+	private static final String ALL_TABLES = "*";
+
+	/**
+	 * Maximum number of SQLs whose pattern matches are kept, the matches will be cleared if they grow larger.
+	 */
+	private static final int MAX_MATCHED_SQLS = 1024;
+
+	private volatile int maxSize = 1000;
+
+	private volatile int ttl = 60;
+
+	private volatile Pattern[] patterns = new Pattern[0];
+
+	/**
+	 * Whether the SQLs match one of the patterns.
+	 */
+	private final Map<String, Boolean> matches = new ConcurrentHashMap<String, Boolean>();
+
+	private volatile ResultCache cache;
+
+	/**
+	 * Increased on each invalidation, so that results read before an invalidation are not cached.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Held while checking the generation and caching, and while invalidating, so that results are not cached after an invalidation.
+	 */
+	private final Object invalidationLock = new Object();
+
+	/**
+	 * Tables updated in the transaction of the current thread.
+	 */
+	private final ThreadLocal<Set<String>> pendingTables = new ThreadLocal<Set<String>>();
+
+	// -----------settings
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets the maximum number of cached results, which is applied to the cache created later.
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public int getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * Sets the time to live of the results in seconds, which is applied to the cache created later.
+	 */
+	public void setTtl(int ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Sets the regular expressions separated by ';', queries are cached if their SQL contains a match of one of them.
+	 */
+	public void setPatterns(String patterns) {
+		List<Pattern> compiled = new ArrayList<Pattern>();
+		if (patterns != null) {
+			String[] expressions = patterns.split(";");
+			for (int i = 0; i < expressions.length; i++) {
+				if (expressions[i].trim().length() > 0)
+					compiled.add(Pattern.compile(expressions[i].trim(), Pattern.CASE_INSENSITIVE));
+			}
+		}
+		this.patterns = compiled.toArray(new Pattern[compiled.size()]);
+		matches.clear();
+	}
+
+	public String getPatterns() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < patterns.length; i++) {
+			if (i > 0)
+				sb.append(';');
+			sb.append(patterns[i].pattern());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the cache, which is created with the size and the time to live in the settings if not set.
+	 */
+	public ResultCache getCache() {
+		if (cache == null) {
+			synchronized (this) {
+				if (cache == null)
+					cache = new DefaultResultCache(maxSize, ttl * 1000L);
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Replaces the cache with a custom implementation.
+	 */
+	public void setCache(ResultCache cache) {
+		this.cache = cache;
+	}
+
+	// -----------queries
+	/**
+	 * Returns true if the query should be cached.
+	 */
+	public boolean isCached(String sql, QueryOptions options) {
+		if (options != null && options.isCached())
+			return true;
+
+		Pattern[] patterns = this.patterns;
+		if (patterns.length == 0)
+			return false;
+
+		Boolean matched = matches.get(sql);
+		if (matched == null) {
+			matched = Boolean.FALSE;
+			for (int i = 0; i < patterns.length; i++) {
+				if (patterns[i].matcher(sql).find()) {
+					matched = Boolean.TRUE;
+					break;
+				}
+			}
+			if (matches.size() >= MAX_MATCHED_SQLS)
+				matches.clear();
+			matches.put(sql, matched);
+		}
+		return matched.booleanValue();
+	}
+
+	/**
+	 * Creates the key of the query, returns null if the parameters could not be compared, such as streams.
+	 */
+	public CacheKey createKey(DataSource dataSource, String sql, Object parameters, Class<?> resultClass, QueryOptions options) throws DBException {
+		Object values = toKeyValue(parameters);
+		if (values == NOT_CACHEABLE)
+			return null;
+		return new CacheKey(dataSource, SqlTables.normalize(sql), values, resultClass, options == null ? 0 : options.getMaxRows());
+	}
+
+	/**
+	 * Returns the current generation, which should be read before executing the query to be cached.
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Returns copies of the cached rows, or null if the query is not cached.
+	 */
+	public <T> List<T> get(CacheKey key) throws DBException {
+		List<T> rows = (List<T>) getCache().get(key);
+		return rows == null ? null : copy(rows, key.getResultClass());
+	}
+
+	/**
+	 * Caches copies of the rows read by the query, unless the tables have been invalidated since the generation was read.
+	 *
+	 * @return the rows, which are not cached.
+	 */
+	public <T> List<T> put(CacheKey key, List<T> rows, long generation) throws DBException {
+		List<T> result = Collections.unmodifiableList(copy(rows, key.getResultClass()));
+		String[] tables = SqlTables.getTables(key.getSql());
+		ResultCache cache = getCache();
+		boolean cached = false;
+		synchronized (invalidationLock) {
+			if (generation == this.generation.get()) {
+				cache.put(key, result, tables);
+				cached = true;
+			}
+		}
+
+		if (cached && LOGGER.isDebugEnabled())
+			LOGGER.debug("cached {0} rows of {1}, tables are {2}.", result.size(), key, java.util.Arrays.toString(tables));
+		return rows;
+	}
+
+	/**
+	 * Returns a new list with copies of the rows, map rows are copied if the result class is null, otherwise the beans are copied.
+	 */
+	public <T> List<T> copy(List<T> rows, Class<?> resultClass) throws DBException {
+		List<T> copies = new ArrayList<T>(rows.size());
+		if (resultClass == null) {
+			for (T row : rows)
+				copies.add((T) new RMap<String, Object>((Map<String, Object>) row));
+		} else {
+			BeanCopier copier = BeanConvertorManager.getCopier(resultClass);
+			for (T row : rows)
+				copies.add((T) copier.copy(row));
+		}
+		return copies;
+	}
+
+	// -----------invalidation
+	/**
+	 * Invalidates the results that read the tables written by the SQL.
+	 *
+	 * @param inTransaction true if the SQL was executed in a transaction, the results are invalidated again when the transaction completes.
+	 */
+	public void invalidate(String sql, boolean inTransaction) {
+		if (cache == null) {
+			synchronized (invalidationLock) {
+				generation.incrementAndGet();
+			}
+			return;
+		}
+
+		String[] tables = SqlTables.getTables(sql);
+		invalidate(tables);
+
+		if (inTransaction) {
+			Set<String> pending = pendingTables.get();
+			if (pending == null) {
+				pending = new HashSet<String>();
+				pendingTables.set(pending);
+			}
+			Collections.addAll(pending, tables);
+		}
+	}
+
+	/**
+	 * Invalidates all results, for the SQLs whose tables are unknown, such as stored procedure calls.
+	 *
+	 * @param inTransaction true if the SQL was executed in a transaction, the results are invalidated again when the transaction completes.
+	 */
+	public void invalidateAll(boolean inTransaction) {
+		clear();
+
+		if (inTransaction) {
+			Set<String> pending = pendingTables.get();
+			if (pending == null) {
+				pending = new HashSet<String>();
+				pendingTables.set(pending);
+			}
+			pending.add(ALL_TABLES);
+		}
+	}
+
+	/**
+	 * Invalidates the tables updated in the transaction of the current thread, after the transaction is committed or rolled back.
+	 */
+	public void afterTransaction() {
+		Set<String> pending = pendingTables.get();
+		if (pending == null)
+			return;
+
+		pendingTables.remove();
+		if (pending.contains(ALL_TABLES))
+			clear();
+		else
+			invalidate(pending.toArray(new String[pending.size()]));
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void clear() {
+		synchronized (invalidationLock) {
+			generation.incrementAndGet();
+			if (cache != null)
+				cache.clear();
+		}
+	}
+
+	// -----------private methods
+	private void invalidate(String[] tables) {
+		ResultCache cache = this.cache;
+		synchronized (invalidationLock) {
+			generation.incrementAndGet();
+			if (cache == null)
+				return;
+
+			for (int i = 0; i < tables.length; i++) {
+				cache.invalidate(tables[i]);
+			}
+		}
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("invalidated cached results of tables {0}.", java.util.Arrays.toString(tables));
+	}
+
+	/**
+	 * Converts the parameters to a value that is comparable by equals.
+	 */
+	private static Object toKeyValue(Object parameters) throws DBException {
+		if (parameters == null || isValue(parameters) || parameters.getClass().isArray())
+			return toValue(parameters);
+
+		if (parameters instanceof Ps) {
+			List<Ps.SqlParameter> sqlParameters = ((Ps) parameters).getParameters();
+			List<Object> values = new ArrayList<Object>(sqlParameters.size() * 2);
+			for (Ps.SqlParameter parameter : sqlParameters) {
+				if (parameter instanceof Ps.SqlOutParameter)
+					return NOT_CACHEABLE;
+				Object value = toValue(parameter.getValue());
+				if (value == NOT_CACHEABLE)
+					return NOT_CACHEABLE;
+				values.add(parameter.getSqlType());
+				values.add(value);
+			}
+			return values;
+		}
+
+		if (parameters instanceof Collection) {
+			List<Object> values = new ArrayList<Object>(((Collection<?>) parameters).size());
+			for (Object element : (Collection<?>) parameters) {
+				Object value = toValue(element);
+				if (value == NOT_CACHEABLE)
+					return NOT_CACHEABLE;
+				values.add(value);
+			}
+			return values;
+		}
+
+		Map<String, Object> values = new TreeMap<String, Object>();
+		if (parameters instanceof Map) {
+			for (Iterator<? extends Map.Entry<?, ?>> iterator = ((Map<?, ?>) parameters).entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<?, ?> entry = iterator.next();
+				if (!putKeyValue(values, String.valueOf(entry.getKey()), entry.getValue()))
+					return NOT_CACHEABLE;
+			}
+		} else if (ReflectUtil.isFieldAccess(parameters.getClass())) {
+			for (Iterator<Field> iterator = ReflectUtil.getFields(parameters.getClass()).values().iterator(); iterator.hasNext();) {
+				Field field = iterator.next();
+				if (!putKeyValue(values, field.getName(), ReflectUtil.getField(parameters, field)))
+					return NOT_CACHEABLE;
+			}
+		} else {
+			Map<String, Method> readers = ReflectUtil.getReadableMethods(parameters.getClass());
+			for (Iterator<Map.Entry<String, Method>> iterator = readers.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<String, Method> entry = iterator.next();
+				if (!putKeyValue(values, entry.getKey(), ReflectUtil.invokeMethod(parameters, entry.getValue())))
+					return NOT_CACHEABLE;
+			}
+		}
+		return values;
+	}
+
+	private static boolean putKeyValue(Map<String, Object> values, String name, Object value) {
+		Object keyValue = toValue(value);
+		if (keyValue == NOT_CACHEABLE)
+			return false;
+		values.put(name, keyValue);
+		return true;
+	}
+
+	/**
+	 * Converts a parameter value to a value that is comparable by equals, arrays are converted to lists.
+	 * Other objects, such as streams and LOBs, are not cacheable.
+	 */
+	private static Object toValue(Object value) {
+		if (value == null || isValue(value))
+			return value;
+
+		if (value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			List<Object> values = new ArrayList<Object>(length);
+			for (int i = 0; i < length; i++) {
+				Object element = toValue(Array.get(value, i));
+				if (element == NOT_CACHEABLE)
+					return NOT_CACHEABLE;
+				values.add(element);
+			}
+			return values;
+		}
+		return NOT_CACHEABLE;
+	}
+
+	private static boolean isValue(Object value) {
+		return value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character
+				|| value instanceof java.util.Date || value instanceof Enum || value instanceof Class;
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.cache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Lightweight SQL scanner, which finds the tables that an SQL reads or writes without parsing it.
+ * <p>
+ * Tables are the names following FROM, JOIN, INTO, UPDATE, USING, TABLE and TRUNCATE, and the names separated by commas 
+ * in a FROM list. Quotes and schema prefixes are removed, and the names are converted to lower case. 
+ * The scanner may find more names than the real tables, such as the names of common table expressions.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SqlTables {
+
+	/**
+	 * Keywords that are followed by a table.
+	 */
+	private static final Set<String> TABLE_KEYWORDS = new HashSet<String>(Arrays.asList(
+			"FROM", "JOIN", "INTO", "UPDATE", "USING", "TABLE", "TRUNCATE"));
+
+	/**
+	 * Keywords that end a FROM list.
+	 */
+	private static final Set<String> LIST_END_KEYWORDS = new HashSet<String>(Arrays.asList(
+			"WHERE", "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS", "LIMIT", "OFFSET", "FETCH", 
+			"FOR", "SET", "VALUES", "SELECT", "WINDOW", "CONNECT", "START", "RETURNING"));
+
+	/**
+	 * Words that may be written before a table, such as UPDATE ONLY t.
+	 */
+	private static final Set<String> TABLE_MODIFIERS = new HashSet<String>(Arrays.asList(
+			"ONLY", "LATERAL", "IGNORE", "LOW_PRIORITY", "IF", "EXISTS", "NOT", "TABLE"));
+
+	/**
+	 * Returns the tables of the SQL in lower case.
+	 */
+	public static String[] getTables(String sql) {
+		Set<String> tables = new LinkedHashSet<String>();
+		int length = sql.length();
+		int depth = 0;
+		int[] lists = new int[8];
+		int listCount = 0;
+		boolean expectTable = false;
+
+		int i = 0;
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+				int end = sql.indexOf('\n', i);
+				i = end == -1 ? length : end + 1;
+			} else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+				int end = sql.indexOf("*/", i + 2);
+				i = end == -1 ? length : end + 2;
+			} else if (c == '\'') {
+				i = skipQuoted(sql, i, '\'');
+				expectTable = false;
+			} else if (c == '"' || c == '`' || c == '[' || isWordStart(c)) {
+				int start = i;
+				i = skipName(sql, i);
+				String word = sql.substring(start, i);
+				String upper = word.toUpperCase();
+				if (expectTable && !LIST_END_KEYWORDS.contains(upper)) {
+					if (TABLE_MODIFIERS.contains(upper))
+						continue;
+					tables.add(lastPart(word));
+					expectTable = false;
+					continue;
+				}
+
+				expectTable = false;
+				if (TABLE_KEYWORDS.contains(upper)) {
+					expectTable = true;
+					if ("FROM".equals(upper)) {
+						if (listCount == lists.length)
+							lists = Arrays.copyOf(lists, listCount * 2);
+						lists[listCount++] = depth;
+					}
+				} else if (listCount > 0 && lists[listCount - 1] == depth && LIST_END_KEYWORDS.contains(upper)) {
+					listCount--;
+				}
+			} else {
+				if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+					while (listCount > 0 && lists[listCount - 1] > depth)
+						listCount--;
+				} else if (c == ',' && listCount > 0 && lists[listCount - 1] == depth) {
+					expectTable = true;
+					i++;
+					continue;
+				}
+				expectTable = false;
+				i++;
+			}
+		}
+		return tables.toArray(new String[tables.size()]);
+	}
+
+	/**
+	 * Returns the SQL with the whitespaces outside the quotes collapsed to single spaces.
+	 */
+	public static String normalize(String sql) {
+		StringBuilder sb = new StringBuilder(sql.length());
+		int length = sql.length();
+		boolean space = false;
+		for (int i = 0; i < length;) {
+			char c = sql.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = true;
+				i++;
+				continue;
+			}
+
+			if (space && sb.length() > 0)
+				sb.append(' ');
+			space = false;
+
+			if (c == '\'' || c == '"' || c == '`') {
+				int end = skipQuoted(sql, i, c);
+				sb.append(sql, i, end);
+				i = end;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	// -----------private methods
+	private static boolean isWordStart(char c) {
+		return Character.isLetter(c) || c == '_' || c == '$' || c == '#';
+	}
+
+	private static boolean isWordPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+	}
+
+	/**
+	 * Returns the end of the quoted text that starts at the index, doubled quotes are escaped quotes.
+	 */
+	private static int skipQuoted(String sql, int start, char quote) {
+		char close = quote == '[' ? ']' : quote;
+		int i = start + 1;
+		while (i < sql.length()) {
+			if (sql.charAt(i) == close) {
+				if (close != ']' && i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the end of the name that starts at the index, which may be quoted and qualified.
+	 */
+	private static int skipName(String sql, int start) {
+		int i = start;
+		while (true) {
+			char c = sql.charAt(i);
+			if (c == '"' || c == '`' || c == '[') {
+				i = skipQuoted(sql, i, c);
+			} else {
+				while (i < sql.length() && isWordPart(sql.charAt(i)))
+					i++;
+			}
+
+			if (i + 1 < sql.length() && sql.charAt(i) == '.' && (isWordStart(sql.charAt(i + 1)) || "\"`[".indexOf(sql.charAt(i + 1)) != -1))
+				i++;
+			else
+				return i;
+		}
+	}
+
+	/**
+	 * Returns the last part of the qualified name without quotes in lower case.
+	 */
+	private static String lastPart(String name) {
+		int dot = -1;
+		char quote = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (quote != 0) {
+				if (c == quote)
+					quote = 0;
+			} else if (c == '"' || c == '`') {
+				quote = c;
+			} else if (c == '[') {
+				quote = ']';
+			} else if (c == '.') {
+				dot = i;
+			}
+		}
+
+		String part = name.substring(dot + 1);
+		if (part.length() > 1 && "\"`[".indexOf(part.charAt(0)) != -1)
+			part = part.substring(1, part.length() - 1);
+		return part.toLowerCase();
+	}
+}
@@ -20,6 +20,7 @@ import java.util.Properties;
 
 import javax.sql.DataSource;
 
+import org.rex.db.cache.ResultCacheManager;
 import org.rex.db.datasource.DataSourceManager;
 import org.rex.db.dialect.Dialect;
 import org.rex.db.dialect.DialectManager;
@@ -107,6 +108,11 @@ public class Configuration {
 	 */
 	private volatile boolean dynamicClass = true;
 	
+	/**
+	 * Maps all classes by fields instead of JavaBean accessors.
+	 */
+	private volatile boolean fieldAccess = false;
+	
 	/**
 	 * Automatically converts Date and Time to java.sql.Timestamp.
 	 */
@@ -133,6 +139,11 @@ public class Configuration {
 	 */
 	private final DialectManager dialectManager;
 	
+	/**
+	 * Query Result Cache Manager.
+	 */
+	private final ResultCacheManager resultCacheManager;
+	
 	static{
 		try {
 			LOGGER.info("loading default configuration {0}.", DEFAULT_CONFIG_PATH);
@@ -147,6 +158,7 @@ public class Configuration {
 		dataSourceManager = new DataSourceManager();
 		listenerManager = new ListenerManager();
 		dialectManager = new DialectManager();
+		resultCacheManager = new ResultCacheManager();
 	}
 	
 	/**
@@ -224,6 +236,11 @@ public class Configuration {
 			ReflectUtil.setCacheEnabled(false);
 		}
 		
+		//fieldAccess
+		if(fieldAccess){
+			ReflectUtil.setFieldAccess(true);
+		}
+		
 		//nolog
 		if(nolog){
 			LoggerFactory.setNolog(true);
@@ -335,6 +352,14 @@ public class Configuration {
 			this.dynamicClass = false;
 	}
 
+	public boolean isFieldAccess() {
+		return fieldAccess;
+	}
+
+	public void setFieldAccess(boolean fieldAccess) {
+		this.fieldAccess = fieldAccess;
+	}
+
 	public boolean isDateAdjust() {
 		return dateAdjust;
 	}
@@ -351,6 +376,39 @@ public class Configuration {
 		this.batchTransaction = batchTransaction;
 	}
 
+	/**
+	 * Maximum number of cached query results.
+	 */
+	public int getQueryCacheSize() {
+		return resultCacheManager.getMaxSize();
+	}
+
+	public void setQueryCacheSize(int queryCacheSize) {
+		resultCacheManager.setMaxSize(queryCacheSize);
+	}
+
+	/**
+	 * Time to live of cached query results in seconds, 0 means the results never expire.
+	 */
+	public int getQueryCacheTtl() {
+		return resultCacheManager.getTtl();
+	}
+
+	public void setQueryCacheTtl(int queryCacheTtl) {
+		resultCacheManager.setTtl(queryCacheTtl);
+	}
+
+	/**
+	 * Regular expressions separated by ';', queries are cached if their SQL contains a match of one of them.
+	 */
+	public String getQueryCachePatterns() {
+		return resultCacheManager.getPatterns();
+	}
+
+	public void setQueryCachePatterns(String queryCachePatterns) {
+		resultCacheManager.setPatterns(queryCachePatterns);
+	}
+
 	//-----------
 	public void setDefaultDataSource(DataSource dataSource){
 		dataSourceManager.setDefault(dataSource);
@@ -380,6 +438,10 @@ public class Configuration {
 		return dialectManager;
 	}
 
+	public ResultCacheManager getResultCacheManager() {
+		return resultCacheManager;
+	}
+
 	public String toString() {
 		return "Configuration [variables=" + variables + ", lang=" + lang + ", dataSourceManager=" + dataSourceManager + ", listenerManager="
 				+ listenerManager + ", dialectManager=" + dialectManager + "]";
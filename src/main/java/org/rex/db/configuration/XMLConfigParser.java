@@ -175,7 +175,10 @@ public class XMLConfigParser {
 		String id = context.getAttribute("id"),
 			clazz = context.getAttribute("class"),
 			jndi = context.getAttribute("jndi"),
-			dialect = context.getAttribute("dialect");
+			dialect = context.getAttribute("dialect"),
+			fetchSize = context.getAttribute("fetchSize"),
+			asyncThreads = context.getAttribute("asyncThreads"),
+			coalesceQueries = context.getAttribute("coalesceQueries");
 		
 		boolean hasJndi = !StringUtil.isEmptyString(jndi),
 				hasClass = !StringUtil.isEmptyString(clazz);
@@ -200,6 +203,30 @@ public class XMLConfigParser {
 			configuration.addDialect(dataSource, instance);
 		}
 		
+		if (!StringUtil.isEmptyString(fetchSize)) {
+			try {
+				configuration.getDataSourceManager().setFetchSize(dataSource, Integer.parseInt(fetchSize.trim()));
+			} catch (NumberFormatException e) {
+				throw new DBException("DB-F0010", e, "dataSource", e.getMessage());
+			}
+		}
+		
+		if (!StringUtil.isEmptyString(asyncThreads)) {
+			int threads;
+			try {
+				threads = Integer.parseInt(asyncThreads.trim());
+			} catch (NumberFormatException e) {
+				throw new DBException("DB-F0010", e, "dataSource", e.getMessage());
+			}
+			if (threads < 1)
+				throw new DBException("DB-F0010", "dataSource", "asyncThreads should be greater than 0, but it is " + threads);
+			configuration.getDataSourceManager().setAsyncThreads(dataSource, threads);
+		}
+		
+		if (!StringUtil.isEmptyString(coalesceQueries)) {
+			configuration.getDataSourceManager().setCoalesced(dataSource, Boolean.parseBoolean(coalesceQueries.trim()));
+		}
+		
 		if (StringUtil.isEmptyString(id))
 			configuration.setDefaultDataSource(dataSource);
 		else
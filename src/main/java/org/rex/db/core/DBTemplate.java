@@ -29,20 +29,27 @@ import javax.sql.DataSource;
 
 import org.rex.RMap;
 import org.rex.db.Ps;
+import org.rex.db.QueryOptions;
 import org.rex.db.configuration.Configuration;
 import org.rex.db.core.executor.DefaultQueryExecutor;
 import org.rex.db.core.executor.QueryExecutor;
 import org.rex.db.core.reader.ClassResultReader;
 import org.rex.db.core.reader.DefaultResultSetIterator;
 import org.rex.db.core.reader.MapResultReader;
+import org.rex.db.core.reader.ParallelResultSetIterator;
 import org.rex.db.core.reader.ResultReader;
 import org.rex.db.core.reader.ResultSetIterator;
+import org.rex.db.core.statement.CombinedQuery;
 import org.rex.db.core.statement.StatementCreatorManager;
 import org.rex.db.datasource.ConnectionHolder;
+import org.rex.db.dialect.AbstractDialect;
+import org.rex.db.dialect.Dialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.exception.DBException;
 import org.rex.db.listener.ListenerManager;
 import org.rex.db.listener.SqlContext;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
 import org.rex.db.transaction.ThreadConnectionHolder;
 import org.rex.db.util.DataSourceUtil;
 import org.rex.db.util.JdbcUtil;
@@ -55,6 +62,8 @@ import org.rex.db.util.JdbcUtil;
  */
 public class DBTemplate {
 	
+	private static final Logger LOGGER = LoggerFactory.getLogger(DBTemplate.class);
+	
 	private DataSource dataSource;
 	
 	private static StatementCreatorManager statementCreatorManager;
@@ -88,6 +97,7 @@ public class DBTemplate {
 		try {
 			stmt = statementCreatorManager.get().createStatement(con);
 			applyTimeout(stmt, dataSource);
+			applyQueryOptions(stmt, null);
 
 			rs = executor.executeQuery(stmt, sql);
 			resultSetIterator.read(resultReader, rs);
@@ -112,26 +122,174 @@ public class DBTemplate {
 	 * Query with prepared parameters.
 	 */
 	public void query(String sql, Object parameters, LimitHandler limitHandler, ResultReader<?> resultReader) throws DBException {
+		query(sql, parameters, limitHandler, null, resultReader);
+	}
+	
+	/**
+	 * Query with prepared parameters and execution options.
+	 */
+	public void query(String sql, Object parameters, LimitHandler limitHandler, QueryOptions options, ResultReader<?> resultReader) throws DBException {
 		SqlContext context = fireOnEvent(SqlContext.SQL_QUERY, false, getDataSource(), new String[]{sql}, parameters, limitHandler);
 		
 		Connection con = DataSourceUtil.getConnection(this.dataSource);
 		PreparedStatement preparedStatement = null;
 		ResultSet rs = null;
+		AbstractDialect streamingDialect = null;
+		boolean connectionChanged = false;
 		try {
+			if(options != null && options.isStreaming()){
+				Dialect dialect = getDialect();
+				if(dialect instanceof AbstractDialect){
+					streamingDialect = (AbstractDialect) dialect;
+					connectionChanged = streamingDialect.beforeStreaming(con);
+				}
+			}
+			
 			preparedStatement = statementCreatorManager.get(parameters).createPreparedStatement(con, sql, parameters, limitHandler);
 			applyTimeout(preparedStatement, this.dataSource);
+			applyQueryOptions(preparedStatement, options);
 			
 			rs = executor.executeQuery(preparedStatement);
-			resultSetIterator.read(resultReader, rs);
+			getResultSetIterator(options).read(resultReader, rs);
 			
 			checkWarnings(con, preparedStatement, rs);
 		}catch (SQLException e) {
 			throw new DBException("DB-C0005", e, sql, parameters, e.getMessage());
 		}finally {
-			close(con, preparedStatement, rs);
+			if(streamingDialect != null){
+				close(null, preparedStatement, rs);
+				afterStreaming(con, streamingDialect, connectionChanged);
+				close(con, null, null);
+			}else
+				close(con, preparedStatement, rs);
+			
 			fireAfterEvent(context, resultReader.getResults());
 		}
 	}
+	/**
+	 * Returns the iterator for the execution options, rows are decoded in parallel if the parallelism is larger than 1.
+	 */
+	private static ResultSetIterator getResultSetIterator(QueryOptions options) throws DBException{
+		if(options != null && options.getParallelism() < 0)
+			throw new DBException("DB-C0022", options.getParallelism());
+		if(options != null && options.getParallelism() > 1)
+			return new ParallelResultSetIterator(options.getParallelism());
+		return resultSetIterator;
+	}
+	
+	//--------------------query batch
+	/**
+	 * Executes the queries on one connection, each ResultSet is read by the reader of its query. The queries are combined into one 
+	 * statement if the dialect supports multiple queries, otherwise their statements are executed back to back.
+	 */
+	public void queryBatch(String[] sql, Object[] parameters, ResultReader<?>[] resultReaders) throws DBException {
+		SqlContext context = fireOnEvent(SqlContext.SQL_QUERY, false, getDataSource(), sql, parameters, null);
+		
+		Connection con = DataSourceUtil.getConnection(this.dataSource);
+		try {
+			CombinedQuery combined = null;
+			if(sql.length > 1 && isMultipleQueriesSupported(con))
+				combined = CombinedQuery.combine(sql, parameters);
+			
+			if(combined != null)
+				queryCombined(con, combined, resultReaders);
+			else{
+				for (int i = 0; i < sql.length; i++)
+					queryBatchItem(con, sql[i], parameters[i], resultReaders[i]);
+			}
+		}finally {
+			close(con, null, null);
+			
+			if(context != null){
+				List<Object> results = new ArrayList<Object>(resultReaders.length);
+				for (int i = 0; i < resultReaders.length; i++)
+					results.add(resultReaders[i].getResults());
+				fireAfterEvent(context, results);
+			}
+		}
+	}
+	
+	/**
+	 * Executes the combined queries in one round trip, and reads their ResultSets in order.
+	 */
+	private void queryCombined(Connection con, CombinedQuery combined, ResultReader<?>[] resultReaders) throws DBException {
+		PreparedStatement preparedStatement = null;
+		ResultSet rs = null;
+		try {
+			preparedStatement = statementCreatorManager.get(combined.getPs()).createPreparedStatement(con, combined.getSql(), combined.getPs());
+			applyTimeout(preparedStatement, this.dataSource);
+			applyQueryOptions(preparedStatement, null);
+			
+			int index = 0;
+			boolean isResultSet = execute(preparedStatement);
+			while (isResultSet || preparedStatement.getUpdateCount() != -1) {
+				if(isResultSet){
+					if(index == resultReaders.length)
+						throw new DBException("DB-C0014", combined.getSql(), resultReaders.length, index + 1);
+					
+					rs = preparedStatement.getResultSet();
+					resultSetIterator.read(resultReaders[index++], rs);
+					rs.close();
+					rs = null;
+				}
+				isResultSet = preparedStatement.getMoreResults();
+			}
+			
+			if(index != resultReaders.length)
+				throw new DBException("DB-C0014", combined.getSql(), resultReaders.length, index);
+			
+			checkWarnings(con, preparedStatement, null);
+		}catch (SQLException e) {
+			throw new DBException("DB-C0005", e, combined.getSql(), combined.getPs(), e.getMessage());
+		}finally {
+			close(null, preparedStatement, rs);
+		}
+	}
+	
+	/**
+	 * Executes one of the queries on the borrowed connection.
+	 */
+	private void queryBatchItem(Connection con, String sql, Object parameters, ResultReader<?> resultReader) throws DBException {
+		PreparedStatement preparedStatement = null;
+		ResultSet rs = null;
+		try {
+			preparedStatement = statementCreatorManager.get(parameters).createPreparedStatement(con, sql, parameters);
+			applyTimeout(preparedStatement, this.dataSource);
+			applyQueryOptions(preparedStatement, null);
+			
+			rs = executor.executeQuery(preparedStatement);
+			resultSetIterator.read(resultReader, rs);
+			
+			checkWarnings(con, preparedStatement, rs);
+		}catch (SQLException e) {
+			throw new DBException("DB-C0005", e, sql, parameters, e.getMessage());
+		}finally {
+			close(null, preparedStatement, rs);
+		}
+	}
+	
+	/**
+	 * Executes the statement that returns multiple results, by the executor if it supports.
+	 */
+	private static boolean execute(PreparedStatement preparedStatement) throws SQLException {
+		if(executor instanceof DefaultQueryExecutor)
+			return ((DefaultQueryExecutor) executor).execute(preparedStatement);
+		return preparedStatement.execute();
+	}
+	
+	private boolean isMultipleQueriesSupported(Connection con) throws DBException {
+		Dialect dialect = getDialect();
+		if(!(dialect instanceof AbstractDialect))
+			return false;
+		
+		try {
+			return ((AbstractDialect) dialect).isMultipleQueriesSupported(con);
+		} catch (SQLException e) {
+			LOGGER.warn("could not check whether connection[{0}] supports multiple queries, {1}", con.hashCode(), e.getMessage());
+			return false;
+		}
+	}
+	
 	//--------------------update
 	/**
 	 * Update.
@@ -413,6 +571,45 @@ public class DBTemplate {
 		}
 	}
 	
+	//-----------------query options
+	/**
+	 * Applies fetch size and max rows to the query statement. The dialect is resolved for streaming queries only, 
+	 * the other fetch sizes are applied to the statement directly.
+	 */
+	private void applyQueryOptions(Statement stmt, QueryOptions options) throws DBException, SQLException {
+		int fetchSize = options == null ? 0 : options.getFetchSize();
+		if(fetchSize <= 0)
+			fetchSize = Configuration.getCurrentConfiguration().getDataSourceManager().getFetchSize(dataSource);
+		
+		boolean streaming = options != null && options.isStreaming();
+		if(streaming){
+			Dialect dialect = getDialect();
+			if(dialect instanceof AbstractDialect)
+				((AbstractDialect) dialect).applyFetchSize(stmt, fetchSize, streaming);
+			else if(fetchSize > 0)
+				stmt.setFetchSize(fetchSize);
+		}else if(fetchSize > 0)
+			stmt.setFetchSize(fetchSize);
+		
+		if(options != null && options.getMaxRows() > 0)
+			stmt.setMaxRows(options.getMaxRows());
+	}
+	
+	/**
+	 * Restores the connection changed by the streaming query.
+	 */
+	private void afterStreaming(Connection con, AbstractDialect dialect, boolean changed) {
+		try {
+			dialect.afterStreaming(con, changed);
+		} catch (SQLException e) {
+			LOGGER.warn("could not restore connection[{0}] after streaming, {1}", con.hashCode(), e.getMessage());
+		}
+	}
+	
+	private Dialect getDialect() throws DBException {
+		return Configuration.getCurrentConfiguration().getDialectManager().getDialect(dataSource);
+	}
+	
 	//-----------------listeners
 	private SqlContext fireOnEvent(int sqlType, boolean betweenTransaction, DataSource dataSource, String[] sql, Object parameters, LimitHandler limitHandler) throws DBException{
 		SqlContext context = null;
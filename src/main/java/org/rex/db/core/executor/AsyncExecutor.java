@@ -0,0 +1,157 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.executor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * Executes database operations asynchronously for a DataSource.
+ * <p>
+ * The number of submitted executions that are not finished is limited, the caller waits for a free slot when the limit is reached,
+ * so that executions are not queued without bounds. Cancelling a returned Future cancels the running statement as well.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class AsyncExecutor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncExecutor.class);
+
+	private static final AtomicInteger threadSequence = new AtomicInteger();
+
+	private final ExecutorService executorService;
+
+	private final int maxConcurrency;
+
+	private final Semaphore slots;
+
+	/**
+	 * Creates an executor with a fixed number of daemon threads, the concurrency is limited to the number of threads.
+	 */
+	public AsyncExecutor(int threads) {
+		this(Executors.newFixedThreadPool(threads, new AsyncThreadFactory()), threads);
+	}
+
+	/**
+	 * Creates an executor which runs on the specified ExecutorService, such as an executor of virtual threads.
+	 *
+	 * @param maxConcurrency the maximum number of executions that are submitted and not finished.
+	 */
+	public AsyncExecutor(ExecutorService executorService, int maxConcurrency) {
+		if (maxConcurrency < 1)
+			throw new IllegalArgumentException("max concurrency must be greater than 0, but it is " + maxConcurrency + ".");
+		this.executorService = executorService;
+		this.maxConcurrency = maxConcurrency;
+		this.slots = new Semaphore(maxConcurrency, true);
+	}
+
+	// -----------submit
+	/**
+	 * Submits the execution, waits for a free slot if there are too many executions not finished.
+	 *
+	 * @throws DBException if the caller was interrupted while waiting, or the ExecutorService rejected the execution.
+	 */
+	public <T> Future<T> submit(Callable<T> execution) throws DBException {
+		try {
+			slots.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException("DB-C0011", e, maxConcurrency, e.getMessage());
+		}
+
+		AsyncTask<T> task = new AsyncTask<T>(execution);
+		try {
+			executorService.execute(task);
+		} catch (RejectedExecutionException e) {
+			slots.release();
+			throw new DBException("DB-C0012", e, e.getMessage());
+		}
+		return task;
+	}
+
+	/**
+	 * Shuts down the ExecutorService, the submitted executions are still finished.
+	 */
+	public void shutdown() {
+		executorService.shutdown();
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("async executor[{0}] has been shut down.", hashCode());
+	}
+
+	// -----------getters
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * Returns the number of executions that are submitted and not finished.
+	 */
+	public int getActiveCount() {
+		return maxConcurrency - slots.availablePermits();
+	}
+
+	// -----------inner classes
+	/**
+	 * Future of an execution, which releases its slot when finished and cancels the running statement when cancelled.
+	 */
+	private class AsyncTask<T> extends FutureTask<T> {
+
+		private final Cancellation cancellation = new Cancellation();
+
+		AsyncTask(Callable<T> callable) {
+			super(callable);
+		}
+
+		public void run() {
+			Cancellation.bind(cancellation);
+			try {
+				super.run();
+			} finally {
+				Cancellation.unbind();
+				slots.release();
+			}
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled)
+				cancellation.cancel();
+			return cancelled;
+		}
+	}
+
+	private static class AsyncThreadFactory implements ThreadFactory {
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "rexdb-async-" + threadSequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
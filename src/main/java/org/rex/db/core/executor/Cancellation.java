@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.executor;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * Cancellation of an asynchronous execution, which is bound to the thread that runs the execution.
+ * <p>
+ * The query executor registers each statement before executing it, so that cancelling the execution cancels the running statement, 
+ * and the statements that are executed later fail immediately.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class Cancellation {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Cancellation.class);
+
+	private static final ThreadLocal<Cancellation> current = new ThreadLocal<Cancellation>();
+
+	private volatile boolean cancelled = false;
+
+	private volatile Statement statement;
+
+	// -----------binding
+	/**
+	 * Binds the cancellation to the current thread.
+	 */
+	public static void bind(Cancellation cancellation) {
+		current.set(cancellation);
+	}
+
+	/**
+	 * Unbinds the cancellation from the current thread.
+	 */
+	public static void unbind() {
+		current.remove();
+	}
+
+	/**
+	 * Registers the statement which is going to be executed by the current thread.
+	 *
+	 * @throws SQLException if the execution bound to the current thread has been cancelled.
+	 */
+	public static void register(Statement statement) throws SQLException {
+		Cancellation cancellation = current.get();
+		if (cancellation == null)
+			return;
+
+		cancellation.statement = statement;
+		if (cancellation.cancelled)
+			throw new SQLException("the execution has been cancelled.");
+	}
+
+	/**
+	 * Unregisters the statement after the current thread has executed it, so that the finished statement will not be cancelled.
+	 */
+	public static void unregister(Statement statement) {
+		Cancellation cancellation = current.get();
+		if (cancellation != null && cancellation.statement == statement)
+			cancellation.statement = null;
+	}
+
+	// -----------cancel
+	/**
+	 * Cancels the execution and its running statement.
+	 */
+	public void cancel() {
+		cancelled = true;
+		Statement running = statement;
+		if (running == null)
+			return;
+
+		try {
+			running.cancel();
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("statement[{0}] has been cancelled.", running.hashCode());
+		} catch (SQLException e) {
+			LOGGER.warn("could not cancel statement[{0}], {1}", running.hashCode(), e.getMessage());
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
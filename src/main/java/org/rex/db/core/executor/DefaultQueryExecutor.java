@@ -25,7 +25,7 @@ import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
 
 /**
- * Default query executor.
+ * Default query executor, which registers the statements to be cancelled by asynchronous executions.
  * 
  * @version 1.0, 2016-02-14
  * @since Rexdb-1.0
@@ -38,41 +38,86 @@ public class DefaultQueryExecutor implements QueryExecutor {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing sql {0} of statement[{1}].", sql, stmt.hashCode());
 		
-		return stmt.executeQuery(sql);
+		Cancellation.register(stmt);
+		try {
+			return stmt.executeQuery(sql);
+		} finally {
+			Cancellation.unregister(stmt);
+		}
 	}
 
 	public ResultSet executeQuery(PreparedStatement ps) throws SQLException {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing query of statement[{0}].", ps.hashCode());
 		
-		return ps.executeQuery();
+		Cancellation.register(ps);
+		try {
+			return ps.executeQuery();
+		} finally {
+			Cancellation.unregister(ps);
+		}
+	}
+
+	/**
+	 * Query that returns multiple results.
+	 */
+	public boolean execute(PreparedStatement ps) throws SQLException {
+		if(LOGGER.isDebugEnabled())
+			LOGGER.debug("executing statement[{0}] that returns multiple results.", ps.hashCode());
+		
+		Cancellation.register(ps);
+		try {
+			return ps.execute();
+		} finally {
+			Cancellation.unregister(ps);
+		}
 	}
 
 	public boolean execute(CallableStatement statement) throws SQLException {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing statement[{0}].", statement.hashCode());
 		
-		return statement.execute();
+		Cancellation.register(statement);
+		try {
+			return statement.execute();
+		} finally {
+			Cancellation.unregister(statement);
+		}
 	}
 	
 	public int[] executeBatch(Statement statement) throws SQLException {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing batch of statement[{0}].", statement.hashCode());
 		
-		return statement.executeBatch();
+		Cancellation.register(statement);
+		try {
+			return statement.executeBatch();
+		} finally {
+			Cancellation.unregister(statement);
+		}
 	}
 
 	public int executeUpdate(PreparedStatement ps) throws SQLException {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing update of statement[{0}].", ps.hashCode());
 		
-		return ps.executeUpdate();
+		Cancellation.register(ps);
+		try {
+			return ps.executeUpdate();
+		} finally {
+			Cancellation.unregister(ps);
+		}
 	}
 	
 	public int executeUpdate(Statement stmt, String sql) throws SQLException {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("executing sql {0} of statement[{1}].", sql, stmt.hashCode());
 		
-		return stmt.executeUpdate(sql);
+		Cancellation.register(stmt);
+		try {
+			return stmt.executeUpdate(sql);
+		} finally {
+			Cancellation.unregister(stmt);
+		}
 	}
 }
@@ -17,16 +17,27 @@ package org.rex.db.core.reader;
 
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.rex.db.Ps;
+import org.rex.db.configuration.Configuration;
+import org.rex.db.dynamic.javassist.BeanConvertorManager;
+import org.rex.db.dynamic.javassist.BeanReader;
 import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
 import org.rex.db.util.ORUtil;
 import org.rex.db.util.ReflectUtil;
 
 /**
- * Bean ResultSet reader.
+ * Bean ResultSet reader, which fills copies of the result bean.
+ * <p>
+ * The first row is read into the result bean, and the next rows are read into its clones. If dynamic class is enabled, 
+ * the clones are created by a generated reader instead of <code>clone()</code>, which copies the properties of the result bean 
+ * that have a getter and a setter (or the fields if the bean is mapped by fields), so that state beyond them is not copied, 
+ * and requires a public class with a public no-arg constructor; other classes are cloned by <code>clone()</code> as usual. 
+ * Beans that are constructed from the columns have no prototype, each row is read into a new bean.
  * 
  * @version 1.0, 2016-02-12
  * @since Rexdb-1.0
@@ -44,6 +55,9 @@ public class BeanResultReader<T> implements ResultReader<T> {
 	private int rowNum = 0;
 	private Method cloneMethod = null;
 
+	private MappingPlan planForDynamic = null;
+	private BeanReader readerForDynamic = null;
+
 	public BeanResultReader(Ps ps, T resultBean) {
 		this.results = new LinkedList<T>();
 		this.ps = ps;
@@ -59,6 +73,25 @@ public class BeanResultReader<T> implements ResultReader<T> {
 		if (resultBean == null)
 			throw new DBException("DB-C0003");
 		
+		if (isDynamic()) {
+			if (planForDynamic == null)
+				planForDynamic = orUtil.getMappingPlan(rs, resultBean.getClass());
+			if (rowNum == 0 && planForDynamic.getConstructor() == null) {
+				results.add(row2Bean(rs, rowNum++, ps, resultBean));
+				return;
+			}
+			
+			if (readerForDynamic == null)
+				readerForDynamic = BeanConvertorManager.getPrototypeReader(planForDynamic);
+			try {
+				results.add((T) readerForDynamic.copyRow(rs, orUtil, resultBean));
+			} catch (SQLException e) {
+				throw new DBException(e);
+			}
+			rowNum++;
+			return;
+		}
+		
 		T clone = resultBean;
 		if (rowNum > 0) {
 			Method cloneMethod = getCloneMethod();
@@ -75,6 +108,13 @@ public class BeanResultReader<T> implements ResultReader<T> {
 	}
 	
 	// --------private methods
+	/**
+	 * Dynamic class enabled?
+	 */
+	private static boolean isDynamic() throws DBException {
+		return Configuration.getCurrentConfiguration().isDynamicClass();
+	}
+
 	private Method getCloneMethod() throws DBException{
 		if(cloneMethod == null)
 			cloneMethod = ReflectUtil.getCloneMethod(resultBean);
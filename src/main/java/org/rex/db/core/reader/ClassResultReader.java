@@ -20,12 +20,13 @@ import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.rex.db.RowHandler;
 import org.rex.db.configuration.Configuration;
-import org.rex.db.dynamic.javassist.BeanConvertor;
 import org.rex.db.dynamic.javassist.BeanConvertorManager;
+import org.rex.db.dynamic.javassist.BeanReader;
 import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
 import org.rex.db.util.ORUtil;
-import org.rex.db.util.ReflectUtil;
 
 /**
  * Bean ResultSet reader.
@@ -33,7 +34,7 @@ import org.rex.db.util.ReflectUtil;
  * @version 1.0, 2016-03-17
  * @since Rexdb-1.0
  */
-public class ClassResultReader<T> implements ResultReader<T> {
+public class ClassResultReader<T> implements ParallelResultReader<T> {
 
 	private ORUtil orUtil = new ORUtil();
 
@@ -42,7 +43,17 @@ public class ClassResultReader<T> implements ResultReader<T> {
 
 	private int rowNum = 0;
 
-	int[] columnsCodeCacheForDynamic = null;
+	private BeanReader readerForDynamic = null;
+
+	/**
+	 * Plan of the copied rows, which are decoded in parallel.
+	 */
+	private volatile MappingPlan planForParallel = null;
+
+	/**
+	 * Generated reader that decodes the copied rows, if dynamic class is enabled.
+	 */
+	private volatile BeanReader readerForParallel = null;
 	
 	//----------settings
 	/**
@@ -53,39 +64,73 @@ public class ClassResultReader<T> implements ResultReader<T> {
 	}
 	
 
+	/**
+	 * Handles rows instead of collecting them, if set.
+	 */
+	private RowHandler<? super T> rowHandler;
+
 	//--------construct
 	public ClassResultReader(Class<T> resultClass) {
 		this.results = new LinkedList<T>();
 		this.resultClass = resultClass;
 	}
 
+	public ClassResultReader(Class<T> resultClass, RowHandler<? super T> rowHandler) {
+		this(resultClass);
+		this.rowHandler = rowHandler;
+	}
+
 	// --------implements
 	public void processRow(ResultSet rs) throws DBException {
-		results.add(row2Bean(rs, rowNum++));
+		addRow(row2Bean(rs, rowNum));
 	}
 
 	public List<T> getResults() {
 		return results;
 	}
 
+	// --------parallel decoding
+	public Object[] copyRow(ResultSet rs, Object[] buffer) throws DBException {
+		if (resultClass == null)
+			throw new DBException("DB-C0003");
+		if (planForParallel == null) {
+			MappingPlan plan = orUtil.getMappingPlan(rs, resultClass);
+			if (isDynamic())
+				readerForParallel = BeanConvertorManager.getReader(plan);
+			planForParallel = plan;
+		}
+		return orUtil.copyRow(rs, planForParallel, buffer);
+	}
+
+	public T decodeRow(Object[] row) throws DBException {
+		if (readerForParallel != null)
+			return (T) readerForParallel.decodeRow(row);
+		return (T) orUtil.row2Instance(row, planForParallel);
+	}
+
+	public void addRow(T row) throws DBException {
+		if (rowHandler == null)
+			results.add(row);
+		else
+			rowHandler.handleRow(row, rowNum);
+		rowNum++;
+	}
+
 	// --------private methods
 	private T row2Bean(ResultSet rs, int rowNum) throws DBException {
 		if (resultClass == null)
 			throw new DBException("DB-C0003");
 		if(isDynamic()){
-			BeanConvertor setter = BeanConvertorManager.getConvertor(resultClass);
-			String[] rsLabelsRenamed = orUtil.getResultSetLabelsRenamed(rs);
-			if(columnsCodeCacheForDynamic == null)
-				columnsCodeCacheForDynamic = setter.getColumnCodes(rsLabelsRenamed);
+			if(readerForDynamic == null)
+				readerForDynamic = BeanConvertorManager.getReader(orUtil.getMappingPlan(rs, resultClass));
 
 			try {
-				return (T)setter.readResultSet(rs, orUtil, columnsCodeCacheForDynamic);
+				return (T)readerForDynamic.readRow(rs, orUtil);
 			} catch (SQLException e) {
 				throw new DBException(e);
 			}
 		}else{
-			T bean = ReflectUtil.instance(resultClass);
-			return orUtil.rs2Object(rs, bean);
+			return orUtil.rs2Instance(rs, resultClass);
 		}
 		
 	}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.rex.db.ColumnarResult;
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+
+/**
+ * Columnar ResultSet reader, which reads all rows into one ColumnarResult.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ColumnarResultReader implements MetaDataResultReader<ColumnarResult> {
+
+	private ColumnarResult result;
+
+	// --------implements
+	public void processMetaData(ResultSet rs) throws DBException {
+		if (result == null)
+			result = createResult(rs);
+	}
+
+	public void processRow(ResultSet rs) throws DBException {
+		if (result == null)
+			result = createResult(rs);
+
+		try {
+			result.readRow(rs);
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR07", e, result.getRowCount() + 1, e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a list that contains the only ColumnarResult.
+	 */
+	public List<ColumnarResult> getResults() {
+		return Collections.singletonList(getResult());
+	}
+
+	/**
+	 * Returns the result, which has the columns of the ResultSet and no rows if the ResultSet is empty.
+	 */
+	public ColumnarResult getResult() {
+		if (result == null)
+			return new ColumnarResult(new String[0], new ColumnarResult.Column[0]);
+		return result;
+	}
+
+	// -----------private methods
+	private ColumnarResult createResult(ResultSet rs) throws DBException {
+		MappingPlan plan = MappingPlan.getPlan(rs, null);
+		String[] names = plan.getLabelsRenamed();
+		int[] types = plan.getTypes();
+
+		ColumnarResult.Column[] columns = new ColumnarResult.Column[names.length];
+		try {
+			ResultSetMetaData meta = rs.getMetaData();
+			for (int i = 0; i < columns.length; i++) {
+				int precision = 0, scale = 0;
+				if (types[i] == java.sql.Types.DECIMAL || types[i] == java.sql.Types.NUMERIC) {
+					precision = meta.getPrecision(i + 1);
+					scale = meta.getScale(i + 1);
+				}
+				columns[i] = ColumnarResult.createColumn(names[i], types[i], precision, scale);
+			}
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR01", e, e.getMessage());
+		}
+		return new ColumnarResult(names, columns);
+	}
+}
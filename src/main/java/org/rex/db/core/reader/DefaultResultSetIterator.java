@@ -40,6 +40,9 @@ public class DefaultResultSetIterator implements ResultSetIterator {
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("reading ResultSet[{0}].", rs.hashCode());
 		
+		if(resultReader instanceof MetaDataResultReader)
+			((MetaDataResultReader) resultReader).processMetaData(rs);
+		
 		try {
 			while (rs.next()) {
 				resultReader.processRow(rs);
@@ -0,0 +1,294 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.rex.db.JoinMapping;
+import org.rex.db.RowHandler;
+import org.rex.db.configuration.Configuration;
+import org.rex.db.dynamic.javassist.BeanConvertorManager;
+import org.rex.db.dynamic.javassist.BeanReader;
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ORUtil;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Joined ResultSet reader, which maps a flat joined ResultSet to parents with nested children in one pass.
+ * <p>
+ * Parents are indexed by their keys while the ResultSet is read, so each parent is created once, and each parent keeps the keys 
+ * of its children, so each child is added once, wherever its rows are in the ResultSet. If a row handler is set,
+ * parents are passed to the handler as soon as the parent keys change, only one parent is kept in memory, 
+ * and the query must be ordered by the parent keys: a parent whose rows appear again after other parents fails the query.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class JoinResultReader<P, C> implements ResultReader<P> {
+
+	private final JoinMapping<P, C> mapping;
+
+	private final ORUtil parentUtil = new ORUtil();
+
+	private final ORUtil childUtil = new ORUtil();
+
+	/**
+	 * Parents indexed by their keys, in the order of the ResultSet.
+	 */
+	private final Map<Object, Parent> parents = new LinkedHashMap<Object, Parent>();
+
+	/**
+	 * Handles parents instead of collecting them, if set.
+	 */
+	private RowHandler<? super P> rowHandler;
+
+	/**
+	 * The parent of the previous row.
+	 */
+	private Parent current;
+
+	/**
+	 * Keys of the parents that have been passed to the row handler.
+	 */
+	private Set<Object> handledKeys;
+
+	private int rowNum = 0;
+
+	//----------resolved on the first row
+	private int[] parentColumns;
+
+	private int[] childColumns;
+
+	private MappingPlan parentPlan;
+
+	private MappingPlan childPlan;
+
+	private BeanReader parentReader;
+
+	private BeanReader childReader;
+
+	private Method getter;
+
+	private Method setter;
+
+	private Field field;
+
+	private Class<?> collectionType;
+
+	//--------construct
+	public JoinResultReader(JoinMapping<P, C> mapping) {
+		this.mapping = mapping;
+	}
+
+	public JoinResultReader(JoinMapping<P, C> mapping, RowHandler<? super P> rowHandler) {
+		this(mapping);
+		this.rowHandler = rowHandler;
+	}
+
+	// --------implements
+	public void processRow(ResultSet rs) throws DBException {
+		if (parentColumns == null)
+			init(rs);
+
+		Object parentKey = readKey(rs, parentColumns);
+		if (parentKey == null)
+			return;
+
+		Parent parent;
+		if (rowHandler == null) {
+			if (current != null && current.key.equals(parentKey))
+				parent = current;
+			else {
+				parent = parents.get(parentKey);
+				if (parent == null) {
+					parent = new Parent(parentKey, (P) readBean(rs, parentUtil, parentPlan, parentReader));
+					parents.put(parentKey, parent);
+				}
+				current = parent;
+			}
+		} else {
+			if (current == null || !current.key.equals(parentKey)) {
+				finish();
+				if (handledKeys.contains(parentKey))
+					throw new DBException("DB-UOR10", parentKey, Arrays.toString(mapping.getParentKeys()));
+				current = new Parent(parentKey, (P) readBean(rs, parentUtil, parentPlan, parentReader));
+			}
+			parent = current;
+		}
+
+		Object childKey = readKey(rs, childColumns);
+		if (childKey != null && parent.childKeys.add(childKey))
+			parent.children.add(readBean(rs, childUtil, childPlan, childReader));
+	}
+
+	/**
+	 * Returns the parents in the order of the ResultSet, the list is empty if a row handler is set.
+	 */
+	public List<P> getResults() {
+		List<P> results = new ArrayList<P>(parents.size());
+		for (Parent parent : parents.values()) {
+			results.add(parent.bean);
+		}
+		return results;
+	}
+
+	/**
+	 * Passes the last parent to the row handler, which must be called after the ResultSet has been read.
+	 */
+	public void finish() throws DBException {
+		if (rowHandler != null && current != null) {
+			Parent parent = current;
+			current = null;
+			handledKeys.add(parent.key);
+			rowHandler.handleRow(parent.bean, rowNum++);
+		}
+	}
+
+	// -----------private methods
+	private void init(ResultSet rs) throws DBException {
+		parentPlan = MappingPlan.getPlan(rs, mapping.getParentClass());
+		childPlan = MappingPlan.getPlan(rs, mapping.getChildClass(), mapping.getChildPrefix());
+		parentColumns = findColumns(parentPlan.getLabels(), mapping.getParentKeys());
+		childColumns = findColumns(parentPlan.getLabels(), mapping.getChildKeys());
+		if (rowHandler != null)
+			handledKeys = new HashSet<Object>();
+
+		if (Configuration.getCurrentConfiguration().isDynamicClass()) {
+			parentReader = BeanConvertorManager.getReader(parentPlan);
+			childReader = BeanConvertorManager.getReader(childPlan);
+		}
+
+		Class<?> parentClass = mapping.getParentClass();
+		String property = mapping.getProperty();
+		if (ReflectUtil.isFieldAccess(parentClass)) {
+			field = ReflectUtil.getFields(parentClass).get(property);
+			collectionType = field == null ? null : field.getType();
+		} else {
+			getter = ReflectUtil.getReadableMethods(parentClass).get(property);
+			setter = ReflectUtil.getWriteableMethods(parentClass).get(property);
+			collectionType = getter == null ? null : getter.getReturnType();
+		}
+		if (collectionType == null || !Collection.class.isAssignableFrom(collectionType))
+			throw new DBException("DB-UOR09", parentClass.getName(), property);
+	}
+
+	private int[] findColumns(String[] labels, String[] keys) throws DBException {
+		int[] columns = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			columns[i] = -1;
+			for (int j = 0; j < labels.length; j++) {
+				if (labels[j].equalsIgnoreCase(keys[i])) {
+					columns[i] = j + 1;
+					break;
+				}
+			}
+			if (columns[i] == -1)
+				throw new DBException("DB-UOR08", keys[i], Arrays.toString(labels));
+		}
+		return columns;
+	}
+
+	/**
+	 * Returns the key of the columns, or null if all values are null.
+	 */
+	private Object readKey(ResultSet rs, int[] columns) throws DBException {
+		try {
+			if (columns.length == 1)
+				return rs.getObject(columns[0]);
+
+			Object[] values = new Object[columns.length];
+			boolean empty = true;
+			for (int i = 0; i < columns.length; i++) {
+				values[i] = rs.getObject(columns[i]);
+				empty &= values[i] == null;
+			}
+			return empty ? null : Arrays.asList(values);
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR06", e, Arrays.toString(columns), e.getMessage());
+		}
+	}
+
+	private Object readBean(ResultSet rs, ORUtil orUtil, MappingPlan plan, BeanReader reader) throws DBException {
+		if (reader == null)
+			return orUtil.rs2Instance(rs, plan);
+
+		try {
+			return reader.readRow(rs, orUtil);
+		} catch (SQLException e) {
+			throw new DBException(e);
+		}
+	}
+
+	/**
+	 * Returns the collection property of the parent, which is created if it's null.
+	 */
+	private Collection<Object> getChildren(Object bean) throws DBException {
+		Collection<Object> children = (Collection<Object>) (field != null ? ReflectUtil.getField(bean, field) : ReflectUtil.invokeMethod(bean, getter));
+		if (children != null)
+			return children;
+
+		if (collectionType.isAssignableFrom(ArrayList.class))
+			children = new ArrayList<Object>();
+		else if (collectionType.isAssignableFrom(LinkedHashSet.class))
+			children = new LinkedHashSet<Object>();
+		else
+			children = (Collection<Object>) ReflectUtil.instance(collectionType);
+
+		if (field != null)
+			ReflectUtil.setField(bean, field, children);
+		else if (setter != null)
+			ReflectUtil.invokeMethod(bean, setter, children);
+		else
+			throw new DBException("DB-UOR09", bean.getClass().getName(), mapping.getProperty());
+		return children;
+	}
+
+	/**
+	 * A parent with the keys of its children.
+	 */
+	private class Parent {
+
+		final Object key;
+
+		final P bean;
+
+		final Collection<Object> children;
+
+		/**
+		 * Keys of the children that have been added.
+		 */
+		final Set<Object> childKeys = new HashSet<Object>();
+
+		Parent(Object key, P bean) throws DBException {
+			this.key = key;
+			this.bean = bean;
+			this.children = getChildren(bean);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * Keyset ResultSet reader, which reads rows with the delegate reader, and keeps the key values of the last row for the next page.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class KeysetResultReader<T> implements ResultReader<T> {
+
+	private final ResultReader<T> resultReader;
+
+	private final String[] keys;
+
+	private int[] keyColumns;
+
+	private Object[] lastKeys;
+
+	public KeysetResultReader(ResultReader<T> resultReader, String[] keys) {
+		this.resultReader = resultReader;
+		this.keys = keys;
+	}
+
+	// --------implements
+	public void processRow(ResultSet rs) throws DBException {
+		resultReader.processRow(rs);
+
+		int i = 0;
+		try {
+			if (keyColumns == null) {
+				keyColumns = new int[keys.length];
+				for (; i < keys.length; i++) {
+					keyColumns[i] = rs.findColumn(keys[i]);
+				}
+			}
+
+			if (lastKeys == null)
+				lastKeys = new Object[keys.length];
+			for (i = 0; i < keys.length; i++) {
+				lastKeys[i] = rs.getObject(keyColumns[i]);
+			}
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR06", e, keys[i], e.getMessage());
+		}
+	}
+
+	public List<T> getResults() {
+		return resultReader.getResults();
+	}
+
+	/**
+	 * Returns the key values of the last row, or null if no row has been read.
+	 */
+	public Object[] getLastKeys() {
+		return lastKeys;
+	}
+}
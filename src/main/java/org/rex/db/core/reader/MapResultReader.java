@@ -20,7 +20,9 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.rex.RMap;
+import org.rex.db.RowHandler;
 import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
 import org.rex.db.util.ORUtil;
 
 /**
@@ -29,7 +31,7 @@ import org.rex.db.util.ORUtil;
  * @version 1.0, 2016-02-12
  * @since Rexdb-1.0
  */
-public class MapResultReader implements ResultReader {
+public class MapResultReader implements ParallelResultReader<RMap> {
 
 	private ORUtil orUtil = new ORUtil();
 
@@ -37,19 +39,56 @@ public class MapResultReader implements ResultReader {
 
 	private int rowNum = 0;
 
+	/**
+	 * Handles rows instead of collecting them, if set.
+	 */
+	private RowHandler<? super RMap> rowHandler;
+
+	/**
+	 * Plan of the copied rows, which are decoded in parallel.
+	 */
+	private volatile MappingPlan planForParallel = null;
+
 	public MapResultReader() {
 		this.results = new LinkedList<RMap>();
 	}
 
+	public MapResultReader(RowHandler<? super RMap> rowHandler) {
+		this();
+		this.rowHandler = rowHandler;
+	}
+
 	// --------implements
 	public void processRow(ResultSet rs) throws DBException {
-		results.add(row2Map(rs, rowNum++));
+		addRow(row2Map(rs, rowNum));
 	}
 
 	public List<RMap> getResults() {
 		return results;
 	}
 
+	// --------parallel decoding
+	/**
+	 * Copies all columns of the current row, which are read as the rows read by {@link #processRow(ResultSet)}.
+	 */
+	public Object[] copyRow(ResultSet rs, Object[] buffer) throws DBException {
+		if (planForParallel == null)
+			planForParallel = MappingPlan.getPlan(rs, null);
+		return orUtil.copyMapRow(rs, planForParallel, buffer);
+	}
+
+	public RMap decodeRow(Object[] row) throws DBException {
+		return orUtil.row2Map(row, planForParallel);
+	}
+
+	public void addRow(RMap row) throws DBException {
+		if (rowHandler == null)
+			results.add(row);
+		else
+			rowHandler.handleRow(row, rowNum);
+		rowNum++;
+	}
+
 	// -----------private methods
 	private RMap<String, ?> row2Map(ResultSet rs, int rowNum) throws DBException {
 		return orUtil.rs2Map(rs);
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * ResultSet reader that reads the ResultSet metadata before the rows, so that the result has columns even if the ResultSet is empty.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public interface MetaDataResultReader<T> extends ResultReader<T> {
+
+	/**
+	 * Reads the metadata of the given ResultSet, which is called once before the first row.
+	 */
+	void processMetaData(ResultSet rs) throws DBException;
+}
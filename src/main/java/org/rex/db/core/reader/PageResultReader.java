@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+
+/**
+ * Page ResultSet reader, which reads rows with the delegate reader, and the total rows from the column that is counted by 'COUNT(*) OVER()'.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class PageResultReader<T> implements ResultReader<T> {
+
+	private final ResultReader<T> resultReader;
+
+	private final String totalColumn;
+
+	private String totalKey;
+
+	private long total = -1;
+
+	public PageResultReader(ResultReader<T> resultReader, String totalColumn) {
+		this.resultReader = resultReader;
+		this.totalColumn = totalColumn;
+	}
+
+	// --------implements
+	public void processRow(ResultSet rs) throws DBException {
+		if (total == -1) {
+			try {
+				int column = rs.findColumn(totalColumn);
+				total = rs.getLong(column);
+				totalKey = MappingPlan.getPlan(rs, null).getLabelsRenamed()[column - 1];
+			} catch (SQLException e) {
+				throw new DBException("DB-UOR06", e, totalColumn, e.getMessage());
+			}
+		}
+		resultReader.processRow(rs);
+	}
+
+	public List<T> getResults() {
+		return resultReader.getResults();
+	}
+
+	/**
+	 * Returns the total rows, or -1 if no row has been read.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the key of the total column in the mapped maps, which should be removed from the maps.
+	 */
+	public String getTotalKey() {
+		return totalKey;
+	}
+}
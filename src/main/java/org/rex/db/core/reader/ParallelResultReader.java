@@ -0,0 +1,45 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * ResultSet reader that can map rows in other threads. Rows are copied from the ResultSet in the reading thread,
+ * decoded by worker threads, and added in the original order in the reading thread.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public interface ParallelResultReader<T> extends ResultReader<T> {
+
+	/**
+	 * Copies the current row into the buffer without converting it, the buffer of a decoded row is passed for reuse, or null.
+	 */
+	Object[] copyRow(ResultSet rs, Object[] buffer) throws DBException;
+
+	/**
+	 * Maps the copied row, which is called by worker threads.
+	 */
+	T decodeRow(Object[] row) throws DBException;
+
+	/**
+	 * Adds the decoded row to the results, which is called in the original order by the reading thread.
+	 */
+	void addRow(T row) throws DBException;
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * ResultSet Iterator that decodes rows in worker threads while the ResultSet is being read.
+ * <p>
+ * The reading thread copies raw column values into reusable row buffers and submits them to the workers. Decoded rows are taken 
+ * from a bounded ring, so they are added in the original order and at most a fixed number of rows are in flight. 
+ * Readers that don't implement ParallelResultReader are read by the default iterator.
+ * <p>
+ * All queries share one pool of daemon decoding threads, which has one thread for each processor, and idle threads are released 
+ * after a while. The parallelism of a query is limited to the number of processors.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ParallelResultSetIterator implements ResultSetIterator {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelResultSetIterator.class);
+
+	/**
+	 * Rows in flight for each worker.
+	 */
+	private static final int ROWS_PER_WORKER = 64;
+
+	/**
+	 * Seconds that an idle decoding thread is kept.
+	 */
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	/**
+	 * Maximum parallelism of a query, which is also the size of the shared pool.
+	 */
+	private static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	private static final AtomicInteger threadSequence = new AtomicInteger();
+
+	private static final ThreadPoolExecutor workers;
+
+	static {
+		workers = new ThreadPoolExecutor(MAX_PARALLELISM, MAX_PARALLELISM, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<Runnable>(), new DecoderThreadFactory());
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	private final int parallelism;
+
+	/**
+	 * @param parallelism the decoding threads of the query, which is limited to the number of processors.
+	 */
+	public ParallelResultSetIterator(int parallelism) {
+		this.parallelism = Math.min(parallelism, MAX_PARALLELISM);
+	}
+
+	/**
+	 * Iterates over the given ResultSet.
+	 */
+	public void read(ResultReader resultReader, ResultSet rs) throws DBException {
+		if (parallelism < 2 || !(resultReader instanceof ParallelResultReader)) {
+			new DefaultResultSetIterator().read(resultReader, rs);
+			return;
+		}
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("reading ResultSet[{0}] with {1} decoding threads.", rs.hashCode(), parallelism);
+
+		ParallelResultReader<Object> reader = (ParallelResultReader<Object>) resultReader;
+		int size = parallelism * ROWS_PER_WORKER;
+		Future<Object>[] ring = new Future[size];
+		Object[][] buffers = new Object[size][];
+		long produced = 0, added = 0;
+
+		boolean completed = false;
+		try {
+			while (rs.next()) {
+				int slot = (int) (produced % size);
+				if (produced - added == size)
+					add(reader, ring, (int) (added++ % size));
+
+				buffers[slot] = reader.copyRow(rs, buffers[slot]);
+				ring[slot] = workers.submit(new DecodeTask(reader, buffers[slot]));
+				produced++;
+
+				while (added < produced && ring[(int) (added % size)].isDone())
+					add(reader, ring, (int) (added++ % size));
+			}
+
+			while (added < produced)
+				add(reader, ring, (int) (added++ % size));
+			completed = true;
+		} catch (SQLException e) {
+			throw new DBException("DB-C0002", e, e.getMessage());
+		} finally {
+			if (!completed)
+				cancel(ring);
+		}
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("finished reading ResultSet[{0}], which has {1} rows.", rs.hashCode(), produced);
+	}
+
+	/**
+	 * Cancels the rows that are still in flight after a failure.
+	 */
+	private static void cancel(Future<Object>[] ring) {
+		for (int i = 0; i < ring.length; i++) {
+			if (ring[i] != null)
+				ring[i].cancel(false);
+		}
+	}
+
+	/**
+	 * Waits for the decoded row in the slot and adds it to the reader.
+	 */
+	private void add(ParallelResultReader<Object> reader, Future<Object>[] ring, int slot) throws DBException {
+		Object row;
+		try {
+			row = ring[slot].get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException("DB-C0002", e, e.getMessage());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof DBException)
+				throw (DBException) cause;
+			throw new DBException("DB-C0002", cause, cause.getMessage());
+		}
+		ring[slot] = null;
+		reader.addRow(row);
+	}
+
+	/**
+	 * Decodes a copied row.
+	 */
+	private static class DecodeTask implements Callable<Object> {
+
+		private final ParallelResultReader<Object> reader;
+
+		private final Object[] row;
+
+		DecodeTask(ParallelResultReader<Object> reader, Object[] row) {
+			this.reader = reader;
+			this.row = row;
+		}
+
+		public Object call() throws DBException {
+			return reader.decodeRow(row);
+		}
+	}
+
+	/**
+	 * Creates daemon threads for decoding.
+	 */
+	private static class DecoderThreadFactory implements ThreadFactory {
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "rexdb-decoder-" + threadSequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
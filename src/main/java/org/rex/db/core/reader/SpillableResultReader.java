@@ -0,0 +1,156 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.reader;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rex.db.SpillableList;
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ORUtil;
+import org.rex.db.util.SpillFile;
+
+/**
+ * ResultSet reader that keeps rows in memory until their estimated size crosses the threshold, 
+ * the remaining rows are written to a temporary file in a compact binary format.
+ * <p>
+ * Rows are mapped to instances of the result class, or to RMap if the result class is null.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SpillableResultReader<T> implements ResultReader<T> {
+
+	private final ORUtil orUtil = new ORUtil();
+
+	private final Class<T> resultClass;
+
+	private final long memoryThreshold;
+
+	private final File directory;
+
+	private final List<T> memoryRows = new ArrayList<T>();
+
+	private long memoryUsed;
+
+	private MappingPlan plan;
+
+	private SpillFile spillFile;
+
+	private SpillableList<T> results;
+
+	/**
+	 * @param resultClass a class that each row should be mapped to, or null to map rows to RMap.
+	 * @param memoryThreshold estimated bytes of the rows that are kept in memory.
+	 * @param directory directory of the temporary file, or null to use the default temporary directory.
+	 */
+	public SpillableResultReader(Class<T> resultClass, long memoryThreshold, File directory) {
+		this.resultClass = resultClass;
+		this.memoryThreshold = memoryThreshold;
+		this.directory = directory;
+	}
+
+	// --------implements
+	public void processRow(ResultSet rs) throws DBException {
+		if (plan == null)
+			plan = orUtil.getMappingPlan(rs, resultClass);
+
+		Object[] row = readRow(rs);
+		if (spillFile == null && memoryUsed < memoryThreshold) {
+			memoryUsed += estimateSize(row);
+			memoryRows.add(decode(row));
+		} else {
+			if (spillFile == null)
+				spillFile = new SpillFile(directory, row.length);
+			spillFile.append(row);
+		}
+	}
+
+	/**
+	 * Returns the list view of the rows, which should be closed to delete the temporary file.
+	 */
+	public List<T> getResults() {
+		return getSpillableList();
+	}
+
+	public SpillableList<T> getSpillableList() {
+		if (results == null)
+			results = new SpillableList<T>(memoryRows, spillFile, plan);
+		return results;
+	}
+
+	/**
+	 * Deletes the temporary file if the query failed.
+	 */
+	public void discard() {
+		if (spillFile != null)
+			spillFile.close();
+	}
+
+	// -----------private methods
+	/**
+	 * Reads values of the mapped columns, LOBs are read into strings and arrays.
+	 */
+	private Object[] readRow(ResultSet rs) throws DBException {
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] types = plan.getTypes();
+		Object[] row = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			if (resultClass != null && javaTypes[i] == null) continue;
+			try {
+				Object value = orUtil.getValue(rs, i + 1, types[i]);
+				if (resultClass != null && value instanceof Number && rs.wasNull())
+					value = null;
+				row[i] = value;
+			} catch (SQLException e) {
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
+			}
+		}
+		return row;
+	}
+
+	private T decode(Object[] row) throws DBException {
+		if (resultClass != null)
+			return (T) orUtil.row2Instance(row, plan);
+		return (T) orUtil.row2Map(row, plan);
+	}
+
+	/**
+	 * Returns the estimated heap size of the mapped row.
+	 */
+	private static long estimateSize(Object[] row) {
+		long size = 16 + 8L * row.length;
+		for (int i = 0; i < row.length; i++) {
+			Object value = row[i];
+			if (value == null)
+				continue;
+			else if (value instanceof String)
+				size += 40 + 2L * ((String) value).length();
+			else if (value instanceof byte[])
+				size += 16 + ((byte[]) value).length;
+			else if (value instanceof BigDecimal)
+				size += 64;
+			else
+				size += 24;
+		}
+		return size;
+	}
+}
@@ -55,7 +55,7 @@ public class ArrayStatementCreator extends AbstractStatementCreator{
 		validateSql(sql, parameterArray);
 		
 		if(limitHandler != null)
-			sql = limitHandler.wrapSql(sql);
+			sql = limitHandler.getWrappedSql(sql);
 		
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("preparing Statement for sql {0} of Connection[{1}].", sql, conn.hashCode());
@@ -15,6 +15,7 @@
  */
 package org.rex.db.core.statement;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.sql.CallableStatement;
 import java.sql.Connection;
@@ -64,7 +65,7 @@ public class BeanStatementCreator extends AbstractStatementCreator{
 	public PreparedStatement createPreparedStatement(Connection connection, String sql, Object parameters, LimitHandler limitHandler) throws DBException, SQLException {
 		String[] all = SqlUtil.parse(sql), tokens = new String[all.length - 1];
 		System.arraycopy(all, 1, tokens, 0, all.length - 1);
-		String parsedSql = (limitHandler == null) ? all[0] : limitHandler.wrapSql(all[0]);
+		String parsedSql = (limitHandler == null) ? all[0] : limitHandler.getWrappedSql(all[0]);
 		
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("preparing Statement for sql {0} of Connection[{1}].", parsedSql, connection.hashCode());
@@ -136,6 +137,16 @@ public class BeanStatementCreator extends AbstractStatementCreator{
 		if(isDynamic()){
 			BeanConvertor setter = BeanConvertorManager.getConvertor(parameters.getClass());
 			setter.setParameters(statement, parameters, tokens);
+		}else if(ReflectUtil.isFieldAccess(parameters.getClass())){
+			Map<String, Field> fields = ReflectUtil.getFields(parameters.getClass());
+			for (int i = 0; i < tokens.length; i++) {
+				Field field = fields.get(tokens[i]);
+				if(field == null){
+					SqlUtil.setNull(statement, i + 1);
+				}else{
+					SqlUtil.setParameter(statement, i + 1, ReflectUtil.getField(parameters, field));
+				}
+			}
 		}else{
 			Map<String, Method> readers = ReflectUtil.getReadableMethods(parameters.getClass());
 			for (int i = 0; i < tokens.length; i++) {
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.core.statement;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import org.rex.db.Ps;
+import org.rex.db.exception.DBException;
+import org.rex.db.util.ReflectUtil;
+import org.rex.db.util.SqlUtil;
+
+/**
+ * Queries combined into one SQL separated by ';', with their parameters combined into a Ps in the order of the placeholders.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class CombinedQuery {
+
+	/**
+	 * Delimiter of the queries, the space keeps a trailing '?' of the previous query a valid placeholder.
+	 */
+	private static final String DELIMITER = " ;\n";
+
+	private final String sql;
+
+	private final Ps ps;
+
+	private CombinedQuery(String sql, Ps ps) {
+		this.sql = sql;
+		this.ps = ps;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public Ps getPs() {
+		return ps;
+	}
+
+	/**
+	 * Combines the queries, or returns null if the parameters of a query can't be combined, such as a Ps with OUT parameters.
+	 *
+	 * @param sql queries that may contain '?' or '#{...}' IN parameter placeholders.
+	 * @param parameters a Ps object, an object array, a map or a java bean for each query, or null.
+	 */
+	public static CombinedQuery combine(String[] sql, Object[] parameters) throws DBException {
+		StringBuffer combined = new StringBuffer();
+		Ps ps = new Ps();
+		for (int i = 0; i < sql.length; i++) {
+			String query = trimDelimiter(sql[i]);
+			Object parameter = parameters[i];
+
+			if (parameter instanceof Ps) {
+				List<Ps.SqlParameter> values = ((Ps) parameter).getParameters();
+				for (int j = 0; j < values.size(); j++) {
+					Ps.SqlParameter value = values.get(j);
+					if (value instanceof Ps.SqlOutParameter)
+						return null;
+					ps.add(value.getValue(), value.getSqlType());
+				}
+			} else if (parameter != null && parameter.getClass().isArray()) {
+				Object[] values = (Object[]) parameter;
+				for (int j = 0; j < values.length; j++) {
+					addValue(ps, values[j]);
+				}
+			} else {
+				String[] all = SqlUtil.parse(query);
+				query = all[0];
+				if (parameter != null && all.length > 1)
+					addValues(ps, all, parameter);
+			}
+
+			if (i > 0)
+				combined.append(DELIMITER);
+			combined.append(query);
+		}
+		return new CombinedQuery(combined.toString(), ps);
+	}
+
+	// -----------private methods
+	private static String trimDelimiter(String sql) {
+		String query = sql.trim();
+		while (query.endsWith(";"))
+			query = query.substring(0, query.length() - 1).trim();
+		return query;
+	}
+
+	/**
+	 * Adds the values of the tokens, which are read from the map or the java bean.
+	 */
+	private static void addValues(Ps ps, String[] all, Object parameters) throws DBException {
+		if (parameters instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) parameters;
+			for (int i = 1; i < all.length; i++) {
+				addValue(ps, map.get(all[i]));
+			}
+		} else if (ReflectUtil.isFieldAccess(parameters.getClass())) {
+			Map<String, Field> fields = ReflectUtil.getFields(parameters.getClass());
+			for (int i = 1; i < all.length; i++) {
+				Field field = fields.get(all[i]);
+				addValue(ps, field == null ? null : ReflectUtil.getField(parameters, field));
+			}
+		} else {
+			Map<String, Method> readers = ReflectUtil.getReadableMethods(parameters.getClass());
+			for (int i = 1; i < all.length; i++) {
+				Method reader = readers.get(all[i]);
+				addValue(ps, reader == null ? null : ReflectUtil.invokeMethod(parameters, reader));
+			}
+		}
+	}
+
+	private static void addValue(Ps ps, Object value) {
+		if (value == null)
+			ps.addNull();
+		else
+			ps.add(value);
+	}
+
+	public String toString() {
+		return "sql=" + sql + ", ps=" + ps;
+	}
+}
@@ -56,7 +56,7 @@ public class PsStatementCreator extends AbstractStatementCreator{
 		validateSql(sql, ps);
 		
 		if(limitHandler != null)
-			sql = limitHandler.wrapSql(sql);
+			sql = limitHandler.getWrappedSql(sql);
 		
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("preparing Statement for sql {0} of Connection[{1}].", sql, conn.hashCode());
@@ -20,6 +20,8 @@ import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.rex.db.cache.QueryCoalescer;
+import org.rex.db.core.executor.AsyncExecutor;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
 
@@ -33,12 +35,32 @@ public class DataSourceManager {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceManager.class);
 	
+	/**
+	 * Default number of threads for asynchronous executions of a dataSource.
+	 */
+	private static final int DEFAULT_ASYNC_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+	
 	private volatile DataSource defaultDataSource;
 
 	private final Map<String, DataSource> dataSourses;
 	
+	private final Map<DataSource, Integer> fetchSizes;
+	
+	private final Map<DataSource, Integer> asyncThreads;
+	
+	private final Map<DataSource, AsyncExecutor> asyncExecutors;
+	
+	private final Map<DataSource, QueryCoalescer> coalescers;
+	
+	private final Map<DataSource, Boolean> coalesced;
+	
 	public DataSourceManager(){
 		dataSourses = new HashMap<String, DataSource>();
+		fetchSizes = new HashMap<DataSource, Integer>();
+		asyncThreads = new HashMap<DataSource, Integer>();
+		asyncExecutors = new HashMap<DataSource, AsyncExecutor>();
+		coalescers = new HashMap<DataSource, QueryCoalescer>();
+		coalesced = new HashMap<DataSource, Boolean>();
 	}
 
 	public void setDefault(DataSource dataSource){
@@ -70,4 +92,97 @@ public class DataSourceManager {
 	public boolean hasDefault(){
 		return defaultDataSource == null;
 	}
+	
+	//-----------fetch size
+	/**
+	 * Specifies the default fetch size for queries of the dataSource.
+	 */
+	public void setFetchSize(DataSource dataSource, int fetchSize){
+		fetchSizes.put(dataSource, fetchSize);
+		
+		if(LOGGER.isDebugEnabled())
+			LOGGER.debug("default fetch size of datasource[{0}] is {1}.", dataSource.hashCode(), fetchSize);
+	}
+	
+	/**
+	 * Returns the default fetch size of the dataSource, or 0 if it is not specified.
+	 */
+	public int getFetchSize(DataSource dataSource){
+		Integer fetchSize = fetchSizes.get(dataSource);
+		return fetchSize == null ? 0 : fetchSize;
+	}
+	
+	//-----------async executors
+	/**
+	 * Specifies the number of threads for asynchronous executions of the dataSource, which should match the size of its connection pool.
+	 * Numbers less than 1 are ignored, the default number is used.
+	 */
+	public void setAsyncThreads(DataSource dataSource, int threads){
+		if(threads < 1){
+			LOGGER.warn("async threads of datasource[{0}] should be greater than 0, {1} is ignored.", dataSource.hashCode(), threads);
+			return;
+		}
+		asyncThreads.put(dataSource, threads);
+		
+		if(LOGGER.isDebugEnabled())
+			LOGGER.debug("async threads of datasource[{0}] is {1}.", dataSource.hashCode(), threads);
+	}
+	
+	/**
+	 * Specifies the executor for asynchronous executions of the dataSource, such as an executor that runs on virtual threads.
+	 * The replaced executor is shut down.
+	 */
+	public synchronized void setAsyncExecutor(DataSource dataSource, AsyncExecutor executor){
+		AsyncExecutor replaced = asyncExecutors.put(dataSource, executor);
+		if(replaced != null && replaced != executor)
+			replaced.shutdown();
+	}
+	
+	/**
+	 * Returns the executor for asynchronous executions of the dataSource, which is created with the specified number of threads,
+	 * or twice the number of processors if it is not specified.
+	 */
+	public synchronized AsyncExecutor getAsyncExecutor(DataSource dataSource){
+		AsyncExecutor executor = asyncExecutors.get(dataSource);
+		if(executor == null){
+			Integer threads = asyncThreads.get(dataSource);
+			executor = new AsyncExecutor(threads == null ? DEFAULT_ASYNC_THREADS : threads);
+			asyncExecutors.put(dataSource, executor);
+			
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("created async executor for datasource[{0}] with {1} threads.", dataSource.hashCode(), executor.getMaxConcurrency());
+		}
+		return executor;
+	}
+	
+	//-----------query coalescing
+	/**
+	 * Specifies whether identical concurrent queries of the dataSource share one execution.
+	 */
+	public void setCoalesced(DataSource dataSource, boolean isCoalesced){
+		coalesced.put(dataSource, isCoalesced);
+		
+		if(LOGGER.isDebugEnabled())
+			LOGGER.debug("query coalescing of datasource[{0}] is {1}.", dataSource.hashCode(), isCoalesced);
+	}
+	
+	/**
+	 * Returns true if identical concurrent queries of the dataSource share one execution.
+	 */
+	public boolean isCoalesced(DataSource dataSource){
+		Boolean isCoalesced = coalesced.get(dataSource);
+		return isCoalesced != null && isCoalesced;
+	}
+	
+	/**
+	 * Returns the coalescer of the dataSource, which also counts the coalesced calls.
+	 */
+	public synchronized QueryCoalescer getQueryCoalescer(DataSource dataSource){
+		QueryCoalescer coalescer = coalescers.get(dataSource);
+		if(coalescer == null){
+			coalescer = new QueryCoalescer();
+			coalescers.put(dataSource, coalescer);
+		}
+		return coalescer;
+	}
 }
@@ -18,6 +18,7 @@ package org.rex.db.datasource;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.util.Properties;
 
 import javax.sql.DataSource;
@@ -64,4 +65,18 @@ public class SimpleDataSource implements DataSource {
 		throw new DBRuntimeException("DB-D0002", "setLogWriter");
 	}
 
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+			return iface.cast(this);
+		throw new SQLException("SimpleDataSource is not a wrapper for " + iface.getName());
+	}
+
+	public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException("getParentLogger");
+	}
+
 }
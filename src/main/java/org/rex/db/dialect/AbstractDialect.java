@@ -0,0 +1,333 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.rex.db.exception.DBRuntimeException;
+
+/**
+ * Basic dialect, which applies the standard JDBC behaviors.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class AbstractDialect implements Dialect {
+	
+	/**
+	 * Fetch size for streaming queries if the fetch size is not specified.
+	 */
+	public static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
+
+	/**
+	 * Max SQLs of each rewritten SQL cache, the cache is cleared when it's full.
+	 */
+	private static final int MAX_CACHED_SQLS = 1024;
+
+	/**
+	 * Count SQLs that are rewritten from the queries.
+	 */
+	private static final Map<String, String> countSqls = new ConcurrentHashMap<String, String>();
+
+	// ------------------------------------------------------------Counting
+	/**
+	 * Returns true if the database supports window functions, such as 'COUNT(*) OVER()'.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return false;
+	}
+
+	/**
+	 * Returns the SQL that counts the rows of the query, which is 'SELECT COUNT(*) FROM (sql) count_'.
+	 * The trailing ORDER BY of the SQL is removed if it's not followed by a limit.
+	 */
+	public String getCountSql(String sql) {
+		String countSql = countSqls.get(sql);
+		if (countSql == null) {
+			String query = sql.trim();
+			int orderBy = indexOfTopLevel(query, "order by", true);
+			if (orderBy != -1) {
+				String tail = query.substring(orderBy);
+				if (indexOfTopLevel(tail, "limit", false) == -1 && indexOfTopLevel(tail, "offset", false) == -1
+						&& indexOfTopLevel(tail, "fetch", false) == -1)
+					query = query.substring(0, orderBy);
+			}
+			countSql = "SELECT COUNT(*) FROM (" + query + ") count_";
+			cacheSql(countSqls, sql, countSql);
+		}
+		return countSql;
+	}
+
+	/**
+	 * Returns the query that also returns the total rows in the specified column of each row, or null if the SQL can't be rewritten.
+	 * Adds 'COUNT(*) OVER() AS totalColumn' to the select list of the SQL. 'SELECT *' queries without ORDER BY are wrapped as 
+	 * 'SELECT page_.*, COUNT(*) OVER() AS totalColumn FROM (sql) page_'. Returns null if the window function isn't supported, 
+	 * or the SQL is a DISTINCT, UNION or another query that the total would be counted incorrectly.
+	 */
+	public String getWindowCountSql(String sql, String totalColumn) {
+		if (!isWindowFunctionSupported())
+			return null;
+
+		String query = sql.trim();
+		if (!query.regionMatches(true, 0, "select", 0, 6) || indexOfTopLevel(query, "select distinct", false) == 0
+				|| indexOfTopLevel(query, "union", false) != -1 || indexOfTopLevel(query, "intersect", false) != -1
+				|| indexOfTopLevel(query, "except", false) != -1 || indexOfTopLevel(query, "minus", false) != -1)
+			return null;
+
+		int from = indexOfTopLevel(query, "from", false);
+		if (from == -1)
+			return null;
+
+		if ("*".equals(query.substring(6, from).trim())) {
+			if (indexOfTopLevel(query, "order by", false) != -1)
+				return null;
+			return "SELECT page_.*, COUNT(*) OVER() AS " + totalColumn + " FROM (" + query + ") page_";
+		}
+		return query.substring(0, from).trim() + ", COUNT(*) OVER() AS " + totalColumn + " " + query.substring(from);
+	}
+
+	/**
+	 * Returns the index of the keyword that isn't in parentheses, quotes or comments, or -1 if the SQL has no such keyword.
+	 * Words of the keyword are separated by one space, which matches any whitespaces.
+	 * 
+	 * @param last true to find the last one.
+	 */
+	protected static int indexOfTopLevel(String sql, String keyword, boolean last) {
+		String[] words = keyword.split(" ");
+		int found = -1, depth = 0, length = sql.length();
+		for (int i = 0; i < length; i++) {
+			char c = sql.charAt(i);
+			if (c == '\'' || c == '"') {
+				int end = sql.indexOf(c, i + 1);
+				i = end == -1 ? length : end;
+			} else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+				int end = sql.indexOf('\n', i);
+				i = end == -1 ? length : end;
+			} else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+				int end = sql.indexOf("*/", i + 2);
+				i = end == -1 ? length : end + 1;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (depth == 0 && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)) && sql.charAt(i - 1) != '_')) {
+				int end = matchWords(sql, i, words);
+				if (end != -1) {
+					if (!last)
+						return i;
+					found = i;
+					i = end - 1;
+				}
+			}
+		}
+		return found;
+	}
+
+	private static int matchWords(String sql, int start, String[] words) {
+		int position = start;
+		for (int w = 0; w < words.length; w++) {
+			if (w > 0) {
+				int spaces = position;
+				while (position < sql.length() && Character.isWhitespace(sql.charAt(position)))
+					position++;
+				if (position == spaces)
+					return -1;
+			}
+			if (!sql.regionMatches(true, position, words[w], 0, words[w].length()))
+				return -1;
+			position += words[w].length();
+		}
+		if (position < sql.length() && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '_'))
+			return -1;
+		return position;
+	}
+
+	private static void cacheSql(Map<String, String> cache, String sql, String rewritten) {
+		if (cache.size() >= MAX_CACHED_SQLS)
+			cache.clear();
+		cache.put(sql, rewritten);
+	}
+
+	// ------------------------------------------------------------Keyset paging
+	/**
+	 * Returns the handler of keyset pagination, which seeks the rows after the last keys and limits the rows.
+	 * Keyset queries of dialects that don't extend this class compare the keys one by one.
+	 * 
+	 * @param keys columns of the order, which identify each row.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param rows max rows of the page.
+	 */
+	public KeysetHandler getKeysetHandler(String[] keys, boolean descending, Object[] lastKeys, int rows) {
+		return new KeysetHandler(keys, descending, lastKeys, getLimitHandler(rows), isRowValueSupported());
+	}
+
+	/**
+	 * Returns true if the database compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return false;
+	}
+
+	// ------------------------------------------------------------Streaming
+	/**
+	 * Prepares the connection before a streaming query, returns true if the connection state has been changed. 
+	 * Streaming queries of dialects that don't extend this class only apply the fetch size.
+	 */
+	public boolean beforeStreaming(Connection connection) throws SQLException {
+		return false;
+	}
+
+	/**
+	 * Applies the fetch size to the statement of a streaming query, the fetch size is 0 if it is not specified. 
+	 * The fetch sizes of the other queries are applied to the statements directly.
+	 */
+	public void applyFetchSize(Statement statement, int fetchSize, boolean streaming) throws SQLException {
+		if(fetchSize > 0)
+			statement.setFetchSize(fetchSize);
+		else if(streaming)
+			statement.setFetchSize(DEFAULT_STREAMING_FETCH_SIZE);
+	}
+
+	/**
+	 * Restores the connection after a streaming query.
+	 */
+	public void afterStreaming(Connection connection, boolean changed) throws SQLException {
+	}
+
+	// ------------------------------------------------------------Multiple queries
+	/**
+	 * Returns true if several queries separated by ';' can be executed by one statement, which returns their ResultSets in order.
+	 */
+	public boolean isMultipleQueriesSupported(Connection connection) throws SQLException {
+		return false;
+	}
+
+	// ------------------------------------------------------------Upsert
+	/**
+	 * Returns the SQL that inserts a row, or updates the other columns of the row that has the same keys. The SQL contains 
+	 * a '?' placeholder for each column in order.
+	 * 
+	 * @param table the table name.
+	 * @param columns columns of the row.
+	 * @param keys columns of the primary key or an unique key, which should be a subset of the columns.
+	 * @throws DBRuntimeException if the dialect doesn't support upsert, or the keys are empty or not in the columns.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		throw new DBRuntimeException("DB-A0006", getName());
+	}
+
+	/**
+	 * Returns the columns that aren't keys, which are updated if the row exists.
+	 * 
+	 * @throws DBRuntimeException if the keys are empty or not in the columns.
+	 */
+	protected static String[] getUpdateColumns(String table, String[] columns, String[] keys) {
+		if (columns == null || keys == null || keys.length == 0 || !Arrays.asList(columns).containsAll(Arrays.asList(keys)))
+			throw new DBRuntimeException("DB-A0007", table, keys == null ? null : Arrays.asList(keys), 
+					columns == null ? null : Arrays.asList(columns));
+
+		List<String> keyList = Arrays.asList(keys);
+		List<String> updates = new ArrayList<String>();
+		for (int i = 0; i < columns.length; i++) {
+			if (!keyList.contains(columns[i]))
+				updates.add(columns[i]);
+		}
+		return updates.toArray(new String[updates.size()]);
+	}
+
+	/**
+	 * Returns 'MERGE INTO table t_ USING source ON (...) WHEN MATCHED THEN UPDATE SET ... WHEN NOT MATCHED THEN INSERT ...', 
+	 * the source should be aliased as 's_' and contain all the columns.
+	 */
+	protected static String getMergeSql(String table, String[] columns, String[] keys, String source) {
+		String[] updates = getUpdateColumns(table, columns, keys);
+		StringBuffer sql = new StringBuffer("MERGE INTO ").append(table).append(" t_ USING ").append(source).append(" ON (");
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0)
+				sql.append(" AND ");
+			sql.append("t_.").append(keys[i]).append(" = s_.").append(keys[i]);
+		}
+		sql.append(')');
+
+		if (updates.length > 0) {
+			sql.append(" WHEN MATCHED THEN UPDATE SET ");
+			for (int i = 0; i < updates.length; i++) {
+				if (i > 0)
+					sql.append(", ");
+				sql.append(updates[i]).append(" = s_.").append(updates[i]);
+			}
+		}
+
+		sql.append(" WHEN NOT MATCHED THEN INSERT (").append(join(columns, "", "")).append(") VALUES (").append(join(columns, "s_.", ""))
+				.append(')');
+		return sql.toString();
+	}
+
+	/**
+	 * Returns 'INSERT INTO table (...) VALUES (...) ON CONFLICT (keys) DO UPDATE SET ...', or 'DO NOTHING' if all columns are keys.
+	 * The keys should have an unique constraint.
+	 */
+	protected static String getOnConflictSql(String table, String[] columns, String[] keys) {
+		String[] updates = getUpdateColumns(table, columns, keys);
+		StringBuffer sql = new StringBuffer("INSERT INTO ").append(table).append(" (").append(join(columns, "", "")).append(") VALUES (")
+				.append(getPlaceholders(columns)).append(") ON CONFLICT (").append(join(keys, "", "")).append(')');
+		if (updates.length == 0)
+			return sql.append(" DO NOTHING").toString();
+
+		sql.append(" DO UPDATE SET ");
+		for (int i = 0; i < updates.length; i++) {
+			if (i > 0)
+				sql.append(", ");
+			sql.append(updates[i]).append(" = EXCLUDED.").append(updates[i]);
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * Returns the columns separated by ', ', each column has the prefix and suffix.
+	 */
+	protected static String join(String[] columns, String prefix, String suffix) {
+		StringBuffer sb = new StringBuffer();
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(prefix).append(columns[i]).append(suffix);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns '?' placeholders separated by ', ', one for each column.
+	 */
+	protected static String getPlaceholders(String[] columns) {
+		StringBuffer sb = new StringBuffer();
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append('?');
+		}
+		return sb.toString();
+	}
+	
+}
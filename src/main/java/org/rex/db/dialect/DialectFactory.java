@@ -27,12 +27,16 @@ import org.rex.db.dialect.impl.DerbyDialect;
 import org.rex.db.dialect.impl.H2Dialect;
 import org.rex.db.dialect.impl.HSQLDBDialect;
 import org.rex.db.dialect.impl.KingbaseDialect;
+import org.rex.db.dialect.impl.MySQL8Dialect;
 import org.rex.db.dialect.impl.MySQLDialect;
+import org.rex.db.dialect.impl.Oracle12cDialect;
 import org.rex.db.dialect.impl.Oracle8iDialect;
 import org.rex.db.dialect.impl.Oracle9iDialect;
 import org.rex.db.dialect.impl.OscarDialect;
 import org.rex.db.dialect.impl.PostgreSQLDialect;
 import org.rex.db.dialect.impl.SQLServer2005Dialect;
+import org.rex.db.dialect.impl.SQLServer2008Dialect;
+import org.rex.db.dialect.impl.SQLServer2012Dialect;
 import org.rex.db.dialect.impl.SQLServerDialect;
 import org.rex.db.exception.DBException;
 import org.rex.db.logger.Logger;
@@ -100,7 +104,7 @@ public class DialectFactory {
 			case 8:
 				return new Oracle8iDialect();
 			default:
-				return new Oracle9iDialect();
+				return databaseMajorVersion >= 12 ? new Oracle12cDialect() : new Oracle9iDialect();
 			}
 		}
 
@@ -109,14 +113,16 @@ public class DialectFactory {
 			case 8:
 				return new SQLServerDialect();
 			default:
-				return new SQLServer2005Dialect();
+				if (databaseMajorVersion >= 11)
+					return new SQLServer2012Dialect();
+				return databaseMajorVersion >= 10 ? new SQLServer2008Dialect() : new SQLServer2005Dialect();
 			}
 		}
 
 		if (databaseName.startsWith("DB2"))
 			return new DB2Dialect();
 		if ("MySQL".equals(databaseName))
-			return new MySQLDialect();
+			return databaseMajorVersion >= 8 ? new MySQL8Dialect() : new MySQLDialect();
 		if ("PostgreSQL".equals(databaseName))
 			return new PostgreSQLDialect();
 		if ("HSQL Database Engine".equals(databaseName))
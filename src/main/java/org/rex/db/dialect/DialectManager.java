@@ -15,8 +15,7 @@
  */
 package org.rex.db.dialect;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import javax.sql.DataSource;
@@ -26,7 +25,9 @@ import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
 
 /**
- * Dialect Manager
+ * Dialect Manager, which keys the dialects by the identity of the dataSources.
+ * <p>
+ * Lookups read an immutable snapshot without locking, the snapshot is copied when a dialect is registered or resolved.
  * 
  * @version 1.0, 2016-02-14
  * @since Rexdb-1.0
@@ -35,30 +36,41 @@ public class DialectManager {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(DialectManager.class);
 
-	private final Map<String, Dialect> dialectInstances = Collections.synchronizedMap(new HashMap<String, Dialect>());
+	private volatile Map<DataSource, Dialect> dialectInstances = new IdentityHashMap<DataSource, Dialect>();
 	
 	/**
 	 * Specifies a dialect for the dataSource.
 	 */
-	public void setDialect(DataSource dataSource, Dialect dialect){
-		dialectInstances.put(String.valueOf(dataSource.hashCode()), dialect);
+	public synchronized void setDialect(DataSource dataSource, Dialect dialect){
+		register(dataSource, dialect);
 		
 		if(LOGGER.isDebugEnabled())
 			LOGGER.debug("dialect[{0}] for datasource[{1}] registed.", dialect.getName(), dataSource.hashCode());
 	}
 	
 	/**
-	 * Returns the dialect for the given dataSource.
+	 * Returns the dialect for the given dataSource, the dialect is resolved from the database at the first time.
 	 */
 	public Dialect getDialect(DataSource dataSource) throws DBException {
-		String hashCode = String.valueOf(dataSource.hashCode());
-		
-		synchronized(dialectInstances){
-			if (!dialectInstances.containsKey(hashCode)) {
-				Dialect dialect = DialectFactory.resolveDialect(dataSource);
-				dialectInstances.put(hashCode, dialect);
-			}
-			return dialectInstances.get(hashCode);
+		Dialect dialect = dialectInstances.get(dataSource);
+		return dialect != null ? dialect : resolveDialect(dataSource);
+	}
+	
+	private synchronized Dialect resolveDialect(DataSource dataSource) throws DBException {
+		Dialect dialect = dialectInstances.get(dataSource);
+		if (dialect == null) {
+			dialect = DialectFactory.resolveDialect(dataSource);
+			register(dataSource, dialect);
 		}
+		return dialect;
+	}
+	
+	/**
+	 * Publishes a new snapshot that contains the dialect.
+	 */
+	private void register(DataSource dataSource, Dialect dialect){
+		Map<DataSource, Dialect> instances = new IdentityHashMap<DataSource, Dialect>(dialectInstances);
+		instances.put(dataSource, dialect);
+		dialectInstances = instances;
 	}
 }
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+import org.rex.db.util.SqlUtil;
+
+/**
+ * Handles keyset pagination queries, which seek the rows after the last key instead of skipping an offset.
+ * <p>
+ * The SQL is wrapped as 'SELECT * FROM (sql) WHERE (k1, k2) > (?, ?) ORDER BY k1, k2', and then limited by the limit handler
+ * of the dialect. Dialects that don't support row value comparison use 'k1 > ? OR (k1 = ? AND k2 > ?)' instead.
+ * The SQL shouldn't be ordered, and the keys must be unique and non-null columns of the result.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class KeysetHandler extends LimitHandler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(KeysetHandler.class);
+
+	private final String[] keys;
+
+	private final boolean descending;
+
+	private final Object[] lastKeys;
+
+	private final LimitHandler limitHandler;
+
+	private final boolean rowValue;
+
+	/**
+	 * @param keys columns of the order, which identify each row.
+	 * @param descending true if the rows are ordered descending by the keys.
+	 * @param lastKeys values of the keys in the last row of the previous page, or null for the first page.
+	 * @param limitHandler limit handler of the dialect, which limits the number of rows.
+	 * @param rowValue true if the dialect supports row value comparison.
+	 */
+	public KeysetHandler(String[] keys, boolean descending, Object[] lastKeys, LimitHandler limitHandler, boolean rowValue) {
+		super(limitHandler.getRows());
+		if (keys == null || keys.length == 0 || (lastKeys != null && lastKeys.length != keys.length))
+			throw new DBRuntimeException("DB-A0004", keys == null ? null : Arrays.toString(keys), lastKeys == null ? null : Arrays.toString(lastKeys));
+		if (lastKeys != null) {
+			for (int i = 0; i < lastKeys.length; i++) {
+				if (lastKeys[i] == null)
+					throw new DBRuntimeException("DB-A0005", keys[i]);
+			}
+		}
+
+		this.keys = keys;
+		this.descending = descending;
+		this.lastKeys = lastKeys;
+		this.limitHandler = limitHandler;
+		this.rowValue = rowValue;
+	}
+
+	public String[] getKeys() {
+		return keys;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	public Object[] getLastKeys() {
+		return lastKeys;
+	}
+
+	// ---------implements
+	public String wrapSql(String sql) {
+		StringBuffer seekSelect = new StringBuffer(sql.length() + 100).append("SELECT * FROM (").append(sql).append(") keyset_");
+		if (lastKeys != null) {
+			seekSelect.append(" WHERE ");
+			if (rowValue)
+				appendRowValue(seekSelect);
+			else
+				appendExpanded(seekSelect);
+		}
+
+		seekSelect.append(" ORDER BY ");
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0)
+				seekSelect.append(", ");
+			seekSelect.append(keys[i]);
+			if (descending)
+				seekSelect.append(" DESC");
+		}
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("wrapped keyset sql {0}.", seekSelect);
+
+		return limitHandler.getWrappedSql(seekSelect.toString());
+	}
+
+	public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
+		int index = parameterCount;
+		if (lastKeys != null) {
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("setting keyset prepared parameters {0}.", Arrays.toString(lastKeys));
+
+			if (rowValue) {
+				for (int i = 0; i < lastKeys.length; i++) {
+					SqlUtil.setParameter(statement, ++index, lastKeys[i]);
+				}
+			} else {
+				for (int i = 0; i < lastKeys.length; i++) {
+					for (int j = 0; j <= i; j++) {
+						SqlUtil.setParameter(statement, ++index, lastKeys[j]);
+					}
+				}
+			}
+		}
+		limitHandler.afterSetParameters(statement, index);
+	}
+
+	// ---------private methods
+	/**
+	 * Appends '(k1, k2) > (?, ?)'.
+	 */
+	private void appendRowValue(StringBuffer sb) {
+		sb.append('(');
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(keys[i]);
+		}
+		sb.append(descending ? ") < (" : ") > (");
+		for (int i = 0; i < keys.length; i++) {
+			sb.append(i == 0 ? "?" : ", ?");
+		}
+		sb.append(')');
+	}
+
+	/**
+	 * Appends '(k1 > ? OR (k1 = ? AND k2 > ?))'.
+	 */
+	private void appendExpanded(StringBuffer sb) {
+		sb.append('(');
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0)
+				sb.append(" OR ");
+			sb.append('(');
+			for (int j = 0; j < i; j++) {
+				sb.append(keys[j]).append(" = ? AND ");
+			}
+			sb.append(keys[i]).append(descending ? " < ?" : " > ?").append(')');
+		}
+		sb.append(')');
+	}
+
+	// ---------toString
+	public String toString() {
+		return "keys=" + Arrays.toString(keys) + (descending ? " desc" : "") + ", lastKeys=" + Arrays.toString(lastKeys) + ", rows=" + getRows();
+	}
+}
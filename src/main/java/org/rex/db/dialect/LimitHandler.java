@@ -17,6 +17,9 @@ package org.rex.db.dialect;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Handles the database pagination queries.
@@ -26,6 +29,16 @@ import java.sql.SQLException;
  */
 public abstract class LimitHandler{
 
+	/**
+	 * Max SQLs of each wrapped SQL cache, the cache is cleared when it's full.
+	 */
+	private static final int MAX_CACHED_SQLS = 1024;
+	
+	/**
+	 * Wrapped SQLs of each handler class, without and with offset.
+	 */
+	private static final ConcurrentMap<Class<?>, Map<String, String>[]> wrappedSqls = new ConcurrentHashMap<Class<?>, Map<String, String>[]>();
+
 	private int offset = 0;
 	
 	private int rows = 0;
@@ -51,6 +64,45 @@ public abstract class LimitHandler{
 		return offset > 0;
 	}
 
+	//---------wrapped SQL
+	/**
+	 * Returns the wrapped SQL. If the wrapped SQL is cacheable, it's cached by the handler class, the SQL and whether 
+	 * the handler has an offset, so that it's built only once.
+	 */
+	public String getWrappedSql(String sql) {
+		if(!isWrappedSqlCacheable())
+			return wrapSql(sql);
+		
+		Map<String, String> cache = getWrappedSqls()[hasOffset() ? 1 : 0];
+		String wrappedSql = cache.get(sql);
+		if(wrappedSql == null){
+			wrappedSql = wrapSql(sql);
+			if(cache.size() >= MAX_CACHED_SQLS)
+				cache.clear();
+			cache.put(sql, wrappedSql);
+		}
+		return wrappedSql;
+	}
+	
+	/**
+	 * Returns true if the wrapped SQL depends only on the SQL and whether the handler has an offset, 
+	 * such as 'sql limit ?, ?' whose offset and rows are set as parameters.
+	 */
+	protected boolean isWrappedSqlCacheable(){
+		return false;
+	}
+	
+	private Map<String, String>[] getWrappedSqls(){
+		Map<String, String>[] caches = wrappedSqls.get(getClass());
+		if(caches == null){
+			caches = new Map[]{ new ConcurrentHashMap<String, String>(), new ConcurrentHashMap<String, String>() };
+			Map<String, String>[] existing = wrappedSqls.putIfAbsent(getClass(), caches);
+			if(existing != null)
+				caches = existing;
+		}
+		return caches;
+	}
+	
 	//---------abstracts
 	public abstract String wrapSql(String sql);
 	
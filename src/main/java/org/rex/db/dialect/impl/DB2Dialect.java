@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class DB2Dialect implements Dialect {
+public class DB2Dialect extends AbstractDialect {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(DB2Dialect.class);
 
@@ -100,6 +100,22 @@ public class DB2Dialect implements Dialect {
 		return new DB2LimitHandler(offset, rows);
 	}
 	
+	// ------------------------------------------------------------
+	/**
+	 * DB2 supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * DB2 merges the row of a VALUES clause.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getMergeSql(table, columns, keys, "(VALUES (" + getPlaceholders(columns) + ")) AS s_ (" + join(columns, "", "") + ")");
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql(){
 		return "SELECT COUNT(*) FROM SYSIBM.SYSTABLES";
@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class DMDialect implements Dialect {
+public class DMDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DMDialect.class);
 	
@@ -53,6 +53,10 @@ public class DMDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -74,6 +78,14 @@ public class DMDialect implements Dialect {
 		return new DMLimitHandler(offset, rows);
 	}
 	
+	// ------------------------------------------------------------
+	/**
+	 * DM merges the row selected from DUAL.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getMergeSql(table, columns, keys, "(SELECT " + join(columns, "? AS ", "") + " FROM DUAL) s_");
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql(){
 		return "SELECT 1 FROM DUAL";
@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class H2Dialect implements Dialect {
+public class H2Dialect extends AbstractDialect {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(H2Dialect.class);
 
@@ -53,6 +53,10 @@ public class H2Dialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -74,6 +78,30 @@ public class H2Dialect implements Dialect {
 		return new H2LimitHandler(offset, rows);
 	}
 
+	// ------------------------------------------------------------
+	/**
+	 * H2 compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return true;
+	}
+
+	/**
+	 * H2 supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * H2 inserts or updates the row by 'MERGE INTO table (columns) KEY (keys) VALUES (...)'.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		getUpdateColumns(table, columns, keys);
+		return "MERGE INTO " + table + " (" + join(columns, "", "") + ") KEY (" + join(keys, "", "") + ") VALUES (" + getPlaceholders(columns) + ")";
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql() {
 		return "SELECT 1";
@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class HSQLDBDialect implements Dialect {
+public class HSQLDBDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(HSQLDBDialect.class);
 	
@@ -54,6 +54,10 @@ public class HSQLDBDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -75,6 +79,22 @@ public class HSQLDBDialect implements Dialect {
 		return new HSQLLimitHandler(offset, rows);
 	}
 
+	// ------------------------------------------------------------
+	/**
+	 * HSQLDB compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * HSQLDB merges the row of a VALUES clause.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getMergeSql(table, columns, keys, "(VALUES (" + getPlaceholders(columns) + ")) AS s_ (" + join(columns, "", "") + ")");
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql() {
 		return "CALL SESSION_ID()";
@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class KingbaseDialect implements Dialect {
+public class KingbaseDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(KingbaseDialect.class);
 	
@@ -53,6 +53,10 @@ public class KingbaseDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -74,6 +78,29 @@ public class KingbaseDialect implements Dialect {
 		return new KingbaseLimitHandler(offset, rows);
 	}
 	
+	// ------------------------------------------------------------
+	/**
+	 * Kingbase compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return true;
+	}
+
+	/**
+	 * Kingbase supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * Kingbase inserts the row by 'INSERT ... ON CONFLICT (keys) DO UPDATE', the keys should have an unique constraint.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getOnConflictSql(table, columns, keys);
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql(){
 		return "SELECT 1 FROM DUAL";
@@ -15,10 +15,12 @@
  */
 package org.rex.db.dialect.impl;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +31,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class MySQLDialect implements Dialect {
+public class MySQLDialect extends AbstractDialect {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(MySQLDialect.class);
 
@@ -54,6 +56,10 @@ public class MySQLDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -75,6 +81,53 @@ public class MySQLDialect implements Dialect {
 		return new MySQLLimitHandler(offset, rows);
 	}
 	
+	// ------------------------------------------------------------
+	/**
+	 * MySQL driver buffers the whole ResultSet unless the fetch size is Integer.MIN_VALUE.
+	 */
+	public void applyFetchSize(Statement statement, int fetchSize, boolean streaming) throws SQLException {
+		if(streaming)
+			statement.setFetchSize(Integer.MIN_VALUE);
+		else if(fetchSize > 0)
+			statement.setFetchSize(fetchSize);
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * MySQL compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * MySQL driver executes multiple statements only if 'allowMultiQueries=true' is set in the URL.
+	 */
+	public boolean isMultipleQueriesSupported(Connection connection) throws SQLException {
+		String url = connection.getMetaData().getURL();
+		return url != null && url.toLowerCase().indexOf("allowmultiqueries=true") != -1;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * MySQL inserts the row by 'INSERT ... ON DUPLICATE KEY UPDATE', which matches the primary key and all unique keys of the table.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		String[] updates = getUpdateColumns(table, columns, keys);
+		StringBuffer sql = new StringBuffer("INSERT INTO ").append(table).append(" (").append(join(columns, "", "")).append(") VALUES (")
+				.append(getPlaceholders(columns)).append(") ON DUPLICATE KEY UPDATE ");
+		if (updates.length == 0)
+			return sql.append(keys[0]).append(" = ").append(keys[0]).toString();
+
+		for (int i = 0; i < updates.length; i++) {
+			if (i > 0)
+				sql.append(", ");
+			sql.append(updates[i]).append(" = VALUES(").append(updates[i]).append(')');
+		}
+		return sql.toString();
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql(){
 		return "SELECT 1";
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dialect.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.rex.db.dialect.LimitHandler;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * Oracle 12c and later, which limits the rows by the row limiting clause 'OFFSET ? ROWS FETCH NEXT ? ROWS ONLY' 
+ * instead of nested ROWNUM queries. Queries with 'FOR UPDATE' are still limited by ROWNUM, as the row limiting clause 
+ * can't be used with them.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class Oracle12cDialect extends Oracle9iDialect {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Oracle12cDialect.class);
+
+	//------------------------------------------------------------
+	protected class Oracle12cLimitHandler extends LimitHandler {
+
+		/**
+		 * ROWNUM handler of the 'FOR UPDATE' query, which also sets the paged parameters.
+		 */
+		private LimitHandler forUpdateHandler;
+
+		public Oracle12cLimitHandler(int rows) {
+			super(rows);
+		}
+
+		public Oracle12cLimitHandler(int offset, int rows) {
+			super(offset, rows);
+		}
+
+		public String getWrappedSql(String sql) {
+			if (isForUpdate(sql))
+				return getForUpdateHandler().getWrappedSql(sql);
+			return super.getWrappedSql(sql);
+		}
+
+		public String wrapSql(String sql) {
+			if (isForUpdate(sql))
+				return getForUpdateHandler().wrapSql(sql);
+			
+			StringBuffer pagingSelect = new StringBuffer(sql.length() + 40).append(sql.trim())
+					.append(hasOffset() ? " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY" : " FETCH FIRST ? ROWS ONLY");
+
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("wrapped paged sql {0}.", pagingSelect);
+
+			return pagingSelect.toString();
+		}
+
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
+		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
+			if (forUpdateHandler != null) {
+				forUpdateHandler.afterSetParameters(statement, parameterCount);
+				return;
+			}
+
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("setting paged prepared parameters {0}.", hasOffset() ? getOffset()+", "+getRows() : getRows());
+
+			if (hasOffset()) {
+				statement.setInt(parameterCount + 1, getOffset());
+				statement.setInt(parameterCount + 2, getRows());
+			} else
+				statement.setInt(parameterCount + 1, getRows());
+		}
+
+		//private
+		private boolean isForUpdate(String sql) {
+			return indexOfTopLevel(sql, "for update", true) != -1;
+		}
+
+		private LimitHandler getForUpdateHandler() {
+			if (forUpdateHandler == null)
+				forUpdateHandler = new Oracle9iLimitHandler(getOffset(), getRows());
+			return forUpdateHandler;
+		}
+	}
+
+	public LimitHandler getLimitHandler(int rows) {
+		return new Oracle12cLimitHandler(rows);
+	}
+
+	public LimitHandler getLimitHandler(int offset, int rows) {
+		return new Oracle12cLimitHandler(offset, rows);
+	}
+}
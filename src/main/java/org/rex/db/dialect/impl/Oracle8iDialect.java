@@ -18,7 +18,7 @@ package org.rex.db.dialect.impl;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +29,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class Oracle8iDialect implements Dialect {
+public class Oracle8iDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Oracle8iDialect.class);
 	
@@ -76,6 +76,10 @@ public class Oracle8iDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -97,6 +101,14 @@ public class Oracle8iDialect implements Dialect {
 		return new OracleLimitHandler(offset, rows);
 	}
 	
+	// ------------------------------------------------------------
+	/**
+	 * Oracle supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql(){
 		return "SELECT 1 FROM DUAL";
@@ -86,4 +86,12 @@ public class Oracle9iDialect extends Oracle8iDialect {
 	public LimitHandler getLimitHandler(int offset, int rows) {
 		return new Oracle9iLimitHandler(offset, rows);
 	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * Oracle merges the row selected from DUAL, which requires Oracle 9i or later.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getMergeSql(table, columns, keys, "(SELECT " + join(columns, "? AS ", "") + " FROM DUAL) s_");
+	}
 }
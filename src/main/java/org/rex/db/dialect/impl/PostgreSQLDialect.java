@@ -15,10 +15,11 @@
  */
 package org.rex.db.dialect.impl;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -29,7 +30,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class PostgreSQLDialect implements Dialect {
+public class PostgreSQLDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PostgreSQLDialect.class);
 	
@@ -53,6 +54,10 @@ public class PostgreSQLDialect implements Dialect {
 			return pagingSelect.toString();
 		}
 
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
 		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
 			
 			if(LOGGER.isDebugEnabled())
@@ -74,6 +79,57 @@ public class PostgreSQLDialect implements Dialect {
 		return new PostgreSQLLimitHandler(offset, rows);
 	}
 
+	// ------------------------------------------------------------
+	/**
+	 * PostgreSQL driver ignores the fetch size while the connection is in auto-commit mode.
+	 */
+	public boolean beforeStreaming(Connection connection) throws SQLException {
+		if(!connection.getAutoCommit())
+			return false;
+		
+		if(LOGGER.isDebugEnabled())
+			LOGGER.debug("disabling auto-commit of connection[{0}] for streaming.", connection.hashCode());
+		
+		connection.setAutoCommit(false);
+		return true;
+	}
+
+	public void afterStreaming(Connection connection, boolean changed) throws SQLException {
+		if(changed)
+			connection.setAutoCommit(true);
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * PostgreSQL compares row values, such as '(a, b) > (?, ?)'.
+	 */
+	protected boolean isRowValueSupported() {
+		return true;
+	}
+
+	/**
+	 * PostgreSQL supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * PostgreSQL driver splits the statements separated by ';', and returns a result for each of them.
+	 */
+	public boolean isMultipleQueriesSupported(Connection connection) throws SQLException {
+		return true;
+	}
+	
+	// ------------------------------------------------------------
+	/**
+	 * PostgreSQL inserts the row by 'INSERT ... ON CONFLICT (keys) DO UPDATE', which requires PostgreSQL 9.5 or later, the keys should have an unique constraint.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getOnConflictSql(table, columns, keys);
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql() {
 		return "SELECT 1";
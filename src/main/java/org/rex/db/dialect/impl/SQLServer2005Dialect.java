@@ -108,5 +108,13 @@ public class SQLServer2005Dialect extends SQLServerDialect {
 	public LimitHandler getLimitHandler(int offset, int rows) {
 		return new SQLServer2005LimitHandler(offset, rows);
 	}
+
+	//------------------------------------------------------------
+	/**
+	 * SQL Server 2005 supports window functions, so that the total rows are counted in the page query.
+	 */
+	public boolean isWindowFunctionSupported() {
+		return true;
+	}
 	
 }
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dialect.impl;
+
+/**
+ * SQL Server 2008, which supports MERGE statements.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SQLServer2008Dialect extends SQLServer2005Dialect {
+
+	// ------------------------------------------------------------
+	/**
+	 * SQL Server merges the selected row. MERGE statements should be terminated by ';'.
+	 */
+	public String getUpsertSql(String table, String[] columns, String[] keys) {
+		return getMergeSql(table, columns, keys, "(SELECT " + join(columns, "? AS ", "") + ") s_") + ";";
+	}
+}
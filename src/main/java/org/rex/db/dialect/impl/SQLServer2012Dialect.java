@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dialect.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.rex.db.dialect.LimitHandler;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * SQL Server 2012 and later, which limits the rows by 'OFFSET ? ROWS FETCH NEXT ? ROWS ONLY' instead of ROW_NUMBER() queries.
+ * 
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SQLServer2012Dialect extends SQLServer2008Dialect {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SQLServer2012Dialect.class);
+
+	//------------------------------------------------------------
+	protected class SQLServer2012LimitHandler extends LimitHandler {
+
+		public SQLServer2012LimitHandler(int rows) {
+			super(rows);
+		}
+
+		public SQLServer2012LimitHandler(int offset, int rows) {
+			super(offset, rows);
+		}
+
+		/**
+		 * OFFSET requires an ORDER BY clause, 'ORDER BY (SELECT NULL)' is appended if the query isn't ordered.
+		 */
+		public String wrapSql(String sql) {
+			sql = sql.trim();
+			StringBuffer pagingSelect = new StringBuffer(sql.length() + 60).append(sql);
+			if (indexOfTopLevel(sql, "order by", true) == -1)
+				pagingSelect.append(" ORDER BY (SELECT NULL)");
+			pagingSelect.append(hasOffset() ? " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY" : " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("wrapped paged sql {0}.", pagingSelect);
+
+			return pagingSelect.toString();
+		}
+
+		protected boolean isWrappedSqlCacheable() {
+			return true;
+		}
+
+		public void afterSetParameters(PreparedStatement statement, int parameterCount) throws SQLException {
+
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("setting paged prepared parameters {0}.", hasOffset() ? getOffset()+", "+getRows() : getRows());
+
+			if (hasOffset()) {
+				statement.setInt(parameterCount + 1, getOffset());
+				statement.setInt(parameterCount + 2, getRows());
+			} else
+				statement.setInt(parameterCount + 1, getRows());
+		}
+	}
+
+	public LimitHandler getLimitHandler(int rows) {
+		return new SQLServer2012LimitHandler(rows);
+	}
+
+	public LimitHandler getLimitHandler(int offset, int rows) {
+		return new SQLServer2012LimitHandler(offset, rows);
+	}
+}
@@ -15,10 +15,11 @@
  */
 package org.rex.db.dialect.impl;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-import org.rex.db.dialect.Dialect;
+import org.rex.db.dialect.AbstractDialect;
 import org.rex.db.dialect.LimitHandler;
 import org.rex.db.exception.DBRuntimeException;
 import org.rex.db.logger.Logger;
@@ -30,7 +31,7 @@ import org.rex.db.logger.LoggerFactory;
  * @version 1.0, 2016-03-28
  * @since Rexdb-1.0
  */
-public class SQLServerDialect implements Dialect {
+public class SQLServerDialect extends AbstractDialect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SQLServerDialect.class);
 	
@@ -77,6 +78,14 @@ public class SQLServerDialect implements Dialect {
 		throw new DBRuntimeException("DB-A0003", getName());
 	}
 
+	// ------------------------------------------------------------
+	/**
+	 * SQL Server executes batches of statements, and returns a result for each of them.
+	 */
+	public boolean isMultipleQueriesSupported(Connection connection) throws SQLException {
+		return true;
+	}
+	
 	// ------------------------------------------------------------
 	public String getTestSql() {
 		return "SELECT 1";
@@ -15,12 +15,15 @@
  */
 package org.rex.db.dynamic.javassist;
 
+import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.rex.db.exception.DBException;
+import org.rex.db.exception.DBRuntimeException;
 import org.rex.db.util.ORUtil;
+import org.rex.db.util.ReflectUtil;
 
 /**
  * Abstract Bean Convertor.
@@ -30,6 +33,11 @@ import org.rex.db.util.ORUtil;
  */
 public abstract class BeanConvertor {
 
+	/**
+	 * Non-public fields that are read by the generated code, if the bean is mapped by fields.
+	 */
+	protected Field[] fields;
+
 	public abstract void setParameters(PreparedStatement preparedStatement, Object bean, String[] requiredParam) throws SQLException;
 	
 //	public abstract void setParameters(PreparedStatement preparedStatement, Object bean, int[] requiredColumnCodes) throws SQLException;
@@ -38,7 +46,19 @@ public abstract class BeanConvertor {
 	
 	public abstract Object readResultSet(ResultSet rs, ORUtil orUtil, int[] requiredColumnCodes) throws SQLException, DBException;
 	
+	void setFields(Field[] fields) {
+		this.fields = fields;
+	}
+	
 	//-------------set parameter utils
+	protected static Object readField(Field field, Object bean){
+		try {
+			return ReflectUtil.getField(bean, field);
+		} catch (DBException e) {
+			throw new DBRuntimeException(e);
+		}
+	}
+	
 	protected static Object convertValue(Object o){
 		return o;
 	}
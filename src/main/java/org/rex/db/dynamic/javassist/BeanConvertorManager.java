@@ -15,14 +15,28 @@
  */
 package org.rex.db.dynamic.javassist;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.rex.db.exception.DBException;
 import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+import org.rex.db.util.MappingPlan;
 import org.rex.db.util.ReflectUtil;
+import org.rex.db.util.ResultConstructor;
 
 import javassist.CannotCompileException;
 import javassist.ClassClassPath;
@@ -39,15 +53,44 @@ import javassist.NotFoundException;
  */
 public class BeanConvertorManager {
 	
+	private static final Logger LOGGER = LoggerFactory.getLogger(BeanConvertorManager.class);
+	
 	private static final String PACKAGE = "org.rex.db.dynamic";
 	
 	private static final String CLASS_PREFIX = "JSetterFor";
 	
+	private static final String READER_CLASS_PREFIX = "JReaderFor";
+	
+	private static final String COPIER_CLASS_PREFIX = "JCopierFor";
+	
 	/**
 	 * Dynamic convertors.
 	 */
 	private static final Map<Class<?>, BeanConvertor> convertors = new HashMap<Class<?>, BeanConvertor>();
 	
+	/**
+	 * Dynamic readers of ResultSet shapes, which are kept after the mapping plans are released, 
+	 * so that each shape is generated only once.
+	 */
+	private static final Map<Object, BeanReader> readers = new ConcurrentHashMap<Object, BeanReader>();
+	
+	/**
+	 * Maximum number of generated readers, shapes beyond it are read by reflection, since generated classes can't be unloaded.
+	 */
+	private static final int MAX_READERS = 1024;
+	
+	/**
+	 * Class loaders whose class path has been inserted into the class pool.
+	 */
+	private static final Map<ClassLoader, Boolean> classPathLoaders = new WeakHashMap<ClassLoader, Boolean>();
+	
+	private static int readerSequence = 0;
+	
+	/**
+	 * Copiers of bean classes, by the class and whether the class is mapped by fields.
+	 */
+	private static final Map<Object, BeanCopier> copiers = new ConcurrentHashMap<Object, BeanCopier>();
+	
 	/**
 	 * Returns the specified convertor.
 	 */
@@ -77,13 +120,549 @@ public class BeanConvertorManager {
 		}
 	}
 
+	/**
+	 * Returns the reader for the column order of the specified mapping plan. Classes that generated code can't instantiate, 
+	 * which are non-public or have no public constructor for the plan, are read by reflection.
+	 */
+	public static BeanReader getReader(MappingPlan plan){
+		return getReader(plan, false);
+	}
+	
+	/**
+	 * Returns the reader for the column order of the specified mapping plan, which also copies rows from prototypes.
+	 */
+	public static BeanReader getPrototypeReader(MappingPlan plan){
+		return getReader(plan, true);
+	}
+	
+	private static BeanReader getReader(MappingPlan plan, boolean prototype){
+		if(!isInstantiable(plan))
+			return new ReflectBeanReader(plan);
+		
+		BeanReader reader = readers.get(getReaderKey(plan, prototype));
+		if(reader == null)
+			reader = initReader(plan, prototype);
+		
+		return reader;
+	}
+	
+	private synchronized static BeanReader initReader(MappingPlan plan, boolean prototype){
+		Object key = getReaderKey(plan, prototype);
+		BeanReader reader = readers.get(key);
+		if(reader == null){
+			if(readers.size() >= MAX_READERS){
+				LOGGER.warn("generated readers exceed {0}, {1} is read by reflection.", MAX_READERS, plan.getResultClass().getName());
+				return new ReflectBeanReader(plan);
+			}
+			
+			Class<?> beanClass = plan.getResultClass();
+			try {
+				reader = buildReader(plan, prototype);
+				readers.put(key, reader);
+			} catch (InstantiationException e) {
+				throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+			} catch (IllegalAccessException e) {
+				throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+			} catch (NotFoundException e) {
+				throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+			} catch (CannotCompileException e) {
+				throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+			} catch (DBException e) {
+				throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+			}
+		}
+		return reader;
+	}
+	
+	/**
+	 * Returns the copier of the specified bean class. Classes that generated code can't instantiate are copied by reflection, 
+	 * and immutable classes are not copied.
+	 */
+	public static BeanCopier getCopier(Class<?> beanClass){
+		Object key = getCopierKey(beanClass);
+		BeanCopier copier = copiers.get(key);
+		if(copier == null)
+			copier = initCopier(beanClass, key);
+		return copier;
+	}
+	
+	private synchronized static BeanCopier initCopier(Class<?> beanClass, Object key){
+		BeanCopier copier = copiers.get(key);
+		if(copier == null){
+			if(!Modifier.isPublic(beanClass.getModifiers()) || ReflectUtil.getResultConstructor(beanClass) != null || !hasPublicConstructor(beanClass)){
+				copier = new ReflectBeanCopier(beanClass);
+			}else{
+				try {
+					copier = buildCopier(beanClass);
+				} catch (InstantiationException e) {
+					throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+				} catch (IllegalAccessException e) {
+					throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+				} catch (NotFoundException e) {
+					throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+				} catch (CannotCompileException e) {
+					throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+				} catch (DBException e) {
+					throw new DBRuntimeException("DB-S0002", e, beanClass.getName(), e.getMessage());
+				}
+			}
+			copiers.put(key, copier);
+		}
+		return copier;
+	}
+	
+	private static Object getCopierKey(Class<?> beanClass){
+		return Arrays.asList(new Object[]{beanClass, Boolean.valueOf(ReflectUtil.isFieldAccess(beanClass))});
+	}
+	
+	private static boolean hasPublicConstructor(Class<?> clazz){
+		try {
+			clazz.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Returns true if generated code in another package can create the result class of the plan.
+	 */
+	private static boolean isInstantiable(MappingPlan plan){
+		Class<?> clazz = plan.getResultClass();
+		if(!Modifier.isPublic(clazz.getModifiers()))
+			return false;
+		
+		ResultConstructor constructor = plan.getConstructor();
+		if(constructor != null)
+			return Modifier.isPublic(constructor.getConstructor().getModifiers());
+		
+		return hasPublicConstructor(clazz);
+	}
+	
+	/**
+	 * Returns the key of the reader, which is the shape of the plan, whether the bean is mapped by fields, and whether the reader copies rows.
+	 */
+	private static Object getReaderKey(MappingPlan plan, boolean prototype){
+		return Arrays.asList(new Object[]{plan.getShape(), Boolean.valueOf(plan.getFields() != null), Boolean.valueOf(prototype)});
+	}
+	
+	/**
+	 * Creates a reader for the column order of the specified mapping plan, copyRow is only generated for prototype readers.
+	 */
+	private synchronized static BeanReader buildReader(MappingPlan plan, boolean prototype) throws NotFoundException, CannotCompileException, InstantiationException, IllegalAccessException, DBException {
+		Class<?> clazz = plan.getResultClass();
+		
+		ClassPool pool = ClassPool.getDefault();
+		insertClassPath(pool, clazz);
+		
+		pool.importPackage("java.sql.SQLException");
+		pool.importPackage("java.sql.ResultSet");
+		pool.importPackage("org.rex.db.util.ORUtil");
+		pool.importPackage("org.rex.db.exception.DBException");
+
+		CtClass ctClass = pool.makeClass(PACKAGE + "." + READER_CLASS_PREFIX + genClassName(clazz) + "_" + (readerSequence++));
+		ctClass.setSuperclass(pool.get("org.rex.db.dynamic.javassist.BeanReader"));
+		
+		//method readRow
+		CtMethod readRowMethod = CtMethod.make(buildReadRowMethodString(plan, false), ctClass);
+		ctClass.addMethod(readRowMethod);
+		
+		//method decodeRow
+		CtMethod decodeRowMethod = CtMethod.make(buildReadRowMethodString(plan, true), ctClass);
+		ctClass.addMethod(decodeRowMethod);
+		
+		//method copyRow
+		Field[] copyFields = null;
+		if(prototype){
+			copyFields = getCopyFields(plan);
+			CtMethod copyRowMethod = CtMethod.make(buildCopyRowMethodString(plan, copyFields), ctClass);
+			ctClass.addMethod(copyRowMethod);
+		}
+		
+		//generate instance
+		Class<?> cl = ctClass.toClass();
+		ctClass.detach();
+		BeanReader reader = (BeanReader)cl.newInstance();
+		reader.setFields(plan.getFields());
+		reader.setCopyFields(copyFields);
+		reader.setDecodeTypes(getDecodeTypes(plan), plan.getLabels());
+		return reader;
+	}
+	
+	/**
+	 * Builds a readRow method string, which reads columns by index into the setters without boxing, 
+	 * or a decodeRow method string, which converts the values of a copied row as ORUtil does.
+	 * Immutable classes read columns into locals and invoke the constructor once.
+	 */
+	private static String buildReadRowMethodString(MappingPlan plan, boolean decode){
+		Class<?> clazz = plan.getResultClass();
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] sqlTypes = plan.getTypes();
+		
+		StringBuffer sb = new StringBuffer();
+		if(decode)
+			sb.append("public Object decodeRow(Object[] row) throws DBException{\n");
+		else
+			sb.append("public Object readRow(ResultSet rs, ORUtil orUtil) throws SQLException, DBException{\n");
+		
+		ResultConstructor constructor = plan.getConstructor();
+		if(constructor == null){
+			sb.append(clazz.getName()).append(" bean = new ").append(clazz.getName()).append("();\n");
+			appendReadColumns(sb, plan, decode);
+			sb.append("return bean;\n");
+		}else{
+			Class<?>[] parameterTypes = constructor.getParameterTypes();
+			int[] parameterIndexes = plan.getParameterIndexes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				sb.append(getTypeName(parameterTypes[i])).append(" p").append(i).append(" = ").append(getDefaultValue(parameterTypes[i])).append(";\n");
+			}
+			for (int i = 0; i < parameterIndexes.length; i++) {
+				if(parameterIndexes[i] == -1) continue;
+				appendColumn(sb, "p" + parameterIndexes[i] + " = ", ";\n", javaTypes[i], sqlTypes[i], i + 1, decode);
+			}
+			sb.append("return new ").append(clazz.getName()).append("(");
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if(i > 0) sb.append(", ");
+				sb.append("p").append(i);
+			}
+			sb.append(");\n");
+		}
+		
+		sb.append("}\n");
+		
+//		System.out.println(sb);
+		return sb.toString();
+	}
+	
+	/**
+	 * Builds a copyRow method string, which creates a new bean, copies the unmapped properties of the prototype into it without reflection,
+	 * and then writes all mapped columns as ORUtil does, SQL NULL is written as 0, false or null.
+	 */
+	private static String buildCopyRowMethodString(MappingPlan plan, Field[] copyFields) throws DBException{
+		Class<?> clazz = plan.getResultClass();
+		
+		StringBuffer sb = new StringBuffer();
+		sb.append("public Object copyRow(ResultSet rs, ORUtil orUtil, Object prototype) throws SQLException, DBException{\n");
+		
+		if(plan.getConstructor() != null){
+			sb.append("return readRow(rs, orUtil);\n");
+		}else{
+			appendCopyProperties(sb, clazz, plan.getFields() != null, getOverwrittenProperties(plan), copyFields);
+			appendReadColumns(sb, plan, false);
+			sb.append("return bean;\n");
+		}
+		
+		sb.append("}\n");
+		
+//		System.out.println(sb);
+		return sb.toString();
+	}
+	
+	/**
+	 * Appends statements which create the local bean, and copy the properties of the local source into it except the overwritten ones.
+	 */
+	private static void appendCopyProperties(StringBuffer sb, Class<?> clazz, boolean fieldAccess, Set<String> overwritten, Field[] copyFields) throws DBException{
+		sb.append(clazz.getName()).append(" source = (").append(clazz.getName()).append(")prototype;\n");
+		sb.append(clazz.getName()).append(" bean = new ").append(clazz.getName()).append("();\n");
+		
+		if(!fieldAccess){
+			Map<String, Method> getters = ReflectUtil.getReadableMethods(clazz);
+			Map<String, Method> setters = ReflectUtil.getWriteableMethods(clazz);
+			for (Iterator<Map.Entry<String, Method>> iterator = setters.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<String, Method> entry = iterator.next();
+				Method getter = getters.get(entry.getKey());
+				Method setter = entry.getValue();
+				if(getter == null || overwritten.contains(entry.getKey())
+						|| !setter.getParameterTypes()[0].isAssignableFrom(getter.getReturnType()))
+					continue;
+				sb.append("bean.").append(setter.getName()).append("(source.").append(getter.getName()).append("());\n");
+			}
+		}else{
+			for (Iterator<Field> iterator = ReflectUtil.getFields(clazz).values().iterator(); iterator.hasNext();) {
+				Field field = iterator.next();
+				if(Modifier.isFinal(field.getModifiers()) || overwritten.contains(field.getName()))
+					continue;
+				if(Modifier.isPublic(field.getModifiers()))
+					sb.append("bean.").append(field.getName()).append(" = source.").append(field.getName()).append(";\n");
+			}
+			for (int i = 0; i < copyFields.length; i++) {
+				sb.append("copyField(copyFields[").append(i).append("], source, bean);\n");
+			}
+		}
+	}
+	
+	/**
+	 * Returns the non-public fields that are copied from the prototype by the reflection, if the bean is mapped by fields.
+	 */
+	private static Field[] getCopyFields(MappingPlan plan){
+		if(plan.getConstructor() != null || plan.getFields() == null)
+			return null;
+		
+		return getCopyFields(plan.getResultClass(), getOverwrittenProperties(plan));
+	}
+	
+	/**
+	 * Returns the non-public and non-final fields of the class except the overwritten ones.
+	 */
+	private static Field[] getCopyFields(Class<?> clazz, Set<String> overwritten){
+		List<Field> copyFields = new ArrayList<Field>();
+		for (Iterator<Field> iterator = ReflectUtil.getFields(clazz).values().iterator(); iterator.hasNext();) {
+			Field field = iterator.next();
+			int modifiers = field.getModifiers();
+			if(!Modifier.isFinal(modifiers) && !Modifier.isPublic(modifiers) && !overwritten.contains(field.getName()))
+				copyFields.add(field);
+		}
+		return copyFields.toArray(new Field[copyFields.size()]);
+	}
+	
+	/**
+	 * Returns the mapped properties, which are overwritten by the columns when rows are copied.
+	 */
+	private static Set<String> getOverwrittenProperties(MappingPlan plan){
+		Method[] writers = plan.getWriters();
+		Field[] fields = plan.getFields();
+		String[] labels = plan.getLabelsRenamed();
+		
+		Set<String> overwritten = new HashSet<String>();
+		for (int i = 0; i < labels.length; i++) {
+			if(writers[i] == null && (fields == null || fields[i] == null))
+				continue;
+			overwritten.add(labels[i]);
+		}
+		return overwritten;
+	}
+	
+	/**
+	 * Appends statements which read all mapped columns, or decode all mapped values of the copied row, into the local bean, 
+	 * by the setters or the fields. SQL NULL is written as 0, false or null, the same as ORUtil does.
+	 */
+	private static void appendReadColumns(StringBuffer sb, MappingPlan plan, boolean decode){
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] sqlTypes = plan.getTypes();
+		Method[] writers = plan.getWriters();
+		Field[] fields = plan.getFields();
+		for (int i = 0; i < writers.length; i++) {
+			if(writers[i] != null)
+				appendColumn(sb, "bean." + writers[i].getName() + "(", ");\n", javaTypes[i], sqlTypes[i], i + 1, decode);
+			else if(fields != null && fields[i] != null && Modifier.isPublic(fields[i].getModifiers()))
+				appendColumn(sb, "bean." + fields[i].getName() + " = ", ";\n", javaTypes[i], sqlTypes[i], i + 1, decode);
+			else if(fields != null && fields[i] != null)
+				appendColumn(sb, "writeField(fields[" + i + "], bean, ", ");\n", javaTypes[i], sqlTypes[i], i + 1, decode);
+		}
+	}
+	
+	private static void appendColumn(StringBuffer sb, String open, String close, Class<?> javaType, int sqlType, int column, boolean decode){
+		if(decode)
+			appendDecodeColumn(sb, open, close, javaType, column);
+		else
+			appendReadColumn(sb, open, close, javaType, sqlType, column);
+	}
+	
+	/**
+	 * Appends statements which convert the value of the copied row by ORUtil, and pass it to the target. 
+	 * Primitives are kept unchanged if the value is converted to null, as ORUtil does.
+	 */
+	private static void appendDecodeColumn(StringBuffer sb, String open, String close, Class<?> javaType, int column){
+		String var = "c" + column;
+		int index = column - 1;
+		sb.append("Object ").append(var).append(" = ORUtil.convertValue(row[").append(index).append("], decodeTypes[")
+			.append(index).append("], labels[").append(index).append("]);\n");
+		if(javaType.isPrimitive())
+			sb.append("if(").append(var).append(" != null) ").append(open).append("((").append(getWrapperClass(javaType).getName())
+				.append(")").append(var).append(").").append(javaType.getName()).append("Value()").append(close);
+		else
+			sb.append(open).append("(").append(getTypeName(javaType)).append(")").append(var).append(close);
+	}
+	
+	/**
+	 * Returns the types that the values of the copied rows are converted to, which are the wrappers of the primitive types.
+	 */
+	private static Class<?>[] getDecodeTypes(MappingPlan plan){
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		Class<?>[] decodeTypes = new Class<?>[javaTypes.length];
+		for (int i = 0; i < javaTypes.length; i++) {
+			decodeTypes[i] = javaTypes[i] == null ? null : getWrapperClass(javaTypes[i]);
+		}
+		return decodeTypes;
+	}
+	
+	private static Class<?> getWrapperClass(Class<?> clazz){
+		if(clazz == int.class)
+			return Integer.class;
+		else if(clazz == long.class)
+			return Long.class;
+		else if(clazz == double.class)
+			return Double.class;
+		else if(clazz == float.class)
+			return Float.class;
+		else if(clazz == short.class)
+			return Short.class;
+		else if(clazz == byte.class)
+			return Byte.class;
+		else if(clazz == boolean.class)
+			return Boolean.class;
+		else if(clazz == char.class)
+			return Character.class;
+		return clazz;
+	}
+	
+	/**
+	 * Appends statements which read the column and pass the value to the target, such as a setter or a local.
+	 */
+	private static void appendReadColumn(StringBuffer sb, String open, String close, Class<?> javaType, int sqlType, int column){
+		String var = "c" + column;
+		String[] primitive = getPrimitiveGetter(javaType);
+		
+		if(primitive != null && ("getBoolean".equals(primitive[0]) ? sqlType == Types.BOOLEAN : isNumeric(sqlType))){
+			sb.append(primitive[1]).append(" ").append(var).append(" = rs.").append(primitive[0]).append("(").append(column).append(");\n");
+			if(javaType.isPrimitive())
+				sb.append(open).append(var).append(close);
+			else//SQL NULL is read as 0 or false, the same as ORUtil.getValue
+				sb.append(open).append(javaType.getName()).append(".valueOf(").append(var).append(")").append(close);
+		}else if(javaType == String.class && (isNumeric(sqlType) || sqlType == Types.CHAR || sqlType == Types.VARCHAR)){
+			sb.append(open).append("rs.getString(").append(column).append(")").append(close);
+		}else if(javaType == java.math.BigDecimal.class && isNumeric(sqlType)){
+			sb.append(open).append("rs.getBigDecimal(").append(column).append(")").append(close);
+		}else if(javaType == byte[].class && (sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY)){
+			sb.append(open).append("rs.getBytes(").append(column).append(")").append(close);
+		}else if(javaType == java.sql.Timestamp.class && isDate(sqlType)){
+			sb.append(open).append("rs.getTimestamp(").append(column).append(")").append(close);
+		}else if(javaType == java.sql.Date.class && isDate(sqlType)){
+			sb.append(open).append("rs.getDate(").append(column).append(")").append(close);
+		}else if(javaType == java.sql.Time.class && isDate(sqlType)){
+			sb.append(open).append("rs.getTime(").append(column).append(")").append(close);
+		}else if(javaType == java.util.Date.class && isDate(sqlType)){
+			sb.append("java.sql.Timestamp ").append(var).append(" = rs.getTimestamp(").append(column).append(");\n");
+			sb.append("if(").append(var).append(" != null) ").append(open).append("new java.util.Date(").append(var).append(".getTime())").append(close);
+			sb.append("else ").append(open).append("(java.util.Date)null").append(close);
+		}else if(javaType == Object.class){
+			sb.append(open).append("rs.getObject(").append(column).append(")").append(close);
+		}else{
+			//other types, such as LOBs, are converted by ORUtil
+			String[] typeClassNameAndSuffix = getClassName(javaType);
+			sb.append(open).append("((").append(typeClassNameAndSuffix[0])
+				.append(")orUtil.getValue(rs, ").append(column).append(", ").append(sqlType).append(", ")
+				.append(formatClassName(typeClassNameAndSuffix[0])).append("))").append(typeClassNameAndSuffix[1]).append(close);
+		}
+	}
+	
+	/**
+	 * Returns the source name of the type.
+	 */
+	private static String getTypeName(Class<?> clazz){
+		return clazz.isArray() ? getClassName(clazz)[0] : clazz.getName();
+	}
+	
+	/**
+	 * Returns the source of the default value of the type.
+	 */
+	private static String getDefaultValue(Class<?> clazz){
+		if(!clazz.isPrimitive())
+			return "null";
+		else if(clazz == boolean.class)
+			return "false";
+		else if(clazz == long.class)
+			return "0L";
+		else if(clazz == float.class)
+			return "0F";
+		else if(clazz == double.class)
+			return "0D";
+		else
+			return "(" + clazz.getName() + ")0";
+	}
+	
+	/**
+	 * Returns the ResultSet getter and the primitive type name for primitive and wrapper types.
+	 */
+	private static String[] getPrimitiveGetter(Class<?> clazz){
+		if(clazz == int.class || clazz == Integer.class)
+			return new String[]{"getInt", "int"};
+		else if(clazz == long.class || clazz == Long.class)
+			return new String[]{"getLong", "long"};
+		else if(clazz == double.class || clazz == Double.class)
+			return new String[]{"getDouble", "double"};
+		else if(clazz == float.class || clazz == Float.class)
+			return new String[]{"getFloat", "float"};
+		else if(clazz == short.class || clazz == Short.class)
+			return new String[]{"getShort", "short"};
+		else if(clazz == byte.class || clazz == Byte.class)
+			return new String[]{"getByte", "byte"};
+		else if(clazz == boolean.class || clazz == Boolean.class)
+			return new String[]{"getBoolean", "boolean"};
+		return null;
+	}
+	
+	private static boolean isNumeric(int sqlType){
+		switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+			case Types.LONGVARCHAR:
+			case Types.BIT:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	private static boolean isDate(int sqlType){
+		return sqlType == Types.DATE || sqlType == Types.TIMESTAMP || sqlType == Types.TIME;
+	}
+	
+	/**
+	 * Creates a copier for the specified class, which copies the properties as the prototype readers do.
+	 */
+	private synchronized static BeanCopier buildCopier(Class<?> clazz) throws NotFoundException, CannotCompileException, InstantiationException, IllegalAccessException, DBException {
+		ClassPool pool = ClassPool.getDefault();
+		insertClassPath(pool, clazz);
+		
+		pool.importPackage("org.rex.db.exception.DBException");
+		
+		CtClass ctClass = pool.makeClass(PACKAGE + "." + COPIER_CLASS_PREFIX + genClassName(clazz) + "_" + (readerSequence++));
+		ctClass.setSuperclass(pool.get("org.rex.db.dynamic.javassist.BeanCopier"));
+		
+		boolean fieldAccess = ReflectUtil.isFieldAccess(clazz);
+		Set<String> overwritten = new HashSet<String>();
+		Field[] copyFields = fieldAccess ? getCopyFields(clazz, overwritten) : null;
+		
+		StringBuffer sb = new StringBuffer();
+		sb.append("public Object copy(Object prototype) throws DBException{\n");
+		appendCopyProperties(sb, clazz, fieldAccess, overwritten, copyFields);
+		sb.append("return bean;\n");
+		sb.append("}\n");
+		ctClass.addMethod(CtMethod.make(sb.toString(), ctClass));
+		
+		Class<?> cl = ctClass.toClass();
+		ctClass.detach();
+		BeanCopier copier = (BeanCopier)cl.newInstance();
+		copier.setCopyFields(copyFields);
+		return copier;
+	}
+	
+	/**
+	 * Inserts the class path of the class loader into the pool, once for each class loader.
+	 */
+	private synchronized static void insertClassPath(ClassPool pool, Class<?> clazz){
+		ClassLoader loader = clazz.getClassLoader();
+		if(!classPathLoaders.containsKey(loader)){
+			pool.insertClassPath(new ClassClassPath(clazz));
+			classPathLoaders.put(loader, Boolean.TRUE);
+		}
+	}
+	
 	/**
 	 * Creates a convertor for the specified class.
 	 */
 	private synchronized static BeanConvertor build(Class<?> clazz) throws NotFoundException, DBException, CannotCompileException, InstantiationException, IllegalAccessException {
 
 		ClassPool pool = ClassPool.getDefault();
-		pool.insertClassPath(new ClassClassPath(clazz)); 
+		insertClassPath(pool, clazz);
 		
 		pool.importPackage("java.sql.PreparedStatement");
 		pool.importPackage("java.sql.SQLException");
@@ -97,7 +676,8 @@ public class BeanConvertorManager {
 		
 
 		//method setParameters
-        CtMethod setParametersMethod = CtMethod.make(buildSetParametersMethodString(clazz), ctClass);
+        Field[] fields = ReflectUtil.isFieldAccess(clazz) ? ReflectUtil.getFields(clazz).values().toArray(new Field[0]) : null;
+        CtMethod setParametersMethod = CtMethod.make(fields == null ? buildSetParametersMethodString(clazz) : buildSetFieldParametersMethodString(clazz, fields), ctClass);
         ctClass.addMethod(setParametersMethod);
         
         //method getColumnCodes
@@ -110,7 +690,9 @@ public class BeanConvertorManager {
         
         //generate instance
         Class<?> cl = ctClass.toClass();  
-        return (BeanConvertor)cl.newInstance();
+        BeanConvertor convertor = (BeanConvertor)cl.newInstance();
+        convertor.setFields(fields);
+        return convertor;
 	}
 	
 	/**
@@ -119,7 +701,6 @@ public class BeanConvertorManager {
 	private static String buildReadResultSetMethodString(Class<?> clazz) throws DBException{
 		StringBuffer sb = new StringBuffer();
 		sb.append("public Object readResultSet(ResultSet rs, ORUtil orUtil, int[] requiredColumnCodes) throws SQLException, DBException{\n");
-		sb.append("String[] rsLabels = orUtil.getResultSetLabels(rs);\n");
 		sb.append("int[] rsTypes = orUtil.getResultSetTypes(rs);\n");
 		
 		sb.append(clazz.getName()).append(" bean = new ").append(clazz.getName()).append("();\n");
@@ -140,11 +721,13 @@ public class BeanConvertorManager {
 			
 			sb.append("case ").append(i++).append(":\n");
 			sb.append("bean.").append(setter.getName()).append("(((").append(typeClassNameAndSuffix[0])
-				.append(")orUtil.getValue(rs, rsLabels[i], rsTypes[i], ")
+				.append(")orUtil.getValue(rs, i + 1, rsTypes[i], ")
 				.append(formatClassName(typeClassNameAndSuffix[0])).append("))").append(typeClassNameAndSuffix[1]).append(");\n");
 			sb.append("break;\n");
 		}
 		
+		sb.append("default:\n");
+		sb.append("break;\n");
 		sb.append("}\n");
 		sb.append("}\n");
 		sb.append("return bean;\n");
@@ -216,6 +799,34 @@ public class BeanConvertorManager {
         return sb.toString();
 	}
 	
+	/**
+	 * Builds a setParameters method string for a bean that is mapped by fields, public fields are read directly.
+	 */
+	private static String buildSetFieldParametersMethodString(Class<?> clazz, Field[] fields){
+		StringBuffer sb = new StringBuffer();
+		sb.append("public void setParameters(PreparedStatement preparedStatement, Object object, String[] requiredParam) throws SQLException {\n");
+		sb.append("if(preparedStatement == null || object == null || requiredParam == null) return;\n");
+		sb.append(clazz.getName()).append(" bean = (").append(clazz.getName()).append(")object;\n");
+		sb.append("for (int i = 0; i < requiredParam.length; i++) {\n");
+		
+		for (int i = 0; i < fields.length; i++) {
+			sb.append("if(\"").append(fields[i].getName()).append("\".equals(requiredParam[i])){\n");
+			if(Modifier.isPublic(fields[i].getModifiers()))
+				sb.append("SqlUtil.setParameter(preparedStatement, i + 1, convertValue(bean.").append(fields[i].getName()).append("));\n");
+			else
+				sb.append("SqlUtil.setParameter(preparedStatement, i + 1, readField(fields[").append(i).append("], bean));\n");
+			sb.append("continue;\n");
+			sb.append("}\n");
+		}
+		
+		sb.append("SqlUtil.setNull(preparedStatement, i + 1);\n");
+		sb.append("}\n");
+		sb.append("}\n");
+		
+//		System.out.println(sb);
+		return sb.toString();
+	}
+	
 //	/**
 //	 * Appends a setParameters method string
 //	 */
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dynamic.javassist;
+
+import java.lang.reflect.Field;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Abstract Bean Copier, which is generated for a bean class to create shallow copies of the beans.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class BeanCopier {
+
+	/**
+	 * Non-public fields that are copied by the reflection, if the bean is mapped by fields.
+	 */
+	protected Field[] copyFields;
+
+	/**
+	 * Creates a new bean with the property values of the specified bean, the values are not copied.
+	 * Immutable classes are not copied, the bean is returned.
+	 */
+	public abstract Object copy(Object bean) throws DBException;
+
+	void setCopyFields(Field[] copyFields) {
+		this.copyFields = copyFields;
+	}
+
+	protected static void copyField(Field field, Object source, Object target) throws DBException {
+		ReflectUtil.setField(target, field, ReflectUtil.getField(source, field));
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dynamic.javassist;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.util.ORUtil;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Abstract Bean Reader, which is generated for a fixed column order of the ResultSet.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class BeanReader {
+
+	/**
+	 * Non-public fields in column order that are written by the generated code, if the bean is mapped by fields.
+	 */
+	protected Field[] fields;
+
+	/**
+	 * Non-public fields that are copied from the prototype by the generated code, if the bean is mapped by fields.
+	 */
+	protected Field[] copyFields;
+
+	/**
+	 * Types in column order that the values of copied rows are converted to, and the labels of the columns.
+	 */
+	protected Class<?>[] decodeTypes;
+
+	protected String[] labels;
+
+	/**
+	 * Reads the current row of the ResultSet into a new bean.
+	 */
+	public abstract Object readRow(ResultSet rs, ORUtil orUtil) throws SQLException, DBException;
+
+	/**
+	 * Creates a new bean with the property values of the prototype, and reads the current row of the ResultSet into it.
+	 * The prototype is not changed. Immutable classes have no prototype, the row is read as {@link #readRow(ResultSet, ORUtil)}.
+	 * Only the readers returned by {@link BeanConvertorManager#getPrototypeReader(org.rex.db.util.MappingPlan)} copy rows.
+	 */
+	public Object copyRow(ResultSet rs, ORUtil orUtil, Object prototype) throws SQLException, DBException {
+		throw new UnsupportedOperationException("copyRow is only supported by prototype readers.");
+	}
+
+	/**
+	 * Creates a new bean from a row copied by {@link ORUtil#copyRow(ResultSet, org.rex.db.util.MappingPlan, Object[])}, 
+	 * which can be called by any thread.
+	 */
+	public abstract Object decodeRow(Object[] row) throws DBException;
+
+	void setFields(Field[] fields) {
+		this.fields = fields;
+	}
+
+	void setCopyFields(Field[] copyFields) {
+		this.copyFields = copyFields;
+	}
+
+	void setDecodeTypes(Class<?>[] decodeTypes, String[] labels) {
+		this.decodeTypes = decodeTypes;
+		this.labels = labels;
+	}
+
+	//-------------field utils, primitive values are written without boxing
+	protected static void copyField(Field field, Object source, Object target) throws DBException {
+		ReflectUtil.setField(target, field, ReflectUtil.getField(source, field));
+	}
+
+	protected static void writeField(Field field, Object bean, Object value) throws DBException {
+		ReflectUtil.setField(bean, field, value);
+	}
+
+	protected static void writeField(Field field, Object bean, int value) throws DBException {
+		try {
+			field.setInt(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, long value) throws DBException {
+		try {
+			field.setLong(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, double value) throws DBException {
+		try {
+			field.setDouble(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, float value) throws DBException {
+		try {
+			field.setFloat(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, short value) throws DBException {
+		try {
+			field.setShort(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, byte value) throws DBException {
+		try {
+			field.setByte(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	protected static void writeField(Field field, Object bean, boolean value) throws DBException {
+		try {
+			field.setBoolean(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, bean.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dynamic.javassist;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Bean copier that copies properties by reflection, which is used for classes that generated code can't instantiate.
+ * Immutable classes, which are created by their constructors, are not copied.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+class ReflectBeanCopier extends BeanCopier {
+
+	private final Class<?> beanClass;
+
+	private final boolean immutable;
+
+	ReflectBeanCopier(Class<?> beanClass) {
+		this.beanClass = beanClass;
+		this.immutable = ReflectUtil.getResultConstructor(beanClass) != null;
+	}
+
+	public Object copy(Object bean) throws DBException {
+		if (immutable)
+			return bean;
+
+		Object copy = ReflectUtil.instance(beanClass);
+		if (ReflectUtil.isFieldAccess(beanClass)) {
+			for (Iterator<Field> iterator = ReflectUtil.getFields(beanClass).values().iterator(); iterator.hasNext();) {
+				Field field = iterator.next();
+				if (!Modifier.isFinal(field.getModifiers()))
+					copyField(field, bean, copy);
+			}
+		} else {
+			Map<String, Method> getters = ReflectUtil.getReadableMethods(beanClass);
+			Map<String, Method> setters = ReflectUtil.getWriteableMethods(beanClass);
+			for (Iterator<Map.Entry<String, Method>> iterator = setters.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<String, Method> entry = iterator.next();
+				Method getter = getters.get(entry.getKey());
+				if (getter != null && entry.getValue().getParameterTypes()[0].isAssignableFrom(getter.getReturnType()))
+					ReflectUtil.invokeMethod(copy, entry.getValue(), ReflectUtil.invokeMethod(bean, getter));
+			}
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.dynamic.javassist;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ORUtil;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Bean reader that maps rows by reflection, which is used for classes that generated code can't instantiate,
+ * such as non-public classes and classes with non-public constructors.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+class ReflectBeanReader extends BeanReader {
+
+	private final MappingPlan plan;
+
+	ReflectBeanReader(MappingPlan plan) {
+		this.plan = plan;
+	}
+
+	public Object readRow(ResultSet rs, ORUtil orUtil) throws SQLException, DBException {
+		return orUtil.rs2Instance(rs, plan);
+	}
+
+	public Object decodeRow(Object[] row) throws DBException {
+		return new ORUtil().row2Instance(row, plan);
+	}
+
+	/**
+	 * Clones the prototype and reads the current row into the clone, immutable classes are read as {@link #readRow(ResultSet, ORUtil)}.
+	 */
+	public Object copyRow(ResultSet rs, ORUtil orUtil, Object prototype) throws SQLException, DBException {
+		if (plan.getConstructor() != null)
+			return readRow(rs, orUtil);
+
+		Method cloneMethod = ReflectUtil.getCloneMethod(prototype);
+		if (cloneMethod == null)
+			throw new DBException("DB-C0004", prototype.getClass().getName());
+		return orUtil.rs2Object(rs, ReflectUtil.invokeMethod(prototype, cloneMethod));
+	}
+}
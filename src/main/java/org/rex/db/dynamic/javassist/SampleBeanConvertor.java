@@ -89,17 +89,16 @@ public class SampleBeanConvertor extends BeanConvertor {
 	}
 
 	public Object readResultSet(ResultSet rs, ORUtil orUtil, int[] requiredColumnCodes) throws SQLException, DBException {
-		String[] rsLabels = orUtil.getResultSetLabels(rs);
 		int[] rsTypes = orUtil.getResultSetTypes(rs);
 
 		SampleBean bean = new SampleBean();
 		for (int i = 0; i < rsTypes.length; i++) {
 			switch (requiredColumnCodes[i]) {
 			case 0:
-				bean.setId(((Integer) orUtil.getValue(rs, rsLabels[i], rsTypes[i], Integer.class)).intValue());
+				bean.setId(((Integer) orUtil.getValue(rs, i + 1, rsTypes[i], Integer.class)).intValue());
 				break;
 			case 1:
-				bean.setDate((java.util.Date)orUtil.getValue(rs, rsLabels[i], rsTypes[i], java.util.Date.class));
+				bean.setDate((java.util.Date)orUtil.getValue(rs, i + 1, rsTypes[i], java.util.Date.class));
 				break;
 			}
 		}
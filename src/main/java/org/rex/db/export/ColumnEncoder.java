@@ -0,0 +1,181 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Reads a column of the current row with the getter of its SQL type, and passes the value to the exporter.
+ * The encoders are resolved once for each column, and keep no state, so that they are shared by all exporters.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class ColumnEncoder {
+
+	public static final ColumnEncoder LONG = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			long value = rs.getLong(column);
+			if (rs.wasNull())
+				exporter.writeNull();
+			else
+				exporter.writeLong(value);
+		}
+	};
+
+	public static final ColumnEncoder DOUBLE = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			double value = rs.getDouble(column);
+			if (rs.wasNull())
+				exporter.writeNull();
+			else
+				exporter.writeDouble(value);
+		}
+	};
+
+	public static final ColumnEncoder BOOLEAN = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			boolean value = rs.getBoolean(column);
+			if (rs.wasNull())
+				exporter.writeNull();
+			else
+				exporter.writeBoolean(value);
+		}
+	};
+
+	public static final ColumnEncoder DECIMAL = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			BigDecimal value = rs.getBigDecimal(column);
+			if (value == null)
+				exporter.writeNull();
+			else
+				exporter.writeDecimal(value);
+		}
+	};
+
+	public static final ColumnEncoder DATE = new DateEncoder(true, false);
+
+	public static final ColumnEncoder TIME = new DateEncoder(false, true);
+
+	public static final ColumnEncoder TIMESTAMP = new DateEncoder(true, true);
+
+	public static final ColumnEncoder TEXT = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			Reader value = rs.getCharacterStream(column);
+			if (value == null)
+				exporter.writeNull();
+			else
+				exporter.writeText(value);
+		}
+	};
+
+	public static final ColumnEncoder BINARY = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			InputStream value = rs.getBinaryStream(column);
+			if (value == null)
+				exporter.writeNull();
+			else
+				exporter.writeBinary(value);
+		}
+	};
+
+	public static final ColumnEncoder STRING = new ColumnEncoder() {
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			String value = rs.getString(column);
+			if (value == null)
+				exporter.writeNull();
+			else
+				exporter.writeString(value);
+		}
+	};
+
+	/**
+	 * Returns the encoder of the SQL type, columns of unknown types are read as strings.
+	 */
+	public static ColumnEncoder forType(int sqlType) {
+		switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+				return LONG;
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return DOUBLE;
+			case Types.BIT:
+			case Types.BOOLEAN:
+				return BOOLEAN;
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return DECIMAL;
+			case Types.DATE:
+				return DATE;
+			case Types.TIME:
+				return TIME;
+			case Types.TIMESTAMP:
+				return TIMESTAMP;
+			case Types.CLOB:
+			case Types.NCLOB:
+			case Types.LONGVARCHAR:
+			case Types.LONGNVARCHAR:
+				return TEXT;
+			case Types.BINARY:
+			case Types.VARBINARY:
+			case Types.LONGVARBINARY:
+			case Types.BLOB:
+				return BINARY;
+			default:
+				return STRING;
+		}
+	}
+
+	/**
+	 * Reads the column of the current row, starting from 1, and writes it with the exporter.
+	 */
+	public abstract void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException;
+
+	// -----------inner classes
+	/**
+	 * Reads dates, times and timestamps as timestamps.
+	 */
+	private static class DateEncoder extends ColumnEncoder {
+
+		private final boolean date;
+
+		private final boolean clock;
+
+		DateEncoder(boolean date, boolean clock) {
+			this.date = date;
+			this.clock = clock;
+		}
+
+		public void encode(ResultSet rs, int column, ResultSetExporter exporter) throws SQLException, IOException {
+			Timestamp value = rs.getTimestamp(column);
+			if (value == null)
+				exporter.writeNull();
+			else
+				exporter.writeDate(value.getTime(), date, clock);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exports the rows as CSV, as described in RFC 4180. Values that contain the delimiter, quotes or line breaks are quoted,
+ * large text columns are always quoted, and SQL NULL is written as an empty value.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class CsvExporter extends ResultSetExporter {
+
+	private static final char QUOTE = '"';
+
+	private char delimiter = ',';
+
+	private boolean header = true;
+
+	private char[] lineSeparator = { '\r', '\n' };
+
+	public CsvExporter(Writer writer) {
+		super(writer);
+	}
+
+	public CsvExporter(Writer writer, int flushSize) {
+		super(writer, flushSize);
+	}
+
+	public CsvExporter(OutputStream stream) {
+		super(stream);
+	}
+
+	public CsvExporter(OutputStream stream, int flushSize) {
+		super(stream, flushSize);
+	}
+
+	public CsvExporter(WritableByteChannel channel) {
+		super(channel);
+	}
+
+	public CsvExporter(WritableByteChannel channel, int flushSize) {
+		super(channel, flushSize);
+	}
+
+	// -----------settings
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * Sets the delimiter of the values, which is ',' by default.
+	 */
+	public void setDelimiter(char delimiter) {
+		if (delimiter == QUOTE || delimiter == '\r' || delimiter == '\n')
+			throw new IllegalArgumentException("invalid delimiter: " + delimiter);
+		this.delimiter = delimiter;
+	}
+
+	public boolean isHeader() {
+		return header;
+	}
+
+	/**
+	 * Sets whether the column labels are written as the first line, which is true by default.
+	 */
+	public void setHeader(boolean header) {
+		this.header = header;
+	}
+
+	public String getLineSeparator() {
+		return new String(lineSeparator);
+	}
+
+	/**
+	 * Sets the separator of the lines, which is CRLF by default.
+	 */
+	public void setLineSeparator(String lineSeparator) {
+		this.lineSeparator = lineSeparator.toCharArray();
+	}
+
+	// -----------format
+	protected void writeHeader(String[] names) throws IOException {
+		if (!header)
+			return;
+		for (int i = 0; i < names.length; i++) {
+			writeColumnStart(i);
+			writeString(names[i]);
+		}
+		writeRowEnd();
+	}
+
+	protected void writeRowStart() {
+	}
+
+	protected void writeColumnStart(int column) throws IOException {
+		if (column > 0)
+			out.append(delimiter);
+	}
+
+	protected void writeRowEnd() throws IOException {
+		out.append(lineSeparator);
+	}
+
+	protected void writeNull() {
+	}
+
+	protected void writeLong(long value) throws IOException {
+		out.appendLong(value);
+	}
+
+	protected void writeDouble(double value) throws IOException {
+		out.appendDouble(value);
+	}
+
+	protected void writeBoolean(boolean value) throws IOException {
+		out.append(value ? "true" : "false");
+	}
+
+	protected void writeDecimal(BigDecimal value) throws IOException {
+		out.append(value.toPlainString());
+	}
+
+	protected void writeString(String value) throws IOException {
+		if (!needsQuote(value)) {
+			out.append(value);
+			return;
+		}
+
+		out.append(QUOTE);
+		for (int i = 0, n = value.length(); i < n; i++) {
+			char c = value.charAt(i);
+			if (c == QUOTE)
+				out.append(QUOTE);
+			out.append(c);
+		}
+		out.append(QUOTE);
+	}
+
+	protected void writeText(Reader value) throws IOException {
+		char[] chars = out.getCharBuffer();
+		try {
+			out.append(QUOTE);
+			int count;
+			while ((count = value.read(chars)) != -1) {
+				for (int i = 0; i < count; i++) {
+					if (chars[i] == QUOTE)
+						out.append(QUOTE);
+					out.append(chars[i]);
+				}
+			}
+			out.append(QUOTE);
+		} finally {
+			value.close();
+		}
+	}
+
+	protected void writeBinary(InputStream value) throws IOException {
+		out.appendBase64(value);
+	}
+
+	protected void writeDate(long time, boolean date, boolean clock) throws IOException {
+		out.appendDate(time, date, clock);
+	}
+
+	// -----------private methods
+	private boolean needsQuote(String value) {
+		for (int i = 0, n = value.length(); i < n; i++) {
+			char c = value.charAt(i);
+			if (c == delimiter || c == QUOTE || c == '\r' || c == '\n')
+				return true;
+		}
+		return false;
+	}
+}
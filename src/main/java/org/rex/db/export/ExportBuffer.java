@@ -0,0 +1,258 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Reusable character buffer of the exporters, which is written to the target writer when it's full.
+ * Numbers, dates and binaries are formatted into the buffer directly.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ExportBuffer {
+
+	/**
+	 * Default number of characters that are buffered before writing to the target.
+	 */
+	public static final int DEFAULT_FLUSH_SIZE = 8192;
+
+	private static final char[] DIGITS = "0123456789".toCharArray();
+
+	private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private static final char[] MIN_LONG = String.valueOf(Long.MIN_VALUE).toCharArray();
+
+	private final Writer writer;
+
+	private final char[] buffer;
+
+	private int position;
+
+	private final char[] scratch = new char[20];
+
+	private byte[] bytes;
+
+	private char[] chars;
+
+	private Calendar calendar;
+
+	public ExportBuffer(Writer writer) {
+		this(writer, DEFAULT_FLUSH_SIZE);
+	}
+
+	public ExportBuffer(Writer writer, int flushSize) {
+		if (flushSize < 64)
+			throw new IllegalArgumentException("flush size must be at least 64, but was " + flushSize);
+		this.writer = writer;
+		this.buffer = new char[flushSize];
+	}
+
+	// -----------appending
+	public void append(char c) throws IOException {
+		if (position == buffer.length)
+			flushBuffer();
+		buffer[position++] = c;
+	}
+
+	public void append(char[] chars, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (position == buffer.length)
+				flushBuffer();
+			int n = Math.min(length, buffer.length - position);
+			System.arraycopy(chars, offset, buffer, position, n);
+			position += n;
+			offset += n;
+			length -= n;
+		}
+	}
+
+	public void append(char[] chars) throws IOException {
+		append(chars, 0, chars.length);
+	}
+
+	/**
+	 * Appends the characters of the string, without copying it to a new array.
+	 */
+	public void append(String s) throws IOException {
+		int offset = 0, length = s.length();
+		while (length > 0) {
+			if (position == buffer.length)
+				flushBuffer();
+			int n = Math.min(length, buffer.length - position);
+			s.getChars(offset, offset + n, buffer, position);
+			position += n;
+			offset += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Appends the decimal digits of the value.
+	 */
+	public void appendLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			append(MIN_LONG);
+			return;
+		}
+		if (value < 0) {
+			append('-');
+			value = -value;
+		}
+		int i = scratch.length;
+		do {
+			scratch[--i] = DIGITS[(int) (value % 10)];
+			value /= 10;
+		} while (value != 0);
+		append(scratch, i, scratch.length - i);
+	}
+
+	/**
+	 * Appends the value, integral values are appended without the fraction.
+	 */
+	public void appendDouble(double value) throws IOException {
+		if (value == (long) value && (value != 0 || 1 / value > 0))
+			appendLong((long) value);
+		else
+			append(String.valueOf(value));
+	}
+
+	/**
+	 * Appends the value with at least the given number of digits, padded with zeros.
+	 */
+	public void appendPadded(int value, int width) throws IOException {
+		int i = scratch.length;
+		do {
+			scratch[--i] = DIGITS[value % 10];
+			value /= 10;
+		} while (value != 0);
+		while (scratch.length - i < width)
+			scratch[--i] = '0';
+		append(scratch, i, scratch.length - i);
+	}
+
+	/**
+	 * Appends the time in the default time zone, formatted as 'yyyy-MM-dd' for dates, 'HH:mm:ss' for times 
+	 * and 'yyyy-MM-dd HH:mm:ss' for timestamps, which are followed by '.SSS' if the milliseconds are not 0.
+	 */
+	public void appendDate(long time, boolean date, boolean clock) throws IOException {
+		if (calendar == null)
+			calendar = Calendar.getInstance(TimeZone.getDefault());
+		calendar.setTimeInMillis(time);
+
+		if (date) {
+			appendPadded(calendar.get(Calendar.YEAR), 4);
+			append('-');
+			appendPadded(calendar.get(Calendar.MONTH) + 1, 2);
+			append('-');
+			appendPadded(calendar.get(Calendar.DAY_OF_MONTH), 2);
+		}
+		if (date && clock)
+			append(' ');
+		if (clock) {
+			appendPadded(calendar.get(Calendar.HOUR_OF_DAY), 2);
+			append(':');
+			appendPadded(calendar.get(Calendar.MINUTE), 2);
+			append(':');
+			appendPadded(calendar.get(Calendar.SECOND), 2);
+			int millis = calendar.get(Calendar.MILLISECOND);
+			if (date && millis != 0) {
+				append('.');
+				appendPadded(millis, 3);
+			}
+		}
+	}
+
+	/**
+	 * Appends all bytes of the stream in Base64, and closes the stream.
+	 */
+	public void appendBase64(InputStream in) throws IOException {
+		if (bytes == null)
+			bytes = new byte[3 * 1024];
+		try {
+			int length;
+			while ((length = fill(in, bytes)) > 0) {
+				int i = 0;
+				for (; i + 3 <= length; i += 3) {
+					int n = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+					append(BASE64[n >>> 18]);
+					append(BASE64[(n >>> 12) & 0x3F]);
+					append(BASE64[(n >>> 6) & 0x3F]);
+					append(BASE64[n & 0x3F]);
+				}
+				if (i < length) {
+					int n = (bytes[i] & 0xFF) << 16 | (i + 1 < length ? (bytes[i + 1] & 0xFF) << 8 : 0);
+					append(BASE64[n >>> 18]);
+					append(BASE64[(n >>> 12) & 0x3F]);
+					append(i + 1 < length ? BASE64[(n >>> 6) & 0x3F] : '=');
+					append('=');
+				}
+				if (length < bytes.length)
+					break;
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns the reusable array that large text columns are read into.
+	 */
+	public char[] getCharBuffer() {
+		if (chars == null)
+			chars = new char[4096];
+		return chars;
+	}
+
+	// -----------flushing
+	/**
+	 * Writes the buffered characters to the target.
+	 */
+	public void flushBuffer() throws IOException {
+		if (position > 0) {
+			writer.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Writes the buffered characters and flushes the target.
+	 */
+	public void flush() throws IOException {
+		flushBuffer();
+		writer.flush();
+	}
+
+	public int getFlushSize() {
+		return buffer.length;
+	}
+
+	// -----------private methods
+	/**
+	 * Reads until the array is full or the stream ends.
+	 */
+	private static int fill(InputStream in, byte[] b) throws IOException {
+		int total = 0, n;
+		while (total < b.length && (n = in.read(b, total, b.length - total)) != -1)
+			total += n;
+		return total;
+	}
+}
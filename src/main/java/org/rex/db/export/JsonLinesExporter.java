@@ -0,0 +1,204 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exports each row as a JSON object on its own line, which is keyed by the column labels.
+ * Dates and binaries are written as strings, binaries are encoded in Base64, NaN and infinite numbers are written as null.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class JsonLinesExporter extends ResultSetExporter {
+
+	private static final char[] NULL = "null".toCharArray();
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Escaped keys of the columns, such as '{"id":' and ',"name":'.
+	 */
+	private char[][] keys;
+
+	public JsonLinesExporter(Writer writer) {
+		super(writer);
+	}
+
+	public JsonLinesExporter(Writer writer, int flushSize) {
+		super(writer, flushSize);
+	}
+
+	public JsonLinesExporter(OutputStream stream) {
+		super(stream);
+	}
+
+	public JsonLinesExporter(OutputStream stream, int flushSize) {
+		super(stream, flushSize);
+	}
+
+	public JsonLinesExporter(WritableByteChannel channel) {
+		super(channel);
+	}
+
+	public JsonLinesExporter(WritableByteChannel channel, int flushSize) {
+		super(channel, flushSize);
+	}
+
+	// -----------format
+	/**
+	 * Escapes the column labels once, nothing is written.
+	 */
+	protected void writeHeader(String[] names) {
+		keys = new char[names.length][];
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < names.length; i++) {
+			sb.setLength(0);
+			sb.append(i == 0 ? '{' : ',').append('"');
+			for (int j = 0; j < names[i].length(); j++) {
+				char c = names[i].charAt(j);
+				if (c == '"' || c == '\\' || c < 0x20)
+					sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+				else
+					sb.append(c);
+			}
+			sb.append('"').append(':');
+			keys[i] = sb.toString().toCharArray();
+		}
+	}
+
+	protected void writeRowStart() throws IOException {
+		if (keys.length == 0)
+			out.append('{');
+	}
+
+	protected void writeColumnStart(int column) throws IOException {
+		out.append(keys[column]);
+	}
+
+	protected void writeRowEnd() throws IOException {
+		out.append('}');
+		out.append('\n');
+	}
+
+	protected void writeNull() throws IOException {
+		out.append(NULL);
+	}
+
+	protected void writeLong(long value) throws IOException {
+		out.appendLong(value);
+	}
+
+	protected void writeDouble(double value) throws IOException {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			out.append(NULL);
+		else
+			out.appendDouble(value);
+	}
+
+	protected void writeBoolean(boolean value) throws IOException {
+		out.append(value ? "true" : "false");
+	}
+
+	protected void writeDecimal(BigDecimal value) throws IOException {
+		out.append(value.toPlainString());
+	}
+
+	protected void writeString(String value) throws IOException {
+		out.append('"');
+		for (int i = 0, n = value.length(); i < n; i++) {
+			writeChar(value.charAt(i));
+		}
+		out.append('"');
+	}
+
+	protected void writeText(Reader value) throws IOException {
+		char[] chars = out.getCharBuffer();
+		try {
+			out.append('"');
+			int count;
+			while ((count = value.read(chars)) != -1) {
+				for (int i = 0; i < count; i++) {
+					writeChar(chars[i]);
+				}
+			}
+			out.append('"');
+		} finally {
+			value.close();
+		}
+	}
+
+	protected void writeBinary(InputStream value) throws IOException {
+		out.append('"');
+		out.appendBase64(value);
+		out.append('"');
+	}
+
+	protected void writeDate(long time, boolean date, boolean clock) throws IOException {
+		out.append('"');
+		out.appendDate(time, date, clock);
+		out.append('"');
+	}
+
+	// -----------private methods
+	/**
+	 * Writes the character, escaped if it's a quote, a backslash or a control character.
+	 */
+	private void writeChar(char c) throws IOException {
+		if (c >= 0x20 && c != '"' && c != '\\') {
+			out.append(c);
+			return;
+		}
+
+		out.append('\\');
+		switch (c) {
+			case '"':
+				out.append('"');
+				break;
+			case '\\':
+				out.append('\\');
+				break;
+			case '\n':
+				out.append('n');
+				break;
+			case '\r':
+				out.append('r');
+				break;
+			case '\t':
+				out.append('t');
+				break;
+			case '\b':
+				out.append('b');
+				break;
+			case '\f':
+				out.append('f');
+				break;
+			default:
+				out.append('u');
+				out.append('0');
+				out.append('0');
+				out.append(HEX[c >> 4]);
+				out.append(HEX[c & 0xF]);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.rex.db.core.reader.ResultReader;
+import org.rex.db.exception.DBException;
+import org.rex.db.util.MappingPlan;
+
+/**
+ * Writes the rows of a ResultSet to a writer as they are read, without mapping them to objects.
+ * <p>
+ * The column encoders are resolved from the SQL types when the first row is read, and the values are formatted into 
+ * a reusable buffer, which is written to the target every time it's full. Streams and writers are not closed by the exporter.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class ResultSetExporter implements ResultReader<Object> {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	protected final ExportBuffer out;
+
+	private String[] names;
+
+	private ColumnEncoder[] encoders;
+
+	private int rowCount;
+
+	// -----------construction
+	public ResultSetExporter(Writer writer) {
+		this(writer, ExportBuffer.DEFAULT_FLUSH_SIZE);
+	}
+
+	/**
+	 * @param flushSize number of characters that are buffered before writing to the writer.
+	 */
+	public ResultSetExporter(Writer writer, int flushSize) {
+		this.out = new ExportBuffer(writer, flushSize);
+	}
+
+	/**
+	 * Writes to the stream in UTF-8.
+	 */
+	public ResultSetExporter(OutputStream stream) {
+		this(stream, ExportBuffer.DEFAULT_FLUSH_SIZE);
+	}
+
+	public ResultSetExporter(OutputStream stream, int flushSize) {
+		this(new OutputStreamWriter(stream, UTF_8), flushSize);
+	}
+
+	/**
+	 * Writes to the channel in UTF-8.
+	 */
+	public ResultSetExporter(WritableByteChannel channel) {
+		this(channel, ExportBuffer.DEFAULT_FLUSH_SIZE);
+	}
+
+	public ResultSetExporter(WritableByteChannel channel, int flushSize) {
+		this(Channels.newWriter(channel, UTF_8.newEncoder(), -1), flushSize);
+	}
+
+	// --------implements
+	public void processRow(ResultSet rs) throws DBException {
+		if (encoders == null)
+			init(rs);
+
+		int column = 0;
+		try {
+			writeRowStart();
+			for (; column < encoders.length; column++) {
+				writeColumnStart(column);
+				encoders[column].encode(rs, column + 1, this);
+			}
+			writeRowEnd();
+		} catch (SQLException e) {
+			throw new DBException("DB-EEX02", e, names[column], rowCount + 1, e.getMessage());
+		} catch (IOException e) {
+			throw new DBException("DB-EEX01", e, e.getMessage());
+		}
+		rowCount++;
+	}
+
+	/**
+	 * Returns an empty list, the rows have been written to the target.
+	 */
+	public List<Object> getResults() {
+		return Collections.emptyList();
+	}
+
+	// -----------exporting
+	/**
+	 * Writes the buffered characters, flushes the target, and returns the number of rows that have been exported.
+	 */
+	public int finish() throws DBException {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new DBException("DB-EEX01", e, e.getMessage());
+		}
+		return rowCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the column labels, or null if no row has been read.
+	 */
+	public String[] getColumnNames() {
+		return names;
+	}
+
+	// -----------format
+	/**
+	 * Writes the header before the first row.
+	 */
+	protected abstract void writeHeader(String[] names) throws IOException;
+
+	protected abstract void writeRowStart() throws IOException;
+
+	/**
+	 * Writes the separator or the name before the value of the column, starting from 0.
+	 */
+	protected abstract void writeColumnStart(int column) throws IOException;
+
+	protected abstract void writeRowEnd() throws IOException;
+
+	protected abstract void writeNull() throws IOException;
+
+	protected abstract void writeLong(long value) throws IOException;
+
+	protected abstract void writeDouble(double value) throws IOException;
+
+	protected abstract void writeBoolean(boolean value) throws IOException;
+
+	protected abstract void writeDecimal(BigDecimal value) throws IOException;
+
+	protected abstract void writeString(String value) throws IOException;
+
+	/**
+	 * Writes a large text column, which is read from the reader through the buffer of the exporter.
+	 */
+	protected abstract void writeText(Reader value) throws IOException;
+
+	/**
+	 * Writes a binary column, which is usually encoded in Base64.
+	 */
+	protected abstract void writeBinary(InputStream value) throws IOException;
+
+	/**
+	 * Writes a date, time or timestamp in milliseconds.
+	 * 
+	 * @param date true if the value has the date part.
+	 * @param clock true if the value has the time part.
+	 */
+	protected abstract void writeDate(long time, boolean date, boolean clock) throws IOException;
+
+	// -----------private methods
+	private void init(ResultSet rs) throws DBException {
+		MappingPlan plan = MappingPlan.getPlan(rs, null);
+		int[] types = plan.getTypes();
+
+		names = plan.getLabelsRenamed();
+		encoders = new ColumnEncoder[types.length];
+		for (int i = 0; i < types.length; i++) {
+			encoders[i] = ColumnEncoder.forType(types[i]);
+		}
+
+		try {
+			writeHeader(names);
+		} catch (IOException e) {
+			throw new DBException("DB-EEX01", e, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.shard;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Routes integral keys by their values modulo the number of shards, and other keys by their hash codes.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class HashShardFunction implements ShardFunction {
+
+	public int getShard(Object shardKey, int shards) {
+		if (shardKey == null)
+			return 0;
+
+		if (shardKey instanceof Long || shardKey instanceof Integer || shardKey instanceof Short || shardKey instanceof Byte)
+			return mod(((Number) shardKey).longValue(), shards);
+		if (shardKey instanceof BigInteger)
+			return ((BigInteger) shardKey).mod(BigInteger.valueOf(shards)).intValue();
+		if (shardKey instanceof BigDecimal && ((BigDecimal) shardKey).scale() <= 0)
+			return ((BigDecimal) shardKey).toBigInteger().mod(BigInteger.valueOf(shards)).intValue();
+
+		return mod(shardKey.hashCode(), shards);
+	}
+
+	private static int mod(long value, int shards) {
+		int shard = (int) (value % shards);
+		return shard < 0 ? shard + shards : shard;
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.shard;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+import org.rex.db.exception.DBException;
+import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.util.ReflectUtil;
+
+/**
+ * Compares Maps or java beans by the ORDER BY columns, such as 'name' or 'created desc'.
+ * <p>
+ * Map values are read by the column, or by the key that equals the column ignoring case. Bean values are read by the property.
+ * Null values are ordered by 'nulls first' or 'nulls last' at the end of the column. Otherwise, they are smaller than the others by default, 
+ * as MySQL, SQL Server and DB2 order them, or larger than the others if specified, as Oracle and PostgreSQL order them.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class RowComparator implements Comparator<Object> {
+
+	private final String[] columns;
+
+	private final boolean[] descending;
+
+	private final boolean[] nullsFirst;
+
+	/**
+	 * @param orderBy the ORDER BY columns, each of which may end with ' asc' or ' desc', and then ' nulls first' or ' nulls last'.
+	 */
+	public RowComparator(String... orderBy) {
+		this(false, orderBy);
+	}
+
+	/**
+	 * @param nullsLargest true if null values are larger than the others, for the columns without 'nulls first' or 'nulls last'.
+	 * @param orderBy the ORDER BY columns, each of which may end with ' asc' or ' desc', and then ' nulls first' or ' nulls last'.
+	 */
+	public RowComparator(boolean nullsLargest, String... orderBy) {
+		columns = new String[orderBy.length];
+		descending = new boolean[orderBy.length];
+		nullsFirst = new boolean[orderBy.length];
+		for (int i = 0; i < orderBy.length; i++) {
+			String column = orderBy[i].trim();
+			String lower = column.toLowerCase();
+			Boolean first = null;
+			if (lower.endsWith(" nulls first")) {
+				first = Boolean.TRUE;
+				column = column.substring(0, column.length() - 12).trim();
+			} else if (lower.endsWith(" nulls last")) {
+				first = Boolean.FALSE;
+				column = column.substring(0, column.length() - 11).trim();
+			}
+
+			lower = column.toLowerCase();
+			if (lower.endsWith(" desc")) {
+				descending[i] = true;
+				column = column.substring(0, column.length() - 5).trim();
+			} else if (lower.endsWith(" asc"))
+				column = column.substring(0, column.length() - 4).trim();
+			columns[i] = column;
+			nullsFirst[i] = first != null ? first.booleanValue() : nullsLargest == descending[i];
+		}
+	}
+
+	public int compare(Object row1, Object row2) {
+		for (int i = 0; i < columns.length; i++) {
+			Object value1 = getValue(row1, columns[i]);
+			Object value2 = getValue(row2, columns[i]);
+			if (value1 == value2)
+				continue;
+			if (value1 == null)
+				return nullsFirst[i] ? -1 : 1;
+			if (value2 == null)
+				return nullsFirst[i] ? 1 : -1;
+
+			int result = compareValues(value1, value2);
+			if (result != 0)
+				return descending[i] ? -result : result;
+		}
+		return 0;
+	}
+
+	// -----------private methods
+	private static int compareValues(Object value1, Object value2) {
+		if (value1 instanceof Number && value2 instanceof Number && value1.getClass() != value2.getClass()) {
+			if (isFloating(value1) || isFloating(value2))
+				return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+			return new BigDecimal(value1.toString()).compareTo(new BigDecimal(value2.toString()));
+		}
+		return ((Comparable<Object>) value1).compareTo(value2);
+	}
+
+	private static boolean isFloating(Object value) {
+		return value instanceof Double || value instanceof Float;
+	}
+
+	private static Object getValue(Object row, String column) {
+		try {
+			return ReflectUtil.getRowValue(row, column);
+		} catch (DBException e) {
+			throw new DBRuntimeException(e);
+		}
+	}
+}
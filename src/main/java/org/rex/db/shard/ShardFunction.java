@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.shard;
+
+/**
+ * Function that routes a shard key to the shard that owns it.
+ * <p>
+ * Implementations must be thread-safe, and always return the same shard for the same key.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public interface ShardFunction {
+
+	/**
+	 * Returns the shard that owns the key.
+	 *
+	 * @param shardKey the shard key, such as a customer id.
+	 * @param shards the number of shards.
+	 * @return the index of the shard, starting from 0.
+	 */
+	int getShard(Object shardKey, int shards);
+}
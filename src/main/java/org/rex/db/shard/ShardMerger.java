@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of a query that has been executed on all shards.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public abstract class ShardMerger {
+
+	private static final ShardMerger CONCAT = new ShardMerger() {
+		public <T> List<T> merge(List<List<T>> results) {
+			int size = 0;
+			for (int i = 0; i < results.size(); i++) {
+				size += results.get(i).size();
+			}
+
+			List<T> merged = new ArrayList<T>(size);
+			for (int i = 0; i < results.size(); i++) {
+				merged.addAll(results.get(i));
+			}
+			return merged;
+		}
+	};
+
+	/**
+	 * Merges the results of the shards.
+	 *
+	 * @param results the results of the shards, in the order of the shards.
+	 * @return the merged rows.
+	 */
+	public abstract <T> List<T> merge(List<List<T>> results);
+
+	// -----------mergers
+	/**
+	 * Returns the merger that concatenates the results in the order of the shards.
+	 */
+	public static ShardMerger concat() {
+		return CONCAT;
+	}
+
+	/**
+	 * Returns the merger that merges the results ordered by the columns, such as 'name' or 'created desc nulls last'. 
+	 * The query should be ordered by the same columns on each shard, null values are smaller than the others unless specified.
+	 */
+	public static ShardMerger orderBy(String... orderBy) {
+		return new OrderedMerger(new RowComparator(orderBy));
+	}
+
+	/**
+	 * Returns the merger that merges the results ordered by the columns, such as 'name' or 'created desc nulls last'. 
+	 * The query should be ordered by the same columns on each shard.
+	 *
+	 * @param nullsLargest true if the database orders null values as larger than the others, such as Oracle and PostgreSQL.
+	 */
+	public static ShardMerger orderBy(boolean nullsLargest, String... orderBy) {
+		return new OrderedMerger(new RowComparator(nullsLargest, orderBy));
+	}
+
+	/**
+	 * Returns the merger that merges the results ordered by the comparator. The query should be ordered the same way on each shard.
+	 */
+	public static ShardMerger orderBy(Comparator<?> comparator) {
+		return new OrderedMerger((Comparator<Object>) comparator);
+	}
+
+	// -----------inner classes
+	/**
+	 * K-way merge of the ordered results, rows that are equal are kept in the order of the shards.
+	 */
+	private static class OrderedMerger extends ShardMerger {
+
+		private final Comparator<Object> comparator;
+
+		OrderedMerger(Comparator<Object> comparator) {
+			this.comparator = comparator;
+		}
+
+		public <T> List<T> merge(List<List<T>> results) {
+			int size = 0;
+			PriorityQueue<Head<T>> heads = new PriorityQueue<Head<T>>(Math.max(1, results.size()), new Comparator<Head<T>>() {
+				public int compare(Head<T> head1, Head<T> head2) {
+					int result = comparator.compare(head1.row, head2.row);
+					return result != 0 ? result : head1.shard - head2.shard;
+				}
+			});
+
+			int shard = 0;
+			for (List<T> result : results) {
+				size += result.size();
+				Iterator<T> rows = result.iterator();
+				if (rows.hasNext())
+					heads.add(new Head<T>(shard, rows));
+				shard++;
+			}
+
+			List<T> merged = new ArrayList<T>(size);
+			while (!heads.isEmpty()) {
+				Head<T> head = heads.poll();
+				merged.add(head.row);
+				if (head.next())
+					heads.add(head);
+			}
+			return merged;
+		}
+	}
+
+	/**
+	 * Current row of a result, the results are read by iterators, as they may be linked lists.
+	 */
+	private static class Head<T> {
+
+		private final int shard;
+
+		private final Iterator<T> rows;
+
+		private T row;
+
+		Head(int shard, Iterator<T> rows) {
+			this.shard = shard;
+			this.rows = rows;
+			this.row = rows.next();
+		}
+
+		boolean next() {
+			if (!rows.hasNext())
+				return false;
+			row = rows.next();
+			return true;
+		}
+	}
+}
@@ -17,6 +17,7 @@ package org.rex.db.transaction;
 
 import java.sql.Connection;
 
+import org.rex.db.cache.ResultCacheManager;
 import org.rex.db.configuration.Configuration;
 import org.rex.db.exception.DBException;
 import org.rex.db.listener.ListenerManager;
@@ -61,6 +62,7 @@ public abstract class AbstractTransactionManager implements TransactionManager {
 			throw new DBException("DB-C10023", e, e.getMessage());
 		}finally {
 			afterCompletion();
+			getResultCacheManager().afterTransaction();
 		}
 	}
 	
@@ -77,6 +79,7 @@ public abstract class AbstractTransactionManager implements TransactionManager {
 			throw new DBException("DB-C10024", e, e.getMessage());
 		}finally {
 			afterCompletion();
+			getResultCacheManager().afterTransaction();
 		}
 	}
 	
@@ -122,6 +125,10 @@ public abstract class AbstractTransactionManager implements TransactionManager {
 		return Configuration.getCurrentConfiguration().getListenerManager();
 	}
 	
+	private ResultCacheManager getResultCacheManager() throws DBException{
+		return Configuration.getCurrentConfiguration().getResultCacheManager();
+	}
+	
 	//----------------------------------abstract
 
 	/**
@@ -0,0 +1,497 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * Streams LOB values without reading them into arrays, and binds stream parameters.
+ * <p>
+ * Streams and channels that are opened from a ResultSet are valid until the cursor moves to the next row.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class LobUtil {
+
+	/**
+	 * Size of the buffers used for transferring.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// -----------views
+	/**
+	 * Returns a channel that reads the BLOB.
+	 */
+	public static ReadableByteChannel openChannel(Blob blob) throws DBException {
+		if (blob == null)
+			return null;
+		try {
+			return Channels.newChannel(blob.getBinaryStream());
+		} catch (SQLException e) {
+			throw new DBException("DB-ULB01", e, e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns a channel that reads the binary column of the current row, starting from 1.
+	 */
+	public static ReadableByteChannel openChannel(ResultSet rs, int column) throws DBException {
+		try {
+			InputStream in = rs.getBinaryStream(column);
+			return in == null ? null : Channels.newChannel(in);
+		} catch (SQLException e) {
+			throw new DBException("DB-ULB01", e, e.getMessage());
+		}
+	}
+
+	// -----------transfer binary
+	/**
+	 * Transfers the BLOB to the file channel at its current position, returns the number of bytes transferred.
+	 */
+	public static long transfer(Blob blob, FileChannel target) throws DBException {
+		return transfer(openChannel(blob), target);
+	}
+
+	/**
+	 * Transfers the BLOB to the output stream, returns the number of bytes transferred.
+	 */
+	public static long transfer(Blob blob, OutputStream target) throws DBException {
+		return transfer(openChannel(blob), Channels.newChannel(target));
+	}
+
+	/**
+	 * Transfers the binary column of the current row to the file channel at its current position, returns the number of bytes transferred.
+	 */
+	public static long transfer(ResultSet rs, int column, FileChannel target) throws DBException {
+		return transfer(openChannel(rs, column), target);
+	}
+
+	/**
+	 * Transfers the binary column of the current row to the output stream, returns the number of bytes transferred.
+	 */
+	public static long transfer(ResultSet rs, int column, OutputStream target) throws DBException {
+		return transfer(openChannel(rs, column), Channels.newChannel(target));
+	}
+
+	/**
+	 * Transfers all bytes of the channel to the file channel at its current position, and closes the source channel.
+	 */
+	public static long transfer(ReadableByteChannel source, FileChannel target) throws DBException {
+		if (source == null)
+			return 0;
+		try {
+			long position = target.position();
+			long total = 0;
+			long count;
+			while ((count = target.transferFrom(source, position + total, BUFFER_SIZE)) > 0) {
+				total += count;
+			}
+			target.position(position + total);
+			return total;
+		} catch (IOException e) {
+			throw new DBException("DB-ULB02", e, e.getMessage());
+		} finally {
+			close(source);
+		}
+	}
+
+	/**
+	 * Transfers all bytes of the channel to the target channel through a heap buffer, and closes the source channel.
+	 * The channels wrapped from JDBC streams copy through arrays, so a direct buffer would only add an extra copy and off-heap allocation.
+	 */
+	public static long transfer(ReadableByteChannel source, WritableByteChannel target) throws DBException {
+		if (source == null)
+			return 0;
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			long total = 0;
+			while (source.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining())
+					total += target.write(buffer);
+				buffer.clear();
+			}
+			return total;
+		} catch (IOException e) {
+			throw new DBException("DB-ULB02", e, e.getMessage());
+		} finally {
+			close(source);
+		}
+	}
+
+	// -----------transfer characters
+	/**
+	 * Transfers the CLOB to the writer, returns the number of characters transferred.
+	 */
+	public static long transfer(Clob clob, Writer target) throws DBException {
+		if (clob == null)
+			return 0;
+		try {
+			return transfer(clob.getCharacterStream(), target);
+		} catch (SQLException e) {
+			throw new DBException("DB-ULB01", e, e.getMessage());
+		}
+	}
+
+	/**
+	 * Transfers the character column of the current row to the writer, returns the number of characters transferred.
+	 */
+	public static long transfer(ResultSet rs, int column, Writer target) throws DBException {
+		try {
+			return transfer(rs.getCharacterStream(column), target);
+		} catch (SQLException e) {
+			throw new DBException("DB-ULB01", e, e.getMessage());
+		}
+	}
+
+	/**
+	 * Transfers all characters of the reader to the writer through a fixed-size buffer, and closes the reader.
+	 */
+	public static long transfer(Reader source, Writer target) throws DBException {
+		if (source == null)
+			return 0;
+		try {
+			char[] buffer = new char[BUFFER_SIZE / 2];
+			long total = 0;
+			int count;
+			while ((count = source.read(buffer)) != -1) {
+				target.write(buffer, 0, count);
+				total += count;
+			}
+			target.flush();
+			return total;
+		} catch (IOException e) {
+			throw new DBException("DB-ULB02", e, e.getMessage());
+		} finally {
+			try {
+				source.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	// -----------binding
+	/**
+	 * Returns true if the parameter value should be bound as a stream.
+	 */
+	public static boolean isStream(Object value) {
+		return value instanceof InputStream || value instanceof Reader || value instanceof ByteBuffer 
+				|| value instanceof File || value instanceof SizedStream;
+	}
+
+	/**
+	 * Returns the SQL type of the stream parameter.
+	 */
+	public static int getSqlType(Object value) {
+		if (value instanceof Reader || (value instanceof SizedStream && ((SizedStream) value).getStream() instanceof Reader))
+			return Types.LONGVARCHAR;
+		return Types.LONGVARBINARY;
+	}
+
+	/**
+	 * Binds the stream parameter, the length is sent to the driver if it's known. Streams of unknown length are read into memory 
+	 * for JDBC 3 drivers, which can only bind a stream with its length.
+	 * <p>
+	 * Files are streamed with their length and closed when the driver has read them, heap ByteBuffers are read from their backing arrays.
+	 */
+	public static void setStream(PreparedStatement preparedStatement, int index, Object value) throws SQLException {
+		if (value instanceof SizedStream) {
+			SizedStream sized = (SizedStream) value;
+			if (sized.getStream() instanceof Reader)
+				setCharacterStream(preparedStatement, index, (Reader) sized.getStream(), sized.getLength());
+			else
+				setBinaryStream(preparedStatement, index, (InputStream) sized.getStream(), sized.getLength());
+
+		} else if (value instanceof FileInputStream) {
+			FileInputStream in = (FileInputStream) value;
+			long length;
+			try {
+				FileChannel channel = in.getChannel();
+				length = channel.size() - channel.position();
+			} catch (IOException e) {
+				throw new SQLException("could not read the length of the file stream, " + e.getMessage(), e);
+			}
+			setBinaryStream(preparedStatement, index, in, length);
+
+		} else if (value instanceof InputStream) {
+			try {
+				preparedStatement.setBinaryStream(index, (InputStream) value);
+			} catch (AbstractMethodError e) {//JDBC 3 drivers require the length
+				byte[] bytes = readBytes((InputStream) value);
+				preparedStatement.setBinaryStream(index, new ByteArrayInputStream(bytes), bytes.length);
+			}
+
+		} else if (value instanceof Reader) {
+			try {
+				preparedStatement.setCharacterStream(index, (Reader) value);
+			} catch (AbstractMethodError e) {//JDBC 3 drivers require the length
+				char[] chars = readChars((Reader) value);
+				preparedStatement.setCharacterStream(index, new CharArrayReader(chars), chars.length);
+			}
+
+		} else if (value instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) value;
+			setBinaryStream(preparedStatement, index, newInputStream(buffer), buffer.remaining());
+
+		} else if (value instanceof File) {
+			File file = (File) value;
+			try {
+				long length = file.length();
+				setBinaryStream(preparedStatement, index, new FileStream(file, length), length);
+			} catch (IOException e) {
+				throw new SQLException("could not read the file " + file + ", " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Maps the file read-only into memory, the mapping is still valid after the channel has been closed. 
+	 * The mapping is released when the buffer is garbage collected, so large files should rather be bound as Files.
+	 */
+	public static MappedByteBuffer map(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns a stream that reads the remaining bytes of the buffer, the position of the buffer is not changed.
+	 */
+	public static InputStream newInputStream(ByteBuffer buffer) {
+		if (buffer.hasArray())
+			return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		return new ByteBufferInputStream(buffer.duplicate());
+	}
+
+	private static void setBinaryStream(PreparedStatement preparedStatement, int index, InputStream in, long length) throws SQLException {
+		if (length <= Integer.MAX_VALUE)
+			preparedStatement.setBinaryStream(index, in, (int) length);
+		else
+			try {
+				preparedStatement.setBinaryStream(index, in, length);
+			} catch (AbstractMethodError e) {
+				throw new SQLException("the JDBC driver does not support streams larger than 2GB.");
+			}
+	}
+
+	private static void setCharacterStream(PreparedStatement preparedStatement, int index, Reader reader, long length) throws SQLException {
+		if (length <= Integer.MAX_VALUE)
+			preparedStatement.setCharacterStream(index, reader, (int) length);
+		else
+			try {
+				preparedStatement.setCharacterStream(index, reader, length);
+			} catch (AbstractMethodError e) {
+				throw new SQLException("the JDBC driver does not support streams larger than 2GB.");
+			}
+	}
+
+	// -----------private methods
+	/**
+	 * Reads the stream of unknown length into memory, for drivers that can't bind a stream without its length.
+	 */
+	private static byte[] readBytes(InputStream in) throws SQLException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int count;
+			while ((count = in.read(buffer)) != -1)
+				out.write(buffer, 0, count);
+		} catch (IOException e) {
+			throw new SQLException("could not read the stream parameter, " + e.getMessage(), e);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Reads the reader of unknown length into memory, for drivers that can't bind a reader without its length.
+	 */
+	private static char[] readChars(Reader reader) throws SQLException {
+		CharArrayWriter out = new CharArrayWriter();
+		try {
+			char[] buffer = new char[BUFFER_SIZE / 2];
+			int count;
+			while ((count = reader.read(buffer)) != -1)
+				out.write(buffer, 0, count);
+		} catch (IOException e) {
+			throw new SQLException("could not read the reader parameter, " + e.getMessage(), e);
+		}
+		return out.toCharArray();
+	}
+
+	private static void close(ReadableByteChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+		}
+	}
+
+	// -----------inner classes
+	/**
+	 * InputStream or Reader parameter with a known length.
+	 */
+	public static class SizedStream {
+
+		private final Object stream;
+
+		private final long length;
+
+		public SizedStream(InputStream stream, long length) {
+			this.stream = stream;
+			this.length = length;
+		}
+
+		public SizedStream(Reader stream, long length) {
+			this.stream = stream;
+			this.length = length;
+		}
+
+		public Object getStream() {
+			return stream;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public String toString() {
+			return "stream[length=" + length + "]";
+		}
+	}
+
+	/**
+	 * Reads a file parameter, and closes the file when the bound length has been read, so that the file isn't kept open 
+	 * until the stream is garbage collected. The file is also closed at the end of the file, or when the driver closes the stream.
+	 */
+	private static class FileStream extends FileInputStream {
+
+		private long remaining;
+
+		FileStream(File file, long length) throws IOException {
+			super(file);
+			this.remaining = length;
+			if (remaining <= 0)
+				close();
+		}
+
+		public int read() throws IOException {
+			if (remaining <= 0)
+				return -1;
+			int b = super.read();
+			consumed(b == -1 ? -1 : 1);
+			return b;
+		}
+
+		public int read(byte[] b) throws IOException {
+			return read(b, 0, b.length);
+		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (remaining <= 0)
+				return -1;
+			int n = super.read(b, off, (int) Math.min(len, remaining));
+			consumed(n);
+			return n;
+		}
+
+		public long skip(long n) throws IOException {
+			if (remaining <= 0)
+				return 0;
+			long skipped = super.skip(Math.min(n, remaining));
+			consumed(skipped);
+			return skipped;
+		}
+
+		public int available() throws IOException {
+			return remaining <= 0 ? 0 : (int) Math.min(super.available(), remaining);
+		}
+
+		private void consumed(long n) throws IOException {
+			if (n < 0)
+				remaining = 0;
+			else
+				remaining -= n;
+			if (remaining <= 0)
+				close();
+		}
+	}
+
+	/**
+	 * Reads a direct or mapped buffer.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
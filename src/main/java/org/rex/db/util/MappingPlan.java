@@ -0,0 +1,361 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.rex.CompactRMap;
+import org.rex.db.exception.DBException;
+import org.rex.db.logger.Logger;
+import org.rex.db.logger.LoggerFactory;
+
+/**
+ * Precomputed mapping of a ResultSet shape to a result class, which is shared by all queries
+ * that return the same columns for the same class.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class MappingPlan {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappingPlan.class);
+
+	/**
+	 * Maximum number of cached plans, the cache will be cleared if it grows larger.
+	 */
+	private static final int MAX_CACHED_PLANS = 2048;
+
+	private static final Map<Shape, MappingPlan> plans = new ConcurrentHashMap<Shape, MappingPlan>();
+
+	//-----------column shape
+	private final String[] labels;
+
+	private final int[] types;
+
+	private final String[] labelsRenamed;
+
+	/**
+	 * Only columns with the prefix are mapped, or null to map all columns.
+	 */
+	private final String prefix;
+
+	//-----------writers for the result class
+	private final Class<?> resultClass;
+
+	private Method[] writers;
+
+	private Field[] fields;
+
+	private Class<?>[] javaTypes;
+
+	//-----------constructor for immutable result classes
+	private ResultConstructor constructor;
+
+	private int[] parameterIndexes;
+
+	/**
+	 * Shape of the ResultSet that the plan is created for.
+	 */
+	private Shape shape;
+
+	/**
+	 * Key dictionary shared by the map rows.
+	 */
+	private volatile CompactRMap.Keys keys;
+
+	private MappingPlan(Class<?> resultClass, String prefix, String[] labels, int[] types) throws DBException {
+		this.resultClass = resultClass;
+		this.prefix = prefix;
+		this.labels = labels;
+		this.types = types;
+		this.labelsRenamed = new String[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			if(prefix == null)
+				labelsRenamed[i] = renameLabel(labels[i]);
+			else if(labels[i].length() > prefix.length() && labels[i].regionMatches(true, 0, prefix, 0, prefix.length()))
+				labelsRenamed[i] = renameLabel(labels[i].substring(prefix.length()));
+		}
+
+		if(resultClass != null){
+			constructor = ReflectUtil.getResultConstructor(resultClass);
+			if(constructor != null)
+				createParameters();
+			else
+				createWriters(resultClass);
+		}
+	}
+
+	//-----------cache
+	/**
+	 * Returns the plan for the shape of the given ResultSet and the result class, the result class is null for maps.
+	 */
+	public static MappingPlan getPlan(ResultSet rs, Class<?> resultClass) throws DBException {
+		return getPlan(rs, resultClass, null);
+	}
+
+	/**
+	 * Returns the plan that maps columns with the given prefix to the result class, the prefix is removed before the columns are renamed.
+	 * For example, column ITEM_NAME is mapped to property name with prefix ITEM_.
+	 */
+	public static MappingPlan getPlan(ResultSet rs, Class<?> resultClass, String prefix) throws DBException {
+		String[] labels;
+		int[] types;
+		try {
+			ResultSetMetaData meta = rs.getMetaData();
+			int c = meta.getColumnCount();
+			labels = new String[c];
+			types = new int[c];
+			for (int i = 0; i < c; i++) {
+				labels[i] = meta.getColumnLabel(i + 1);
+				types[i] = meta.getColumnType(i + 1);
+			}
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR01", e, e.getMessage());
+		}
+
+		Shape shape = new Shape(resultClass, prefix, labels, types);
+		MappingPlan plan = plans.get(shape);
+		if(plan == null){
+			plan = new MappingPlan(resultClass, prefix, labels, types);
+			plan.shape = shape;
+			if(plans.size() >= MAX_CACHED_PLANS){
+				LOGGER.warn("mapping plans exceed {0}, cache has been cleared.", MAX_CACHED_PLANS);
+				plans.clear();
+			}
+			plans.put(shape, plan);
+
+			if(LOGGER.isDebugEnabled())
+				LOGGER.debug("mapping plan for {0} of columns {1} created.", resultClass == null ? "map" : resultClass.getName(), Arrays.toString(labels));
+		}
+		return plan;
+	}
+
+	/**
+	 * Clears all cached plans.
+	 */
+	public static void clearCache(){
+		plans.clear();
+	}
+
+	//-----------getters
+	public Class<?> getResultClass() {
+		return resultClass;
+	}
+
+	/**
+	 * Returns the key of the ResultSet shape, which equals the key of other plans for the same shape, 
+	 * even if they were created after the cache had been cleared.
+	 */
+	public Object getShape() {
+		return shape;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public int getColumnCount() {
+		return labels.length;
+	}
+
+	public String[] getLabels() {
+		return labels;
+	}
+
+	public int[] getTypes() {
+		return types;
+	}
+
+	/**
+	 * Returns the renamed labels, the label is null if the plan has a prefix and the column doesn't start with it.
+	 */
+	public String[] getLabelsRenamed() {
+		return labelsRenamed;
+	}
+
+	/**
+	 * Returns writers of the result class in column order, the writer is null if the column is not mapped.
+	 */
+	public Method[] getWriters() {
+		return writers;
+	}
+
+	/**
+	 * Returns fields of the result class in column order if the class is mapped by fields, otherwise null.
+	 */
+	public Field[] getFields() {
+		return fields;
+	}
+
+	/**
+	 * Returns the constructor if the result class is immutable, or null if the result class is populated by its writers.
+	 */
+	public ResultConstructor getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * Returns positions of the constructor parameters in column order, the position is -1 if the column is not mapped.
+	 */
+	public int[] getParameterIndexes() {
+		return parameterIndexes;
+	}
+
+	/**
+	 * Returns java types of the writers or the constructor parameters in column order.
+	 */
+	public Class<?>[] getJavaTypes() {
+		return javaTypes;
+	}
+
+	/**
+	 * Returns the key dictionary for map rows, keys are the renamed labels.
+	 */
+	public CompactRMap.Keys getKeys() {
+		if(keys == null)
+			keys = new CompactRMap.Keys(labelsRenamed);
+		return keys;
+	}
+
+	//-----------private methods
+	private void createWriters(Class<?> resultClass) throws DBException {
+		if(ReflectUtil.isFieldAccess(resultClass)){
+			createFields(resultClass);
+			return;
+		}
+		
+		Map<String, Method> allWriters = ReflectUtil.getWriteableMethods(resultClass);
+		Map<String, Class<?>> allTypes = ReflectUtil.getParameterTypes(resultClass);
+
+		writers = new Method[labels.length];
+		javaTypes = new Class<?>[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			Method writer = allWriters.get(labelsRenamed[i]);
+			if(writer == null) continue;
+
+			Class<?> type = allTypes.get(labelsRenamed[i]);
+			writers[i] = writer;
+			javaTypes[i] = type == null ? writer.getParameterTypes()[0] : type;
+		}
+	}
+
+	private void createFields(Class<?> resultClass) {
+		Map<String, Field> allFields = ReflectUtil.getFields(resultClass);
+
+		writers = new Method[labels.length];
+		fields = new Field[labels.length];
+		javaTypes = new Class<?>[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			Field field = allFields.get(labelsRenamed[i]);
+			if(field == null || Modifier.isFinal(field.getModifiers())) continue;
+
+			fields[i] = field;
+			javaTypes[i] = field.getType();
+		}
+	}
+
+	private void createParameters() {
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		parameterIndexes = new int[labels.length];
+		javaTypes = new Class<?>[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			parameterIndexes[i] = constructor.indexOf(labelsRenamed[i]);
+			if(parameterIndexes[i] != -1)
+				javaTypes[i] = parameterTypes[parameterIndexes[i]];
+		}
+	}
+
+	/**
+	 * Converts the column name to java-style naming.
+	 * sample: CJXM_DM->cjxmDm;AA_BB_CC->aaBbCc
+	 */
+	static String renameLabel(String label) {
+		StringBuilder result = new StringBuilder(label.length());
+		char[] chars = label.toCharArray();
+		boolean last_ = false;
+		for (int i = 0; i < chars.length; i++) {
+			if (chars[i] == '_') {
+				last_ = true;
+				continue;
+			}
+
+			if (last_) {
+				last_ = false;
+				result.append(Character.toUpperCase(chars[i]));
+			} else
+				result.append(Character.toLowerCase(chars[i]));
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Converts the java-style name to the column name, which is the inverse of renameLabel. Names without lower case letters are not changed.
+	 * sample: cjxmDm->CJXM_DM;aaBbCc->AA_BB_CC;AA_BB->AA_BB
+	 */
+	public static String toColumnName(String name) {
+		StringBuilder result = new StringBuilder(name.length() + 4);
+		char[] chars = name.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			if (i > 0 && Character.isUpperCase(chars[i]) && (Character.isLowerCase(chars[i - 1]) || Character.isDigit(chars[i - 1])))
+				result.append('_');
+			result.append(Character.toUpperCase(chars[i]));
+		}
+
+		return result.toString();
+	}
+
+	//-----------cache key
+	private static class Shape {
+
+		private final Class<?> resultClass;
+		private final String prefix;
+		private final String[] labels;
+		private final int[] types;
+		private final int hash;
+
+		Shape(Class<?> resultClass, String prefix, String[] labels, int[] types){
+			this.resultClass = resultClass;
+			this.prefix = prefix;
+			this.labels = labels;
+			this.types = types;
+			this.hash = 31 * (31 * (31 * (resultClass == null ? 0 : resultClass.hashCode()) + (prefix == null ? 0 : prefix.hashCode()))
+					+ Arrays.hashCode(labels)) + Arrays.hashCode(types);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Shape))
+				return false;
+			Shape other = (Shape) obj;
+			return hash == other.hash && resultClass == other.resultClass
+					&& (prefix == null ? other.prefix == null : prefix.equals(other.prefix)) && Arrays.equals(types, other.types) && Arrays.equals(labels, other.labels);
+		}
+	}
+}
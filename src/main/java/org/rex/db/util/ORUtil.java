@@ -15,17 +15,23 @@
  */
 package org.rex.db.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
-import java.util.Map;
 
+import org.rex.CompactRMap;
 import org.rex.RMap;
 import org.rex.db.exception.DBException;
 
@@ -37,102 +43,373 @@ import org.rex.db.exception.DBException;
  */
 public class ORUtil {
 
-	// -----------temporary caches
-	private String[] rsLabels;
-	private int[] rsTypes;
-	private String[] rsLabelsRenamed;
+	// -----------mapping plan of the current ResultSet
+	private MappingPlan plan;
 	
 	//------------
+	public MappingPlan getMappingPlan(ResultSet rs, Class<?> resultClass) throws DBException{
+		return getMappingPlan(rs, resultClass, null);
+	}
+	
+	/**
+	 * Returns the plan that maps columns with the given prefix to the result class, or all columns if the prefix is null.
+	 */
+	public MappingPlan getMappingPlan(ResultSet rs, Class<?> resultClass, String prefix) throws DBException{
+		if (plan == null || plan.getResultClass() != resultClass 
+				|| (prefix == null ? plan.getPrefix() != null : !prefix.equals(plan.getPrefix())))
+			plan = MappingPlan.getPlan(rs, resultClass, prefix);
+		return plan;
+	}
+	
 	public String[] getResultSetLabels(ResultSet rs) throws DBException{
-		readRsMeta(rs);
-		return rsLabels;
+		return readRsMeta(rs).getLabels();
 	}
 	
 	public int[] getResultSetTypes(ResultSet rs) throws DBException{
-		readRsMeta(rs);
-		return rsTypes;
+		return readRsMeta(rs).getTypes();
 	}
 	
 	public String[] getResultSetLabelsRenamed(ResultSet rs) throws DBException{
-		readRsMeta(rs);
-		return rsLabelsRenamed;
+		return readRsMeta(rs).getLabelsRenamed();
 	}
 	
 	// -----------ResultSet -> map
 	public RMap<String, ?> rs2Map(ResultSet rs) throws DBException {
-		readRsMeta(rs);
-		RMap<String, Object> results = new RMap<String, Object>();
-		for (int i = 0; i < rsLabels.length; i++) {
+		MappingPlan plan = readRsMeta(rs);
+		int[] rsTypes = plan.getTypes();
+		String[] keys = plan.getLabelsRenamed();
+		
+		RMap<String, Object> results = newMap(plan);
+		for (int i = 0; i < rsTypes.length; i++) {
 			try {
-				results.put(rsLabelsRenamed[i], getValue(rs, rsLabels[i], rsTypes[i]));
+				results.put(keys[i], getValue(rs, i + 1, rsTypes[i]));
 			} catch (SQLException e) {
-				throw new DBException("UOR06", e, rsLabels[i], e.getMessage());
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
 			}
 		}
 		return results;
 	}
 
 	// -----------ResultSet -> object
-	public <T> T rs2Object(ResultSet rs, T bean) throws DBException {
-		readRsMeta(rs);
-		Class<?> beanClass = bean.getClass();
-		Map<String, Method> writers = ReflectUtil.getWriteableMethods(beanClass);
-		Map<String, Class<?>> types = ReflectUtil.getParameterTypes(beanClass);
-		for (int i = 0; i < rsLabels.length; i++) {
-			Method writer = writers.get(rsLabelsRenamed[i]);
-			if(writer == null) continue;
-			Class<?> type = types.get(rsLabelsRenamed[i]);
-			if(type == null){
-				type = writer.getParameterTypes()[0];
-				if(type == null) continue;
-				else{
-					types.put(rsLabelsRenamed[i], type);
-				}
+	/**
+	 * Creates an instance of the result class for the current row, immutable classes are created by their constructors.
+	 */
+	public <T> T rs2Instance(ResultSet rs, Class<T> resultClass) throws DBException {
+		return (T) rs2Instance(rs, getMappingPlan(rs, resultClass));
+	}
+
+	/**
+	 * Creates an instance of the result class of the plan for the current row.
+	 */
+	public Object rs2Instance(ResultSet rs, MappingPlan plan) throws DBException {
+		ResultConstructor constructor = plan.getConstructor();
+		if (constructor == null)
+			return rs2Object(rs, ReflectUtil.instance(plan.getResultClass()), plan);
+
+		int[] parameterIndexes = plan.getParameterIndexes();
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] rsTypes = plan.getTypes();
+		Object[] args = constructor.newArguments();
+		for (int i = 0; i < parameterIndexes.length; i++) {
+			if(parameterIndexes[i] == -1) continue;
+
+			Object value = null;
+			try {
+				value = getValue(rs, i + 1, rsTypes[i], javaTypes[i]);
+			} catch (SQLException e) {
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
 			}
+			if (value != null || !javaTypes[i].isPrimitive())
+				args[parameterIndexes[i]] = value;
+		}
+		return constructor.newInstance(args);
+	}
+
+	public <T> T rs2Object(ResultSet rs, T bean) throws DBException {
+		return rs2Object(rs, bean, getMappingPlan(rs, bean.getClass()));
+	}
+
+	private <T> T rs2Object(ResultSet rs, T bean, MappingPlan plan) throws DBException {
+		Method[] writers = plan.getWriters();
+		Field[] fields = plan.getFields();
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] rsTypes = plan.getTypes();
+		
+		for (int i = 0; i < writers.length; i++) {
+			if(writers[i] == null && (fields == null || fields[i] == null)) continue;
 			
 			Object value = null;
 			try {
-				value = getValue(rs, rsLabels[i], rsTypes[i], type);
+				value = getValue(rs, i + 1, rsTypes[i], javaTypes[i]);
 			} catch (SQLException e) {
-				throw new DBException("UOR06", e, rsLabels[i], e.getMessage());
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
 			}
-			ReflectUtil.invokeMethod(bean, writer, value);
+			if(writers[i] != null)
+				ReflectUtil.invokeMethod(bean, writers[i], value);
+			else
+				ReflectUtil.setField(bean, fields[i], value);
+		}
+		return bean;
+	}
+
+	// -----------buffered rows, which are decoded in other threads
+	/**
+	 * Copies values of the mapped columns in the current row into the buffer, without converting them.
+	 * Dates are copied as Timestamp. LOBs are read into byte arrays and strings, because the locators may only be valid 
+	 * in the reading thread until the cursor moves, unless they are mapped to Blob and Clob properties.
+	 * 
+	 * @param buffer buffer of the previous row, which is reused if it's large enough.
+	 */
+	public Object[] copyRow(ResultSet rs, MappingPlan plan, Object[] buffer) throws DBException {
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		int[] rsTypes = plan.getTypes();
+		if (buffer == null || buffer.length != rsTypes.length)
+			buffer = new Object[rsTypes.length];
+
+		for (int i = 0; i < rsTypes.length; i++) {
+			if (javaTypes[i] == null) continue;
+			try {
+				switch (rsTypes[i]) {
+				case Types.DATE:
+				case Types.TIME:
+				case Types.TIMESTAMP:
+					buffer[i] = rs.getTimestamp(i + 1);
+					break;
+				case Types.BLOB:
+					buffer[i] = javaTypes[i] == Blob.class ? rs.getBlob(i + 1) : readBlob(rs, i + 1);
+					break;
+				case Types.CLOB:
+					buffer[i] = javaTypes[i] == Clob.class ? rs.getClob(i + 1) : readClob(rs, i + 1);
+					break;
+				default:
+					buffer[i] = rs.getObject(i + 1);
+				}
+			} catch (SQLException e) {
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * Copies values of all columns in the current row into the buffer, which are read as {@link #rs2Map(ResultSet)} does.
+	 * 
+	 * @param buffer buffer of the previous row, which is reused if it's large enough.
+	 */
+	public Object[] copyMapRow(ResultSet rs, MappingPlan plan, Object[] buffer) throws DBException {
+		int[] rsTypes = plan.getTypes();
+		if (buffer == null || buffer.length != rsTypes.length)
+			buffer = new Object[rsTypes.length];
+
+		for (int i = 0; i < rsTypes.length; i++) {
+			try {
+				buffer[i] = getValue(rs, i + 1, rsTypes[i]);
+			} catch (SQLException e) {
+				throw new DBException("DB-UOR06", e, plan.getLabels()[i], e.getMessage());
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * Creates an instance of the result class of the plan from a copied row, which can be called by any thread.
+	 */
+	public Object row2Instance(Object[] row, MappingPlan plan) throws DBException {
+		Class<?>[] javaTypes = plan.getJavaTypes();
+		String[] labels = plan.getLabels();
+		ResultConstructor constructor = plan.getConstructor();
+		if (constructor != null) {
+			int[] parameterIndexes = plan.getParameterIndexes();
+			Object[] args = constructor.newArguments();
+			for (int i = 0; i < parameterIndexes.length; i++) {
+				if (parameterIndexes[i] == -1) continue;
+
+				Object value = convertValue(row[i], javaTypes[i], labels[i]);
+				if (value != null || !javaTypes[i].isPrimitive())
+					args[parameterIndexes[i]] = value;
+			}
+			return constructor.newInstance(args);
+		}
+
+		Object bean = ReflectUtil.instance(plan.getResultClass());
+		Method[] writers = plan.getWriters();
+		Field[] fields = plan.getFields();
+		for (int i = 0; i < writers.length; i++) {
+			if (writers[i] == null && (fields == null || fields[i] == null)) continue;
+
+			Object value = convertValue(row[i], javaTypes[i], labels[i]);
+			if (writers[i] != null) {
+				if (value != null || !javaTypes[i].isPrimitive())
+					ReflectUtil.invokeMethod(bean, writers[i], value);
+			} else
+				ReflectUtil.setField(bean, fields[i], value);
 		}
 		return bean;
 	}
 
+	/**
+	 * Creates a map of the plan from a copied row, which can be called by any thread.
+	 */
+	public RMap<String, ?> row2Map(Object[] row, MappingPlan plan) {
+		String[] keys = plan.getLabelsRenamed();
+		RMap<String, Object> results = newMap(plan);
+		for (int i = 0; i < row.length; i++) {
+			results.put(keys[i], row[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the value of a NULL column for the java type.
+	 */
+	private static Object getNullValue(Class<?> javaType) {
+		if (javaType == Integer.class || javaType == int.class)
+			return Integer.valueOf(0);
+		else if (javaType == Long.class || javaType == long.class)
+			return Long.valueOf(0);
+		else if (javaType == Double.class || javaType == double.class)
+			return Double.valueOf(0);
+		else if (javaType == Float.class || javaType == float.class)
+			return Float.valueOf(0);
+		else if (javaType == Short.class || javaType == short.class)
+			return Short.valueOf((short) 0);
+		else if (javaType == Byte.class || javaType == byte.class)
+			return Byte.valueOf((byte) 0);
+		else if (javaType == Boolean.class || javaType == boolean.class)
+			return Boolean.FALSE;
+		return null;
+	}
+
+	/**
+	 * Creates a map row of the plan, which shares the keys of the plan if CompactRMap is supported by the runtime, 
+	 * otherwise it's sized to hold the columns without rehashing.
+	 */
+	private static RMap<String, Object> newMap(MappingPlan plan) {
+		if (CompactRMap.isSupported())
+			return new CompactRMap(plan.getKeys());
+		return new RMap<String, Object>(plan.getColumnCount() * 4 / 3 + 1);
+	}
+
+	/**
+	 * Converts a copied column value to the given java type. NULL is converted to 0 or false for numeric and boolean types,
+	 * as the columns are read by {@link #getValue(ResultSet, int, int, Class)}.
+	 */
+	public static Object convertValue(Object value, Class<?> javaType, String label) throws DBException {
+		if (value == null)
+			return getNullValue(javaType);
+		if (javaType == Object.class)
+			return value;
+
+		try {
+			if (value instanceof Number) {
+				Number number = (Number) value;
+				if (javaType == Integer.class || javaType == int.class)
+					return number.intValue();
+				else if (javaType == Long.class || javaType == long.class)
+					return number.longValue();
+				else if (javaType == Double.class || javaType == double.class)
+					return number.doubleValue();
+				else if (javaType == Float.class || javaType == float.class)
+					return number.floatValue();
+				else if (javaType == Short.class || javaType == short.class)
+					return number.shortValue();
+				else if (javaType == Byte.class || javaType == byte.class)
+					return number.byteValue();
+				else if (javaType == BigDecimal.class)
+					return number instanceof BigDecimal ? number : new BigDecimal(number.toString());
+				else if (javaType == Boolean.class || javaType == boolean.class)
+					return number.intValue() != 0;
+				else if (javaType == String.class)
+					return number instanceof BigDecimal ? ((BigDecimal) number).toPlainString() : number.toString();
+			} else if (value instanceof Boolean) {
+				if (javaType == Boolean.class || javaType == boolean.class)
+					return value;
+				else if (javaType == String.class)
+					return value.toString();
+			} else if (value instanceof java.util.Date) {
+				long time = ((java.util.Date) value).getTime();
+				if (javaType == java.util.Date.class)
+					return new java.util.Date(time);
+				else if (javaType == Timestamp.class)
+					return value instanceof Timestamp ? value : new Timestamp(time);
+				else if (javaType == java.sql.Date.class)
+					return new java.sql.Date(time);
+				else if (javaType == java.sql.Time.class)
+					return new java.sql.Time(time);
+			} else if (value instanceof Clob) {
+				Clob clob = (Clob) value;
+				if (javaType == String.class)
+					return clob.getSubString(1, (int) clob.length());
+				else if (javaType == StringBuffer.class)
+					return new StringBuffer(clob.getSubString(1, (int) clob.length()));
+				else if (javaType == Reader.class)
+					return clob.getCharacterStream();
+				else if (javaType.isArray() && javaType.getComponentType() == byte.class)
+					return clob.getSubString(1, (int) clob.length()).getBytes();
+			} else if (value instanceof Blob) {
+				Blob blob = (Blob) value;
+				if (javaType.isArray() && javaType.getComponentType() == byte.class)
+					return blob.getBytes(1, (int) blob.length());
+				else if (javaType == InputStream.class)
+					return blob.getBinaryStream();
+				else if (javaType == ReadableByteChannel.class)
+					return LobUtil.openChannel(blob);
+			} else if (value instanceof byte[]) {
+				if (javaType == InputStream.class)
+					return new ByteArrayInputStream((byte[]) value);
+				else if (javaType == ReadableByteChannel.class)
+					return Channels.newChannel(new ByteArrayInputStream((byte[]) value));
+			} else if (value instanceof String) {
+				if (javaType == Reader.class)
+					return new StringReader((String) value);
+				else if (javaType == StringBuffer.class)
+					return new StringBuffer((String) value);
+				else if (javaType.isArray() && javaType.getComponentType() == byte.class)
+					return ((String) value).getBytes();
+			}
+		} catch (SQLException e) {
+			throw new DBException("DB-UOR06", e, label, e.getMessage());
+		}
+
+		if (javaType.isInstance(value))
+			return value;
+		if (javaType == String.class)
+			return value.toString();
+		throw new DBException("DB-UOR04", label, value.getClass().getName(), javaType.getName());
+	}
+
 	// -----------column value
 	/**
 	 * Retrieves the value of the designated column in the current row of this ResultSet object as the given SQL type.
 	 */
-	public Object getValue(ResultSet rs, String label, int type) throws SQLException, DBException {
+	public Object getValue(ResultSet rs, int column, int type) throws SQLException, DBException {
 		Object value = null;
 		switch (type) {
 			case Types.CHAR:
 			case Types.VARCHAR:
-				value = rs.getString(label);
+				value = rs.getString(column);
 				break;
 			case Types.INTEGER:
-				value = rs.getInt(label);
+				value = rs.getInt(column);
 				break;
 			case Types.DOUBLE:
-				value = rs.getDouble(label);
+				value = rs.getDouble(column);
 				break;
 			case Types.DATE:
 			case Types.TIMESTAMP:
 			case Types.TIME:
-				Timestamp timestamp = rs.getTimestamp(label);
+				Timestamp timestamp = rs.getTimestamp(column);
 				if (timestamp != null) 
 					value = new java.util.Date(timestamp.getTime());
 				break;
 			case Types.BLOB:
-				value = readBlob(rs, label);
+				value = readBlob(rs, column);
 				break;
 			case Types.CLOB:
-				value = readClob(rs, label);
+				value = readClob(rs, column);
 				break;
 			default:
-				value = rs.getObject(label);
+				value = rs.getObject(column);
 		}
 
 		return value;
@@ -140,30 +417,31 @@ public class ORUtil {
 	
 	/**
 	 * Retrieves the value of the designated column in the current row of this ResultSet object as the given java type.
+	 * LOB columns can be read as InputStream, ReadableByteChannel or Reader, which are valid until the cursor moves to the next row.
 	 */
-	public <T> T getValue(ResultSet rs, String label, int sqlType, Class<T> javaType) throws DBException, SQLException {
+	public <T> T getValue(ResultSet rs, int column, int sqlType, Class<T> javaType) throws DBException, SQLException {
 
 		if (javaType == Object.class)
-			return (T)rs.getObject(label);
+			return (T)rs.getObject(column);
 
 		Object value = null;
 		switch (sqlType) {
 		case Types.BOOLEAN:
 			if (javaType == boolean.class || javaType == Boolean.class)
-				value = new Boolean(rs.getBoolean(label));
+				value = new Boolean(rs.getBoolean(column));
 			else if (javaType == String.class)
-				value = rs.getString(label);
+				value = rs.getString(column);
 			else
-				throw new DBException("DB-UOR04", label, "sqlType.BOOLEAN", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.BOOLEAN", javaType.getName());
 			break;
 
 		case Types.CHAR:
 		case Types.VARCHAR:
 
 			if (javaType == String.class) {
-				value = rs.getString(label);
+				value = rs.getString(column);
 			} else
-				throw new DBException("DB-UOR04", label, "sqlType.CHAR|VARCHAR", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.CHAR|VARCHAR", javaType.getName());
 			break;
 
 		case Types.TINYINT:
@@ -179,42 +457,60 @@ public class ORUtil {
 		case Types.BIT:
 
 			if (javaType == Integer.class || javaType == int.class)
-				value = rs.getInt(label);
+				value = rs.getInt(column);
 			else if (javaType == String.class)
-				value = rs.getString(label);
+				value = rs.getString(column);
 			else if (javaType == Float.class || javaType == float.class)
-				value = rs.getFloat(label);
+				value = rs.getFloat(column);
 			else if (javaType == Double.class || javaType == double.class)
-				value = rs.getDouble(label);
+				value = rs.getDouble(column);
 			else if (javaType == Long.class || javaType == long.class)
-				value = rs.getLong(label);
+				value = rs.getLong(column);
 			else if (javaType == Short.class || javaType == short.class)
-				value = rs.getShort(label);
+				value = rs.getShort(column);
 			else if (javaType == BigDecimal.class)
-				value = rs.getBigDecimal(label);
+				value = rs.getBigDecimal(column);
 			else if (javaType == Byte.class || javaType == byte.class)
-				value = rs.getByte(label);
+				value = rs.getByte(column);
 			
 			else
-				throw new DBException("DB-UOR04", label, "sqlType.BIT|TINYINT|SMALLINT|INTEGER|BIGINT|REAL|FLOAT|DOUBLE|DECIMAL|NUMERIC", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.BIT|TINYINT|SMALLINT|INTEGER|BIGINT|REAL|FLOAT|DOUBLE|DECIMAL|NUMERIC", javaType.getName());
 			break;
 
 		case Types.BINARY:
 		case Types.VARBINARY:
 		case Types.LONGVARBINARY:
 			if (javaType.isArray() && javaType.getComponentType() == byte.class)
-				value = rs.getBytes(label);
+				value = rs.getBytes(column);
+			else if (javaType == InputStream.class)
+				value = rs.getBinaryStream(column);
+			else if (javaType == ReadableByteChannel.class)
+				value = LobUtil.openChannel(rs, column);
 			else
-				throw new DBException("DB-UOR04", label, "sqlType.BINARY|VARBINARY|LONGVARBINARY", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.BINARY|VARBINARY|LONGVARBINARY", javaType.getName());
 			break;
 		case Types.BLOB:
 			if (javaType.isArray() && javaType.getComponentType() == byte.class)
-				value = readBlob(rs, label);
+				value = readBlob(rs, column);
+			else if (javaType == InputStream.class)
+				value = rs.getBinaryStream(column);
+			else if (javaType == ReadableByteChannel.class)
+				value = LobUtil.openChannel(rs, column);
+			else if (javaType == Blob.class)
+				value = rs.getBlob(column);
 			else
-				throw new DBException("DB-UOR04", label, "sqlType.BLOB", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.BLOB", javaType.getName());
 			break;
 		case Types.CLOB:
-			String clob = readClob(rs, label);
+			if (javaType == Reader.class) {
+				value = rs.getCharacterStream(column);
+				break;
+			} else if (javaType == Clob.class) {
+				value = rs.getClob(column);
+				break;
+			}
+			
+			String clob = readClob(rs, column);
 			if (clob == null)
 				break;
 			if (javaType.isArray() && javaType.getComponentType() == byte.class){
@@ -224,39 +520,53 @@ public class ORUtil {
 			} else if (javaType == StringBuffer.class) {
 				value = new StringBuffer(clob);
 			} else
-				throw new DBException("DB-UOR04", label, "sqlType.CLOB", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.CLOB", javaType.getName());
 			break;
 		case Types.DATE:
 		case Types.TIMESTAMP:
 		case Types.TIME:
 			if (javaType == java.sql.Date.class)
-				value = rs.getDate(label);
+				value = rs.getDate(column);
 			else if (javaType == java.sql.Time.class)
-				value = rs.getTime(label);
+				value = rs.getTime(column);
 			else if (javaType == java.sql.Timestamp.class)
-				value = rs.getTimestamp(label);
+				value = rs.getTimestamp(column);
 			else if (javaType == java.util.Date.class) {
-				java.sql.Timestamp dateValue = rs.getTimestamp(label);
+				java.sql.Timestamp dateValue = rs.getTimestamp(column);
 				if (dateValue != null) {
 					value = new java.util.Date(dateValue.getTime());
 				}
 			} else
-				throw new DBException("DB-UOR04", label, "sqlType.DATE|TIMESTAMP|TIME", javaType.getName());
+				throw new DBException("DB-UOR04", getLabel(rs, column), "sqlType.DATE|TIMESTAMP|TIME", javaType.getName());
 			break;
 		default:
-			throw new DBException("DB-UOR05", label, sqlType);
+			throw new DBException("DB-UOR05", getLabel(rs, column), sqlType);
 		}
 
 		return (T)value;
 	}
 
+	/**
+	 * Retrieves the value of the labeled column in the current row of this ResultSet object as the given SQL type.
+	 */
+	public Object getValue(ResultSet rs, String label, int type) throws SQLException, DBException {
+		return getValue(rs, rs.findColumn(label), type);
+	}
+
+	/**
+	 * Retrieves the value of the labeled column in the current row of this ResultSet object as the given java type.
+	 */
+	public <T> T getValue(ResultSet rs, String label, int sqlType, Class<T> javaType) throws DBException, SQLException {
+		return getValue(rs, rs.findColumn(label), sqlType, javaType);
+	}
+
 
 	/**
 	 * Retrieves the value of the Clob column.
 	 */
-	private String readClob(ResultSet rs, String label) throws SQLException, DBException {
+	private String readClob(ResultSet rs, int column) throws SQLException, DBException {
 	    String value = null;
-	    Clob clob = rs.getClob(label);
+	    Clob clob = rs.getClob(column);
 	    if (clob != null) {
 	      int size = (int) clob.length();
 	      value = clob.getSubString(1, size);
@@ -267,8 +577,8 @@ public class ORUtil {
 	/**
 	 * Retrieves the value of the Blob column.
 	 */
-	private byte[] readBlob(ResultSet rs, String label) throws SQLException, DBException {
-	    Blob blob = rs.getBlob(label);
+	private byte[] readBlob(ResultSet rs, int column) throws SQLException, DBException {
+	    Blob blob = rs.getBlob(column);
 	    byte[] value = null;
 	    if (null != blob) {
 	    	value = blob.getBytes(1, (int) blob.length());
@@ -277,51 +587,23 @@ public class ORUtil {
 	}
 
 	// -----------ResultSet Meta
-	private void readRsMeta(ResultSet rs) throws DBException {
-		if (rsLabels == null) {
-			try {
-				createMeta(rs.getMetaData());
-			} catch (SQLException e) {
-				throw new DBException("DB-UOR01", e, e.getMessage());
-			}
-		}
-	}
-
-	private void createMeta(ResultSetMetaData meta) throws SQLException {
-		int c = meta.getColumnCount();
-		rsLabels = new String[c];
-		rsTypes = new int[c];
-		rsLabelsRenamed = new String[c];
-
-		for (int i = 0; i < c; i++) {
-			rsLabels[i] = meta.getColumnLabel(i + 1);
-			rsTypes[i] = meta.getColumnType(i + 1);
-			rsLabelsRenamed[i] = renameLabel(rsLabels[i]);
-		}
+	private MappingPlan readRsMeta(ResultSet rs) throws DBException {
+		if (plan == null)
+			plan = MappingPlan.getPlan(rs, null);
+		return plan;
 	}
-
+	
 	/**
-	 * Converts the column name to java-style naming.
-	 * sample: CJXM_DM->cjxmDm;AA_BB_CC->aaBbCc
+	 * Returns the label of the column for error messages.
 	 */
-	private String renameLabel(String label) {
-		StringBuilder result = new StringBuilder(label.length());
-		char[] chars = label.toCharArray();
-		boolean last_ = false;
-		for (int i = 0; i < chars.length; i++) {
-			if (chars[i] == '_') {
-				last_ = true;
-				continue;
-			}
-
-			if (last_) {
-				last_ = false;
-				result.append(Character.toUpperCase(chars[i]));
-			} else
-				result.append(Character.toLowerCase(chars[i]));
+	private String getLabel(ResultSet rs, int column) {
+		if (plan != null)
+			return plan.getLabels()[column - 1];
+		try {
+			return rs.getMetaData().getColumnLabel(column);
+		} catch (SQLException e) {
+			return String.valueOf(column);
 		}
-
-		return result.toString();
 	}
 
 }
@@ -16,18 +16,23 @@
 package org.rex.db.util;
 
 import java.beans.BeanInfo;
+import java.beans.ConstructorProperties;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.MethodDescriptor;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 
+import org.rex.db.FieldAccess;
 import org.rex.db.exception.DBException;
 import org.rex.db.logger.Logger;
 import org.rex.db.logger.LoggerFactory;
@@ -48,9 +53,15 @@ public class ReflectUtil {
 	private static final Map<Class<?>, Map<String, Method>> setters = new HashMap<Class<?>, Map<String, Method>>();
 	// parameter types
 	private static final Map<Class<?>, Map<String, Class<?>>> types = new HashMap<Class<?>, Map<String, Class<?>>>();
+	// constructors of immutable classes
+	private static final Map<Class<?>, ResultConstructor> constructors = new HashMap<Class<?>, ResultConstructor>();
+	// mapped fields
+	private static final Map<Class<?>, Map<String, Field>> fields = new HashMap<Class<?>, Map<String, Field>>();
 
 	private static volatile boolean cacheEnabled = true;
 
+	private static volatile boolean fieldAccess = false;
+
 	/**
 	 * Caches BeanInfo?
 	 */
@@ -69,6 +80,8 @@ public class ReflectUtil {
 	public static void clearCache() {
 		getters.clear();
 		setters.clear();
+		constructors.clear();
+		fields.clear();
 	}
 
 	/**
@@ -78,6 +91,114 @@ public class ReflectUtil {
 		return cacheEnabled;
 	}
 
+	/**
+	 * Maps all classes by fields instead of JavaBean accessors?
+	 */
+	public static void setFieldAccess(boolean isFieldAccess) {
+		if (fieldAccess != isFieldAccess) {
+			LOGGER.info("field access is {0}.", isFieldAccess ? "enabled" : "disabled");
+			fieldAccess = isFieldAccess;
+			MappingPlan.clearCache();
+		}
+	}
+
+	/**
+	 * Returns true if the class is mapped by fields, either it's annotated with FieldAccess or field access is enabled for all classes.
+	 */
+	public static boolean isFieldAccess(Class<?> clazz) {
+		return fieldAccess || clazz.isAnnotationPresent(FieldAccess.class);
+	}
+
+	/**
+	 * Returns the mapped fields of the given class and its super classes, static and transient fields are excluded.
+	 */
+	public static Map<String, Field> getFields(Class<?> clazz) {
+		if (cacheEnabled) {
+			Map<String, Field> classFields = fields.get(clazz);
+			if (classFields == null) {
+				classFields = findFields(clazz);
+				fields.put(clazz, classFields);
+			}
+			return classFields;
+		} else
+			return findFields(clazz);
+	}
+
+	private static Map<String, Field> findFields(Class<?> clazz) {
+		Map<String, Field> classFields = new LinkedHashMap<String, Field>();
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			Field[] declared = c.getDeclaredFields();
+			for (int i = 0; i < declared.length; i++) {
+				int modifiers = declared[i].getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || declared[i].isSynthetic()
+						|| classFields.containsKey(declared[i].getName()))
+					continue;
+
+				if (!declared[i].isAccessible())
+					declared[i].setAccessible(true);
+				classFields.put(declared[i].getName(), declared[i]);
+			}
+		}
+		return classFields;
+	}
+
+	/**
+	 * Reads the field of the object.
+	 */
+	public static Object getField(Object object, Field field) throws DBException {
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF09", e, object.getClass().getName(), field.getName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the field of the object, null is ignored for primitive fields.
+	 */
+	public static void setField(Object object, Field field, Object value) throws DBException {
+		if (value == null && field.getType().isPrimitive())
+			return;
+		try {
+			field.set(object, value);
+		} catch (IllegalArgumentException e) {
+			throw new DBException("DB-URF04", e, object.getClass().getName(), field.getName(), value, e.getMessage());
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF04", e, object.getClass().getName(), field.getName(), value, e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the column of a Map or java bean row. Map values are read by the key that equals the column, 
+	 * or equals it ignoring case. Bean values are read by the property.
+	 */
+	public static Object getRowValue(Object row, String column) throws DBException {
+		if (row instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) row;
+			if (map.containsKey(column))
+				return map.get(column);
+			for (Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<?, ?> entry = iterator.next();
+				if (entry.getKey() instanceof String && column.equalsIgnoreCase((String) entry.getKey()))
+					return entry.getValue();
+			}
+			throw new DBException("DB-C0017", column, map.keySet());
+		}
+
+		Class<?> clazz = row.getClass();
+		if (isFieldAccess(clazz)) {
+			Map<String, Field> fields = getFields(clazz);
+			if (!fields.containsKey(column))
+				throw new DBException("DB-C0017", column, fields.keySet());
+			return getField(row, fields.get(column));
+		} else {
+			Map<String, Method> readers = getReadableMethods(clazz);
+			if (!readers.containsKey(column))
+				throw new DBException("DB-C0017", column, readers.keySet());
+			return invokeMethod(row, readers.get(column));
+		}
+	}
+
 	/**
 	 * Returns field types of the given class.
 	 */
@@ -123,6 +244,68 @@ public class ReflectUtil {
 			return getSetters(clazz);
 	}
 
+	/**
+	 * Returns the constructor that creates immutable instances of the given class, or null if the class has a public no-arg constructor.
+	 * Records use the canonical constructor, other classes use the public constructor annotated with ConstructorProperties.
+	 */
+	public static ResultConstructor getResultConstructor(Class<?> clazz) {
+		if (cacheEnabled) {
+			if (!constructors.containsKey(clazz)) {
+				ResultConstructor c = findResultConstructor(clazz);
+				constructors.put(clazz, c);
+				return c;
+			} else
+				return constructors.get(clazz);
+		} else
+			return findResultConstructor(clazz);
+	}
+
+	private static ResultConstructor findResultConstructor(Class<?> clazz) {
+		try {
+			clazz.getConstructor();
+			return null;
+		} catch (NoSuchMethodException e) {
+		}
+
+		ResultConstructor recordConstructor = findRecordConstructor(clazz);
+		if (recordConstructor != null)
+			return recordConstructor;
+
+		Constructor<?> annotated = null;
+		Constructor<?>[] cs = clazz.getConstructors();
+		for (int i = 0; i < cs.length; i++) {
+			if (cs[i].isAnnotationPresent(ConstructorProperties.class)
+					&& (annotated == null || cs[i].getParameterTypes().length > annotated.getParameterTypes().length))
+				annotated = cs[i];
+		}
+		return annotated == null ? null : new ResultConstructor(annotated, annotated.getAnnotation(ConstructorProperties.class).value());
+	}
+
+	/**
+	 * Returns the canonical constructor of a record, records are looked up by reflection on runtimes that support them.
+	 */
+	private static ResultConstructor findRecordConstructor(Class<?> clazz) {
+		try {
+			if (!Boolean.TRUE.equals(Class.class.getMethod("isRecord").invoke(clazz)))
+				return null;
+
+			Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(clazz);
+			String[] names = new String[components.length];
+			Class<?>[] componentTypes = new Class<?>[components.length];
+			for (int i = 0; i < components.length; i++) {
+				names[i] = (String) components[i].getClass().getMethod("getName").invoke(components[i]);
+				componentTypes[i] = (Class<?>) components[i].getClass().getMethod("getType").invoke(components[i]);
+			}
+			return new ResultConstructor(clazz.getDeclaredConstructor(componentTypes), names);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (IllegalAccessException e) {
+			return null;
+		} catch (InvocationTargetException e) {
+			return null;
+		}
+	}
+
 	private static Map<String, Class<?>> getTypes(Class<?> clazz) throws DBException {
 		Map<String, Class<?>> params = new HashMap<String, Class<?>>();
 		PropertyDescriptor[] props = getPropertyDescriptors(clazz);
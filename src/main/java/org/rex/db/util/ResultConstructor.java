@@ -0,0 +1,124 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * Constructor that creates immutable results, such as records or classes with a constructor annotated with ConstructorProperties.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class ResultConstructor {
+
+	private final Constructor<?> constructor;
+
+	private final String[] propertyNames;
+
+	private final Class<?>[] parameterTypes;
+
+	public ResultConstructor(Constructor<?> constructor, String[] propertyNames) {
+		this.constructor = constructor;
+		this.propertyNames = propertyNames;
+		this.parameterTypes = constructor.getParameterTypes();
+		if (!constructor.isAccessible())
+			constructor.setAccessible(true);
+	}
+
+	// -----------getters
+	public Constructor<?> getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * Returns the property names of the constructor parameters.
+	 */
+	public String[] getPropertyNames() {
+		return propertyNames;
+	}
+
+	public Class<?>[] getParameterTypes() {
+		return parameterTypes;
+	}
+
+	/**
+	 * Returns the position of the property in the parameters, or -1 if the constructor has no such parameter.
+	 */
+	public int indexOf(String propertyName) {
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i].equals(propertyName))
+				return i;
+		}
+		return -1;
+	}
+
+	// -----------instance
+	/**
+	 * Returns the arguments with the default values, primitive parameters are 0 or false.
+	 */
+	public Object[] newArguments() {
+		Object[] args = new Object[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			args[i] = getDefaultValue(parameterTypes[i]);
+		}
+		return args;
+	}
+
+	/**
+	 * Creates a new instance with the given arguments.
+	 */
+	public Object newInstance(Object[] args) throws DBException {
+		try {
+			return constructor.newInstance(args);
+		} catch (InstantiationException e) {
+			throw new DBException("DB-URF08", e, constructor.getDeclaringClass().getName(), e.getMessage());
+		} catch (IllegalAccessException e) {
+			throw new DBException("DB-URF08", e, constructor.getDeclaringClass().getName(), e.getMessage());
+		} catch (IllegalArgumentException e) {
+			throw new DBException("DB-URF08", e, constructor.getDeclaringClass().getName(), e.getMessage());
+		} catch (InvocationTargetException e) {
+			throw new DBException("DB-URF08", e, constructor.getDeclaringClass().getName(), e.getTargetException().getMessage());
+		}
+	}
+
+	/**
+	 * Returns the default value of the type, which is null for objects.
+	 */
+	public static Object getDefaultValue(Class<?> type) {
+		if (!type.isPrimitive())
+			return null;
+		else if (type == boolean.class)
+			return Boolean.FALSE;
+		else if (type == char.class)
+			return Character.valueOf((char) 0);
+		else if (type == byte.class)
+			return Byte.valueOf((byte) 0);
+		else if (type == short.class)
+			return Short.valueOf((short) 0);
+		else if (type == int.class)
+			return Integer.valueOf(0);
+		else if (type == long.class)
+			return Long.valueOf(0);
+		else if (type == float.class)
+			return Float.valueOf(0);
+		else
+			return Double.valueOf(0);
+	}
+}
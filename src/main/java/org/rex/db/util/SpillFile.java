@@ -0,0 +1,446 @@
+/**
+ * Copyright 2016 the Rex-Soft Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.rex.db.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.rex.db.exception.DBException;
+
+/**
+ * Temporary file that keeps rows in a compact binary format, which are read back through memory-mapped windows.
+ * <p>
+ * Each value is written as a tag byte that is followed by its data, integers are written as variable-length numbers 
+ * and strings in modified UTF-8. Values of other types are written with java serialization, so they must be serializable.
+ *
+ * @version 1.0, 2016-04-20
+ * @since Rexdb-1.0
+ */
+public class SpillFile {
+
+	/**
+	 * Size of the staging buffer, which is written to the file when it's full.
+	 */
+	private static final int STAGING_SIZE = 64 * 1024;
+
+	/**
+	 * Size of the mapped windows, which are aligned to the size.
+	 */
+	private static final int WINDOW_SIZE = 16 * 1024 * 1024;
+
+	private static final byte NULL = 0, INT = 1, LONG = 2, DOUBLE = 3, FLOAT = 4, STRING = 5, BYTES = 6, DECIMAL = 7, 
+			TRUE = 8, FALSE = 9, DATE = 10, TIMESTAMP = 11, SQL_DATE = 12, SQL_TIME = 13, SHORT = 14, BYTE = 15, 
+			BIG_INTEGER = 16, SERIALIZED = 17;
+
+	private final File file;
+
+	private final RandomAccessFile randomAccessFile;
+
+	private final FileChannel channel;
+
+	private final int columnCount;
+
+	private final int windowSize;
+
+	private ByteBuffer staging = ByteBuffer.allocate(STAGING_SIZE);
+
+	/**
+	 * Start position of the rows, and the end of the file at the last.
+	 */
+	private long[] offsets = new long[1024];
+
+	private int rowCount;
+
+	private long written;
+
+	/**
+	 * Mapped windows of the file, which are reused until the file is closed.
+	 */
+	private MappedByteBuffer[] windows = new MappedByteBuffer[16];
+
+	/**
+	 * Position of the buffer that is being read in the file.
+	 */
+	private long bufferStart;
+
+	private char[] chars = new char[256];
+
+	private boolean closed;
+
+	/**
+	 * Creates a temporary file in the directory, or in the default temporary directory if the directory is null.
+	 * The file is deleted by {@link #close()}, which must be called when the rows are no longer used.
+	 */
+	public SpillFile(File directory, int columnCount) throws DBException {
+		this(directory, columnCount, WINDOW_SIZE);
+	}
+
+	SpillFile(File directory, int columnCount, int windowSize) throws DBException {
+		this.columnCount = columnCount;
+		this.windowSize = windowSize;
+		try {
+			file = File.createTempFile("rexdb-spill-", ".tmp", directory);
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			channel = randomAccessFile.getChannel();
+		} catch (IOException e) {
+			throw new DBException("DB-USP01", e, directory, e.getMessage());
+		}
+	}
+
+	// -----------writing
+	/**
+	 * Appends a row, values of the row are written in order.
+	 */
+	public void append(Object[] row) throws DBException {
+		checkClosed();
+		if (rowCount + 1 >= offsets.length)
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		offsets[rowCount] = written + staging.position();
+
+		for (int i = 0; i < columnCount; i++) {
+			writeValue(row[i]);
+		}
+		rowCount++;
+		offsets[rowCount] = written + staging.position();
+
+		if (staging.position() >= STAGING_SIZE)
+			flushStaging();
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the number of bytes of the rows.
+	 */
+	public long getLength() {
+		return written + staging.position();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	// -----------reading
+	/**
+	 * Reads the row, starting from 0. The row is read from the mapped window that contains it, 
+	 * or read from the file directly if it crosses the windows.
+	 */
+	public synchronized Object[] read(int index) throws DBException {
+		if (index < 0 || index >= rowCount)
+			throw new IndexOutOfBoundsException("row " + index + " of the spill file, size " + rowCount);
+		checkClosed();
+
+		long start = offsets[index];
+		int length = (int) (offsets[index + 1] - start);
+		try {
+			if (staging.position() > 0)
+				flushStaging();
+			ByteBuffer in;
+			int window = (int) (start / windowSize);
+			long windowStart = (long) window * windowSize;
+			if (start + length <= windowStart + windowSize) {
+				in = getWindow(window, (int) (start + length - windowStart));
+				in.position((int) (start - windowStart));
+				bufferStart = windowStart;
+			} else {
+				in = ByteBuffer.allocate(length);
+				while (in.hasRemaining()) {
+					if (channel.read(in, start + in.position()) < 0)
+						throw new IOException("unexpected end of file at position " + (start + in.position()));
+				}
+				in.flip();
+				bufferStart = start;
+			}
+
+			Object[] row = new Object[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				row[i] = readValue(in);
+			}
+			return row;
+		} catch (IOException e) {
+			throw new DBException("DB-USP02", e, index, file, e.getMessage());
+		} catch (ClassNotFoundException e) {
+			throw new DBException("DB-USP02", e, index, file, e.getMessage());
+		}
+	}
+
+	/**
+	 * Closes and deletes the file. Mappings may keep the file on some platforms until they are garbage collected.
+	 */
+	public synchronized void close() {
+		if (closed)
+			return;
+		closed = true;
+		windows = null;
+		staging = null;
+		try {
+			channel.close();
+			randomAccessFile.close();
+		} catch (IOException e) {
+		}
+		file.delete();
+	}
+
+	// -----------private methods
+	private void checkClosed() throws DBException {
+		if (closed)
+			throw new DBException("DB-USP04", file);
+	}
+
+	/**
+	 * Returns the mapped window, which is mapped again only if the file has grown beyond the end of the last window.
+	 */
+	private MappedByteBuffer getWindow(int index, int end) throws IOException {
+		if (index >= windows.length)
+			windows = Arrays.copyOf(windows, Math.max(index + 1, windows.length * 2));
+
+		MappedByteBuffer window = windows[index];
+		if (window == null || window.capacity() < end) {
+			long windowStart = (long) index * windowSize;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowSize, written - windowStart));
+			windows[index] = window;
+		}
+		return window;
+	}
+
+	private void flushStaging() throws DBException {
+		staging.flip();
+		try {
+			while (staging.hasRemaining())
+				written += channel.write(staging, written);
+		} catch (IOException e) {
+			throw new DBException("DB-USP01", e, file, e.getMessage());
+		}
+		staging.clear();
+	}
+
+	private void ensureStaging(int length) {
+		if (staging.remaining() < length) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(staging.capacity() * 2, staging.position() + length));
+			staging.flip();
+			larger.put(staging);
+			staging = larger;
+		}
+	}
+
+	private void writeValue(Object value) throws DBException {
+		ensureStaging(32);
+		if (value == null) {
+			staging.put(NULL);
+		} else if (value instanceof Integer) {
+			staging.put(INT);
+			writeVarLong(((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			staging.put(LONG);
+			writeVarLong(((Long) value).longValue());
+		} else if (value instanceof Double) {
+			staging.put(DOUBLE).putDouble(((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			staging.put(FLOAT).putFloat(((Float) value).floatValue());
+		} else if (value instanceof Short) {
+			staging.put(SHORT).putShort(((Short) value).shortValue());
+		} else if (value instanceof Byte) {
+			staging.put(BYTE).put(((Byte) value).byteValue());
+		} else if (value instanceof Boolean) {
+			staging.put(((Boolean) value).booleanValue() ? TRUE : FALSE);
+		} else if (value instanceof String) {
+			staging.put(STRING);
+			writeString((String) value);
+		} else if (value instanceof byte[]) {
+			staging.put(BYTES);
+			writeBytes((byte[]) value);
+		} else if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			staging.put(DECIMAL);
+			writeVarLong(decimal.scale());
+			writeBytes(decimal.unscaledValue().toByteArray());
+		} else if (value instanceof BigInteger) {
+			staging.put(BIG_INTEGER);
+			writeBytes(((BigInteger) value).toByteArray());
+		} else if (value instanceof Timestamp) {
+			Timestamp timestamp = (Timestamp) value;
+			staging.put(TIMESTAMP).putLong(timestamp.getTime());
+			writeVarLong(timestamp.getNanos());
+		} else if (value instanceof java.sql.Date) {
+			staging.put(SQL_DATE).putLong(((java.util.Date) value).getTime());
+		} else if (value instanceof java.sql.Time) {
+			staging.put(SQL_TIME).putLong(((java.util.Date) value).getTime());
+		} else if (value instanceof java.util.Date) {
+			staging.put(DATE).putLong(((java.util.Date) value).getTime());
+		} else if (value instanceof Serializable) {
+			staging.put(SERIALIZED);
+			writeBytes(serialize(value));
+		} else
+			throw new DBException("DB-USP03", value.getClass().getName());
+	}
+
+	/**
+	 * Writes a zigzag encoded variable-length number.
+	 */
+	private void writeVarLong(long value) {
+		value = (value << 1) ^ (value >> 63);
+		while ((value & ~0x7FL) != 0) {
+			staging.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		staging.put((byte) value);
+	}
+
+	private void writeBytes(byte[] bytes) {
+		ensureStaging(bytes.length + 10);
+		writeVarLong(bytes.length);
+		staging.put(bytes);
+	}
+
+	/**
+	 * Writes the length and the characters in modified UTF-8, each character takes 1 to 3 bytes.
+	 */
+	private void writeString(String value) {
+		int length = value.length();
+		ensureStaging(length * 3 + 10);
+		writeVarLong(length);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x01 && c <= 0x7F) {
+				staging.put((byte) c);
+			} else if (c <= 0x7FF) {
+				staging.put((byte) (0xC0 | (c >> 6)));
+				staging.put((byte) (0x80 | (c & 0x3F)));
+			} else {
+				staging.put((byte) (0xE0 | (c >> 12)));
+				staging.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				staging.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	private Object readValue(ByteBuffer in) throws IOException, ClassNotFoundException {
+		byte tag = in.get();
+		switch (tag) {
+			case NULL:
+				return null;
+			case INT:
+				return Integer.valueOf((int) readVarLong(in));
+			case LONG:
+				return Long.valueOf(readVarLong(in));
+			case DOUBLE:
+				return Double.valueOf(in.getDouble());
+			case FLOAT:
+				return Float.valueOf(in.getFloat());
+			case SHORT:
+				return Short.valueOf(in.getShort());
+			case BYTE:
+				return Byte.valueOf(in.get());
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case STRING:
+				return readString(in);
+			case BYTES:
+				return readBytes(in);
+			case DECIMAL:
+				int scale = (int) readVarLong(in);
+				return new BigDecimal(new BigInteger(readBytes(in)), scale);
+			case BIG_INTEGER:
+				return new BigInteger(readBytes(in));
+			case TIMESTAMP:
+				Timestamp timestamp = new Timestamp(in.getLong());
+				timestamp.setNanos((int) readVarLong(in));
+				return timestamp;
+			case SQL_DATE:
+				return new java.sql.Date(in.getLong());
+			case SQL_TIME:
+				return new java.sql.Time(in.getLong());
+			case DATE:
+				return new java.util.Date(in.getLong());
+			case SERIALIZED:
+				return deserialize(readBytes(in));
+			default:
+				throw new IOException("unknown tag " + tag + " at position " + (bufferStart + in.position() - 1));
+		}
+	}
+
+	private static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		byte[] bytes = new byte[(int) readVarLong(in)];
+		in.get(bytes);
+		return bytes;
+	}
+
+	private String readString(ByteBuffer in) {
+		int length = (int) readVarLong(in);
+		if (chars.length < length)
+			chars = new char[Math.max(length, chars.length * 2)];
+		for (int i = 0; i < length; i++) {
+			int b = in.get() & 0xFF;
+			if (b < 0x80)
+				chars[i] = (char) b;
+			else if (b < 0xE0)
+				chars[i] = (char) (((b & 0x1F) << 6) | (in.get() & 0x3F));
+			else
+				chars[i] = (char) (((b & 0x0F) << 12) | ((in.get() & 0x3F) << 6) | (in.get() & 0x3F));
+		}
+		return new String(chars, 0, length);
+	}
+
+	private static byte[] serialize(Object value) throws DBException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(value);
+			out.close();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new DBException("DB-USP03", e, value.getClass().getName());
+		}
+	}
+
+	private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -112,6 +112,8 @@ public class SqlUtil {
 			preparedStatement.setBlob(index, (Blob) value);
 		} else if (value instanceof Clob) {
 			preparedStatement.setClob(index, (Clob) value);
+		} else if (LobUtil.isStream(value)) {
+			LobUtil.setStream(preparedStatement, index, value);
 		} else {
 			preparedStatement.setObject(index, value);
 		}
@@ -122,6 +124,15 @@ public class SqlUtil {
 	 */
 	public static void setParameter(PreparedStatement preparedStatement, int index, Object value, int sqlType) throws SQLException{
 		switch (sqlType) {
+			case Types.LONGVARBINARY :
+			case Types.LONGVARCHAR :
+				if(LobUtil.isStream(value))
+					LobUtil.setStream(preparedStatement, index, value);
+				else if(value == null)
+					preparedStatement.setNull(index, sqlType);
+				else
+					preparedStatement.setObject(index, value);
+				break;
 			case Types.VARCHAR : 
 				if(value instanceof String || value == null){
 					preparedStatement.setString(index, (String)value);
@@ -377,6 +388,8 @@ public class SqlUtil {
 				type = Types.BLOB;
 			else if(param instanceof Clob)
 				type = Types.CLOB;
+			else if(LobUtil.isStream(param))
+				type = LobUtil.getSqlType(param);
 			else
 				type = Types.OTHER;
 		}
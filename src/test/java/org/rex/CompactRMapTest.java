@@ -0,0 +1,129 @@
+package org.rex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class CompactRMapTest {
+
+	CompactRMap.Keys keys = new CompactRMap.Keys(new String[]{"id", "name", "amount", "name"});
+
+	CompactRMap row;
+
+	@Before
+	public void init(){
+		row = new CompactRMap(keys);
+		row.setColumn(0, 1);
+		row.setColumn(1, "a");
+		row.setColumn(2, "2.5");
+		row.setColumn(3, "b");
+	}
+
+	@Test
+	public void testKeys() {
+		Assert.assertEquals(3, keys.size());
+		Assert.assertEquals(1, keys.slotOf(3));
+		Assert.assertEquals(-1, keys.indexOf("xxxxx"));
+	}
+
+	@Test
+	public void testGet() {
+		Assert.assertEquals(3, row.size());
+		Assert.assertEquals("b", row.get("name"));
+		Assert.assertEquals(1, row.getInt("id"));
+		Assert.assertEquals(2.5d, row.getDouble("amount"));
+		Assert.assertNull(row.get("xxxxx"));
+	}
+
+	@Test
+	public void testPutAndRemove() {
+		Assert.assertEquals("b", row.put("name", "c"));
+		Assert.assertNull(row.put("extra", "e"));
+		Assert.assertEquals(4, row.size());
+		Assert.assertEquals("e", row.getString("extra"));
+
+		Assert.assertEquals(1, row.remove("id"));
+		Assert.assertFalse(row.containsKey("id"));
+		Assert.assertEquals(3, row.size());
+
+		row.clear();
+		Assert.assertTrue(row.isEmpty());
+		Assert.assertNull(row.put("id", 2));
+		Assert.assertEquals(1, row.size());
+	}
+
+	@Test
+	public void testIterator() {
+		Map<String, Object> copy = new HashMap<String, Object>();
+		for (Iterator<Map.Entry<String, Object>> iter = row.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, Object> entry = iter.next();
+			copy.put(entry.getKey(), entry.getValue());
+			if("amount".equals(entry.getKey()))
+				iter.remove();
+		}
+		Assert.assertEquals(3, copy.size());
+		Assert.assertEquals(2, row.size());
+		Assert.assertFalse(row.keySet().contains("amount"));
+	}
+
+	@Test
+	public void testEqualsAndClone() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("id", 1);
+		map.put("name", "b");
+		map.put("amount", "2.5");
+		Assert.assertEquals(map, row);
+		Assert.assertEquals(row, map);
+		Assert.assertEquals(map.hashCode(), row.hashCode());
+
+		CompactRMap clone = (CompactRMap)row.clone();
+		clone.put("name", "c");
+		Assert.assertEquals("b", row.get("name"));
+	}
+
+	@Test
+	public void testGetOrDefaultAndRemoveValue() {
+		Assert.assertEquals("b", row.getOrDefault("name", "x"));
+		Assert.assertEquals("x", row.getOrDefault("xxxxx", "x"));
+		row.put("extra", null);
+		Assert.assertNull(row.getOrDefault("extra", "x"));
+
+		Assert.assertFalse(row.remove("name", "a"));
+		Assert.assertTrue(row.remove("name", "b"));
+		Assert.assertFalse(row.containsKey("name"));
+		Assert.assertEquals("x", row.getOrDefault("name", "x"));
+	}
+
+	@Test
+	public void testSupported() {
+		boolean functional = false;
+		Method[] methods = HashMap.class.getDeclaredMethods();
+		for (int i = 0; i < methods.length; i++) {
+			if ("forEach".equals(methods[i].getName()))
+				functional = true;
+		}
+		Assert.assertEquals(!functional, CompactRMap.isSupported());
+	}
+
+	@Test
+	public void testSerialize() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(row);
+		out.close();
+
+		Object o = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		Assert.assertEquals(RMap.class, o.getClass());
+		Assert.assertEquals(row, o);
+	}
+}
@@ -0,0 +1,377 @@
+package org.rex.db;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.rex.db.configuration.Configuration;
+import org.rex.db.exception.DBException;
+import org.rex.db.exception.DBRuntimeException;
+
+/**
+ * In-memory JDBC objects for the tests that don't need a database. Statements are answered by the handler,
+ * the connections report themselves as MySQL 5.
+ */
+public class MockDatabase {
+
+	/**
+	 * Answers the executed SQL.
+	 */
+	public interface Handler {
+
+		/**
+		 * Returns a Result for queries, or an Integer update count.
+		 */
+		Object execute(String sql, List<Object> parameters) throws SQLException;
+	}
+
+	/**
+	 * Rows of a query.
+	 */
+	public static class Result {
+
+		private final String[] labels;
+
+		private final int[] types;
+
+		private final int[] precisions;
+
+		private final int[] scales;
+
+		private final Object[][] rows;
+
+		public Result(String[] labels, int[] types, Object[][] rows) {
+			this(labels, types, new int[labels.length], new int[labels.length], rows);
+		}
+
+		public Result(String[] labels, int[] types, int[] precisions, int[] scales, Object[][] rows) {
+			this.labels = labels;
+			this.types = types;
+			this.precisions = precisions;
+			this.scales = scales;
+			this.rows = rows;
+		}
+	}
+
+	private final Handler handler;
+
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+	private final DataSource dataSource;
+
+	public MockDatabase(Handler handler) {
+		this.handler = handler;
+		this.dataSource = (DataSource) proxy(DataSource.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if ("getConnection".equals(method.getName()))
+					return createConnection();
+				return defaultValue(proxy, method, args);
+			}
+		});
+	}
+
+	/**
+	 * Loads an empty configuration if there is no default configuration.
+	 */
+	public static Configuration configure() throws DBException, IOException {
+		try {
+			return Configuration.getCurrentConfiguration();
+		} catch (DBRuntimeException e) {
+			File file = File.createTempFile("rexdb", ".xml");
+			file.deleteOnExit();
+			FileOutputStream out = new FileOutputStream(file);
+			try {
+				out.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!DOCTYPE configuration PUBLIC \"-//rex-soft.org//REXDB DTD 1.0//EN\" "
+						+ "\"http://www.rex-soft.org/dtd/rexdb-1-config.dtd\">\n<configuration></configuration>").getBytes("UTF-8"));
+			} finally {
+				out.close();
+			}
+			Configuration.loadConfigurationFromFileSystem(file.getAbsolutePath());
+			return Configuration.getCurrentConfiguration();
+		}
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	/**
+	 * Returns the executed SQL in order.
+	 */
+	public List<String> getExecuted() {
+		synchronized (executed) {
+			return new ArrayList<String>(executed);
+		}
+	}
+
+	/**
+	 * Creates a ResultSet of the rows, which reads the values as most drivers do.
+	 */
+	public static ResultSet createResultSet(final Result result) {
+		final int[] row = new int[]{-1};
+		final boolean[] wasNull = new boolean[1];
+		final ResultSetMetaData metaData = (ResultSetMetaData) proxy(ResultSetMetaData.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if ("getColumnCount".equals(name))
+					return Integer.valueOf(result.labels.length);
+				if ("getColumnLabel".equals(name) || "getColumnName".equals(name))
+					return result.labels[(Integer) args[0] - 1];
+				if ("getColumnType".equals(name))
+					return Integer.valueOf(result.types[(Integer) args[0] - 1]);
+				if ("getPrecision".equals(name))
+					return Integer.valueOf(result.precisions[(Integer) args[0] - 1]);
+				if ("getScale".equals(name))
+					return Integer.valueOf(result.scales[(Integer) args[0] - 1]);
+				if ("getColumnClassName".equals(name))
+					return Object.class.getName();
+				if ("getTableName".equals(name) || "getColumnTypeName".equals(name) || "getSchemaName".equals(name) || "getCatalogName".equals(name))
+					return "";
+				if ("isNullable".equals(name))
+					return Integer.valueOf(ResultSetMetaData.columnNullable);
+				return defaultValue(proxy, method, args);
+			}
+		});
+
+		return (ResultSet) proxy(ResultSet.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+				String name = method.getName();
+				if ("next".equals(name))
+					return Boolean.valueOf(++row[0] < result.rows.length);
+				if ("getMetaData".equals(name))
+					return metaData;
+				if ("wasNull".equals(name))
+					return Boolean.valueOf(wasNull[0]);
+				if ("findColumn".equals(name))
+					return Integer.valueOf(findColumn(result, (String) args[0]));
+				if ("getType".equals(name))
+					return Integer.valueOf(ResultSet.TYPE_FORWARD_ONLY);
+				if ("getConcurrency".equals(name))
+					return Integer.valueOf(ResultSet.CONCUR_READ_ONLY);
+				if (name.startsWith("get") && args != null && args.length >= 1 && !"getStatement".equals(name)) {
+					int column = args[0] instanceof Integer ? ((Integer) args[0]).intValue() : findColumn(result, (String) args[0]);
+					Object value = result.rows[row[0]][column - 1];
+					wasNull[0] = value == null;
+					return convert(value, method.getReturnType());
+				}
+				return defaultValue(proxy, method, args);
+			}
+		});
+	}
+
+	// -----------private methods
+	private static int findColumn(Result result, String label) throws SQLException {
+		for (int i = 0; i < result.labels.length; i++) {
+			if (result.labels[i].equalsIgnoreCase(label))
+				return i + 1;
+		}
+		throw new SQLException("column " + label + " not found");
+	}
+
+	private static Object convert(Object value, Class<?> type) {
+		if (value == null)
+			return type.isPrimitive() ? defaultValue(type) : null;
+		if (type == Object.class || type.isInstance(value))
+			return value;
+		if (type == String.class)
+			return String.valueOf(value);
+		if (type == BigDecimal.class)
+			return new BigDecimal(value.toString());
+		if (type == int.class)
+			return Integer.valueOf(((Number) value).intValue());
+		if (type == long.class)
+			return Long.valueOf(((Number) value).longValue());
+		if (type == double.class)
+			return Double.valueOf(((Number) value).doubleValue());
+		if (type == float.class)
+			return Float.valueOf(((Number) value).floatValue());
+		if (type == short.class)
+			return Short.valueOf(((Number) value).shortValue());
+		if (type == byte.class)
+			return Byte.valueOf(((Number) value).byteValue());
+		if (type == boolean.class)
+			return value instanceof Boolean ? value : Boolean.valueOf(((Number) value).intValue() != 0);
+		if (type == Timestamp.class)
+			return new Timestamp(((java.util.Date) value).getTime());
+		if (type == java.sql.Date.class)
+			return new java.sql.Date(((java.util.Date) value).getTime());
+		if (type == java.sql.Time.class)
+			return new java.sql.Time(((java.util.Date) value).getTime());
+		return value;
+	}
+
+	private Connection createConnection() {
+		final boolean[] autoCommit = new boolean[]{true};
+		final Connection[] connection = new Connection[1];
+		final DatabaseMetaData metaData = (DatabaseMetaData) proxy(DatabaseMetaData.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if ("getDatabaseProductName".equals(name))
+					return "MySQL";
+				if ("getDatabaseMajorVersion".equals(name))
+					return Integer.valueOf(5);
+				if ("getURL".equals(name))
+					return "jdbc:mock:";
+				if ("getConnection".equals(name))
+					return connection[0];
+				if (method.getReturnType() == String.class)
+					return "";
+				return defaultValue(proxy, method, args);
+			}
+		});
+
+		connection[0] = (Connection) proxy(Connection.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if ("getMetaData".equals(name))
+					return metaData;
+				if ("getAutoCommit".equals(name))
+					return Boolean.valueOf(autoCommit[0]);
+				if ("setAutoCommit".equals(name)) {
+					autoCommit[0] = ((Boolean) args[0]).booleanValue();
+					return null;
+				}
+				if ("prepareStatement".equals(name))
+					return createStatement(PreparedStatement.class, connection[0], (String) args[0]);
+				if ("prepareCall".equals(name))
+					return createStatement(CallableStatement.class, connection[0], (String) args[0]);
+				if ("createStatement".equals(name))
+					return createStatement(Statement.class, connection[0], null);
+				return defaultValue(proxy, method, args);
+			}
+		});
+		return connection[0];
+	}
+
+	private Object createStatement(Class<?> type, final Connection connection, final String preparedSql) {
+		final Map<Integer, Object> parameters = new TreeMap<Integer, Object>();
+		final List<List<Object>> batch = new ArrayList<List<Object>>();
+		final Object[] current = new Object[2];//ResultSet, update count
+
+		return proxy(type, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+				String name = method.getName();
+				String sql = preparedSql != null ? preparedSql : (args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+				if ("executeQuery".equals(name)) {
+					Object result = execute(sql, parameters);
+					if (!(result instanceof Result))
+						throw new SQLException("not a query: " + sql);
+					return createResultSet((Result) result);
+				}
+				if ("executeUpdate".equals(name)) {
+					Object result = execute(sql, parameters);
+					return result instanceof Integer ? result : Integer.valueOf(0);
+				}
+				if ("execute".equals(name)) {
+					Object result = execute(sql, parameters);
+					current[0] = result instanceof Result ? createResultSet((Result) result) : null;
+					current[1] = result instanceof Integer ? result : Integer.valueOf(-1);
+					return Boolean.valueOf(current[0] != null);
+				}
+				if ("getResultSet".equals(name))
+					return current[0];
+				if ("getUpdateCount".equals(name))
+					return current[1] == null ? Integer.valueOf(-1) : current[1];
+				if ("getMoreResults".equals(name)) {
+					current[0] = null;
+					current[1] = Integer.valueOf(-1);
+					return Boolean.FALSE;
+				}
+				if ("addBatch".equals(name)) {
+					batch.add(new ArrayList<Object>(parameters.values()));
+					return null;
+				}
+				if ("executeBatch".equals(name)) {
+					int[] counts = new int[batch.size()];
+					for (int i = 0; i < counts.length; i++) {
+						executed.add(sql);
+						Object result = handler.execute(sql, batch.get(i));
+						counts[i] = result instanceof Integer ? ((Integer) result).intValue() : 0;
+					}
+					batch.clear();
+					return counts;
+				}
+				if ("clearParameters".equals(name)) {
+					parameters.clear();
+					return null;
+				}
+				if ("getConnection".equals(name))
+					return connection;
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+					return null;
+				}
+				return defaultValue(proxy, method, args);
+			}
+		});
+	}
+
+	private Object execute(String sql, Map<Integer, Object> parameters) throws SQLException {
+		executed.add(sql);
+		return handler.execute(sql, new ArrayList<Object>(parameters.values()));
+	}
+
+	private static Object proxy(Class<?> type, final InvocationHandler handler) {
+		return Proxy.newProxyInstance(MockDatabase.class.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				try {
+					return handler.invoke(proxy, method, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		});
+	}
+
+	private static Object defaultValue(Object proxy, Method method, Object[] args) {
+		String name = method.getName();
+		if ("equals".equals(name))
+			return Boolean.valueOf(proxy == args[0]);
+		if ("hashCode".equals(name))
+			return Integer.valueOf(System.identityHashCode(proxy));
+		if ("toString".equals(name))
+			return "mock " + method.getDeclaringClass().getSimpleName();
+		return defaultValue(method.getReturnType());
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class)
+			return Boolean.FALSE;
+		if (type == int.class)
+			return Integer.valueOf(0);
+		if (type == long.class)
+			return Long.valueOf(0);
+		if (type == double.class)
+			return Double.valueOf(0);
+		if (type == float.class)
+			return Float.valueOf(0);
+		if (type == short.class)
+			return Short.valueOf((short) 0);
+		if (type == byte.class)
+			return Byte.valueOf((byte) 0);
+		if (type == char.class)
+			return Character.valueOf((char) 0);
+		return null;
+	}
+}
@@ -0,0 +1,59 @@
+package org.rex.db;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.db.core.reader.ColumnarResultReader;
+
+import junit.framework.Assert;
+
+public class TestColumnarResult {
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+
+	@Test
+	public void testCreateColumn() {
+		Assert.assertEquals(ColumnarResult.IntColumn.class, ColumnarResult.createColumn("c", Types.SMALLINT, 0, 0).getClass());
+		Assert.assertEquals(ColumnarResult.BooleanColumn.class, ColumnarResult.createColumn("c", Types.BIT, 0, 0).getClass());
+		Assert.assertEquals(ColumnarResult.LongColumn.class, ColumnarResult.createColumn("c", Types.BIGINT, 0, 0).getClass());
+		Assert.assertEquals(ColumnarResult.DoubleColumn.class, ColumnarResult.createColumn("c", Types.FLOAT, 0, 0).getClass());
+		Assert.assertEquals(ColumnarResult.StringColumn.class, ColumnarResult.createColumn("c", Types.VARCHAR, 0, 0).getClass());
+		Assert.assertEquals(ColumnarResult.ObjectColumn.class, ColumnarResult.createColumn("c", Types.TIMESTAMP, 0, 0).getClass());
+	}
+
+	@Test
+	public void testCreateDecimalColumn() {
+		Assert.assertEquals(ColumnarResult.LongColumn.class, ColumnarResult.createColumn("c", Types.DECIMAL, 18, 0).getClass());
+		Assert.assertEquals(ColumnarResult.LongColumn.class, ColumnarResult.createColumn("c", Types.NUMERIC, 1, 0).getClass());
+		Assert.assertEquals(ColumnarResult.ObjectColumn.class, ColumnarResult.createColumn("c", Types.DECIMAL, 10, 2).getClass());
+		Assert.assertEquals(ColumnarResult.ObjectColumn.class, ColumnarResult.createColumn("c", Types.DECIMAL, 19, 0).getClass());
+		Assert.assertEquals(ColumnarResult.ObjectColumn.class, ColumnarResult.createColumn("c", Types.NUMERIC, 0, 0).getClass());
+	}
+
+	@Test
+	public void testReadDecimals() throws Exception {
+		ResultSet rs = MockDatabase.createResultSet(new MockDatabase.Result(new String[]{"id", "price", "total", "ratio"},
+				new int[]{Types.DECIMAL, Types.DECIMAL, Types.NUMERIC, Types.NUMERIC}, new int[]{10, 10, 38, 0}, new int[]{0, 2, 0, 0},
+				new Object[][]{
+					{new BigDecimal("7"), new BigDecimal("12.34"), new BigDecimal("12345678901234567890123"), new BigDecimal("0.1")},
+					{null, null, null, null}}));
+		ColumnarResultReader reader = new ColumnarResultReader();
+		while (rs.next())
+			reader.processRow(rs);
+		ColumnarResult result = reader.getResult();
+		
+		Assert.assertEquals(2, result.getRowCount());
+		Assert.assertEquals(7L, result.getLongColumn("id").getLong(0));
+		Assert.assertEquals(new BigDecimal("12.34"), result.getColumn("price").getObject(0));
+		Assert.assertEquals(new BigDecimal("12345678901234567890123"), result.getColumn("total").getObject(0));
+		Assert.assertEquals(new BigDecimal("0.1"), result.getColumn("ratio").getObject(0));
+		for (int i = 0; i < result.getColumnCount(); i++)
+			Assert.assertTrue(result.getColumn(i).isNull(1));
+	}
+}
@@ -0,0 +1,120 @@
+package org.rex.db;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.RMap;
+import org.rex.db.exception.DBException;
+
+import junit.framework.Assert;
+
+public class TestDBLoader {
+	
+	/**
+	 * Returns the rows of the keys, fails the queries of the keys 1 and 3.
+	 */
+	private MockDatabase database = new MockDatabase(new MockDatabase.Handler() {
+		public Object execute(String sql, List<Object> parameters) throws SQLException {
+			if (parameters.contains(Integer.valueOf(1)))
+				throw new IllegalStateException("could not convert key 1");
+			if (parameters.contains(Integer.valueOf(3)))
+				throw new SQLException("could not read key 3");
+			
+			Object[][] rows = new Object[parameters.size()][];
+			for (int i = 0; i < rows.length; i++)
+				rows[i] = new Object[]{parameters.get(i), "name" + parameters.get(i)};
+			return new MockDatabase.Result(new String[]{"ID", "NAME"}, new int[]{Types.INTEGER, Types.VARCHAR}, rows);
+		}
+	});
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+	
+	private DBLoader<RMap> createLoader() throws DBException {
+		return new DBLoader<RMap>(database.getDataSource(), "SELECT * FROM t WHERE id = #{id}", null);
+	}
+	
+	private List<Future<RMap>> load(DBLoader<RMap> loader, int... keys) throws DBException {
+		List<Future<RMap>> futures = new ArrayList<Future<RMap>>();
+		for (int i = 0; i < keys.length; i++)
+			futures.add(loader.load(Integer.valueOf(keys[i])));
+		return futures;
+	}
+	
+	private Throwable getCause(Future<RMap> future) throws Exception {
+		try {
+			future.get(1, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+		return null;
+	}
+
+	@Test
+	public void testBatched() throws Exception {
+		DBLoader<RMap> loader = createLoader();
+		List<Future<RMap>> futures = load(loader, 2, 4, 5, 4);
+		Assert.assertEquals("name4", futures.get(1).get(1, TimeUnit.SECONDS).get("name"));
+		Assert.assertSame(futures.get(1), futures.get(3));
+		Assert.assertEquals("name5", loader.get(Integer.valueOf(5)).get("name"));
+		Assert.assertEquals(1, database.getExecuted().size());
+		Assert.assertTrue(database.getExecuted().get(0).indexOf("IN (?, ?, ?)") != -1);
+	}
+
+	@Test
+	public void testRuntimeExceptionCompletesOtherChunks() throws Exception {
+		DBLoader<RMap> loader = createLoader();
+		List<Future<RMap>> futures = load(loader, 1, 2, 4, 5, 6);
+		loader.setMaxBatchSize(2);
+		try {
+			loader.dispatch();
+			Assert.fail("the exception of the first chunk should be thrown");
+		} catch (IllegalStateException e) {
+		}
+		
+		Assert.assertEquals(3, database.getExecuted().size());
+		Assert.assertTrue(getCause(futures.get(0)) instanceof IllegalStateException);
+		Assert.assertTrue(getCause(futures.get(1)) instanceof IllegalStateException);
+		Assert.assertEquals("name4", futures.get(2).get(1, TimeUnit.SECONDS).get("name"));
+		Assert.assertEquals("name6", futures.get(4).get(1, TimeUnit.SECONDS).get("name"));
+	}
+
+	@Test
+	public void testFirstExceptionThrown() throws Exception {
+		DBLoader<RMap> loader = createLoader();
+		List<Future<RMap>> futures = load(loader, 3, 4, 1, 2);
+		loader.setMaxBatchSize(2);
+		try {
+			loader.dispatch();
+			Assert.fail("the exception of the first chunk should be thrown");
+		} catch (DBException e) {
+		}
+		
+		Assert.assertTrue(getCause(futures.get(0)) instanceof DBException);
+		Assert.assertTrue(getCause(futures.get(2)) instanceof IllegalStateException);
+		Assert.assertTrue(getCause(futures.get(3)) instanceof IllegalStateException);
+	}
+
+	@Test
+	public void testFailedKeysLoadedAgain() throws Exception {
+		DBLoader<RMap> loader = createLoader();
+		try {
+			loader.get(Integer.valueOf(3));
+			Assert.fail("the query of key 3 should fail");
+		} catch (DBException e) {
+		}
+		
+		Future<RMap> future = loader.load(Integer.valueOf(3));
+		Assert.assertFalse(future.isDone());
+		Assert.assertEquals(1, database.getExecuted().size());
+	}
+}
@@ -0,0 +1,112 @@
+package org.rex.db;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.RMap;
+import org.rex.db.exception.DBException;
+import org.rex.db.shard.RowComparator;
+import org.rex.db.shard.ShardFunction;
+import org.rex.db.shard.ShardMerger;
+
+import junit.framework.Assert;
+
+public class TestDBSharding {
+	
+	private final List<List<Object>> parameters = Collections.synchronizedList(new ArrayList<List<Object>>());
+	
+	private DBSharding sharding;
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+		sharding = new DBSharding(new DataSource[]{createShard(1, 4, 6), createShard(2, 3, 5)}, new ShardFunction() {
+			public int getShard(Object shardKey, int shards) {
+				return ((Integer) shardKey).intValue() % shards;
+			}
+		});
+	}
+	
+	private DataSource createShard(final int... ids) {
+		return new MockDatabase(new MockDatabase.Handler() {
+			public Object execute(String sql, List<Object> params) throws SQLException {
+				parameters.add(params);
+				Object[][] rows = new Object[ids.length][];
+				for (int i = 0; i < ids.length; i++)
+					rows[i] = new Object[]{Integer.valueOf(ids[i])};
+				return new MockDatabase.Result(new String[]{"id"}, new int[]{Types.INTEGER}, rows);
+			}
+		}).getDataSource();
+	}
+	
+	private static List<Object> ids(List<RMap> rows) {
+		List<Object> ids = new ArrayList<Object>();
+		for (RMap row : rows)
+			ids.add(row.get("id"));
+		return ids;
+	}
+
+	@Test
+	public void testOrderedMerge() throws Exception {
+		List<RMap> rows = sharding.getMapList("select id from t order by id", null, ShardMerger.orderBy("id"));
+		Assert.assertEquals(Arrays.<Object>asList(1, 2, 3, 4, 5, 6), ids(rows));
+		
+		rows = sharding.getMapList("select id from t order by id", null, ShardMerger.concat());
+		Assert.assertEquals(Arrays.<Object>asList(1, 4, 6, 2, 3, 5), ids(rows));
+	}
+
+	@Test
+	public void testRange() throws Exception {
+		List<RMap> rows = sharding.getMapList("select id from t order by id", null, ShardMerger.orderBy("id"), 2, 3);
+		Assert.assertEquals(Arrays.<Object>asList(3, 4, 5), ids(rows));
+		
+		rows = sharding.getMapList("select id from t order by id", null, ShardMerger.orderBy("id"), 5, 10);
+		Assert.assertEquals(Arrays.<Object>asList(6), ids(rows));
+	}
+
+	@Test
+	public void testRangeSaturated() throws Exception {
+		List<RMap> rows = sharding.getMapList("select id from t order by id", null, ShardMerger.orderBy("id"), 4, Integer.MAX_VALUE);
+		Assert.assertEquals(Arrays.<Object>asList(5, 6), ids(rows));
+		for (List<Object> params : parameters)
+			Assert.assertTrue(params.contains(Integer.valueOf(Integer.MAX_VALUE)));
+	}
+
+	@Test
+	public void testInvalidRange() throws Exception {
+		try {
+			sharding.getMapList("select id from t order by id", null, ShardMerger.orderBy("id"), -1, 10);
+			Assert.fail("negative offset should be rejected");
+		} catch (DBException e) {
+			Assert.assertTrue(e.getMessage().indexOf("DB-C0023") != -1);
+		}
+		Assert.assertTrue(parameters.isEmpty());
+	}
+
+	@Test
+	public void testCompareFloatingValues() {
+		RowComparator comparator = new RowComparator("v");
+		Assert.assertTrue(comparator.compare(row(Double.valueOf(Double.NaN)), row(Integer.valueOf(1))) > 0);
+		Assert.assertTrue(comparator.compare(row(Double.valueOf(Double.NEGATIVE_INFINITY)), row(Long.valueOf(1))) < 0);
+		Assert.assertTrue(comparator.compare(row(Float.valueOf(Float.POSITIVE_INFINITY)), row(Integer.valueOf(1))) > 0);
+		Assert.assertTrue(comparator.compare(row(Double.valueOf(1.5)), row(Integer.valueOf(1))) > 0);
+		Assert.assertEquals(0, comparator.compare(row(Long.valueOf(2)), row(Integer.valueOf(2))));
+		
+		comparator = new RowComparator("v desc");
+		Assert.assertTrue(comparator.compare(row(Double.valueOf(0.5)), row(Integer.valueOf(1))) > 0);
+	}
+	
+	private static RMap row(Object value) {
+		RMap row = new RMap();
+		row.put("v", value);
+		return row;
+	}
+}
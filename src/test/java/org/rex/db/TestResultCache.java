@@ -0,0 +1,168 @@
+package org.rex.db;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.RMap;
+
+import junit.framework.Assert;
+
+public class TestResultCache {
+	
+	public static class Item {
+		private int id;
+		private String name;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+	
+	private static final String QUERY = "SELECT * FROM item";
+	
+	/**
+	 * Released to complete the queries.
+	 */
+	private CountDownLatch latch = new CountDownLatch(0);
+	
+	/**
+	 * Returns two rows for the queries, and 1 for the updates.
+	 */
+	private MockDatabase database = new MockDatabase(new MockDatabase.Handler() {
+		public Object execute(String sql, List<Object> parameters) throws SQLException {
+			if (!sql.startsWith("SELECT"))
+				return Integer.valueOf(1);
+			try {
+				latch.await(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new SQLException(e.getMessage());
+			}
+			return new MockDatabase.Result(new String[]{"ID", "NAME"}, new int[]{Types.INTEGER, Types.VARCHAR}, 
+					new Object[][]{{Integer.valueOf(1), "a"}, {Integer.valueOf(2), "b"}});
+		}
+	});
+	
+	private QueryOptions options = new QueryOptions();
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+		options.setCached(true);
+	}
+	
+	private int countQueries() {
+		int count = 0;
+		for (String sql : database.getExecuted()) {
+			if (sql.startsWith("SELECT"))
+				count++;
+		}
+		return count;
+	}
+	
+	private List<Item> getItems() throws Exception {
+		return DBQuery.getInstance(database.getDataSource()).getList(QUERY, null, Item.class, options);
+	}
+
+	@Test
+	public void testBeanRowsCopied() throws Exception {
+		List<Item> first = getItems();
+		first.get(0).setName("changed");
+		first.remove(1);
+		
+		List<Item> second = getItems();
+		Assert.assertEquals(1, countQueries());
+		Assert.assertEquals(2, second.size());
+		Assert.assertEquals("a", second.get(0).getName());
+		Assert.assertTrue(first.get(0) != second.get(0));
+		Assert.assertTrue(second.get(0) != getItems().get(0));
+	}
+
+	@Test
+	public void testMapRowsCopied() throws Exception {
+		DBQuery query = DBQuery.getInstance(database.getDataSource());
+		List<RMap> first = query.getMapList(QUERY, null, options);
+		first.get(0).put("name", "changed");
+		
+		List<RMap> second = query.getMapList(QUERY, null, options);
+		Assert.assertEquals(1, countQueries());
+		Assert.assertEquals("a", second.get(0).get("name"));
+	}
+
+	@Test
+	public void testUpdateInvalidates() throws Exception {
+		getItems();
+		DBUpdate.getInstance(database.getDataSource()).update("UPDATE other SET name = 'c'");
+		getItems();
+		Assert.assertEquals(1, countQueries());
+		
+		DBUpdate.getInstance(database.getDataSource()).update("UPDATE item SET name = 'c'");
+		getItems();
+		Assert.assertEquals(2, countQueries());
+	}
+
+	@Test
+	public void testCoalescedResultsModifiable() throws Exception {
+		options.setCoalesced(true);
+		List<Item> cached = getItems();
+		cached.add(new Item());
+		
+		options.setCached(false);
+		List<Item> coalesced = getItems();
+		coalesced.add(new Item());
+		Assert.assertEquals(3, coalesced.size());
+	}
+
+	@Test
+	public void testCoalescedRowsCopied() throws Exception {
+		options.setCached(false);
+		options.setCoalesced(true);
+		latch = new CountDownLatch(1);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Callable<List<Item>> query = new Callable<List<Item>>() {
+				public List<Item> call() throws Exception {
+					return getItems();
+				}
+			};
+			Future<List<Item>> first = executor.submit(query);
+			Future<List<Item>> second = executor.submit(query);
+			Thread.sleep(100);
+			latch.countDown();
+			
+			List<Item> firstItems = first.get(1, TimeUnit.SECONDS);
+			List<Item> secondItems = second.get(1, TimeUnit.SECONDS);
+			Assert.assertEquals(2, secondItems.size());
+			Assert.assertTrue(firstItems != secondItems);
+			Assert.assertTrue(firstItems.get(0) != secondItems.get(0));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCallInvalidates() throws Exception {
+		getItems();
+		DBCall.getInstance(database.getDataSource()).call("{call rename_items()}");
+		getItems();
+		Assert.assertEquals(2, countQueries());
+	}
+}
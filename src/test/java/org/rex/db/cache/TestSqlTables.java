@@ -0,0 +1,38 @@
+package org.rex.db.cache;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class TestSqlTables {
+	
+	private static void assertTables(String sql, String... tables) {
+		Assert.assertEquals(Arrays.asList(tables), Arrays.asList(SqlTables.getTables(sql)));
+	}
+
+	@Test
+	public void testQueries() {
+		assertTables("select * from t", "t");
+		assertTables("select * from orders o join \"Items\" i on o.id = i.oid where x in (select y from s.z)", "orders", "items", "z");
+		assertTables("select * from a, b c, d where 'from x' = 1", "a", "b", "d");
+		assertTables("-- from c1\nselect 1 from [dbo].[t7] /* join c2 */", "t7");
+		assertTables("select * from a where x = 1 union select * from b", "a", "b");
+	}
+
+	@Test
+	public void testUpdates() {
+		assertTables("insert into t1 (a) select b from t2", "t1", "t2");
+		assertTables("update only t3 set a = 1", "t3");
+		assertTables("delete from t4 where 1 = 1", "t4");
+		assertTables("merge into t5 using t6 on (1 = 1)", "t5", "t6");
+		assertTables("truncate table t8", "t8");
+	}
+
+	@Test
+	public void testNormalize() {
+		Assert.assertEquals("select a, b from t where x = 'a  b'", SqlTables.normalize("select  a,\n\t b from t where x = 'a  b'"));
+		Assert.assertEquals("select 1", SqlTables.normalize("  select 1  "));
+	}
+}
@@ -0,0 +1,67 @@
+package org.rex.db.core.executor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class TestCancellation {
+
+	private final AtomicInteger cancels = new AtomicInteger();
+
+	private Statement createStatement() {
+		return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { Statement.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("cancel".equals(method.getName()))
+					cancels.incrementAndGet();
+				else if ("executeUpdate".equals(method.getName()))
+					return Integer.valueOf(1);
+				else if ("hashCode".equals(method.getName()))
+					return Integer.valueOf(System.identityHashCode(proxy));
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void testCancelRunningStatement() throws Exception {
+		Cancellation cancellation = new Cancellation();
+		Cancellation.bind(cancellation);
+		try {
+			Statement stmt = createStatement();
+			Cancellation.register(stmt);
+			cancellation.cancel();
+			Assert.assertEquals(1, cancels.get());
+			Assert.assertTrue(cancellation.isCancelled());
+		} finally {
+			Cancellation.unbind();
+		}
+	}
+
+	@Test
+	public void testFinishedStatementNotCancelled() throws Exception {
+		Cancellation cancellation = new Cancellation();
+		Cancellation.bind(cancellation);
+		try {
+			Statement stmt = createStatement();
+			Assert.assertEquals(1, new DefaultQueryExecutor().executeUpdate(stmt, "update t set a = 1"));
+			cancellation.cancel();
+			Assert.assertEquals(0, cancels.get());
+
+			try {
+				new DefaultQueryExecutor().executeUpdate(stmt, "update t set a = 1");
+				Assert.fail("cancelled execution should not run statements");
+			} catch (SQLException e) {
+				Assert.assertTrue(cancellation.isCancelled());
+			}
+		} finally {
+			Cancellation.unbind();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package org.rex.db.core.reader;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.db.JoinMapping;
+import org.rex.db.MockDatabase;
+import org.rex.db.RowHandler;
+import org.rex.db.exception.DBException;
+
+import junit.framework.Assert;
+
+public class TestJoinResultReader {
+	
+	public static class Order {
+		private int id;
+		private List<Item> items;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public List<Item> getItems() {
+			return items;
+		}
+		public void setItems(List<Item> items) {
+			this.items = items;
+		}
+	}
+	
+	public static class Item {
+		private int id;
+		private String name;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+	
+	private static final JoinMapping<Order, Item> MAPPING = new JoinMapping<Order, Item>(Order.class, new String[]{"id"}, "items", 
+			Item.class, new String[]{"item_id"}, "item_");
+	
+	/**
+	 * Rows of order 1 appear again after order 2, and item 10 of order 1 is repeated.
+	 */
+	private static ResultSet createResultSet() {
+		return MockDatabase.createResultSet(new MockDatabase.Result(new String[]{"id", "item_id", "item_name"},
+				new int[]{Types.INTEGER, Types.INTEGER, Types.VARCHAR}, new Object[][]{
+					{1, 10, "a"},
+					{1, 11, "b"},
+					{2, 20, "c"},
+					{1, 10, "a"},
+					{1, 12, "d"},
+					{3, null, null}}));
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+	
+	private static List<Integer> itemIds(Order order) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Item item : order.getItems())
+			ids.add(Integer.valueOf(item.getId()));
+		return ids;
+	}
+
+	@Test
+	public void testDistinctChildren() throws Exception {
+		JoinResultReader<Order, Item> reader = new JoinResultReader<Order, Item>(MAPPING);
+		ResultSet rs = createResultSet();
+		while (rs.next())
+			reader.processRow(rs);
+		
+		List<Order> orders = reader.getResults();
+		Assert.assertEquals(3, orders.size());
+		Assert.assertEquals(1, orders.get(0).getId());
+		Assert.assertEquals("[10, 11, 12]", itemIds(orders.get(0)).toString());
+		Assert.assertEquals("[20]", itemIds(orders.get(1)).toString());
+		Assert.assertEquals(0, orders.get(2).getItems().size());
+	}
+
+	@Test
+	public void testUnorderedParents() throws Exception {
+		final List<Order> handled = new ArrayList<Order>();
+		JoinResultReader<Order, Item> reader = new JoinResultReader<Order, Item>(MAPPING, new RowHandler<Order>() {
+			public void handleRow(Order row, int rowNum) {
+				handled.add(row);
+			}
+		});
+		ResultSet rs = createResultSet();
+		try {
+			while (rs.next())
+				reader.processRow(rs);
+			Assert.fail("rows of a handled parent should be rejected");
+		} catch (DBException e) {
+			Assert.assertTrue(e.getMessage().indexOf("DB-UOR10") != -1);
+		}
+		Assert.assertEquals(2, handled.size());
+		Assert.assertEquals("[10, 11]", itemIds(handled.get(0)).toString());
+	}
+}
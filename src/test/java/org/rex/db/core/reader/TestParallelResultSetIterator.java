@@ -0,0 +1,129 @@
+package org.rex.db.core.reader;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.RMap;
+import org.rex.db.DBQuery;
+import org.rex.db.MockDatabase;
+import org.rex.db.QueryOptions;
+import org.rex.db.exception.DBException;
+
+import junit.framework.Assert;
+
+public class TestParallelResultSetIterator {
+	
+	public static class Row {
+		private int id;
+		private String name;
+		private BigDecimal amount;
+		private java.util.Date created;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public BigDecimal getAmount() {
+			return amount;
+		}
+		public void setAmount(BigDecimal amount) {
+			this.amount = amount;
+		}
+		public java.util.Date getCreated() {
+			return created;
+		}
+		public void setCreated(java.util.Date created) {
+			this.created = created;
+		}
+	}
+	
+	private static final MockDatabase.Result RESULT = createResult(1000);
+	
+	private static MockDatabase.Result createResult(int count) {
+		Object[][] rows = new Object[count][];
+		for (int i = 0; i < count; i++) {
+			rows[i] = i % 7 == 0 ? new Object[]{null, null, null, null} 
+				: new Object[]{Integer.valueOf(i), "name" + i, new BigDecimal(i + ".5"), new Timestamp(i * 1000L)};
+		}
+		return new MockDatabase.Result(new String[]{"id", "name", "amount", "created"}, 
+				new int[]{Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.TIMESTAMP}, rows);
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+	
+	private void read(ResultReader<?> reader, int parallelism) throws DBException {
+		ResultSet rs = MockDatabase.createResultSet(RESULT);
+		if (parallelism > 1)
+			new ParallelResultSetIterator(parallelism).read(reader, rs);
+		else
+			new DefaultResultSetIterator().read(reader, rs);
+	}
+
+	@Test
+	public void testMapRows() throws Exception {
+		MapResultReader sequential = new MapResultReader();
+		read(sequential, 1);
+		MapResultReader parallel = new MapResultReader();
+		read(parallel, 4);
+		
+		List<RMap> expected = sequential.getResults();
+		List<RMap> rows = parallel.getResults();
+		Assert.assertEquals(1000, rows.size());
+		Assert.assertEquals(expected, rows);
+		Assert.assertEquals(Integer.valueOf(0), rows.get(7).get("id"));
+	}
+
+	@Test
+	public void testBeanRows() throws Exception {
+		ClassResultReader<Row> sequential = new ClassResultReader<Row>(Row.class);
+		read(sequential, 1);
+		ClassResultReader<Row> parallel = new ClassResultReader<Row>(Row.class);
+		read(parallel, 1000);
+		
+		List<Row> expected = sequential.getResults();
+		List<Row> rows = parallel.getResults();
+		Assert.assertEquals(1000, rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			Assert.assertEquals(expected.get(i).getId(), rows.get(i).getId());
+			Assert.assertEquals(expected.get(i).getName(), rows.get(i).getName());
+			Assert.assertEquals(expected.get(i).getAmount(), rows.get(i).getAmount());
+			Assert.assertEquals(expected.get(i).getCreated(), rows.get(i).getCreated());
+		}
+		Assert.assertNull(rows.get(7).getName());
+		Assert.assertEquals(8, rows.get(8).getId());
+	}
+
+	@Test
+	public void testNegativeParallelism() throws Exception {
+		MockDatabase database = new MockDatabase(new MockDatabase.Handler() {
+			public Object execute(String sql, List<Object> parameters) throws SQLException {
+				return RESULT;
+			}
+		});
+		QueryOptions options = new QueryOptions();
+		options.setParallelism(-1);
+		try {
+			DBQuery.getInstance(database.getDataSource()).getMapList("SELECT * FROM t", null, options);
+			Assert.fail("negative parallelism should be rejected");
+		} catch (DBException e) {
+			Assert.assertTrue(e.getMessage().indexOf("DB-C0022") != -1);
+		}
+	}
+}
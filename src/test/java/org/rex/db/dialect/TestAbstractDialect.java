@@ -0,0 +1,57 @@
+package org.rex.db.dialect;
+
+import org.junit.Test;
+import org.rex.db.dialect.impl.MySQLDialect;
+import org.rex.db.dialect.impl.PostgreSQLDialect;
+
+import junit.framework.Assert;
+
+public class TestAbstractDialect {
+	
+	private AbstractDialect windowDialect = new PostgreSQLDialect();
+	
+	private AbstractDialect noWindowDialect = new MySQLDialect();
+
+	@Test
+	public void testIndexOfTopLevel() {
+		Assert.assertEquals(16, AbstractDialect.indexOfTopLevel("select * from t order by id", "order by", false));
+		Assert.assertEquals(16, AbstractDialect.indexOfTopLevel("select * from t order \n\t by id", "order by", false));
+		Assert.assertEquals(-1, AbstractDialect.indexOfTopLevel("select * from t where border by = 1", "order by", false));
+		Assert.assertEquals(-1, AbstractDialect.indexOfTopLevel("select * from t where a = 'order by'", "order by", false));
+		Assert.assertEquals(-1, AbstractDialect.indexOfTopLevel("select * from t /* order by */", "order by", false));
+		Assert.assertEquals(-1, AbstractDialect.indexOfTopLevel("select * from t -- order by\n", "order by", false));
+		Assert.assertEquals(-1, AbstractDialect.indexOfTopLevel("select * from (select a from t order by a) x", "order by", false));
+		Assert.assertEquals(9, AbstractDialect.indexOfTopLevel("select a from t where a in (select b from u)", "from", false));
+		Assert.assertEquals(53, AbstractDialect.indexOfTopLevel("select a from t order by a union all select a from u order by a", "order by", true));
+	}
+
+	@Test
+	public void testCountSql() {
+		Assert.assertEquals("SELECT COUNT(*) FROM (select * from t ) count_", windowDialect.getCountSql("select * from t order by id"));
+		Assert.assertEquals("SELECT COUNT(*) FROM (select * from t where a = 'order by') count_", 
+				windowDialect.getCountSql("select * from t where a = 'order by'"));
+		Assert.assertEquals("SELECT COUNT(*) FROM (select * from t order by id limit 10) count_", 
+				windowDialect.getCountSql("select * from t order by id limit 10"));
+		Assert.assertEquals("SELECT COUNT(*) FROM (SELECT a FROM t ORDER BY a OFFSET 5 ROWS) count_", 
+				windowDialect.getCountSql("SELECT a FROM t ORDER BY a OFFSET 5 ROWS"));
+		Assert.assertEquals("SELECT COUNT(*) FROM (select a, (select max(x) from u order by x) m from t ) count_", 
+				windowDialect.getCountSql("select a, (select max(x) from u order by x) m from t order by a"));
+	}
+
+	@Test
+	public void testWindowCountSql() {
+		Assert.assertEquals("select id, name, COUNT(*) OVER() AS total_ from t where x = 1 order by id", 
+				windowDialect.getWindowCountSql("select id, name from t where x = 1 order by id", "total_"));
+		Assert.assertEquals("SELECT page_.*, COUNT(*) OVER() AS total_ FROM (select * from t) page_", 
+				windowDialect.getWindowCountSql("select * from t", "total_"));
+		Assert.assertEquals("select a, (select b from u), COUNT(*) OVER() AS total_ from t", 
+				windowDialect.getWindowCountSql("select a, (select b from u) from t", "total_"));
+		
+		Assert.assertNull(windowDialect.getWindowCountSql("select * from t order by id", "total_"));
+		Assert.assertNull(windowDialect.getWindowCountSql("select distinct a from t", "total_"));
+		Assert.assertNull(windowDialect.getWindowCountSql("select a from t union select a from u", "total_"));
+		Assert.assertNull(windowDialect.getWindowCountSql("with x as (select 1) select * from x", "total_"));
+		
+		Assert.assertNull(noWindowDialect.getWindowCountSql("select id from t", "total_"));
+	}
+}
@@ -0,0 +1,46 @@
+package org.rex.db.dialect;
+
+import org.junit.Test;
+import org.rex.db.dialect.impl.MySQLDialect;
+import org.rex.db.exception.DBRuntimeException;
+
+import junit.framework.Assert;
+
+public class TestKeysetHandler {
+	
+	private Dialect dialect = new MySQLDialect();
+
+	@Test
+	public void testFirstPage() {
+		KeysetHandler handler = new KeysetHandler(new String[]{"a"}, false, null, dialect.getLimitHandler(10), false);
+		Assert.assertEquals("SELECT * FROM (select * from t) keyset_ ORDER BY a limit ?", handler.wrapSql("select * from t"));
+	}
+
+	@Test
+	public void testRowValue() {
+		KeysetHandler handler = new KeysetHandler(new String[]{"a", "b"}, false, new Object[]{1, 2}, dialect.getLimitHandler(10), true);
+		Assert.assertEquals("SELECT * FROM (select * from t) keyset_ WHERE (a, b) > (?, ?) ORDER BY a, b limit ?", handler.wrapSql("select * from t"));
+		
+		handler = new KeysetHandler(new String[]{"a", "b"}, true, new Object[]{1, 2}, dialect.getLimitHandler(10), true);
+		Assert.assertEquals("SELECT * FROM (select * from t) keyset_ WHERE (a, b) < (?, ?) ORDER BY a DESC, b DESC limit ?", handler.wrapSql("select * from t"));
+	}
+
+	@Test
+	public void testExpanded() {
+		KeysetHandler handler = new KeysetHandler(new String[]{"a", "b"}, false, new Object[]{1, 2}, dialect.getLimitHandler(10), false);
+		Assert.assertEquals("SELECT * FROM (select * from t) keyset_ WHERE ((a > ?) OR (a = ? AND b > ?)) ORDER BY a, b limit ?", handler.wrapSql("select * from t"));
+		
+		handler = new KeysetHandler(new String[]{"a", "b"}, true, new Object[]{1, 2}, dialect.getLimitHandler(10), false);
+		Assert.assertEquals("SELECT * FROM (select * from t) keyset_ WHERE ((a < ?) OR (a = ? AND b < ?)) ORDER BY a DESC, b DESC limit ?", handler.wrapSql("select * from t"));
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testMismatchedKeys() {
+		new KeysetHandler(new String[]{"a", "b"}, false, new Object[]{1}, dialect.getLimitHandler(10), false);
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testNullKey() {
+		new KeysetHandler(new String[]{"a"}, false, new Object[]{null}, dialect.getLimitHandler(10), false);
+	}
+}
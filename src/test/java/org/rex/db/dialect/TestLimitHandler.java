@@ -0,0 +1,73 @@
+package org.rex.db.dialect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.rex.db.dialect.impl.Oracle12cDialect;
+import org.rex.db.dialect.impl.SQLServer2012Dialect;
+
+import junit.framework.Assert;
+
+public class TestLimitHandler {
+	
+	/**
+	 * Returns the parameters set by the handler, as 'index=value'.
+	 */
+	private List<String> getParameters(LimitHandler limitHandler, int parameterCount) throws SQLException {
+		final List<String> parameters = new ArrayList<String>();
+		PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), 
+				new Class[]{PreparedStatement.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if ("setInt".equals(method.getName()))
+					parameters.add(args[0] + "=" + args[1]);
+				return null;
+			}
+		});
+		limitHandler.afterSetParameters(statement, parameterCount);
+		return parameters;
+	}
+
+	@Test
+	public void testOracle12cFetch() throws SQLException {
+		LimitHandler limitHandler = new Oracle12cDialect().getLimitHandler(10);
+		Assert.assertEquals("select * from t order by id FETCH FIRST ? ROWS ONLY", limitHandler.getWrappedSql("select * from t order by id"));
+		Assert.assertEquals("[2=10]", getParameters(limitHandler, 1).toString());
+	}
+
+	@Test
+	public void testOracle12cOffsetFetch() throws SQLException {
+		LimitHandler limitHandler = new Oracle12cDialect().getLimitHandler(20, 10);
+		Assert.assertEquals("select * from t order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", limitHandler.getWrappedSql("select * from t order by id"));
+		Assert.assertEquals("[1=20, 2=10]", getParameters(limitHandler, 0).toString());
+	}
+
+	@Test
+	public void testOracle12cForUpdate() throws SQLException {
+		LimitHandler limitHandler = new Oracle12cDialect().getLimitHandler(20, 10);
+		Assert.assertEquals("select * from ( select row_.*, rownum rownum_ from ( select * from t order by id ) row_ where rownum <= ?) where rownum_ > ? for update", 
+				limitHandler.getWrappedSql("select * from t order by id for update"));
+		Assert.assertEquals("[1=30, 2=20]", getParameters(limitHandler, 0).toString());
+		
+		limitHandler = new Oracle12cDialect().getLimitHandler(10);
+		Assert.assertEquals("select * from ( select * from t where a = ? ) where rownum <= ? FOR UPDATE", 
+				limitHandler.getWrappedSql("select * from t where a = ? FOR UPDATE"));
+		Assert.assertEquals("[2=10]", getParameters(limitHandler, 1).toString());
+	}
+
+	@Test
+	public void testSQLServer2012OffsetFetch() throws SQLException {
+		LimitHandler limitHandler = new SQLServer2012Dialect().getLimitHandler(20, 10);
+		Assert.assertEquals("select * from t order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", limitHandler.getWrappedSql("select * from t order by id"));
+		Assert.assertEquals("[1=20, 2=10]", getParameters(limitHandler, 0).toString());
+		
+		limitHandler = new SQLServer2012Dialect().getLimitHandler(10);
+		Assert.assertEquals("select * from t ORDER BY (SELECT NULL) OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY", limitHandler.getWrappedSql("select * from t"));
+		Assert.assertEquals("[1=10]", getParameters(limitHandler, 0).toString());
+	}
+}
@@ -0,0 +1,93 @@
+package org.rex.db.dialect;
+
+import org.junit.Test;
+import org.rex.db.dialect.impl.H2Dialect;
+import org.rex.db.dialect.impl.KingbaseDialect;
+import org.rex.db.dialect.impl.MySQLDialect;
+import org.rex.db.dialect.impl.Oracle12cDialect;
+import org.rex.db.dialect.impl.Oracle8iDialect;
+import org.rex.db.dialect.impl.Oracle9iDialect;
+import org.rex.db.dialect.impl.PostgreSQLDialect;
+import org.rex.db.dialect.impl.SQLServer2005Dialect;
+import org.rex.db.dialect.impl.SQLServer2008Dialect;
+import org.rex.db.dialect.impl.SQLServer2012Dialect;
+import org.rex.db.dialect.impl.SQLServerDialect;
+import org.rex.db.exception.DBRuntimeException;
+import org.rex.db.util.MappingPlan;
+
+import junit.framework.Assert;
+
+public class TestUpsertSql {
+	
+	private String[] columns = new String[]{"ID", "NAME"};
+	
+	private String[] keys = new String[]{"ID"};
+
+	@Test
+	public void testMySQL() {
+		Assert.assertEquals("INSERT INTO T (ID, NAME) VALUES (?, ?) ON DUPLICATE KEY UPDATE NAME = VALUES(NAME)", 
+				new MySQLDialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals("INSERT INTO T (ID) VALUES (?) ON DUPLICATE KEY UPDATE ID = ID", 
+				new MySQLDialect().getUpsertSql("T", keys, keys));
+	}
+
+	@Test
+	public void testOnConflict() {
+		String sql = "INSERT INTO T (ID, NAME) VALUES (?, ?) ON CONFLICT (ID) DO UPDATE SET NAME = EXCLUDED.NAME";
+		Assert.assertEquals(sql, new PostgreSQLDialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals(sql, new KingbaseDialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals("INSERT INTO T (ID) VALUES (?) ON CONFLICT (ID) DO NOTHING", new PostgreSQLDialect().getUpsertSql("T", keys, keys));
+	}
+
+	@Test
+	public void testSQLServer() {
+		String sql = "MERGE INTO T t_ USING (SELECT ? AS ID, ? AS NAME) s_ ON (t_.ID = s_.ID) WHEN MATCHED THEN UPDATE SET NAME = s_.NAME "
+				+ "WHEN NOT MATCHED THEN INSERT (ID, NAME) VALUES (s_.ID, s_.NAME);";
+		Assert.assertEquals(sql, new SQLServer2008Dialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals(sql, new SQLServer2012Dialect().getUpsertSql("T", columns, keys));
+	}
+
+	@Test
+	public void testOracle() {
+		String sql = "MERGE INTO T t_ USING (SELECT ? AS ID, ? AS NAME FROM DUAL) s_ ON (t_.ID = s_.ID) WHEN MATCHED THEN UPDATE SET NAME = s_.NAME "
+				+ "WHEN NOT MATCHED THEN INSERT (ID, NAME) VALUES (s_.ID, s_.NAME)";
+		Assert.assertEquals(sql, new Oracle9iDialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals(sql, new Oracle12cDialect().getUpsertSql("T", columns, keys));
+		Assert.assertEquals("MERGE INTO T t_ USING (SELECT ? AS ID FROM DUAL) s_ ON (t_.ID = s_.ID) WHEN NOT MATCHED THEN INSERT (ID) VALUES (s_.ID)", 
+				new Oracle9iDialect().getUpsertSql("T", keys, keys));
+	}
+
+	@Test
+	public void testH2() {
+		Assert.assertEquals("MERGE INTO T (ID, NAME) KEY (ID) VALUES (?, ?)", new H2Dialect().getUpsertSql("T", columns, keys));
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testSQLServer2000Unsupported() {
+		new SQLServerDialect().getUpsertSql("T", columns, keys);
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testSQLServer2005Unsupported() {
+		new SQLServer2005Dialect().getUpsertSql("T", columns, keys);
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testOracle8iUnsupported() {
+		new Oracle8iDialect().getUpsertSql("T", columns, keys);
+	}
+
+	@Test(expected = DBRuntimeException.class)
+	public void testKeysNotInColumns() {
+		new PostgreSQLDialect().getUpsertSql("T", new String[]{"NAME"}, keys);
+	}
+
+	@Test
+	public void testColumnNames() {
+		Assert.assertEquals("USER_NAME", MappingPlan.toColumnName("userName"));
+		Assert.assertEquals("ID", MappingPlan.toColumnName("id"));
+		Assert.assertEquals("ADDR1_LINE", MappingPlan.toColumnName("addr1Line"));
+		Assert.assertEquals("USER_NAME", MappingPlan.toColumnName("USER_NAME"));
+		Assert.assertEquals("USER_NAME", MappingPlan.toColumnName("user_name"));
+	}
+}
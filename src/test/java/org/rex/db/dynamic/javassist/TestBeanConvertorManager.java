@@ -0,0 +1,143 @@
+package org.rex.db.dynamic.javassist;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.db.MockDatabase;
+import org.rex.db.util.MappingPlan;
+import org.rex.db.util.ORUtil;
+
+import junit.framework.Assert;
+
+public class TestBeanConvertorManager {
+	
+	public static class Row {
+		private int id = -1;
+		private Integer amount;
+		private Date created = new Date(0);
+		private String name;
+		private String note;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public Integer getAmount() {
+			return amount;
+		}
+		public void setAmount(Integer amount) {
+			this.amount = amount;
+		}
+		public Date getCreated() {
+			return created;
+		}
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public String getNote() {
+			return note;
+		}
+		public void setNote(String note) {
+			this.note = note;
+		}
+	}
+	
+	private ORUtil orUtil = new ORUtil();
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+	
+	private ResultSet createResultSet(Object[][] rows) {
+		return MockDatabase.createResultSet(new MockDatabase.Result(new String[]{"id", "amount", "created", "name"}, 
+				new int[]{Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.VARCHAR}, rows));
+	}
+	
+	private Row createPrototype() {
+		Row prototype = new Row();
+		prototype.setId(5);
+		prototype.setAmount(Integer.valueOf(6));
+		prototype.setCreated(new Date());
+		prototype.setName("prototype");
+		prototype.setNote("note");
+		return prototype;
+	}
+	
+	@Test
+	public void testReadRow() throws Exception {
+		Timestamp created = new Timestamp(1000L);
+		ResultSet rs = createResultSet(new Object[][]{{Integer.valueOf(1), Integer.valueOf(2), created, "a"}});
+		rs.next();
+		Row row = (Row) BeanConvertorManager.getReader(MappingPlan.getPlan(rs, Row.class)).readRow(rs, orUtil);
+		
+		Assert.assertEquals(1, row.getId());
+		Assert.assertEquals(Integer.valueOf(2), row.getAmount());
+		Assert.assertEquals(1000L, row.getCreated().getTime());
+		Assert.assertEquals("a", row.getName());
+	}
+	
+	@Test
+	public void testReadNullAsORUtil() throws Exception {
+		ResultSet rs = createResultSet(new Object[][]{{null, null, null, null}});
+		rs.next();
+		MappingPlan plan = MappingPlan.getPlan(rs, Row.class);
+		Row row = (Row) BeanConvertorManager.getReader(plan).readRow(rs, orUtil);
+		Row expected = (Row) orUtil.rs2Instance(rs, plan);
+		
+		Assert.assertEquals(expected.getId(), row.getId());
+		Assert.assertEquals(expected.getAmount(), row.getAmount());
+		Assert.assertEquals(expected.getCreated(), row.getCreated());
+		Assert.assertEquals(expected.getName(), row.getName());
+	}
+	
+	@Test
+	public void testDecodeRow() throws Exception {
+		ResultSet rs = createResultSet(new Object[][]{{Integer.valueOf(1), Integer.valueOf(2), new Timestamp(1000L), "a"}, {null, null, null, null}});
+		rs.next();
+		MappingPlan plan = MappingPlan.getPlan(rs, Row.class);
+		BeanReader reader = BeanConvertorManager.getReader(plan);
+		Row row = (Row) reader.decodeRow(orUtil.copyRow(rs, plan, null));
+		Assert.assertEquals(1, row.getId());
+		Assert.assertEquals(Integer.valueOf(2), row.getAmount());
+		Assert.assertEquals(1000L, row.getCreated().getTime());
+		Assert.assertEquals("a", row.getName());
+		
+		rs.next();
+		row = (Row) reader.decodeRow(orUtil.copyRow(rs, plan, null));
+		Row expected = (Row) orUtil.row2Instance(orUtil.copyRow(rs, plan, null), plan);
+		Assert.assertEquals(0, row.getId());
+		Assert.assertEquals(expected.getId(), row.getId());
+		Assert.assertEquals(expected.getAmount(), row.getAmount());
+		Assert.assertEquals(expected.getCreated(), row.getCreated());
+		Assert.assertNull(row.getName());
+	}
+
+	@Test
+	public void testCopyRowOverwritesNull() throws Exception {
+		ResultSet rs = createResultSet(new Object[][]{{null, null, null, null}});
+		rs.next();
+		Row prototype = createPrototype();
+		Row row = (Row) BeanConvertorManager.getPrototypeReader(MappingPlan.getPlan(rs, Row.class)).copyRow(rs, orUtil, prototype);
+		
+		Assert.assertTrue(prototype != row);
+		Assert.assertEquals(0, row.getId());
+		Assert.assertEquals(Integer.valueOf(0), row.getAmount());
+		Assert.assertNull(row.getCreated());
+		Assert.assertNull(row.getName());
+		Assert.assertEquals("note", row.getNote());
+		Assert.assertEquals(5, prototype.getId());
+	}
+}
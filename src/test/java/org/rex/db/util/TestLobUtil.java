@@ -0,0 +1,87 @@
+package org.rex.db.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class TestLobUtil {
+	
+	/**
+	 * Returns a statement that records the streams bound by setBinaryStream, as the arguments.
+	 */
+	private PreparedStatement getStatement(final List<Object[]> bindings) {
+		return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), 
+				new Class[]{PreparedStatement.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if ("setBinaryStream".equals(method.getName()))
+					bindings.add(args);
+				return null;
+			}
+		});
+	}
+	
+	private File createFile(int length) throws IOException {
+		File file = File.createTempFile("rexdb", ".bin");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			for (int i = 0; i < length; i++)
+				out.write(i);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+	
+	private byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[100];
+		int count;
+		while ((count = in.read(buffer)) != -1)
+			out.write(buffer, 0, count);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testFileStreamed() throws IOException, SQLException {
+		File file = createFile(1000);
+		List<Object[]> bindings = new ArrayList<Object[]>();
+		LobUtil.setStream(getStatement(bindings), 1, file);
+		
+		Assert.assertEquals(1, bindings.size());
+		Assert.assertEquals(Integer.valueOf(1000), bindings.get(0)[2]);
+		
+		FileInputStream in = (FileInputStream) bindings.get(0)[1];
+		Assert.assertTrue(in.getChannel().isOpen());
+		byte[] bytes = read(in);
+		Assert.assertEquals(1000, bytes.length);
+		Assert.assertEquals((byte) 999, bytes[999]);
+		Assert.assertFalse(in.getChannel().isOpen());
+		file.delete();
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException, SQLException {
+		File file = createFile(0);
+		List<Object[]> bindings = new ArrayList<Object[]>();
+		LobUtil.setStream(getStatement(bindings), 1, file);
+		
+		Assert.assertEquals(Integer.valueOf(0), bindings.get(0)[2]);
+		Assert.assertEquals(-1, ((InputStream) bindings.get(0)[1]).read());
+		file.delete();
+	}
+}
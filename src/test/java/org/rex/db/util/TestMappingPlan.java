@@ -0,0 +1,68 @@
+package org.rex.db.util;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rex.RMap;
+import org.rex.db.MockDatabase;
+
+import junit.framework.Assert;
+
+public class TestMappingPlan {
+	
+	public static class Row {
+		private int id;
+		private String userName;
+		
+		public int getId() {
+			return id;
+		}
+		public void setId(int id) {
+			this.id = id;
+		}
+		public String getUserName() {
+			return userName;
+		}
+		public void setUserName(String userName) {
+			this.userName = userName;
+		}
+	}
+	
+	private static ResultSet createResultSet(String[] labels, int[] types) {
+		return MockDatabase.createResultSet(new MockDatabase.Result(labels, types, new Object[][]{{7, "rex"}}));
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		MockDatabase.configure();
+	}
+
+	@Test
+	public void testCachedPerShape() throws Exception {
+		String[] labels = new String[]{"ID", "USER_NAME"};
+		int[] types = new int[]{Types.INTEGER, Types.VARCHAR};
+		MappingPlan plan = MappingPlan.getPlan(createResultSet(labels, types), Row.class);
+		Assert.assertTrue(plan == MappingPlan.getPlan(createResultSet(labels, types), Row.class));
+		
+		Assert.assertTrue(plan != MappingPlan.getPlan(createResultSet(labels, types), null));
+		Assert.assertTrue(plan != MappingPlan.getPlan(createResultSet(labels, new int[]{Types.BIGINT, Types.VARCHAR}), Row.class));
+		Assert.assertTrue(plan != MappingPlan.getPlan(createResultSet(new String[]{"USER_NAME", "ID"}, types), Row.class));
+		Assert.assertEquals("userName", plan.getLabelsRenamed()[1]);
+	}
+
+	@Test
+	public void testReadByPlan() throws Exception {
+		ResultSet rs = createResultSet(new String[]{"ID", "USER_NAME"}, new int[]{Types.INTEGER, Types.VARCHAR});
+		rs.next();
+		ORUtil orUtil = new ORUtil();
+		Row row = (Row) orUtil.rs2Instance(rs, MappingPlan.getPlan(rs, Row.class));
+		Assert.assertEquals(7, row.getId());
+		Assert.assertEquals("rex", row.getUserName());
+		
+		RMap<String, ?> map = orUtil.rs2Map(rs);
+		Assert.assertEquals(Integer.valueOf(7), map.get("id"));
+		Assert.assertEquals("rex", map.get("userName"));
+	}
+}
@@ -0,0 +1,71 @@
+package org.rex.db.util;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+import org.rex.db.exception.DBException;
+
+import junit.framework.Assert;
+
+public class TestSpillFile {
+	
+	private static Object[] row(int i) {
+		StringBuffer name = new StringBuffer("row-").append(i);
+		for (int j = 0; j < i % 7; j++)
+			name.append('中');
+		return new Object[]{Integer.valueOf(i), name.toString(), new BigDecimal(i + ".25"), new Timestamp(1000L * i), i % 3 == 0 ? null : Boolean.TRUE};
+	}
+	
+	private static void assertRow(int i, Object[] row) {
+		Object[] expected = row(i);
+		for (int j = 0; j < expected.length; j++)
+			Assert.assertEquals(expected[j], row[j]);
+	}
+
+	@Test
+	public void testReadAcrossWindows() throws Exception {
+		SpillFile file = new SpillFile(null, 5, 64);
+		try {
+			for (int i = 0; i < 200; i++)
+				file.append(row(i));
+			Assert.assertEquals(200, file.getRowCount());
+			
+			for (int i = 0; i < 200; i++)
+				assertRow(i, file.read(i));
+			for (int i = 199; i >= 0; i -= 3)
+				assertRow(i, file.read(i));
+		} finally {
+			file.close();
+		}
+		Assert.assertFalse(file.getFile().exists());
+	}
+
+	@Test
+	public void testReadWhileAppending() throws Exception {
+		SpillFile file = new SpillFile(null, 5, 1024);
+		try {
+			for (int i = 0; i < 100; i++) {
+				file.append(row(i));
+				assertRow(i, file.read(i));
+				assertRow(i / 2, file.read(i / 2));
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	@Test
+	public void testReadClosed() throws Exception {
+		SpillFile file = new SpillFile(null, 5);
+		file.append(row(1));
+		assertRow(1, file.read(0));
+		file.close();
+		try {
+			file.read(0);
+			Assert.fail("closed file should not be read");
+		} catch (DBException e) {
+			Assert.assertTrue(e.getMessage().indexOf("DB-USP04") != -1);
+		}
+	}
+}